@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.knx.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXFormatException;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class GroupAddressListenerIndexTest {
+
+    private GroupAddressListenerIndex index;
+    private GroupAddress ga1;
+    private GroupAddress ga2;
+    private GroupAddress ga3;
+
+    @Before
+    public void setup() throws KNXFormatException {
+        index = new GroupAddressListenerIndex();
+        ga1 = new GroupAddress("1/2/3");
+        ga2 = new GroupAddress("1/2/4");
+        ga3 = new GroupAddress("1/2/5");
+    }
+
+    private GroupAddressListener listener(GroupAddress... addresses) {
+        GroupAddressListener listener = mock(GroupAddressListener.class);
+        when(listener.getGroupAddresses()).thenReturn(new HashSet<>(Arrays.asList(addresses)));
+        return listener;
+    }
+
+    @Test
+    public void testLookup() {
+        GroupAddressListener listener1 = listener(ga1, ga2);
+        GroupAddressListener listener2 = listener(ga2);
+        assertTrue(index.add(listener1));
+        assertTrue(index.add(listener2));
+
+        assertEquals(Collections.singletonList(listener1), index.getListeners(ga1));
+        assertEquals(new HashSet<>(Arrays.asList(listener1, listener2)), new HashSet<>(index.getListeners(ga2)));
+        assertTrue(index.getListeners(ga3).isEmpty());
+        verify(listener1, never()).listensTo(any());
+    }
+
+    @Test
+    public void testReRegisterUpdatesAddresses() {
+        GroupAddressListener listener = listener(ga1);
+        assertTrue(index.add(listener));
+
+        when(listener.getGroupAddresses()).thenReturn(Collections.singleton(ga3));
+        assertFalse(index.add(listener));
+
+        assertTrue(index.getListeners(ga1).isEmpty());
+        assertEquals(Collections.singletonList(listener), index.getListeners(ga3));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testRemove() {
+        GroupAddressListener listener = listener(ga1);
+        index.add(listener);
+        assertTrue(index.remove(listener));
+        assertFalse(index.remove(listener));
+        assertTrue(index.getListeners(ga1).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testUnindexedListener() {
+        GroupAddressListener listener = mock(GroupAddressListener.class);
+        when(listener.getGroupAddresses()).thenReturn(null);
+        when(listener.listensTo(ga2)).thenReturn(true);
+        GroupAddressListener indexed = listener(ga2);
+        index.add(listener);
+        index.add(indexed);
+
+        assertTrue(index.getListeners(ga1).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList(listener, indexed)), new HashSet<>(index.getListeners(ga2)));
+
+        index.remove(listener);
+        assertEquals(Collections.singletonList(indexed), index.getListeners(ga2));
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXFormatException;
+import tuwien.auto.calimero.datapoint.CommandDP;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class ReadDatapointQueueTest {
+
+    private static ReadDatapoint read(String address, boolean priority) throws KNXFormatException {
+        return new ReadDatapoint(new CommandDP(new GroupAddress(address), "test", 0, "1.001"), 3, priority);
+    }
+
+    private static String next(ReadDatapointQueue queue) {
+        ReadDatapoint datapoint = queue.poll();
+        assertNotNull(datapoint);
+        return datapoint.getDatapoint().getMainAddress().toString();
+    }
+
+    @Test
+    public void testDuplicatesIgnored() throws KNXFormatException {
+        ReadDatapointQueue queue = new ReadDatapointQueue();
+        assertTrue(queue.add(read("1/1/1", false)));
+        assertTrue(queue.add(read("1/1/2", false)));
+        assertFalse(queue.add(read("1/1/1", false)));
+        assertEquals(2, queue.size());
+
+        assertEquals("1/1/1", next(queue));
+        assertEquals("1/1/2", next(queue));
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testPriorityReadsFirst() throws KNXFormatException {
+        ReadDatapointQueue queue = new ReadDatapointQueue();
+        queue.add(read("1/1/1", false));
+        queue.add(read("1/1/2", false));
+        queue.add(read("1/1/3", true));
+        // promoted to priority
+        assertTrue(queue.add(read("1/1/2", true)));
+        assertFalse(queue.add(read("1/1/2", false)));
+        assertEquals(3, queue.size());
+
+        assertEquals("1/1/3", next(queue));
+        assertEquals("1/1/2", next(queue));
+        assertEquals("1/1/1", next(queue));
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class ReadRateLimiterTest {
+
+    @Test
+    public void testBurstAndRefill() {
+        AtomicLong clock = new AtomicLong();
+        ReadRateLimiter limiter = new ReadRateLimiter(100, 0, clock::get);
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        clock.addAndGet(100_000_000L);
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        // tokens are capped after a long idle period
+        clock.addAndGet(10_000_000_000L);
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        assertEquals(5, acquired);
+    }
+
+    @Test
+    public void testAdaptsToLatency() {
+        AtomicLong clock = new AtomicLong();
+        ReadRateLimiter limiter = new ReadRateLimiter(100, 0, clock::get);
+        assertEquals(10.0, limiter.getRate(), 0.001);
+
+        limiter.onResponse(ReadRateLimiter.LATENCY_TARGET_MILLIS + 1);
+        assertEquals(5.0, limiter.getRate(), 0.001);
+        limiter.onFailure();
+        assertEquals(2.5, limiter.getRate(), 0.001);
+        for (int i = 0; i < 10; i++) {
+            limiter.onFailure();
+        }
+        assertEquals(1.0, limiter.getRate(), 0.001);
+
+        limiter.onResponse(10);
+        assertEquals(2.0, limiter.getRate(), 0.001);
+        for (int i = 0; i < 20; i++) {
+            limiter.onResponse(10);
+        }
+        assertEquals(10.0, limiter.getRate(), 0.001);
+    }
+
+    @Test
+    public void testRisesToMaxReadRate() {
+        AtomicLong clock = new AtomicLong();
+        ReadRateLimiter limiter = new ReadRateLimiter(100, 50, clock::get);
+        assertEquals(10.0, limiter.getRate(), 0.001);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onResponse(10);
+        }
+        assertEquals(50.0, limiter.getRate(), 0.001);
+
+        limiter.onFailure();
+        assertEquals(25.0, limiter.getRate(), 0.001);
+    }
+
+    @Test
+    public void testThroughputAboveReadingPause() {
+        AtomicLong clock = new AtomicLong();
+        ReadRateLimiter limiter = new ReadRateLimiter(100, 50, clock::get);
+
+        // a job running every reading pause for 10 seconds, reading while tokens are available
+        int reads = 0;
+        for (int tick = 0; tick < 100; tick++) {
+            while (limiter.tryAcquire()) {
+                limiter.onResponse(10);
+                reads++;
+            }
+            clock.addAndGet(100_000_000L);
+        }
+
+        // one read per reading pause would have been 100 reads
+        assertTrue("Only " + reads + " reads", reads > 400);
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.dpt;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.junit.Before;
+import org.junit.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+import tuwien.auto.calimero.dptxlator.DPT;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class DPTCodecTableTest {
+
+    private KNXCoreTypeMapper mapper;
+    private DPTCodecTable codecTable;
+
+    @Before
+    public void setup() {
+        mapper = new KNXCoreTypeMapper();
+        codecTable = new DPTCodecTable(mapper::toTypeClass);
+    }
+
+    private void assertSameAsTranslator(String dptId, byte[] data) {
+        Datapoint datapoint = new CommandDP(new GroupAddress(1, 2, 3), "test", 0, dptId);
+        DPTCodecTable.Decoder decoder = codecTable.getDecoder(dptId);
+        assertNotNull("no decoder for " + dptId, decoder);
+        assertEquals(dptId, mapper.toTypeWithTranslator(datapoint, data), decoder.decode(data));
+        assertEquals(dptId, mapper.toTypeWithTranslator(datapoint, data), mapper.toType(datapoint, data));
+    }
+
+    private Map<String, DPT> subTypes(int mainNumber) throws KNXException {
+        return TranslatorTypes.createTranslator(mainNumber, null).getSubTypes();
+    }
+
+    @Test
+    public void testBooleanAndUnsigned8() throws KNXException {
+        for (int mainNumber : new int[] { 1, 5 }) {
+            for (String dptId : subTypes(mainNumber).keySet()) {
+                for (int i = 0; i < 256; i++) {
+                    assertSameAsTranslator(dptId, new byte[] { (byte) i });
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTwoBytes() throws KNXException {
+        for (int mainNumber : new int[] { 7, 9 }) {
+            for (String dptId : subTypes(mainNumber).keySet()) {
+                for (int i = 0; i < 0x10000; i += 7) {
+                    assertSameAsTranslator(dptId, new byte[] { (byte) (i >> 8), (byte) i });
+                }
+                assertSameAsTranslator(dptId, new byte[] { (byte) 0xff, (byte) 0xff });
+            }
+        }
+    }
+
+    @Test
+    public void testFourBytes() throws KNXException {
+        Random random = new Random(42);
+        for (int mainNumber : new int[] { 13, 14 }) {
+            for (String dptId : subTypes(mainNumber).keySet()) {
+                assertSameAsTranslator(dptId, new byte[] { 0, 0, 0, 0 });
+                assertSameAsTranslator(dptId, new byte[] { (byte) 0x80, 0, 0, 0 });
+                assertSameAsTranslator(dptId, new byte[] { 0x7f, 0x7f, (byte) 0xff, (byte) 0xff });
+                for (int i = 0; i < 1000; i++) {
+                    byte[] data = new byte[4];
+                    random.nextBytes(data);
+                    if (mainNumber == 14) {
+                        // the translator rejects NaN and infinity
+                        float value = Float.intBitsToFloat(random.nextInt());
+                        int bits = Float.floatToIntBits(Float.isNaN(value) || Float.isInfinite(value) ? 0 : value);
+                        data = new byte[] { (byte) (bits >> 24), (byte) (bits >> 16), (byte) (bits >> 8),
+                                (byte) bits };
+                    }
+                    assertSameAsTranslator(dptId, data);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTypes() {
+        Datapoint datapoint = new CommandDP(new GroupAddress(1, 2, 3), "test", 0, "9.001");
+        assertEquals(new DecimalType("21.5"), mapper.toType(datapoint, new byte[] { 0x0c, 0x33 }));
+        assertEquals(new DecimalType("-0.5"), mapper.toType(datapoint, new byte[] { (byte) 0x87, (byte) 0xce }));
+        datapoint = new CommandDP(new GroupAddress(1, 2, 3), "test", 0, "5.001");
+        assertEquals(new PercentType(100), mapper.toType(datapoint, new byte[] { (byte) 0xff }));
+        datapoint = new CommandDP(new GroupAddress(1, 2, 3), "test", 0, "1.008");
+        assertEquals(UpDownType.DOWN, mapper.toType(datapoint, new byte[] { 0x01 }));
+    }
+
+    @Test
+    public void testShortDataFallsBack() {
+        assertNull(codecTable.getDecoder("9.001").decode(new byte[] { 0x0c }));
+        Datapoint datapoint = new CommandDP(new GroupAddress(1, 2, 3), "test", 0, "9.001");
+        assertNull(mapper.toType(datapoint, new byte[] { 0x0c }));
+    }
+}
@@ -59,6 +59,8 @@ public interface KNXClient {
     /**
      * Register the given listener to be informed on KNX bus traffic.
      *
+     * Registering an already registered listener updates the group addresses it listens to.
+     *
      * @param listener the listener
      * @return {@code true} if it wasn't registered before
      */
@@ -79,6 +81,17 @@ public interface KNXClient {
      */
     void readDatapoint(Datapoint datapoint);
 
+    /**
+     * Schedule the given data point for asynchronous reading.
+     *
+     * Reads for a group address which is already queued are ignored. Priority reads, e.g. for REFRESH commands, are
+     * sent before the other queued reads.
+     *
+     * @param datapoint the datapoint
+     * @param priority whether to read before the other queued datapoints
+     */
+    void readDatapoint(Datapoint datapoint, boolean priority);
+
     /**
      * Write a command to the KNX bus.
      *
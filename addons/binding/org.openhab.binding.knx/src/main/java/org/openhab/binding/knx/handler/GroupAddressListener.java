@@ -8,7 +8,10 @@
  */
 package org.openhab.binding.knx.handler;
 
+import java.util.Set;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.knx.internal.client.BusMessageListener;
 
 import tuwien.auto.calimero.GroupAddress;
@@ -30,4 +33,18 @@ public interface GroupAddressListener extends BusMessageListener {
      */
     public boolean listensTo(GroupAddress destination);
 
+    /**
+     * Returns all the GroupAddresses the GroupAddressListener has an interest in. The client uses these to look up the
+     * listeners of a telegram without calling {@link #listensTo(GroupAddress)} on every listener.
+     *
+     * The addresses are read when the listener is registered, so the listener should register again after its
+     * addresses change.
+     *
+     * @return the GroupAddresses, or null if they cannot be enumerated, in which case
+     *         {@link #listensTo(GroupAddress)} is called for every telegram
+     */
+    public default @Nullable Set<GroupAddress> getGroupAddresses() {
+        return null;
+    }
+
 }
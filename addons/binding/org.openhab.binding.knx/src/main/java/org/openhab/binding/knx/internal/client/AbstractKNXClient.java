@@ -8,9 +8,7 @@
  */
 package org.openhab.binding.knx.internal.client;
 
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -75,6 +73,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private final int readRetriesLimit;
     private final StatusUpdateCallback statusUpdateCallback;
     private final ScheduledExecutorService knxScheduler;
+    private final ReadRateLimiter readRateLimiter;
 
     private @Nullable ProcessCommunicator processCommunicator;
     private @Nullable ProcessCommunicationResponder responseCommunicator;
@@ -85,8 +84,8 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private @Nullable ScheduledFuture<?> busJob;
     private @Nullable ScheduledFuture<?> connectJob;
 
-    private final Set<GroupAddressListener> groupAddressListeners = new CopyOnWriteArraySet<>();
-    private final LinkedBlockingQueue<ReadDatapoint> readDatapoints = new LinkedBlockingQueue<>();
+    private final GroupAddressListenerIndex groupAddressListeners = new GroupAddressListenerIndex();
+    private final ReadDatapointQueue readDatapoints = new ReadDatapointQueue();
 
     @FunctionalInterface
     private interface ListenerNotification {
@@ -124,7 +123,8 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     };
 
     public AbstractKNXClient(int autoReconnectPeriod, ThingUID thingUID, int responseTimeout, int readingPause,
-            int readRetriesLimit, ScheduledExecutorService knxScheduler, StatusUpdateCallback statusUpdateCallback) {
+            int maxReadRate, int readRetriesLimit, ScheduledExecutorService knxScheduler,
+            StatusUpdateCallback statusUpdateCallback) {
         this.autoReconnectPeriod = autoReconnectPeriod;
         this.thingUID = thingUID;
         this.responseTimeout = responseTimeout;
@@ -132,6 +132,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         this.readRetriesLimit = readRetriesLimit;
         this.knxScheduler = knxScheduler;
         this.statusUpdateCallback = statusUpdateCallback;
+        this.readRateLimiter = new ReadRateLimiter(readingPause, maxReadRate);
     }
 
     public void initialize() {
@@ -196,7 +197,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
             link.addLinkListener(this);
 
-            busJob = knxScheduler.scheduleWithFixedDelay(() -> readNextQueuedDatapoint(), 0, readingPause,
+            busJob = knxScheduler.scheduleWithFixedDelay(() -> readQueuedDatapoints(), 0, readingPause,
                     TimeUnit.MILLISECONDS);
 
             statusUpdateCallback.updateStatus(ThingStatus.ONLINE);
@@ -249,11 +250,21 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         IndividualAddress source = event.getSourceAddr();
         byte[] asdu = event.getASDU();
         logger.trace("Received a {} telegram from '{}' to '{}'", task, source, destination);
-        for (GroupAddressListener listener : groupAddressListeners) {
-            if (listener.listensTo(destination)) {
-                knxScheduler.schedule(() -> action.apply(listener, source, destination, asdu), 0, TimeUnit.SECONDS);
-            }
+        List<GroupAddressListener> listeners = groupAddressListeners.getListeners(destination);
+        if (listeners.isEmpty()) {
+            return;
         }
+        // Notify all the listeners of the telegram in one task
+        knxScheduler.execute(() -> {
+            for (GroupAddressListener listener : listeners) {
+                try {
+                    action.apply(listener, source, destination, asdu);
+                } catch (RuntimeException e) {
+                    logger.warn("Error processing a {} telegram to '{}' by {}: {}", task, destination, listener,
+                            e.getMessage(), e);
+                }
+            }
+        });
     }
 
     /**
@@ -268,21 +279,41 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         return typeHelper.toDPTValue(type, dpt);
     }
 
-    private void readNextQueuedDatapoint() {
+    /**
+     * Send the queued read requests as far as the rate limiter permits
+     */
+    private void readQueuedDatapoints() {
         if (!connectIfNotAutomatic()) {
             return;
         }
+        while (!readDatapoints.isEmpty() && readRateLimiter.tryAcquire()) {
+            if (!readNextQueuedDatapoint()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Send the next queued read request
+     *
+     * @return false if reading should be stopped
+     */
+    private boolean readNextQueuedDatapoint() {
         ProcessCommunicator processCommunicator = this.processCommunicator;
         if (processCommunicator == null) {
-            return;
+            return false;
         }
         ReadDatapoint datapoint = readDatapoints.poll();
         if (datapoint != null) {
             datapoint.incrementRetries();
+            long start = System.currentTimeMillis();
             try {
                 logger.trace("Sending a Group Read Request telegram for {}", datapoint.getDatapoint().getMainAddress());
                 processCommunicator.read(datapoint.getDatapoint());
+                readRateLimiter.onResponse(System.currentTimeMillis() - start);
             } catch (KNXException e) {
+                readRateLimiter.onFailure();
+                logger.trace("Read rate reduced to {} requests per second", readRateLimiter.getRate());
                 if (datapoint.getRetries() < datapoint.getLimit()) {
                     readDatapoints.add(datapoint);
                     logger.debug("Could not read value for datapoint {}: {}. Going to retry.",
@@ -293,9 +324,11 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
                 }
             } catch (InterruptedException e) {
                 logger.debug("Interrupted sending KNX read request");
-                return;
+                Thread.currentThread().interrupt();
+                return false;
             }
         }
+        return true;
     }
 
     public void dispose() {
@@ -363,11 +396,13 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
     @Override
     public void readDatapoint(Datapoint datapoint) {
-        synchronized (this) {
-            ReadDatapoint retryDatapoint = new ReadDatapoint(datapoint, readRetriesLimit);
-            if (!readDatapoints.contains(retryDatapoint)) {
-                readDatapoints.add(retryDatapoint);
-            }
+        readDatapoint(datapoint, false);
+    }
+
+    @Override
+    public void readDatapoint(Datapoint datapoint, boolean priority) {
+        if (!readDatapoints.add(new ReadDatapoint(datapoint, readRetriesLimit, priority))) {
+            logger.trace("Read of {} is queued already", datapoint.getMainAddress());
         }
     }
 
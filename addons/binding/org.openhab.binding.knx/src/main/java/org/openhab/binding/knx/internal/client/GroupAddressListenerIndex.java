@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.knx.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Registry of {@link GroupAddressListener}s, indexed by the {@link GroupAddress}es they listen to.
+ *
+ * Looking up the listeners of a telegram is a single map lookup for listeners enumerating their addresses. Listeners
+ * which do not enumerate their addresses are asked individually using {@link GroupAddressListener#listensTo}.
+ *
+ * Lookups are lock-free, modifications are serialized.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class GroupAddressListenerIndex {
+
+    private final Map<GroupAddress, Set<GroupAddressListener>> listenersByAddress = new ConcurrentHashMap<>();
+    private final Map<GroupAddressListener, Set<GroupAddress>> addressesByListener = new HashMap<>();
+    private final Set<GroupAddressListener> unindexedListeners = new CopyOnWriteArraySet<>();
+
+    /**
+     * Add listener to the index. Registering the same listener again updates its addresses.
+     *
+     * @param listener listener to add
+     * @return true if the listener was not registered before
+     */
+    public synchronized boolean add(GroupAddressListener listener) {
+        boolean added = !removeFromIndex(listener);
+        Set<GroupAddress> addresses = listener.getGroupAddresses();
+        if (addresses == null) {
+            unindexedListeners.add(listener);
+            addressesByListener.put(listener, Collections.emptySet());
+        } else {
+            Set<GroupAddress> copy = Collections.unmodifiableSet(new HashSet<>(addresses));
+            for (GroupAddress address : copy) {
+                listenersByAddress.computeIfAbsent(address, key -> new CopyOnWriteArraySet<>()).add(listener);
+            }
+            addressesByListener.put(listener, copy);
+        }
+        return added;
+    }
+
+    /**
+     * Remove listener from the index
+     *
+     * @param listener listener to remove
+     * @return true if the listener was registered
+     */
+    public synchronized boolean remove(GroupAddressListener listener) {
+        return removeFromIndex(listener);
+    }
+
+    private boolean removeFromIndex(GroupAddressListener listener) {
+        Set<GroupAddress> addresses = addressesByListener.remove(listener);
+        if (addresses == null) {
+            return false;
+        }
+        unindexedListeners.remove(listener);
+        for (GroupAddress address : addresses) {
+            Set<GroupAddressListener> listeners = listenersByAddress.get(address);
+            if (listeners != null) {
+                listeners.remove(listener);
+                if (listeners.isEmpty()) {
+                    listenersByAddress.remove(address);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the listeners interested in the given destination
+     *
+     * @param destination destination of a telegram
+     * @return listeners of the destination, possibly empty
+     */
+    public List<GroupAddressListener> getListeners(GroupAddress destination) {
+        @Nullable
+        Set<GroupAddressListener> indexed = listenersByAddress.get(destination);
+        List<GroupAddressListener> listeners = indexed == null ? new ArrayList<>(unindexedListeners.size())
+                : new ArrayList<>(indexed);
+        for (GroupAddressListener listener : unindexedListeners) {
+            if (listener.listensTo(destination)) {
+                listeners.add(listener);
+            }
+        }
+        return listeners;
+    }
+
+    /**
+     * Get the number of registered listeners
+     *
+     * @return number of listeners
+     */
+    public synchronized int size() {
+        return addressesByListener.size();
+    }
+}
@@ -58,10 +58,10 @@ public class IPClient extends AbstractKNXClient {
 
     public IPClient(int ipConnectionType, String ip, String localSource, int port,
             @Nullable InetSocketAddress localEndPoint, boolean useNAT, int autoReconnectPeriod, ThingUID thingUID,
-            int responseTimeout, int readingPause, int readRetriesLimit, ScheduledExecutorService knxScheduler,
-            StatusUpdateCallback statusUpdateCallback) {
-        super(autoReconnectPeriod, thingUID, responseTimeout, readingPause, readRetriesLimit, knxScheduler,
-                statusUpdateCallback);
+            int responseTimeout, int readingPause, int maxReadRate, int readRetriesLimit,
+            ScheduledExecutorService knxScheduler, StatusUpdateCallback statusUpdateCallback) {
+        super(autoReconnectPeriod, thingUID, responseTimeout, readingPause, maxReadRate, readRetriesLimit,
+                knxScheduler, statusUpdateCallback);
         this.ipConnectionType = ipConnectionType;
         this.ip = ip;
         this.localSource = localSource;
@@ -20,11 +20,17 @@ public class ReadDatapoint {
     private final Datapoint datapoint;
     private int retries;
     private final int limit;
+    private final boolean priority;
 
     public ReadDatapoint(Datapoint datapoint, int limit) {
+        this(datapoint, limit, false);
+    }
+
+    public ReadDatapoint(Datapoint datapoint, int limit, boolean priority) {
         this.datapoint = datapoint;
         this.retries = 0;
         this.limit = limit;
+        this.priority = priority;
     }
 
     public Datapoint getDatapoint() {
@@ -43,6 +49,10 @@ public class ReadDatapoint {
         return limit;
     }
 
+    public boolean isPriority() {
+        return priority;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Queue of datapoints to be read from the KNX bus.
+ *
+ * Each group address is queued at most once. Priority reads are taken before the other reads, otherwise the reads
+ * are taken in the order they were queued.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadDatapointQueue {
+
+    private final Map<GroupAddress, ReadDatapoint> priorityReads = new LinkedHashMap<>();
+    private final Map<GroupAddress, ReadDatapoint> reads = new LinkedHashMap<>();
+
+    /**
+     * Queue the datapoint, unless its group address is queued already. A priority read replaces a normal read of the
+     * same group address.
+     *
+     * @param datapoint the datapoint to read
+     * @return true if the datapoint was queued
+     */
+    public synchronized boolean add(ReadDatapoint datapoint) {
+        GroupAddress address = datapoint.getDatapoint().getMainAddress();
+        if (priorityReads.containsKey(address)) {
+            return false;
+        }
+        if (datapoint.isPriority()) {
+            reads.remove(address);
+            priorityReads.put(address, datapoint);
+            return true;
+        }
+        if (reads.containsKey(address)) {
+            return false;
+        }
+        reads.put(address, datapoint);
+        return true;
+    }
+
+    /**
+     * Take the next datapoint to read
+     *
+     * @return the datapoint, or null if the queue is empty
+     */
+    public synchronized @Nullable ReadDatapoint poll() {
+        ReadDatapoint datapoint = pollFirst(priorityReads);
+        return datapoint != null ? datapoint : pollFirst(reads);
+    }
+
+    private static @Nullable ReadDatapoint pollFirst(Map<GroupAddress, ReadDatapoint> queue) {
+        Iterator<ReadDatapoint> iterator = queue.values().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        ReadDatapoint datapoint = iterator.next();
+        iterator.remove();
+        return datapoint;
+    }
+
+    public synchronized boolean isEmpty() {
+        return priorityReads.isEmpty() && reads.isEmpty();
+    }
+
+    public synchronized int size() {
+        return priorityReads.size() + reads.size();
+    }
+
+    public synchronized void clear() {
+        priorityReads.clear();
+        reads.clear();
+    }
+}
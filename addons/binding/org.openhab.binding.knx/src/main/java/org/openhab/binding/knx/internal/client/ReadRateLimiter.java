@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Token bucket limiting the rate of read requests sent to the KNX bus.
+ *
+ * The rate starts at the rate given by the reading pause. Every timely answer increases the rate by a tenth of that
+ * rate, up to the configured maximum rate. When the bus answers slower than {@value #LATENCY_TARGET_MILLIS} ms or a
+ * read fails, the rate is halved. The bucket holds at least the tokens of one reading pause at the maximum rate, so
+ * that a job running every reading pause can send several read requests at once.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadRateLimiter {
+
+    static final long LATENCY_TARGET_MILLIS = 500;
+    private static final double MIN_READS_PER_SECOND = 1;
+    private static final double BURST = 5;
+
+    private final LongSupplier nanoClock;
+    private final double baseRate;
+    private final double maxRate;
+    private final double burst;
+    private double rate;
+    private double tokens = 1;
+    private long lastRefillNanos;
+
+    /**
+     * @param readingPause average pause between read requests in milliseconds to start with
+     * @param maxReadRate maximum number of read requests per second, the rate of the reading pause if lower
+     */
+    public ReadRateLimiter(int readingPause, int maxReadRate) {
+        this(readingPause, maxReadRate, System::nanoTime);
+    }
+
+    ReadRateLimiter(int readingPause, int maxReadRate, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.baseRate = Math.max(MIN_READS_PER_SECOND, 1000.0 / Math.max(1, readingPause));
+        this.maxRate = Math.max(baseRate, maxReadRate);
+        this.burst = Math.max(BURST, Math.ceil(maxRate * Math.max(1, readingPause) / 1000.0));
+        this.rate = baseRate;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Take a token for sending a read request
+     *
+     * @return true if the read request can be sent now
+     */
+    public synchronized boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * rate);
+        lastRefillNanos = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Adapt the rate to the latency of an answered read request
+     *
+     * @param latencyMillis time it took to receive the answer
+     */
+    public synchronized void onResponse(long latencyMillis) {
+        if (latencyMillis > LATENCY_TARGET_MILLIS) {
+            decrease();
+        } else {
+            rate = Math.min(maxRate, rate + baseRate / 10);
+        }
+    }
+
+    /**
+     * Slow down after a failed read request
+     */
+    public synchronized void onFailure() {
+        decrease();
+    }
+
+    private void decrease() {
+        rate = Math.max(MIN_READS_PER_SECOND, rate / 2);
+    }
+
+    /**
+     * @return current rate in read requests per second
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+}
@@ -37,10 +37,10 @@ public class SerialClient extends AbstractKNXClient {
     private final String serialPort;
 
     public SerialClient(int autoReconnectPeriod, ThingUID thingUID, int responseTimeout, int readingPause,
-            int readRetriesLimit, ScheduledExecutorService knxScheduler, String serialPort,
+            int maxReadRate, int readRetriesLimit, ScheduledExecutorService knxScheduler, String serialPort,
             StatusUpdateCallback statusUpdateCallback) {
-        super(autoReconnectPeriod, thingUID, responseTimeout, readingPause, readRetriesLimit, knxScheduler,
-                statusUpdateCallback);
+        super(autoReconnectPeriod, thingUID, responseTimeout, readingPause, maxReadRate, readRetriesLimit,
+                knxScheduler, statusUpdateCallback);
         this.serialPort = serialPort;
     }
 
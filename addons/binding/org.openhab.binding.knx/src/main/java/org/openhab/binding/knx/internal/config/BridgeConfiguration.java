@@ -22,6 +22,8 @@ public class BridgeConfiguration {
 
     private BigDecimal autoReconnectPeriod;
     private BigDecimal readingPause;
+    // not set for bridges configured before the parameter was introduced
+    private BigDecimal maxReadRate = BigDecimal.valueOf(40);
     private BigDecimal readRetriesLimit;
     private BigDecimal responseTimeout;
 
@@ -33,6 +35,10 @@ public class BridgeConfiguration {
         return readingPause;
     }
 
+    public BigDecimal getMaxReadRate() {
+        return maxReadRate;
+    }
+
     public BigDecimal getReadRetriesLimit() {
         return readRetriesLimit;
     }
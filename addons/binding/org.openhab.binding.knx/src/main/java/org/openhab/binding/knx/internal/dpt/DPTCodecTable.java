@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.dpt;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StopMoveType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.dptxlator.DPT;
+import tuwien.auto.calimero.dptxlator.DPTXlator2ByteUnsigned;
+import tuwien.auto.calimero.dptxlator.DPTXlator8BitUnsigned;
+import tuwien.auto.calimero.dptxlator.DPTXlatorBoolean;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes;
+
+/**
+ * Precompiled decoders converting the ASDU of the common numeric datapoint types directly into openHAB types,
+ * without creating a Calimero translator and without string conversions.
+ *
+ * Decoders exist for all sub types of the main types 1 (boolean), 5 (8-bit unsigned), 7 (2-byte unsigned),
+ * 9 (2-byte float), 13 (4-byte signed) and 14 (4-byte float). The results are identical to the ones of
+ * {@link KNXCoreTypeMapper} using the Calimero translators. Decoders return {@code null} for data they do not handle,
+ * e.g. a too short ASDU, in which case the translator based conversion has to be used.
+ *
+ * The 1-bit and 8-bit types are decoded by a table lookup, the other types are computed from the raw bytes.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+class DPTCodecTable {
+
+    @FunctionalInterface
+    interface Decoder {
+
+        /**
+         * Decode the ASDU of a telegram
+         *
+         * @param asdu the ASDU
+         * @return the openHAB type, or null if the data cannot be decoded by this decoder
+         */
+        @Nullable
+        Type decode(byte[] asdu);
+    }
+
+    private static final int[] MAIN_NUMBERS = { 1, 5, 7, 9, 13, 14 };
+
+    private final Logger logger = LoggerFactory.getLogger(DPTCodecTable.class);
+
+    private final Map<String, Decoder> decoders;
+
+    /**
+     * @param typeClasses provides the openHAB type class for a datapoint type id
+     */
+    DPTCodecTable(Function<String, @Nullable Class<? extends Type>> typeClasses) {
+        Map<String, Decoder> map = new HashMap<>();
+        for (int mainNumber : MAIN_NUMBERS) {
+            Map<String, DPT> subTypes;
+            try {
+                subTypes = TranslatorTypes.createTranslator(mainNumber, null).getSubTypes();
+            } catch (KNXException e) {
+                logger.warn("Failed creating a translator for main number {}, decoding it the slow way.", mainNumber,
+                        e);
+                continue;
+            }
+            for (DPT dpt : subTypes.values()) {
+                Decoder decoder = createDecoder(mainNumber, dpt, typeClasses.apply(dpt.getID()));
+                if (decoder != null) {
+                    map.put(dpt.getID(), decoder);
+                }
+            }
+        }
+        decoders = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Get the decoder of a datapoint type
+     *
+     * @param dptId the datapoint type id, such as "9.001"
+     * @return the decoder, or null if the datapoint type has no precompiled decoder
+     */
+    @Nullable
+    Decoder getDecoder(String dptId) {
+        return decoders.get(dptId);
+    }
+
+    private static @Nullable Decoder createDecoder(int mainNumber, DPT dpt,
+            @Nullable Class<? extends Type> typeClass) {
+        switch (mainNumber) {
+            case 1:
+                return lookup(1, new Type[] { toBooleanType(dpt, false), toBooleanType(dpt, true) }, 0x01);
+            case 5:
+                if (!isNumeric(typeClass)) {
+                    return null;
+                }
+                Type[] values = new Type[256];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = toNumericType(typeClass, toUnsigned8Value(dpt, i));
+                }
+                return lookup(1, values, 0xff);
+            case 7:
+                if (!isNumeric(typeClass)) {
+                    return null;
+                }
+                int factor = toUnsigned16Factor(dpt);
+                return asdu -> asdu.length < 2 ? null
+                        : toNumericType(typeClass, (double) (unsigned16(asdu) * factor));
+            case 9:
+                if (!isNumeric(typeClass)) {
+                    return null;
+                }
+                return asdu -> asdu.length < 2 ? null : toNumericType(typeClass, float16(asdu));
+            case 13:
+                if (!isNumeric(typeClass)) {
+                    return null;
+                }
+                return asdu -> asdu.length < 4 ? null : toNumericType(typeClass, (double) signed32(asdu));
+            case 14:
+                if (!isNumeric(typeClass)) {
+                    return null;
+                }
+                return asdu -> {
+                    if (asdu.length < 4) {
+                        return null;
+                    }
+                    float value = Float.intBitsToFloat(signed32(asdu));
+                    // leave NaN and infinity to the translator
+                    return Float.isNaN(value) || Float.isInfinite(value) ? null
+                            : toNumericType(typeClass, (double) value);
+                };
+            default:
+                return null;
+        }
+    }
+
+    private static Decoder lookup(int length, Type[] values, int mask) {
+        return asdu -> asdu.length < length ? null : values[asdu[0] & mask];
+    }
+
+    private static Type toBooleanType(DPT dpt, boolean value) {
+        if (dpt.equals(DPTXlatorBoolean.DPT_UPDOWN)) {
+            return value ? UpDownType.DOWN : UpDownType.UP;
+        } else if (dpt.equals(DPTXlatorBoolean.DPT_OPENCLOSE) || dpt.equals(DPTXlatorBoolean.DPT_WINDOW_DOOR)) {
+            return value ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+        } else if (dpt.equals(DPTXlatorBoolean.DPT_START)) {
+            return value ? StopMoveType.MOVE : StopMoveType.STOP;
+        } else if (dpt.equals(DPTXlatorBoolean.DPT_SCENE_AB)) {
+            return DecimalType.valueOf(value ? "1" : "0");
+        }
+        return value ? OnOffType.ON : OnOffType.OFF;
+    }
+
+    private static boolean isNumeric(@Nullable Class<? extends Type> typeClass) {
+        return PercentType.class.equals(typeClass) || DecimalType.class.equals(typeClass);
+    }
+
+    private static Type toNumericType(@Nullable Class<? extends Type> typeClass, double value) {
+        if (PercentType.class.equals(typeClass)) {
+            return new PercentType(BigDecimal.valueOf(Math.round(value)));
+        }
+        return new DecimalType(value);
+    }
+
+    private static double toUnsigned8Value(DPT dpt, int raw) {
+        if (dpt.equals(DPTXlator8BitUnsigned.DPT_SCALING)) {
+            return raw * 100.0 / 255;
+        } else if (dpt.equals(DPTXlator8BitUnsigned.DPT_ANGLE)) {
+            return raw * 360.0 / 255;
+        }
+        return raw;
+    }
+
+    private static int toUnsigned16Factor(DPT dpt) {
+        if (dpt.equals(DPTXlator2ByteUnsigned.DPT_TIMEPERIOD_10)) {
+            return 10;
+        } else if (dpt.equals(DPTXlator2ByteUnsigned.DPT_TIMEPERIOD_100)) {
+            return 100;
+        }
+        return 1;
+    }
+
+    private static int unsigned16(byte[] asdu) {
+        return (asdu[0] & 0xff) << 8 | asdu[1] & 0xff;
+    }
+
+    private static int signed32(byte[] asdu) {
+        return (asdu[0] & 0xff) << 24 | (asdu[1] & 0xff) << 16 | (asdu[2] & 0xff) << 8 | asdu[3] & 0xff;
+    }
+
+    /**
+     * KNX 2-byte float: sign bit, 4 bit exponent, 11 bit mantissa in two's complement, value = 0.01 * M * 2^E
+     */
+    private static double float16(byte[] asdu) {
+        int mantissa = ((asdu[0] & 0x80) << 24 | (asdu[0] & 0x07) << 28 | (asdu[1] & 0xff) << 20) >> 20;
+        int exponent = (asdu[0] & 0x78) >> 3;
+        return (1 << exponent) * mantissa * 0.01;
+    }
+}
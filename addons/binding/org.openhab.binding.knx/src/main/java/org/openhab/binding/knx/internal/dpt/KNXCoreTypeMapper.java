@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -103,6 +104,12 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     /** stores the default KNX DPT to use for each openHAB type */
     private final Map<Class<? extends Type>, String> defaultDptMap;
 
+    /** precompiled decoders for the common numeric datapoint types */
+    private final DPTCodecTable codecTable;
+
+    /** caches the Calimero DPT for each datapoint type id used in {@link #toDPTValue(Type, String)} */
+    private final Map<String, DPT> dptCache = new ConcurrentHashMap<>();
+
     public KNXCoreTypeMapper() {
 
         @SuppressWarnings("unused")
@@ -534,6 +541,8 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         defaultDptMap.put(DateTimeType.class, DPTXlatorTime.DPT_TIMEOFDAY.getID());
         defaultDptMap.put(StringType.class, DPTXlatorString.DPT_STRING_8859_1.getID());
         defaultDptMap.put(HSBType.class, DPTXlatorRGB.DPT_RGB.getID());
+
+        codecTable = new DPTCodecTable(this::toTypeClass);
     }
 
     @Override
@@ -546,11 +555,15 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
             return null;
         }
 
-        try {
-            DPTXlator translator = TranslatorTypes.createTranslator(mainNumber, dptID);
-            dpt = translator.getType();
-        } catch (KNXException e) {
-            return null;
+        dpt = dptCache.get(dptID);
+        if (dpt == null) {
+            try {
+                DPTXlator translator = TranslatorTypes.createTranslator(mainNumber, dptID);
+                dpt = translator.getType();
+            } catch (KNXException e) {
+                return null;
+            }
+            dptCache.put(dptID, dpt);
         }
 
         try {
@@ -615,6 +628,26 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
 
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
+        if (datapoint.getMainNumber() == 0 && datapoint.getDPT() != null) {
+            DPTCodecTable.Decoder decoder = codecTable.getDecoder(datapoint.getDPT());
+            if (decoder != null) {
+                Type type = decoder.decode(data);
+                if (type != null) {
+                    return type;
+                }
+            }
+        }
+        return toTypeWithTranslator(datapoint, data);
+    }
+
+    /**
+     * Converts the data using the Calimero translator of the datapoint type
+     *
+     * @param datapoint the datapoint
+     * @param data the ASDU
+     * @return the openHAB type, or null if the data couldn't be converted
+     */
+    Type toTypeWithTranslator(Datapoint datapoint, byte[] data) {
         try {
             DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
             translator.setData(data);
@@ -11,6 +11,7 @@ package org.openhab.binding.knx.internal.handler;
 import static org.openhab.binding.knx.KNXBindingConstants.*;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -65,7 +66,7 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
     private final Logger logger = LoggerFactory.getLogger(DeviceThingHandler.class);
 
     private final KNXTypeMapper typeHelper = new KNXCoreTypeMapper();
-    private final Set<GroupAddress> groupAddresses = new HashSet<>();
+    private volatile Set<GroupAddress> groupAddresses = Collections.emptySet();
     private final Map<GroupAddress, @Nullable ScheduledFuture<?>> readFutures = new HashMap<>();
     private final Map<ChannelUID, @Nullable ScheduledFuture<?>> channelFutures = new HashMap<>();
     private @Nullable IndividualAddress address;
@@ -77,18 +78,21 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
 
     @Override
     public void initialize() {
-        super.initialize();
         DeviceConfig config = getConfigAs(DeviceConfig.class);
         readInterval = config.getReadInterval().intValue();
+        // group addresses are needed when registering with the client
         initializeGroupAddresses();
+        super.initialize();
     }
 
     private void initializeGroupAddresses() {
+        Set<GroupAddress> groupAddresses = new HashSet<>();
         forAllChannels((selector, channelConfiguration) -> {
             groupAddresses.addAll(selector.getReadAddresses(channelConfiguration));
             groupAddresses.addAll(selector.getWriteAddresses(channelConfiguration));
             groupAddresses.addAll(selector.getListenAddresses(channelConfiguration));
         });
+        this.groupAddresses = Collections.unmodifiableSet(groupAddresses);
     }
 
     @Override
@@ -160,27 +164,37 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         }
     }
 
+    private void scheduleRefresh(KNXChannelType selector, Configuration configuration) throws KNXFormatException {
+        // explicitly requested reads take precedence over the periodic ones
+        List<InboundSpec> readSpecs = selector.getReadSpec(configuration);
+        for (InboundSpec readSpec : readSpecs) {
+            for (GroupAddress groupAddress : readSpec.getGroupAddresses()) {
+                getScheduler().submit(() -> readDatapoint(groupAddress, readSpec.getDPT(), true));
+            }
+        }
+    }
+
     private void scheduleReadJob(GroupAddress groupAddress, String dpt) {
         if (readInterval > 0) {
             ScheduledFuture<?> future = readFutures.get(groupAddress);
             if (future == null || future.isDone() || future.isCancelled()) {
-                future = getScheduler().scheduleWithFixedDelay(() -> readDatapoint(groupAddress, dpt), 0, readInterval,
-                        TimeUnit.SECONDS);
+                future = getScheduler().scheduleWithFixedDelay(() -> readDatapoint(groupAddress, dpt, false), 0,
+                        readInterval, TimeUnit.SECONDS);
                 readFutures.put(groupAddress, future);
             }
         } else {
-            getScheduler().submit(() -> readDatapoint(groupAddress, dpt));
+            getScheduler().submit(() -> readDatapoint(groupAddress, dpt, false));
         }
     }
 
-    private void readDatapoint(GroupAddress groupAddress, String dpt) {
+    private void readDatapoint(GroupAddress groupAddress, String dpt, boolean priority) {
         if (getClient().isConnected()) {
             if (!isDPTSupported(dpt)) {
                 logger.warn("DPT '{}' is not supported by the KNX binding", dpt);
                 return;
             }
             Datapoint datapoint = new CommandDP(groupAddress, getThing().getUID().toString(), 0, dpt);
-            getClient().readDatapoint(datapoint);
+            getClient().readDatapoint(datapoint, priority);
         }
     }
 
@@ -189,13 +203,18 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         return groupAddresses.contains(destination);
     }
 
+    @Override
+    public Set<GroupAddress> getGroupAddresses() {
+        return groupAddresses;
+    }
+
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
         logger.trace("Handling command '{}' for channel '{}'", command, channelUID);
         if (command instanceof RefreshType && !isControl(channelUID)) {
             logger.debug("Refreshing channel '{}'", channelUID);
             withKNXType(channelUID, (selector, configuration) -> {
-                scheduleRead(selector, configuration);
+                scheduleRefresh(selector, configuration);
             });
         } else {
             switch (channelUID.getId()) {
@@ -90,7 +90,8 @@ public class IPBridgeThingHandler extends KNXBridgeBaseThingHandler {
         updateStatus(ThingStatus.UNKNOWN);
         client = new IPClient(ipConnectionType, ip, localSource, port, localEndPoint, useNAT,
                 config.getAutoReconnectPeriod().intValue(), thing.getUID(), config.getResponseTimeout().intValue(),
-                config.getReadingPause().intValue(), config.getReadRetriesLimit().intValue(), getScheduler(), this);
+                config.getReadingPause().intValue(), config.getMaxReadRate().intValue(),
+                config.getReadRetriesLimit().intValue(), getScheduler(), this);
 
         client.initialize();
     }
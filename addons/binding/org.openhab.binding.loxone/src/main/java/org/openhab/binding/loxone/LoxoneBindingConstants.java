@@ -47,4 +47,8 @@ public class LoxoneBindingConstants {
     // Location as configured on the Miniserver - it may be different to the Thing location property, which is user
     // defined and influences the grouping of items in the UI
     public static final String MINISERVER_PROPERTY_PHYSICAL_LOCATION = "physicalLocation";
+
+    // Statistics of processing state updates received from the Miniserver
+    public static final String MINISERVER_PROPERTY_EVENT_QUEUE_DEPTH = "eventQueueDepth";
+    public static final String MINISERVER_PROPERTY_COALESCED_STATE_UPDATES = "coalescedStateUpdates";
 }
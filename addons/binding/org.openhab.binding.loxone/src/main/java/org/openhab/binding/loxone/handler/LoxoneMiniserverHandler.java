@@ -23,6 +23,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.eclipse.smarthome.config.core.Configuration;
@@ -82,7 +84,10 @@ public class LoxoneMiniserverHandler extends BaseThingHandler implements LxServe
 
     public static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = Collections.singleton(THING_TYPE_MINISERVER);
 
+    private static final int STATISTICS_PERIOD = 60;
+
     private LxServer server;
+    private ScheduledFuture<?> statisticsJob;
 
     private ChannelTypeUID switchTypeId = new ChannelTypeUID(BINDING_ID, MINISERVER_CHANNEL_TYPE_SWITCH);
     private ChannelTypeUID lightCtrlTypeId = new ChannelTypeUID(BINDING_ID, MINISERVER_CHANNEL_TYPE_LIGHT_CTRL);
@@ -271,6 +276,8 @@ public class LoxoneMiniserverHandler extends BaseThingHandler implements LxServe
             server.update(cfg.firstConDelay, cfg.keepAlivePeriod, cfg.connectErrDelay, cfg.responseTimeout,
                     cfg.userErrorDelay, cfg.comErrorDelay, cfg.maxBinMsgSize, cfg.maxTextMsgSize);
             server.start();
+            statisticsJob = scheduler.scheduleWithFixedDelay(this::updateStatistics, STATISTICS_PERIOD,
+                    STATISTICS_PERIOD, TimeUnit.SECONDS);
         } catch (UnknownHostException e) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, "Unknown host");
         }
@@ -437,12 +444,28 @@ public class LoxoneMiniserverHandler extends BaseThingHandler implements LxServe
     public void dispose() {
         logger.debug("Disposing of server");
         dynamicStateDescriptionProvider.removeAllDescriptions();
+        if (statisticsJob != null) {
+            statisticsJob.cancel(true);
+            statisticsJob = null;
+        }
         if (server != null) {
             server.stop();
             server = null;
         }
     }
 
+    /**
+     * Publish statistics of the event processing of the Miniserver as thing properties
+     */
+    private void updateStatistics() {
+        LxServer server = this.server;
+        if (server != null) {
+            updateProperty(MINISERVER_PROPERTY_EVENT_QUEUE_DEPTH, String.valueOf(server.getEventQueueDepth()));
+            updateProperty(MINISERVER_PROPERTY_COALESCED_STATE_UPDATES,
+                    String.valueOf(server.getCoalescedStateUpdates()));
+        }
+    }
+
     @Override
     public Object getSetting(String name) {
         return getConfig().get(name);
@@ -11,13 +11,13 @@ package org.openhab.binding.loxone.internal.core;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -96,13 +96,17 @@ public class LxServer {
     // the state. It must be ensured that updates received for this state UUID are passed to all controls that have this
     // state UUID configured.
     private final Map<LxUuid, Map<LxUuid, LxControlState>> states = new HashMap<>();
+    // Same maps of control UUID and state objects as in states map, indexed by raw UUID value received in binary state
+    // update tables. Rebuilt on each configuration update and accessed by server thread only.
+    private final LxUuidIndex<Map<LxUuid, LxControlState>> statesIndex = new LxUuidIndex<>();
     private final List<LxServerListener> listeners = new ArrayList<>();
 
     // Services
     private LxWsClient socketClient;
     private Thread monitorThread;
     private final Lock threadLock = new ReentrantLock();
-    private final BlockingQueue<LxServerEvent> queue = new LinkedBlockingQueue<>();
+    private final LxServerEventQueue queue = new LxServerEventQueue();
+    private final AtomicLong coalescedStateUpdates = new AtomicLong();
     private final Logger logger = LoggerFactory.getLogger(LxServer.class);
     private final int debugId;
     private static final AtomicInteger STATIC_DEBUG_ID = new AtomicInteger(1);
@@ -369,6 +373,53 @@ public class LxServer {
         return macAddress;
     }
 
+    /**
+     * Gets number of events received from the Miniserver and waiting to be processed
+     *
+     * @return
+     *         number of queued events
+     */
+    public int getEventQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Gets number of state updates that were not processed, because a newer update of the same state was received
+     * before processing
+     *
+     * @return
+     *         number of coalesced state updates since server was created
+     */
+    public long getCoalescedStateUpdates() {
+        return coalescedStateUpdates.get();
+    }
+
+    /**
+     * Newest value and text of a state, received in one of the pending state update tables
+     *
+     * @author agent - Initial contribution
+     *
+     */
+    private static class PendingStateUpdate {
+        private final Map<LxUuid, LxControlState> perStateUuid;
+        private Double value;
+        private String text;
+
+        PendingStateUpdate(Map<LxUuid, LxControlState> perStateUuid) {
+            this.perStateUuid = perStateUuid;
+        }
+
+        void set(Double value, String text) {
+            // value and text updates of a state are independent, same as in LxControlState
+            if (value != null) {
+                this.value = value;
+            }
+            if (text != null) {
+                this.text = text;
+            }
+        }
+    }
+
     /**
      * Thread that performs and supervises communication with the Miniserver.
      * <p>
@@ -428,6 +479,68 @@ public class LxServer {
             }
         }
 
+        private void processStateUpdates(List<LxWsStateUpdateTable> tables) {
+            if (tables.size() == 1) {
+                LxWsStateUpdateTable table = tables.get(0);
+                while (table.next()) {
+                    Map<LxUuid, LxControlState> perStateUuid = statesIndex.get(table.getUuidHigh(),
+                            table.getUuidLow());
+                    if (perStateUuid != null) {
+                        updateStates(perStateUuid, table.getValue(), table.getText());
+                    }
+                }
+                checkMalformed(table);
+                return;
+            }
+            // more tables were pending, collapse updates of the same state to the newest value
+            Map<Map<LxUuid, LxControlState>, PendingStateUpdate> pending = new IdentityHashMap<>();
+            List<PendingStateUpdate> ordered = new ArrayList<>();
+            for (LxWsStateUpdateTable table : tables) {
+                while (table.next()) {
+                    Map<LxUuid, LxControlState> perStateUuid = statesIndex.get(table.getUuidHigh(),
+                            table.getUuidLow());
+                    if (perStateUuid != null) {
+                        PendingStateUpdate update = pending.get(perStateUuid);
+                        if (update == null) {
+                            update = new PendingStateUpdate(perStateUuid);
+                            pending.put(perStateUuid, update);
+                            ordered.add(update);
+                        } else {
+                            coalescedStateUpdates.incrementAndGet();
+                        }
+                        update.set(table.getValue(), table.getText());
+                    }
+                }
+                checkMalformed(table);
+            }
+            for (PendingStateUpdate update : ordered) {
+                updateStates(update.perStateUuid, update.value, update.text);
+            }
+        }
+
+        private void checkMalformed(LxWsStateUpdateTable table) {
+            if (table.isMalformed()) {
+                logger.debug("[{}] malformed state update table received, remaining updates discarded", debugId);
+            }
+        }
+
+        private void updateStates(Map<LxUuid, LxControlState> perStateUuid, Double value, String text) {
+            perStateUuid.forEach((controlUuid, state) -> {
+                state.setValue(value, text);
+                LxControl control = state.getControl();
+                if (control != null) {
+                    logger.debug("[{}] State update {} ({}:{}) to value {}, text '{}'", debugId, state.getUuid(),
+                            control.getName(), state.getName(), value, text);
+                    for (LxServerListener listener : listeners) {
+                        listener.onControlStateUpdate(control, state.getName().toLowerCase());
+                    }
+                } else {
+                    logger.debug("[{}] State update {} ({}) of unknown control", debugId, state.getUuid(),
+                            state.getName());
+                }
+            });
+        }
+
         private boolean processMessage(LxServerEvent wsMsg) {
             EventType event = wsMsg.getEvent();
             logger.trace("[{}] Server received event: {}", debugId, event);
@@ -444,25 +557,9 @@ public class LxServer {
                     }
                     break;
                 case STATE_UPDATE:
-                    LxWsStateUpdateEvent update = (LxWsStateUpdateEvent) wsMsg.getObject();
-                    Map<LxUuid, LxControlState> perStateUuid = findState(update.getUuid());
-                    if (perStateUuid != null) {
-                        perStateUuid.forEach((controlUuid, state) -> {
-                            state.setValue(update.getValue(), update.getText());
-                            LxControl control = state.getControl();
-                            if (control != null) {
-                                logger.debug("[{}] State update {} ({}:{}) to value {}, text '{}'", debugId,
-                                        update.getUuid(), control.getName(), state.getName(), update.getValue(),
-                                        update.getText());
-                                for (LxServerListener listener : listeners) {
-                                    listener.onControlStateUpdate(control, state.getName().toLowerCase());
-                                }
-                            } else {
-                                logger.debug("[{}] State update {} ({}) of unknown control", debugId, update.getUuid(),
-                                        state.getName());
-                            }
-                        });
-                    }
+                    @SuppressWarnings("unchecked")
+                    List<LxWsStateUpdateTable> tables = (List<LxWsStateUpdateTable>) wsMsg.getObject();
+                    processStateUpdates(tables);
                     break;
                 case SERVER_ONLINE:
                     for (LxServerListener listener : listeners) {
@@ -565,6 +662,13 @@ public class LxServer {
         removeUnusedFromMap(categories);
         removeUnusedFromMap(controls);
         removeUnusedFromMap(states);
+
+        statesIndex.clear();
+        states.forEach((uuid, perUuid) -> {
+            if (!statesIndex.put(uuid, perUuid)) {
+                logger.debug("[{}] state UUID {} can't be updated by the Miniserver", debugId, uuid);
+            }
+        });
     }
 
     /**
@@ -642,24 +746,6 @@ public class LxServer {
         return nr;
     }
 
-    /**
-     * Search for a state with given UUID
-     *
-     * @param id
-     *            UUID of state to locate
-     * @return
-     *         map of all state objects with control UUID as key
-     */
-    private Map<LxUuid, LxControlState> findState(LxUuid id) {
-        if (states == null || id == null) {
-            return null;
-        }
-        if (states.containsKey(id)) {
-            return states.get(id);
-        }
-        return null;
-    }
-
     /**
      * Search for a category on the server
      *
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.loxone.internal.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.loxone.internal.core.LxServerEvent.EventType;
+
+/**
+ * Queue of events passed from websocket client ({@link LxWsClient}) to the Miniserver object ({@link LxServer}).
+ * <p>
+ * When the consumer takes a state update event, all state update events queued directly behind it are taken too and
+ * returned as one event with all their state update tables. This way the consumer can collapse pending updates of the
+ * same state to the newest value. Other events are never merged and keep their order relative to the state updates.
+ * <p>
+ * Merging is done by {@link #take()} and {@link #poll(long, TimeUnit)} only. The queue must have a single consumer.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+class LxServerEventQueue extends LinkedBlockingQueue<LxServerEvent> {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public LxServerEvent take() throws InterruptedException {
+        return merge(super.take());
+    }
+
+    @Override
+    public LxServerEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        LxServerEvent event = super.poll(timeout, unit);
+        return event != null ? merge(event) : null;
+    }
+
+    private LxServerEvent merge(LxServerEvent event) {
+        if (!isStateUpdate(event) || !isStateUpdate(peek())) {
+            return event;
+        }
+        List<LxWsStateUpdateTable> tables = new ArrayList<>(getTables(event));
+        while (isStateUpdate(peek())) {
+            tables.addAll(getTables(poll()));
+        }
+        return new LxServerEvent(EventType.STATE_UPDATE, event.getOfflineReason(), tables);
+    }
+
+    private static boolean isStateUpdate(LxServerEvent event) {
+        return event != null && event.getEvent() == EventType.STATE_UPDATE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<LxWsStateUpdateTable> getTables(LxServerEvent event) {
+        return (List<LxWsStateUpdateTable>) event.getObject();
+    }
+}
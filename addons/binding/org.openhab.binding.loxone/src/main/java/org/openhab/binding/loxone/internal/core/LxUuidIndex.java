@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.loxone.internal.core;
+
+/**
+ * Map of objects indexed by the raw 128-bit value of an UUID, as it is sent by the Miniserver in binary messages.
+ * <p>
+ * It allows finding objects for UUIDs received in binary state update tables, without creating {@link LxUuid} objects
+ * and formatting strings for each received state. An UUID is represented by two long values. The high value contains
+ * the first three fields of the UUID, the low value contains the remaining eight bytes.
+ * <p>
+ * This is an open addressing hash map. It is not thread safe and does not support removal of entries, it is meant to
+ * be rebuilt when configuration changes.
+ *
+ * @author agent - Initial contribution
+ *
+ * @param <T>
+ *            type of indexed objects
+ */
+class LxUuidIndex<T> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] highs;
+    private long[] lows;
+    private Object[] values;
+    private int size = 0;
+
+    LxUuidIndex() {
+        init(INITIAL_CAPACITY);
+    }
+
+    private void init(int capacity) {
+        highs = new long[capacity];
+        lows = new long[capacity];
+        values = new Object[capacity];
+        size = 0;
+    }
+
+    /**
+     * Get high value of a raw UUID stored in a binary buffer
+     *
+     * @param data
+     *            buffer with binary message received from Miniserver
+     * @param offset
+     *            offset in buffer where UUID is stored
+     * @return
+     *         high value of the UUID
+     */
+    static long getHigh(byte data[], int offset) {
+        long data1 = (data[offset] & 0xffL) | (data[offset + 1] & 0xffL) << 8 | (data[offset + 2] & 0xffL) << 16
+                | (data[offset + 3] & 0xffL) << 24;
+        long data2 = (data[offset + 4] & 0xffL) | (data[offset + 5] & 0xffL) << 8;
+        long data3 = (data[offset + 6] & 0xffL) | (data[offset + 7] & 0xffL) << 8;
+        return data1 << 32 | data2 << 16 | data3;
+    }
+
+    /**
+     * Get low value of a raw UUID stored in a binary buffer
+     *
+     * @param data
+     *            buffer with binary message received from Miniserver
+     * @param offset
+     *            offset in buffer where UUID is stored
+     * @return
+     *         low value of the UUID
+     */
+    static long getLow(byte data[], int offset) {
+        long low = 0;
+        for (int i = 8; i < 16; i++) {
+            low = low << 8 | (data[offset + i] & 0xffL);
+        }
+        return low;
+    }
+
+    /**
+     * Add an object to the index or replace object already stored for the UUID
+     *
+     * @param uuid
+     *            UUID of the object
+     * @param value
+     *            object to store
+     * @return
+     *         true if stored, false if the UUID can't be represented as a raw 128-bit value
+     */
+    boolean put(LxUuid uuid, T value) {
+        String hex = uuid.toString().replace("-", "");
+        if (hex.length() != 32) {
+            return false;
+        }
+        long high;
+        long low;
+        try {
+            high = Long.parseUnsignedLong(hex.substring(0, 16), 16);
+            low = Long.parseUnsignedLong(hex.substring(16), 16);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        put(high, low, value);
+        return true;
+    }
+
+    private void put(long high, long low, T value) {
+        if ((size + 1) * 2 > values.length) {
+            resize();
+        }
+        int mask = values.length - 1;
+        int index = hash(high, low) & mask;
+        while (values[index] != null) {
+            if (highs[index] == high && lows[index] == low) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        highs[index] = high;
+        lows[index] = low;
+        values[index] = value;
+        size++;
+    }
+
+    /**
+     * Find object for a raw UUID
+     *
+     * @param high
+     *            high value of the UUID
+     * @param low
+     *            low value of the UUID
+     * @return
+     *         object stored for the UUID or null if not found
+     */
+    @SuppressWarnings("unchecked")
+    T get(long high, long low) {
+        int mask = values.length - 1;
+        int index = hash(high, low) & mask;
+        while (values[index] != null) {
+            if (highs[index] == high && lows[index] == low) {
+                return (T) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Remove all objects from the index
+     */
+    void clear() {
+        init(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Get number of objects in the index
+     *
+     * @return
+     *         number of objects
+     */
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        long[] oldHighs = highs;
+        long[] oldLows = lows;
+        Object[] oldValues = values;
+        init(oldValues.length * 2);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldHighs[i], oldLows[i], (T) oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(long high, long low) {
+        long h = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -15,6 +15,7 @@ import java.net.HttpURLConnection;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URL;
+import java.util.Collections;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -618,12 +619,11 @@ class LxWsClient {
 
         @OnWebSocketMessage
         public void onBinaryMessage(byte data[], int msgOffset, int msgLength) {
-            int offset = msgOffset;
-            int length = msgLength;
             if (logger.isTraceEnabled()) {
                 String s = Hex.encodeHexString(data);
-                logger.trace("[{}] Binary message: length {}: {}", debugId, length, s);
+                logger.trace("[{}] Binary message: length {}: {}", debugId, msgLength, s);
             }
+            LxWsStateUpdateTable table = null;
             stateMachineLock.lock();
             try {
                 if (state != ClientState.RUNNING) {
@@ -632,7 +632,7 @@ class LxWsClient {
                 // websocket will receive header and data in turns as two separate binary messages
                 if (header == null) {
                     // header expected now
-                    header = new LxWsBinaryHeader(data, offset);
+                    header = new LxWsBinaryHeader(data, msgOffset);
                     switch (header.type) {
                         // following header types precede data in next message
                         case BINARY_FILE:
@@ -651,20 +651,10 @@ class LxWsClient {
                     switch (header.type) {
                         case EVENT_TABLE_OF_VALUE_STATES:
                             stopResponseTimeout();
-                            while (length > 0) {
-                                LxWsStateUpdateEvent event = new LxWsStateUpdateEvent(true, data, offset);
-                                offset += event.getSize();
-                                length -= event.getSize();
-                                notifyMaster(EventType.STATE_UPDATE, null, event);
-                            }
+                            table = new LxWsStateUpdateTable(true, data, msgOffset, msgLength);
                             break;
                         case EVENT_TABLE_OF_TEXT_STATES:
-                            while (length > 0) {
-                                LxWsStateUpdateEvent event = new LxWsStateUpdateEvent(false, data, offset);
-                                offset += event.getSize();
-                                length -= event.getSize();
-                                notifyMaster(EventType.STATE_UPDATE, null, event);
-                            }
+                            table = new LxWsStateUpdateTable(false, data, msgOffset, msgLength);
                             break;
                         case KEEPALIVE_RESPONSE:
                         case TEXT_MESSAGE:
@@ -679,6 +669,10 @@ class LxWsClient {
             } finally {
                 stateMachineLock.unlock();
             }
+            // whole table is passed to the server at once, it will be decoded by the server thread
+            if (table != null) {
+                notifyMaster(EventType.STATE_UPDATE, null, Collections.singletonList(table));
+            }
         }
 
         @OnWebSocketMessage
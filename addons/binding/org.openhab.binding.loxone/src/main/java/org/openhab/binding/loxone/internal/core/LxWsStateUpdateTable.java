@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.loxone.internal.core;
+
+/**
+ * A table of controls' state updates received from Loxone Miniserver in one binary message.
+ * <p>
+ * The table is a view over the received binary buffer. State updates are not decoded when the message is received, but
+ * when the table is traversed by its consumer. The table is traversed with a cursor, which points at one state update
+ * at a time:
+ *
+ * <pre>
+ * while (table.next()) {
+ *     table.getValue();
+ * }
+ * </pre>
+ *
+ * The buffer must not be modified after the table is created. The websocket client provides each binary message in a
+ * new buffer, so the table can be passed to another thread.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+class LxWsStateUpdateTable {
+    private static final int VALUE_EVENT_SIZE = 24;
+    private static final int TEXT_EVENT_HEADER_SIZE = 36;
+
+    private final boolean isValueTable;
+    private final byte data[];
+    private final int end;
+    private int offset;
+    private int nextOffset;
+    private boolean malformed = false;
+
+    /**
+     * Create a new table of state updates from binary message
+     *
+     * @param isValueTable
+     *            true if this table updates double values, false if it updates text messages
+     * @param data
+     *            buffer with binary message received from Miniserver
+     * @param offset
+     *            offset in buffer where the table starts
+     * @param length
+     *            length of the table in bytes
+     */
+    LxWsStateUpdateTable(boolean isValueTable, byte data[], int offset, int length) {
+        this.isValueTable = isValueTable;
+        this.data = data;
+        this.nextOffset = offset;
+        this.offset = -1;
+        this.end = Math.min(data.length, offset + length);
+    }
+
+    /**
+     * Move the cursor to next state update in the table
+     *
+     * @return
+     *         true if cursor points at a state update, false if there are no more updates in the table
+     */
+    boolean next() {
+        if (nextOffset >= end) {
+            return false;
+        }
+        long required;
+        long size;
+        if (isValueTable) {
+            required = VALUE_EVENT_SIZE;
+            size = VALUE_EVENT_SIZE;
+        } else {
+            int textLen = nextOffset + TEXT_EVENT_HEADER_SIZE <= end ? getTextLength(nextOffset) : -1;
+            if (textLen < 0) {
+                malformed = true;
+                return false;
+            }
+            // text is padded to 4 bytes, padding of the last text in the table is not required
+            required = TEXT_EVENT_HEADER_SIZE + (long) textLen;
+            size = required + (textLen % 4 > 0 ? 4 - (textLen % 4) : 0);
+        }
+        if (nextOffset + required > end) {
+            malformed = true;
+            return false;
+        }
+        offset = nextOffset;
+        nextOffset = (int) Math.min(end, nextOffset + size);
+        return true;
+    }
+
+    /**
+     * Check if traversing the table stopped at a malformed state update
+     *
+     * @return
+     *         true if table contained incomplete or malformed data
+     */
+    boolean isMalformed() {
+        return malformed;
+    }
+
+    /**
+     * Get high value of the raw UUID of current state update, see {@link LxUuidIndex}
+     *
+     * @return
+     *         high value of the UUID
+     */
+    long getUuidHigh() {
+        return LxUuidIndex.getHigh(data, offset);
+    }
+
+    /**
+     * Get low value of the raw UUID of current state update, see {@link LxUuidIndex}
+     *
+     * @return
+     *         low value of the UUID
+     */
+    long getUuidLow() {
+        return LxUuidIndex.getLow(data, offset);
+    }
+
+    /**
+     * Get UUID of current state update. This creates a new object on each call.
+     *
+     * @return
+     *         UUID of the state
+     */
+    LxUuid getUuid() {
+        return new LxUuid(data, offset);
+    }
+
+    /**
+     * Get value of current state update
+     *
+     * @return
+     *         value of the state or null if this is a table of text updates
+     */
+    Double getValue() {
+        if (!isValueTable) {
+            return null;
+        }
+        return Double.longBitsToDouble(getLittleEndian(offset + 16, 8));
+    }
+
+    /**
+     * Get text of current state update
+     *
+     * @return
+     *         text of the state or null if this is a table of value updates
+     */
+    String getText() {
+        if (isValueTable) {
+            return null;
+        }
+        return new String(data, offset + TEXT_EVENT_HEADER_SIZE, getTextLength(offset));
+    }
+
+    private int getTextLength(int eventOffset) {
+        return (int) getLittleEndian(eventOffset + 32, 4);
+    }
+
+    private long getLittleEndian(int start, int length) {
+        long result = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            result = result << 8 | (data[start + i] & 0xffL);
+        }
+        return result;
+    }
+}
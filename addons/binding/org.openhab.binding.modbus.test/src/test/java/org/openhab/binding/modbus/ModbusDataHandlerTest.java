@@ -728,6 +728,58 @@ public class ModbusDataHandlerTest extends JavaTest {
         // no datetime, conversion not possible without transformation
     }
 
+    @Test
+    public void testOnRegistersUnchangedValuesNotUpdated() {
+        ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("thisishost", 502);
+
+        // Minimally mocked request
+        ModbusReadRequestBlueprint request = Mockito.mock(ModbusReadRequestBlueprint.class);
+        doReturn(3).when(request).getDataLength();
+        doReturn(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS).when(request).getFunctionCode();
+
+        PollTask task = Mockito.mock(PollTask.class);
+        doReturn(endpoint).when(task).getEndpoint();
+        doReturn(request).when(task).getRequest();
+
+        Bridge poller = createPollerMock("poller1", task);
+
+        Configuration dataConfig = new Configuration();
+        dataConfig.put("readStart", "0");
+        dataConfig.put("readTransform", "default");
+        dataConfig.put("readValueType", "int16");
+        dataConfig.put("updateUnchangedValuesEveryMillis", 60000);
+        ModbusDataThingHandler dataHandler = createDataHandler("data1", poller,
+                builder -> builder.withConfiguration(dataConfig));
+        assertThat(dataHandler.getThing().getStatus(), is(equalTo(ThingStatus.ONLINE)));
+
+        ChannelUID numberChannel = new ChannelUID(dataHandler.getThing().getUID(),
+                ModbusBindingConstants.CHANNEL_NUMBER);
+        ModbusRegisterArray registers = new BasicModbusRegisterArray(
+                new ModbusRegister[] { new BasicModbusRegister((byte) 0xff, (byte) 0xfd) });
+        dataHandler.onRegisters(request, registers);
+        dataHandler.onRegisters(request, registers);
+        assertThat(stateUpdates.get(numberChannel), is(equalTo(Arrays.asList(new DecimalType(-3)))));
+        // successful read is recorded even though the value did not change
+        ChannelUID lastReadSuccessChannel = new ChannelUID(dataHandler.getThing().getUID(),
+                ModbusBindingConstants.CHANNEL_LAST_READ_SUCCESS);
+        assertThat(stateUpdates.get(lastReadSuccessChannel).size(), is(equalTo(2)));
+        assertThat(dataHandler.getThing().getStatus(), is(equalTo(ThingStatus.ONLINE)));
+
+        // changed value is updated immediately
+        dataHandler.onRegisters(request, new BasicModbusRegisterArray(
+                new ModbusRegister[] { new BasicModbusRegister((byte) 0x00, (byte) 0x05) }));
+        assertThat(stateUpdates.get(numberChannel),
+                is(equalTo(Arrays.asList(new DecimalType(-3), new DecimalType(5)))));
+
+        // after error, the value is updated even though it has not changed
+        dataHandler.onError(request, new Exception("fooerror"));
+        dataHandler.onRegisters(request, new BasicModbusRegisterArray(
+                new ModbusRegister[] { new BasicModbusRegister((byte) 0x00, (byte) 0x05) }));
+        assertThat(stateUpdates.get(numberChannel),
+                is(equalTo(Arrays.asList(new DecimalType(-3), new DecimalType(5), new DecimalType(5)))));
+        assertThat(dataHandler.getThing().getStatus(), is(equalTo(ThingStatus.ONLINE)));
+    }
+
     private void mockTransformation(String name, TransformationService service) throws InvalidSyntaxException {
         doReturn(Arrays.asList(new Object[] { null })).when(bundleContext)
                 .getServiceReferences(TransformationService.class, "(smarthome.transform=" + name + ")");
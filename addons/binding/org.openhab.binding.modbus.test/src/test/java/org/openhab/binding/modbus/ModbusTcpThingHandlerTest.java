@@ -87,6 +87,11 @@ public class ModbusTcpThingHandlerTest {
         ModbusSlaveEndpoint endpoint = thingHandler.asSlaveEndpoint();
         Objects.requireNonNull(endpoint);
         orderedVerify.verify(modbusManager).setEndpointPoolConfiguration(endpoint, expectedPoolConfiguration);
+        orderedVerify.verify(modbusManager).openEndpoint(endpoint);
+
+        // metrics of the endpoint are released on dispose
+        thingHandler.dispose();
+        orderedVerify.verify(modbusManager).closeEndpoint(endpoint);
     }
 
     @Test
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.modbus;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.core.transform.TransformationService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openhab.binding.modbus.internal.Transformation;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Tests cases for {@link Transformation}
+ *
+ * @author agent - Initial contribution
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class TransformationTest {
+
+    @Mock
+    private BundleContext bundleContext;
+
+    @Mock
+    private ServiceReference<TransformationService> serviceReference;
+
+    private final AtomicInteger serviceCalls = new AtomicInteger();
+
+    private void mockTransformation(String name) throws InvalidSyntaxException {
+        TransformationService service = (function, source) -> {
+            serviceCalls.incrementAndGet();
+            // no result for "missing", like a MAP without matching entry
+            return "missing".equals(source) ? null : function + source;
+        };
+        doReturn(Arrays.asList(serviceReference)).when(bundleContext)
+                .getServiceReferences(TransformationService.class, "(smarthome.transform=" + name + ")");
+        doReturn(service).when(bundleContext).getService(any());
+    }
+
+    @Test
+    public void testIdentity() {
+        Transformation transformation = new Transformation("default");
+        assertThat(transformation.transform(bundleContext, "xx"), is(equalTo("xx")));
+        verifyZeroInteractions(bundleContext);
+    }
+
+    @Test
+    public void testConstant() {
+        Transformation transformation = new Transformation("constant");
+        assertThat(transformation.transform(bundleContext, "xx"), is(equalTo("constant")));
+        verifyZeroInteractions(bundleContext);
+    }
+
+    @Test
+    public void testServiceLookedUpOnce() throws InvalidSyntaxException {
+        mockTransformation("JS");
+        Transformation transformation = new Transformation("JS(foo)");
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("foo1")));
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("foo1")));
+        assertThat(transformation.transform(bundleContext, "2"), is(equalTo("foo2")));
+
+        verify(bundleContext, times(1)).getServiceReferences(TransformationService.class, "(smarthome.transform=JS)");
+        // every use of the service is released again
+        verify(bundleContext, times(3)).getService(serviceReference);
+        verify(bundleContext, times(3)).ungetService(serviceReference);
+        // JS is not cached
+        assertThat(serviceCalls.get(), is(equalTo(3)));
+        assertThat(transformation.getTransformCount(), is(equalTo(3L)));
+        assertThat(transformation.getCacheHits(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testServiceLookedUpAgainWhenUnregistered() throws InvalidSyntaxException {
+        mockTransformation("JS");
+        Transformation transformation = new Transformation("JS(foo)");
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("foo1")));
+
+        // Service unregistered
+        doReturn(null).when(bundleContext).getService(any());
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("1")));
+        verify(bundleContext, times(2)).getServiceReferences(TransformationService.class, "(smarthome.transform=JS)");
+    }
+
+    @Test
+    public void testDeterministicResultsCached() throws InvalidSyntaxException {
+        mockTransformation("MAP");
+        Transformation transformation = new Transformation("MAP(foo)");
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("foo1")));
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("foo1")));
+        assertThat(transformation.transform(bundleContext, "2"), is(equalTo("foo2")));
+        assertThat(transformation.transform(bundleContext, "1"), is(equalTo("foo1")));
+
+        assertThat(serviceCalls.get(), is(equalTo(2)));
+        assertThat(transformation.getTransformCount(), is(equalTo(2L)));
+        assertThat(transformation.getCacheHits(), is(equalTo(2L)));
+        assertThat(transformation.getCacheHitRate(), is(equalTo(0.5)));
+    }
+
+    @Test
+    public void testMissingResultsNotCached() throws InvalidSyntaxException {
+        mockTransformation("MAP");
+        Transformation transformation = new Transformation("MAP(foo)");
+        assertThat(transformation.transform(bundleContext, "missing"), is(equalTo("")));
+        assertThat(transformation.transform(bundleContext, "missing"), is(equalTo("")));
+
+        assertThat(serviceCalls.get(), is(equalTo(2)));
+        assertThat(transformation.getCacheHits(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testCacheIsBounded() throws InvalidSyntaxException {
+        mockTransformation("MAP");
+        Transformation transformation = new Transformation("MAP(foo)", 2);
+        transformation.transform(bundleContext, "1");
+        transformation.transform(bundleContext, "2");
+        // 1 is now most recently used
+        transformation.transform(bundleContext, "1");
+        // evicts 2
+        transformation.transform(bundleContext, "3");
+        assertThat(serviceCalls.get(), is(equalTo(3)));
+
+        transformation.transform(bundleContext, "1");
+        assertThat(serviceCalls.get(), is(equalTo(3)));
+        transformation.transform(bundleContext, "2");
+        assertThat(serviceCalls.get(), is(equalTo(4)));
+    }
+
+    @Test
+    public void testCacheDisabled() throws InvalidSyntaxException {
+        mockTransformation("MAP");
+        Transformation transformation = new Transformation("MAP(foo)", 0);
+        transformation.transform(bundleContext, "1");
+        transformation.transform(bundleContext, "1");
+        assertThat(serviceCalls.get(), is(equalTo(2)));
+    }
+}
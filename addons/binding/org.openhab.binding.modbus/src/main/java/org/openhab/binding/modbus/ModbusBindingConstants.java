@@ -45,6 +45,25 @@ public class ModbusBindingConstants {
     public static final String CHANNEL_LAST_WRITE_SUCCESS = "lastWriteSuccess";
     public static final String CHANNEL_LAST_WRITE_ERROR = "lastWriteError";
 
+    // Endpoint metrics channels, in the metrics channel group
+    public static final String CHANNEL_GROUP_METRICS = "metrics";
+    public static final String CHANNEL_TRANSACTIONS = "transactions";
+    public static final String CHANNEL_ERRORS = "errors";
+    public static final String CHANNEL_RETRIES = "retries";
+    public static final String CHANNEL_CONNECTS = "connects";
+    public static final String CHANNEL_QUEUE_DEPTH = "queueDepth";
+    public static final String CHANNEL_SKIPPED_POLLS = "skippedPolls";
+    public static final String CHANNEL_ROUND_TRIP_P50 = "roundTripP50";
+    public static final String CHANNEL_ROUND_TRIP_P95 = "roundTripP95";
+    public static final String CHANNEL_ROUND_TRIP_P99 = "roundTripP99";
+    public static final String CHANNEL_ROUND_TRIP_MAX = "roundTripMax";
+    public static final String CHANNEL_BORROW_WAIT_P95 = "borrowWaitP95";
+    public static final String CHANNEL_CALLBACK_LAG_P95 = "callbackLagP95";
+
+    // Data thing transformation metrics channels
+    public static final String CHANNEL_TRANSFORM_CACHE_HIT_RATE = "transformCacheHitRate";
+    public static final String CHANNEL_TRANSFORM_TIME = "transformTime";
+
     public static final String[] DATA_CHANNELS = { CHANNEL_SWITCH, CHANNEL_CONTACT, CHANNEL_DATETIME, CHANNEL_DIMMER,
             CHANNEL_NUMBER, CHANNEL_STRING, CHANNEL_ROLLERSHUTTER };
 
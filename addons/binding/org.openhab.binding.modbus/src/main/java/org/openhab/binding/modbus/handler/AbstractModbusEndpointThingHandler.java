@@ -8,17 +8,27 @@
  */
 package org.openhab.binding.modbus.handler;
 
+import static org.openhab.binding.modbus.ModbusBindingConstants.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
 import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.RefreshType;
+import org.eclipse.smarthome.core.types.State;
 import org.openhab.binding.modbus.internal.ModbusConfigurationException;
+import org.openhab.io.transport.modbus.LatencyHistogram;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
 import org.openhab.io.transport.modbus.ModbusManager;
 import org.openhab.io.transport.modbus.ModbusManagerListener;
 import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
@@ -38,6 +48,12 @@ import org.slf4j.LoggerFactory;
 public abstract class AbstractModbusEndpointThingHandler<E extends ModbusSlaveEndpoint, C> extends BaseBridgeHandler
         implements ModbusManagerListener, ModbusEndpointThingHandler {
 
+    private static final long METRICS_UPDATE_INTERVAL_SECONDS = 30;
+    private static final String[] METRICS_CHANNELS = { CHANNEL_TRANSACTIONS, CHANNEL_ERRORS, CHANNEL_RETRIES,
+            CHANNEL_CONNECTS, CHANNEL_QUEUE_DEPTH, CHANNEL_SKIPPED_POLLS, CHANNEL_ROUND_TRIP_P50,
+            CHANNEL_ROUND_TRIP_P95, CHANNEL_ROUND_TRIP_P99, CHANNEL_ROUND_TRIP_MAX, CHANNEL_BORROW_WAIT_P95,
+            CHANNEL_CALLBACK_LAG_P95 };
+
     @Nullable
     protected volatile C config;
     @Nullable
@@ -45,6 +61,13 @@ public abstract class AbstractModbusEndpointThingHandler<E extends ModbusSlaveEn
     protected Supplier<ModbusManager> managerRef;
     @Nullable
     protected volatile EndpointPoolConfiguration poolConfiguration;
+    @Nullable
+    private volatile ScheduledFuture<?> metricsJob;
+    /**
+     * Endpoint opened with the manager, closed on dispose
+     */
+    @Nullable
+    private ModbusSlaveEndpoint openedEndpoint;
     private final Logger logger = LoggerFactory.getLogger(AbstractModbusEndpointThingHandler.class);
 
     public AbstractModbusEndpointThingHandler(Bridge bridge, Supplier<ModbusManager> managerRef) {
@@ -54,6 +77,9 @@ public abstract class AbstractModbusEndpointThingHandler<E extends ModbusSlaveEn
 
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
+        if (command instanceof RefreshType && CHANNEL_GROUP_METRICS.equals(channelUID.getGroupId())) {
+            updateMetricsChannel(channelUID);
+        }
     }
 
     @Override
@@ -69,7 +95,13 @@ public abstract class AbstractModbusEndpointThingHandler<E extends ModbusSlaveEn
                 }
                 managerRef.get().addListener(this);
                 managerRef.get().setEndpointPoolConfiguration(endpoint, poolConfiguration);
+                if (!endpoint.equals(openedEndpoint)) {
+                    closeEndpoint();
+                    managerRef.get().openEndpoint(endpoint);
+                    openedEndpoint = endpoint;
+                }
                 updateStatus(ThingStatus.ONLINE);
+                scheduleMetricsUpdates();
             } catch (ModbusConfigurationException e) {
                 logger.debug("Exception during initialization", e);
                 updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, String.format(
@@ -82,7 +114,23 @@ public abstract class AbstractModbusEndpointThingHandler<E extends ModbusSlaveEn
 
     @Override
     public void dispose() {
+        ScheduledFuture<?> metricsJob = this.metricsJob;
+        if (metricsJob != null) {
+            metricsJob.cancel(false);
+            this.metricsJob = null;
+        }
         managerRef.get().removeListener(this);
+        synchronized (this) {
+            closeEndpoint();
+        }
+    }
+
+    private void closeEndpoint() {
+        ModbusSlaveEndpoint openedEndpoint = this.openedEndpoint;
+        if (openedEndpoint != null) {
+            managerRef.get().closeEndpoint(openedEndpoint);
+            this.openedEndpoint = null;
+        }
     }
 
     @Override
@@ -114,6 +162,69 @@ public abstract class AbstractModbusEndpointThingHandler<E extends ModbusSlaveEn
     @Override
     public abstract int getSlaveId();
 
+    private void scheduleMetricsUpdates() {
+        ScheduledFuture<?> previousJob = metricsJob;
+        if (previousJob != null) {
+            previousJob.cancel(false);
+        }
+        metricsJob = scheduler.scheduleWithFixedDelay(() -> {
+            for (String channelId : METRICS_CHANNELS) {
+                ChannelUID channelUID = new ChannelUID(getThing().getUID(), CHANNEL_GROUP_METRICS, channelId);
+                if (isLinked(channelUID)) {
+                    updateMetricsChannel(channelUID);
+                }
+            }
+        }, METRICS_UPDATE_INTERVAL_SECONDS, METRICS_UPDATE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void updateMetricsChannel(ChannelUID channelUID) {
+        E endpoint = this.endpoint;
+        if (endpoint == null) {
+            return;
+        }
+        ModbusEndpointMetrics metrics = managerRef.get().getEndpointMetrics(endpoint);
+        @Nullable
+        State state = getMetricsState(metrics, channelUID.getIdWithoutGroup());
+        if (state != null) {
+            updateState(channelUID, state);
+        }
+    }
+
+    private static @Nullable State getMetricsState(ModbusEndpointMetrics metrics, String channelId) {
+        switch (channelId) {
+            case CHANNEL_TRANSACTIONS:
+                return new DecimalType(metrics.getTransactions());
+            case CHANNEL_ERRORS:
+                return new DecimalType(metrics.getErrors());
+            case CHANNEL_RETRIES:
+                return new DecimalType(metrics.getRetries());
+            case CHANNEL_CONNECTS:
+                return new DecimalType(metrics.getConnects());
+            case CHANNEL_QUEUE_DEPTH:
+                return new DecimalType(metrics.getQueueDepth());
+            case CHANNEL_SKIPPED_POLLS:
+                return new DecimalType(metrics.getSkippedPolls());
+            case CHANNEL_ROUND_TRIP_P50:
+                return toMillis(metrics.getTransactionTimes(), 50);
+            case CHANNEL_ROUND_TRIP_P95:
+                return toMillis(metrics.getTransactionTimes(), 95);
+            case CHANNEL_ROUND_TRIP_P99:
+                return toMillis(metrics.getTransactionTimes(), 99);
+            case CHANNEL_ROUND_TRIP_MAX:
+                return toMillis(metrics.getTransactionTimes(), 100);
+            case CHANNEL_BORROW_WAIT_P95:
+                return toMillis(metrics.getBorrowWaitTimes(), 95);
+            case CHANNEL_CALLBACK_LAG_P95:
+                return toMillis(metrics.getCallbackLags(), 95);
+            default:
+                return null;
+        }
+    }
+
+    private static State toMillis(LatencyHistogram histogram, double percentile) {
+        return new DecimalType(BigDecimal.valueOf(histogram.getValueAtPercentile(percentile), 3));
+    }
+
     /**
      * Must be overriden by subclasses to initialize config, endpoint, and poolConfiguration
      */
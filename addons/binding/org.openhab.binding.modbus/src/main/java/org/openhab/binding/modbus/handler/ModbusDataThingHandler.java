@@ -17,8 +17,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.NotImplementedException;
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jdt.annotation.NonNull;
@@ -46,6 +48,7 @@ import org.eclipse.smarthome.core.thing.binding.BridgeHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.UnDefType;
 import org.openhab.binding.modbus.ModbusBindingConstants;
 import org.openhab.binding.modbus.internal.ModbusConfigurationException;
 import org.openhab.binding.modbus.internal.Transformation;
@@ -91,6 +94,10 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
 
     private static final Map<String, List<Class<? extends State>>> CHANNEL_ID_TO_ACCEPTED_TYPES = new HashMap<>();
 
+    private static final long TRANSFORMATION_METRICS_UPDATE_INTERVAL_SECONDS = 30;
+    private static final String[] TRANSFORMATION_METRICS_CHANNELS = { CHANNEL_TRANSFORM_CACHE_HIT_RATE,
+            CHANNEL_TRANSFORM_TIME };
+
     static {
         CHANNEL_ID_TO_ACCEPTED_TYPES.put(ModbusBindingConstants.CHANNEL_SWITCH,
                 new SwitchItem("").getAcceptedDataTypes());
@@ -129,6 +136,14 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
     private volatile boolean transformationOnlyInWrite;
     private volatile boolean childOfEndpoint;
     private volatile @Nullable ModbusPollerThingHandler pollerHandler;
+    private volatile long updateUnchangedValuesEveryMillis;
+    /**
+     * Raw bits of the value last updated to the channels, used to detect unchanged values. Null when nothing has been
+     * updated yet.
+     */
+    private volatile @Nullable Long lastRawValue;
+    private volatile long lastValueUpdateMillis;
+    private volatile @Nullable ScheduledFuture<?> transformationMetricsJob;
 
     public ModbusDataThingHandler(Thing thing) {
         super(thing);
@@ -138,6 +153,11 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
     public synchronized void handleCommand(ChannelUID channelUID, Command command) {
         logger.trace("Thing {} '{}' received command '{}' to channel '{}'", getThing().getUID(), getThing().getLabel(),
                 command, channelUID);
+        if (RefreshType.REFRESH == command
+                && ArrayUtils.contains(TRANSFORMATION_METRICS_CHANNELS, channelUID.getId())) {
+            updateTransformationMetricsChannel(channelUID.getId());
+            return;
+        }
         ModbusDataConfiguration config = this.config;
         ModbusManager manager = this.manager;
         if (config == null || manager == null) {
@@ -151,6 +171,8 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
                 // There is no data to update
                 return;
             }
+            // Make sure the refreshed value is updated to the channels even when it has not changed
+            resetChangeDetection();
             // We *schedule* the REFRESH to avoid dead-lock situation where poller is trying update this
             // data thing with cached data (resulting in deadlock in two synchronized methods: this (handleCommand) and
             // onRegisters.
@@ -314,7 +336,9 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         // Long running initialization should be done asynchronously in background.
         try {
             logger.trace("initialize() of thing {} '{}' starting", thing.getUID(), thing.getLabel());
-            config = getConfigAs(ModbusDataConfiguration.class);
+            ModbusDataConfiguration localConfig = config = getConfigAs(ModbusDataConfiguration.class);
+            updateUnchangedValuesEveryMillis = localConfig.getUpdateUnchangedValuesEveryMillis();
+            resetChangeDetection();
             Bridge bridge = getBridge();
             if (bridge == null) {
                 logger.debug("Thing {} '{}' has no bridge", getThing().getUID(), getThing().getLabel());
@@ -358,6 +382,7 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
             validateMustReadOrWrite();
 
             updateStatus(ThingStatus.ONLINE);
+            scheduleTransformationMetricsUpdates();
         } catch (ModbusConfigurationException | EndpointNotInitializedException e) {
             logger.debug("Thing {} '{}' initialization error: {}", getThing().getUID(), getThing().getLabel(),
                     e.getMessage());
@@ -369,6 +394,11 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
 
     @Override
     public synchronized void dispose() {
+        ScheduledFuture<?> transformationMetricsJob = this.transformationMetricsJob;
+        if (transformationMetricsJob != null) {
+            transformationMetricsJob.cancel(false);
+            this.transformationMetricsJob = null;
+        }
         config = null;
         readValueType = null;
         writeValueType = null;
@@ -387,6 +417,47 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         transformationOnlyInWrite = false;
         childOfEndpoint = false;
         pollerHandler = null;
+        updateUnchangedValuesEveryMillis = 0;
+        resetChangeDetection();
+    }
+
+    private void scheduleTransformationMetricsUpdates() {
+        ScheduledFuture<?> previousJob = transformationMetricsJob;
+        if (previousJob != null) {
+            previousJob.cancel(false);
+        }
+        transformationMetricsJob = scheduler.scheduleWithFixedDelay(() -> {
+            for (String channelId : TRANSFORMATION_METRICS_CHANNELS) {
+                if (isLinked(channelId)) {
+                    updateTransformationMetricsChannel(channelId);
+                }
+            }
+        }, TRANSFORMATION_METRICS_UPDATE_INTERVAL_SECONDS, TRANSFORMATION_METRICS_UPDATE_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Update a transformation metrics channel with the combined metrics of the read and write transformation
+     */
+    private void updateTransformationMetricsChannel(String channelId) {
+        long transformCount = 0;
+        long cacheHits = 0;
+        double transformMicros = 0;
+        for (Transformation transformation : new @Nullable Transformation[] { readTransformation,
+                writeTransformation }) {
+            if (transformation != null) {
+                transformCount += transformation.getTransformCount();
+                cacheHits += transformation.getCacheHits();
+                transformMicros += transformation.getAverageTransformMicros() * transformation.getTransformCount();
+            }
+        }
+        long total = transformCount + cacheHits;
+        if (CHANNEL_TRANSFORM_CACHE_HIT_RATE.equals(channelId)) {
+            updateState(channelId, total == 0 ? UnDefType.UNDEF : new DecimalType(100.0 * cacheHits / total));
+        } else if (CHANNEL_TRANSFORM_TIME.equals(channelId)) {
+            updateState(channelId,
+                    transformCount == 0 ? UnDefType.UNDEF : new DecimalType(transformMicros / transformCount));
+        }
     }
 
     @Override
@@ -648,6 +719,12 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
             int itemsPerRegister = 16 / readValueType.getBits();
             extractIndex = (readIndex.get() - pollStart) * itemsPerRegister + subIndex;
         }
+        if (isUnchanged(ModbusBitUtilities.extractRawBitsFromRegisters(registers, extractIndex, readValueType))) {
+            logger.trace("Thing {} value unchanged, not updating channels. Registers {} for request {}",
+                    thing.getUID(), registers, request);
+            processUnchangedValue();
+            return;
+        }
         numericState = ModbusBitUtilities.extractStateFromRegisters(registers, extractIndex, readValueType);
         boolean boolValue = !numericState.equals(DecimalType.ZERO);
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
@@ -665,6 +742,12 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
             return;
         }
         boolean boolValue = bits.getBit(readIndex.get() - pollStart);
+        if (isUnchanged(boolValue ? 1L : 0L)) {
+            logger.trace("Thing {} value unchanged, not updating channels. Bits {} for request {}", thing.getUID(),
+                    bits, request);
+            processUnchangedValue();
+            return;
+        }
         DecimalType numericState = boolValue ? new DecimalType(BigDecimal.ONE) : DecimalType.ZERO;
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
         logger.debug(
@@ -691,6 +774,8 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
                     getThing().getUID(), getThing().getLabel(), error.getClass().getName(), error.toString(),
                     error.getMessage(), error);
         }
+        // Value is updated to the channels after recovering from the error, even if it has not changed
+        resetChangeDetection();
         Map<@NonNull ChannelUID, @NonNull State> states = new HashMap<>();
         states.put(new ChannelUID(getThing().getUID(), ModbusBindingConstants.CHANNEL_LAST_READ_ERROR),
                 new DateTimeType());
@@ -755,6 +840,49 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         updateState(ModbusBindingConstants.CHANNEL_LAST_WRITE_SUCCESS, now);
     }
 
+    /**
+     * Check whether the polled value is unchanged and the channels do not need updating. Remembers the value when
+     * the channels are to be updated.
+     *
+     * Change detection is disabled when updateUnchangedValuesEveryMillis is zero; all values are then considered to
+     * be changed.
+     *
+     * @param rawValue raw bits of the polled value
+     * @return true if the value is unchanged and it was updated to the channels recently enough
+     */
+    private boolean isUnchanged(long rawValue) {
+        long updateUnchangedValuesEveryMillis = this.updateUnchangedValuesEveryMillis;
+        if (updateUnchangedValuesEveryMillis <= 0) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        Long lastRawValue = this.lastRawValue;
+        if (lastRawValue != null && lastRawValue == rawValue
+                && now - lastValueUpdateMillis < updateUnchangedValuesEveryMillis) {
+            return true;
+        }
+        this.lastRawValue = rawValue;
+        lastValueUpdateMillis = now;
+        return false;
+    }
+
+    private void resetChangeDetection() {
+        lastRawValue = null;
+        lastValueUpdateMillis = 0;
+    }
+
+    /**
+     * Update status and the last read success channel when polled value is unchanged. Data channels are left as they
+     * are.
+     */
+    private void processUnchangedValue() {
+        synchronized (this) {
+            updateStatus(ThingStatus.ONLINE);
+            tryUpdateState(new ChannelUID(getThing().getUID(), ModbusBindingConstants.CHANNEL_LAST_READ_SUCCESS),
+                    new DateTimeType());
+        }
+    }
+
     /**
      * Update linked channels
      *
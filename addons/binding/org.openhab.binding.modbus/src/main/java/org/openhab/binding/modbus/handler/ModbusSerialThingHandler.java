@@ -56,6 +56,7 @@ public class ModbusSerialThingHandler
         poolConfiguration.setConnectMaxTries(config.getConnectMaxTries());
         poolConfiguration.setConnectTimeoutMillis(config.getConnectTimeoutMillis());
         poolConfiguration.setInterTransactionDelayMillis(config.getTimeBetweenTransactionsMillis());
+        poolConfiguration.setBackToBackTransactions(config.isBackToBackTransactions());
 
         // Never reconnect serial connections "automatically"
         poolConfiguration.setInterConnectDelayMillis(1000);
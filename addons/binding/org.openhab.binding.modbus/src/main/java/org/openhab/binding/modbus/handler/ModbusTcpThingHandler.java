@@ -52,6 +52,9 @@ public class ModbusTcpThingHandler
         poolConfiguration.setInterConnectDelayMillis(config.getTimeBetweenReconnectMillis());
         poolConfiguration.setInterTransactionDelayMillis(config.getTimeBetweenTransactionsMillis());
         poolConfiguration.setReconnectAfterMillis(config.getReconnectAfterMillis());
+        poolConfiguration.setResponseTimeoutMillis(config.getResponseTimeoutMillis());
+        poolConfiguration.setMaxInFlight(config.getMaxInFlight());
+        poolConfiguration.setDelayPipelinedRequests(config.isDelayPipelinedRequests());
     }
 
     @Override
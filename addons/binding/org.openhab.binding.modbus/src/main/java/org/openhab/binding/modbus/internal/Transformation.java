@@ -11,8 +11,16 @@ package org.openhab.binding.modbus.internal;
 import static org.apache.commons.lang.StringUtils.isEmpty;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,12 +33,13 @@ import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.library.types.OpenClosedType;
 import org.eclipse.smarthome.core.transform.TransformationException;
-import org.eclipse.smarthome.core.transform.TransformationHelper;
 import org.eclipse.smarthome.core.transform.TransformationService;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.TypeParser;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +48,13 @@ import org.slf4j.LoggerFactory;
  *
  * Inspired from other openHAB binding "Transformation" classes.
  *
+ * The transformation is parsed once on construction. The transformation service reference is looked up on first
+ * use and reused as long as the service stays registered.
+ *
+ * Results of deterministic transformation services (see {@link #CACHEABLE_SERVICES}) are cached in a bounded LRU
+ * cache keyed by the input. The cached results expire after {@link #CACHE_MAX_AGE_MILLIS}, making sure changes to
+ * e.g. MAP files are eventually reflected. Missing (null) results are not cached.
+ *
  * @author Sami Salonen - Initial contribution
  *
  */
@@ -61,6 +77,50 @@ public class Transformation {
         DEFAULT_TYPES.add(OnOffType.class);
     }
 
+    /**
+     * Transformation services whose output depends only on the input and the transformation parameter.
+     *
+     * Services such as JS or EXEC are not included since they can have side effects or depend on the time.
+     */
+    public static final Set<String> CACHEABLE_SERVICES = new HashSet<>(
+            Arrays.asList("MAP", "REGEX", "SCALE", "JSONPATH", "XPATH", "XSLT"));
+
+    public static final int DEFAULT_CACHE_SIZE = 100;
+    public static final long CACHE_MAX_AGE_MILLIS = 60_000;
+
+    private static final String SERVICE_FILTER_FORMAT = "(smarthome.transform=%s)";
+
+    /**
+     * Cached transformation result
+     */
+    private static class CachedResult {
+        private final String result;
+        private final long createdNanos;
+
+        private CachedResult(String result, long createdNanos) {
+            this.result = result;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    /**
+     * LRU cache of transformation results, keyed by input
+     */
+    @SuppressWarnings("serial")
+    private static class ResultCache extends LinkedHashMap<String, CachedResult> {
+        private final int maxSize;
+
+        private ResultCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<String, CachedResult> eldest) {
+            return size() > maxSize;
+        }
+    }
+
     private final Logger logger = LoggerFactory.getLogger(Transformation.class);
 
     private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
@@ -75,6 +135,19 @@ public class Transformation {
     private final String transformationServiceName;
     @Nullable
     private final String transformationServiceParam;
+    @Nullable
+    private final ResultCache resultCache;
+
+    private final Object serviceLock = new Object();
+    @Nullable
+    private BundleContext serviceContext;
+    @Nullable
+    private ServiceReference<TransformationService> serviceReference;
+    private boolean serviceReferenceResolved;
+
+    private final AtomicLong transformCount = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong transformNanos = new AtomicLong();
 
     /**
      *
@@ -83,6 +156,16 @@ public class Transformation {
      *            considered the same way as "default".
      */
     public Transformation(@Nullable String transformation) {
+        this(transformation, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     *
+     * @param transformation transformation, see {@link #Transformation(String)}
+     * @param cacheSize maximum number of cached results. Zero disables the cache. Results are cached only with
+     *            deterministic transformation services.
+     */
+    public Transformation(@Nullable String transformation, int cacheSize) {
         this.transformation = transformation;
         //
         // Parse transformation configuration here on construction, but delay the
@@ -106,6 +189,7 @@ public class Transformation {
                 transformationServiceParam = null;
             }
         }
+        resultCache = createCache(transformationServiceName, cacheSize);
     }
 
     /**
@@ -120,6 +204,15 @@ public class Transformation {
         this.transformation = transformation;
         this.transformationServiceName = transformationServiceName;
         this.transformationServiceParam = transformationServiceParam;
+        this.resultCache = createCache(transformationServiceName, DEFAULT_CACHE_SIZE);
+    }
+
+    private static @Nullable ResultCache createCache(@Nullable String transformationServiceName, int cacheSize) {
+        if (cacheSize <= 0 || transformationServiceName == null
+                || !CACHEABLE_SERVICES.contains(transformationServiceName.toUpperCase())) {
+            return null;
+        }
+        return new ResultCache(cacheSize);
     }
 
     public String transform(BundleContext context, String value) {
@@ -133,11 +226,34 @@ public class Transformation {
                     throw new TransformationException(
                             "transformation service parameter is missing! Invalid transform?");
                 }
-                @Nullable
-                TransformationService transformationService = TransformationHelper.getTransformationService(context,
+                String cached = getCachedResult(value);
+                if (cached != null) {
+                    return cached;
+                }
+                ServiceReference<TransformationService> reference = getServiceReference(context,
                         transformationServiceName);
-                if (transformationService != null) {
-                    transformedResponse = transformationService.transform(transformationServiceParam, value);
+                @Nullable
+                TransformationService transformationService = reference == null ? null
+                        : context.getService(reference);
+                if (reference != null && transformationService == null) {
+                    // service has been unregistered, look it up again
+                    forgetServiceReference(reference);
+                    reference = getServiceReference(context, transformationServiceName);
+                    transformationService = reference == null ? null : context.getService(reference);
+                }
+                if (reference != null && transformationService != null) {
+                    try {
+                        long start = System.nanoTime();
+                        transformedResponse = transformationService.transform(transformationServiceParam, value);
+                        transformNanos.addAndGet(System.nanoTime() - start);
+                        transformCount.incrementAndGet();
+                        if (transformedResponse != null) {
+                            // missing results are not cached, the service is asked again next time
+                            cacheResult(value, transformedResponse);
+                        }
+                    } finally {
+                        context.ungetService(reference);
+                    }
                 } else {
                     transformedResponse = value;
                     logger.warn("couldn't transform response because transformationService of type '{}' is unavailable",
@@ -162,6 +278,119 @@ public class Transformation {
         return transformedResponse == null ? "" : transformedResponse;
     }
 
+    private @Nullable String getCachedResult(String value) {
+        ResultCache resultCache = this.resultCache;
+        if (resultCache == null) {
+            return null;
+        }
+        CachedResult cached;
+        synchronized (resultCache) {
+            cached = resultCache.get(value);
+            if (cached == null) {
+                return null;
+            }
+            if (System.nanoTime() - cached.createdNanos > TimeUnit.MILLISECONDS.toNanos(CACHE_MAX_AGE_MILLIS)) {
+                resultCache.remove(value);
+                return null;
+            }
+        }
+        cacheHits.incrementAndGet();
+        return cached.result;
+    }
+
+    private void cacheResult(String value, String result) {
+        ResultCache resultCache = this.resultCache;
+        if (resultCache == null) {
+            return;
+        }
+        synchronized (resultCache) {
+            resultCache.put(value, new CachedResult(result, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Get the reference of the transformation service, looking it up only when needed
+     *
+     * @param context bundle context to use for the lookup
+     * @param transformationServiceName name of the service
+     * @return reference of the transformation service, or null if the service is unavailable
+     */
+    private @Nullable ServiceReference<TransformationService> getServiceReference(BundleContext context,
+            String transformationServiceName) {
+        synchronized (serviceLock) {
+            if (serviceReferenceResolved && context == serviceContext) {
+                return serviceReference;
+            }
+            serviceReferenceResolved = false;
+            serviceContext = context;
+            serviceReference = null;
+            Collection<ServiceReference<TransformationService>> references;
+            try {
+                references = context.getServiceReferences(TransformationService.class,
+                        String.format(SERVICE_FILTER_FORMAT, transformationServiceName));
+            } catch (InvalidSyntaxException e) {
+                logger.warn("Cannot look up transformation service '{}': {}", transformationServiceName,
+                        e.getMessage());
+                return null;
+            }
+            if (references == null || references.isEmpty()) {
+                return null;
+            }
+            serviceReference = references.iterator().next();
+            serviceReferenceResolved = true;
+            return serviceReference;
+        }
+    }
+
+    private void forgetServiceReference(ServiceReference<TransformationService> reference) {
+        synchronized (serviceLock) {
+            if (reference == serviceReference) {
+                serviceReferenceResolved = false;
+                serviceReference = null;
+            }
+        }
+    }
+
+    /**
+     * Get number of transformations executed with the transformation service. Results served from the cache are not
+     * included.
+     *
+     * @return number of executed transformations
+     */
+    public long getTransformCount() {
+        return transformCount.get();
+    }
+
+    /**
+     * Get number of results served from the cache
+     *
+     * @return number of cache hits
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Get ratio of results served from the cache
+     *
+     * @return cache hit rate between 0 and 1
+     */
+    public double getCacheHitRate() {
+        long hits = cacheHits.get();
+        long total = hits + transformCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Get average time spent in the transformation service
+     *
+     * @return average transformation time in microseconds
+     */
+    public double getAverageTransformMicros() {
+        long count = transformCount.get();
+        return count == 0 ? 0 : transformNanos.get() / 1000.0 / count;
+    }
+
     public boolean isIdentityTransform() {
         return TRANSFORM_DEFAULT.equalsIgnoreCase(this.transformation);
     }
@@ -37,6 +37,7 @@ public class ModbusSerialConfiguration {
     @Nullable
     private String flowControlOut;
     private int timeBetweenTransactionsMillis;
+    private boolean backToBackTransactions;
     private int connectMaxTries;
     private int connectTimeoutMillis;
 
@@ -136,6 +137,14 @@ public class ModbusSerialConfiguration {
         this.timeBetweenTransactionsMillis = timeBetweenTransactionsMillis;
     }
 
+    public boolean isBackToBackTransactions() {
+        return backToBackTransactions;
+    }
+
+    public void setBackToBackTransactions(boolean backToBackTransactions) {
+        this.backToBackTransactions = backToBackTransactions;
+    }
+
     public int getConnectMaxTries() {
         return connectMaxTries;
     }
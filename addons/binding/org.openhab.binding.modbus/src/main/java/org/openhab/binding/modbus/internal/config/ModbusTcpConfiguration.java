@@ -28,6 +28,9 @@ public class ModbusTcpConfiguration {
     private int connectMaxTries;
     private int reconnectAfterMillis;
     private int connectTimeoutMillis;
+    private int responseTimeoutMillis;
+    private int maxInFlight = 1;
+    private boolean delayPipelinedRequests = true;
 
     public @Nullable String getHost() {
         return host;
@@ -93,4 +96,28 @@ public class ModbusTcpConfiguration {
         this.connectTimeoutMillis = connectTimeoutMillis;
     }
 
+    public int getResponseTimeoutMillis() {
+        return responseTimeoutMillis;
+    }
+
+    public void setResponseTimeoutMillis(int responseTimeoutMillis) {
+        this.responseTimeoutMillis = responseTimeoutMillis;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public boolean isDelayPipelinedRequests() {
+        return delayPipelinedRequests;
+    }
+
+    public void setDelayPipelinedRequests(boolean delayPipelinedRequests) {
+        this.delayPipelinedRequests = delayPipelinedRequests;
+    }
+
 }
@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.openhab.binding.network.internal.PresenceDetectionEngine.TaskGroup;
+
+/**
+ * Tests cases for {@see PresenceDetectionEngine}
+ *
+ * @author agent - Initial contribution
+ */
+public class PresenceDetectionEngineTest {
+    PresenceDetectionEngine subject = new PresenceDetectionEngine();
+
+    @Test
+    public void sameProbeIsPerformedOnce() throws Exception {
+        AtomicInteger probeCount = new AtomicInteger();
+        CountDownLatch probeStarted = new CountDownLatch(1);
+        CountDownLatch releaseProbe = new CountDownLatch(1);
+        double[] results = new double[2];
+
+        TaskGroup group = subject.newTaskGroup();
+        group.execute(() -> {
+            try {
+                results[0] = subject.performProbe("icmp 127.0.0.1", () -> {
+                    probeCount.incrementAndGet();
+                    probeStarted.countDown();
+                    return releaseProbe.await(2, TimeUnit.SECONDS);
+                });
+            } catch (Exception e) {
+                results[0] = -2;
+            }
+        });
+        assertTrue(probeStarted.await(2, TimeUnit.SECONDS));
+        group.execute(() -> {
+            try {
+                results[1] = subject.performProbe("icmp 127.0.0.1", () -> {
+                    probeCount.incrementAndGet();
+                    return false;
+                });
+            } catch (Exception e) {
+                results[1] = -2;
+            }
+        });
+        // Give the second task a chance to join the running probe
+        Thread.sleep(100);
+        releaseProbe.countDown();
+        group.shutdown();
+
+        assertTrue(group.awaitTermination(2, TimeUnit.SECONDS));
+        assertThat(probeCount.get(), is(1));
+        assertTrue(results[0] >= 0);
+        assertThat(results[1], is(results[0]));
+
+        // Not running anymore, a new probe is performed
+        assertThat(subject.performProbe("icmp 127.0.0.1", () -> false), is(PresenceDetection.NOT_REACHABLE));
+    }
+
+    @Test
+    public void interruptedProbeIsPerformedAgainByWaitingThread() throws Exception {
+        AtomicInteger probeCount = new AtomicInteger();
+        CountDownLatch probeStarted = new CountDownLatch(1);
+        double[] results = new double[2];
+
+        TaskGroup group = subject.newTaskGroup();
+        TaskGroup otherGroup = subject.newTaskGroup();
+        group.execute(() -> {
+            try {
+                results[0] = subject.performProbe("icmp 127.0.0.1", () -> {
+                    probeCount.incrementAndGet();
+                    probeStarted.countDown();
+                    Thread.sleep(2000);
+                    return true;
+                });
+            } catch (InterruptedException e) {
+                results[0] = -3;
+            } catch (Exception e) {
+                results[0] = -2;
+            }
+        });
+        assertTrue(probeStarted.await(2, TimeUnit.SECONDS));
+        otherGroup.execute(() -> {
+            try {
+                results[1] = subject.performProbe("icmp 127.0.0.1", () -> {
+                    probeCount.incrementAndGet();
+                    return true;
+                });
+            } catch (Exception e) {
+                results[1] = -2;
+            }
+        });
+        // Give the second task a chance to join the running probe
+        Thread.sleep(100);
+        group.shutdownNow();
+        otherGroup.shutdown();
+
+        assertTrue(group.awaitTermination(2, TimeUnit.SECONDS));
+        assertTrue(otherGroup.awaitTermination(2, TimeUnit.SECONDS));
+        assertThat(results[0], is(-3.0));
+        // The waiting thread does not report the device as not reachable, but performs the probe itself
+        assertThat(probeCount.get(), is(2));
+        assertTrue(results[1] >= 0);
+    }
+
+    @Test
+    public void shutdownNowCancelsOnlyOwnTasks() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(1);
+
+        TaskGroup group = subject.newTaskGroup();
+        TaskGroup otherGroup = subject.newTaskGroup();
+        group.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        otherGroup.execute(() -> {
+            try {
+                release.await(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ignored) {
+                return;
+            }
+            otherDone.countDown();
+        });
+
+        assertFalse(group.isTerminated());
+        group.shutdownNow();
+        assertTrue(group.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(group.isTerminated());
+
+        assertTrue(otherDone.await(2, TimeUnit.SECONDS));
+        assertFalse(otherGroup.isShutdown());
+    }
+
+    @Test
+    public void pingsDueAtTheSameTimeAreBatched() throws Exception {
+        List<Set<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        double[] results = new double[5];
+
+        TaskGroup group = subject.newTaskGroup();
+        for (int i = 0; i < results.length; i++) {
+            final int index = i;
+            group.execute(() -> {
+                try {
+                    results[index] = subject.performBatchedPing("192.168.0." + index, 500, (addresses, timeout) -> {
+                        batches.add(new HashSet<>(addresses));
+                        // Only one of the addresses responds
+                        return Collections.singletonMap("192.168.0.2", 1.5);
+                    });
+                } catch (Exception e) {
+                    results[index] = -2;
+                }
+            });
+        }
+        group.shutdown();
+
+        assertTrue(group.awaitTermination(2, TimeUnit.SECONDS));
+        assertThat(batches.size(), is(1));
+        assertThat(batches.get(0).size(), is(results.length));
+        assertThat(results[2], is(1.5));
+        assertThat(results[0], is(PresenceDetection.NOT_REACHABLE));
+        assertThat(results[4], is(PresenceDetection.NOT_REACHABLE));
+    }
+
+    @Test
+    public void failedBatchIsReportedToAllPings() throws Exception {
+        String[] errors = new String[2];
+
+        TaskGroup group = subject.newTaskGroup();
+        for (int i = 0; i < errors.length; i++) {
+            final int index = i;
+            group.execute(() -> {
+                try {
+                    subject.performBatchedPing("192.168.0." + index, 500, (addresses, timeout) -> {
+                        throw new IOException("fping not found");
+                    });
+                } catch (Exception e) {
+                    errors[index] = e.getMessage();
+                }
+            });
+        }
+        group.shutdown();
+
+        assertTrue(group.awaitTermination(2, TimeUnit.SECONDS));
+        assertThat(errors[0], is("fping not found"));
+        assertThat(errors[1], is("fping not found"));
+    }
+
+    @Test
+    public void tasksAreRejectedWhenTheQueueIsFull() throws Exception {
+        PresenceDetectionEngine engine = new PresenceDetectionEngine(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        TaskGroup group = engine.newTaskGroup();
+        // One running and one queued task
+        for (int i = 0; i < 2; i++) {
+            group.execute(() -> {
+                try {
+                    release.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+        try {
+            group.execute(() -> {
+            });
+            fail("The task should have been rejected");
+        } catch (RejectedExecutionException expected) {
+        }
+
+        release.countDown();
+        group.shutdown();
+        // The rejected task does not keep the group from terminating
+        assertTrue(group.awaitTermination(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void discoveryDoesNotUseTheThreadsOfThings() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch discoveryDone = new CountDownLatch(1);
+
+        // All threads of the things are busy
+        TaskGroup group = PresenceDetectionEngine.getInstance().newTaskGroup();
+        for (int i = 0; i < PresenceDetectionEngine.MAXIMUM_THREADS; i++) {
+            group.execute(() -> {
+                try {
+                    release.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+
+        try {
+            TaskGroup discoveryGroup = PresenceDetectionEngine.getDiscoveryInstance().newTaskGroup();
+            discoveryGroup.execute(() -> discoveryDone.countDown());
+            assertTrue(discoveryDone.await(1, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            group.shutdown();
+        }
+        assertTrue(group.awaitTermination(2, TimeUnit.SECONDS));
+    }
+}
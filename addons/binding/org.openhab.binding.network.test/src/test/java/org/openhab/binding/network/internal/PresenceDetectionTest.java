@@ -170,6 +170,40 @@ public class PresenceDetectionTest {
         verify(callback, times(2)).accept(anyObject());
     }
 
+    @Test
+    public void passiveDetectionSkipsActiveChecks() {
+        subject.setPassiveDetectionTime(60000);
+        subject.neighbourSeen("127.0.0.1");
+        verify(listener).partialDetectionResult(anyObject());
+
+        subject.cache.invalidateValue();
+        assertTrue(subject.performPresenceDetection(false));
+        verify(subject, never()).getThreadsFor(anyInt());
+        assertNull(subject.executorService);
+
+        ArgumentCaptor<PresenceDetectionValue> capture = ArgumentCaptor.forClass(PresenceDetectionValue.class);
+        verify(listener).finalDetectionResult(capture.capture());
+        assertTrue(capture.getValue().isReachable());
+        assertThat(capture.getValue().getSuccessfulDetectionTypes(), is("NEIGHBOUR_TABLE"));
+
+        // Without a passive detection time, active checks are performed
+        subject.setPassiveDetectionTime(0);
+        subject.cache.invalidateValue();
+        doReturn(executorService).when(subject).getThreadsFor(anyInt());
+        assertTrue(subject.performPresenceDetection(false));
+        verify(executorService, times(3)).execute(anyObject());
+        subject.executorService = null;
+    }
+
+    @Test
+    public void arpPingMethodNeedsToolPath() {
+        subject.setArpPingMethod(ArpPingUtilEnum.IPUTILS_ARPING, "arping");
+        assertThat(subject.arpPingMethod(), is(ArpPingUtilEnum.IPUTILS_ARPING));
+
+        subject.setArpPingMethod(ArpPingUtilEnum.IPUTILS_ARPING, " ");
+        assertNull(subject.arpPingMethod());
+    }
+
     @Test
     public void reuseValueTests() throws InterruptedException, IOException {
         final long START_TIME = 1000L;
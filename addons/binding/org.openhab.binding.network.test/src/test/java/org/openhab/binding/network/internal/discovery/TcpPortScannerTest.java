@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests cases for {@see TcpPortScanner}
+ *
+ * @author agent - Initial contribution
+ */
+public class TcpPortScannerTest {
+
+    @Test
+    public void openPortsAreReported() throws IOException {
+        InetAddress localhost = InetAddress.getByName("127.0.0.1");
+        List<ServerSocket> openSockets = new ArrayList<>();
+        List<InetSocketAddress> destinations = new ArrayList<>();
+        List<InetSocketAddress> found = Collections.synchronizedList(new ArrayList<>());
+        try {
+            for (int i = 0; i < 3; i++) {
+                ServerSocket serverSocket = new ServerSocket(0, 50, localhost);
+                openSockets.add(serverSocket);
+                destinations.add(new InetSocketAddress(localhost, serverSocket.getLocalPort()));
+            }
+            // A port that is closed again
+            int closedPort;
+            try (ServerSocket serverSocket = new ServerSocket(0, 50, localhost)) {
+                closedPort = serverSocket.getLocalPort();
+            }
+            destinations.add(new InetSocketAddress(localhost, closedPort));
+
+            TcpPortScanner scanner = new TcpPortScanner(destinations, 1000, (address, latency) -> {
+                assertTrue(latency >= 0);
+                found.add(address);
+            });
+            scanner.run();
+
+            assertThat(found.size(), is(3));
+            assertTrue(found.containsAll(destinations.subList(0, 3)));
+            // Every answered connection attempt widens the window
+            assertThat(scanner.getWindow(), is(TcpPortScanner.INITIAL_WINDOW + 4));
+        } finally {
+            for (ServerSocket serverSocket : openSockets) {
+                serverSocket.close();
+            }
+        }
+    }
+
+    @Test
+    public void stoppedScanReturns() throws IOException {
+        TcpPortScanner scanner = new TcpPortScanner(
+                Collections.singletonList(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 1)), 1000,
+                (address, latency) -> fail());
+        scanner.stop();
+        scanner.run();
+    }
+}
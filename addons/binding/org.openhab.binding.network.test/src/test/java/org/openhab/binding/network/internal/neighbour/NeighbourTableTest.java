@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.neighbour;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests cases for the neighbour table based presence detection
+ *
+ * @author agent - Initial contribution
+ */
+public class NeighbourTableTest {
+    static final String ARP_HEADER = "IP address       HW type     Flags       HW address            Mask     Device\n";
+
+    private static BufferedReader reader(String content) {
+        return new BufferedReader(new StringReader(content));
+    }
+
+    @Test
+    public void parseProcNetArp() throws IOException {
+        Map<String, NeighbourTable.Entry> snapshot = NeighbourTable.parseProcNetArp(reader(ARP_HEADER
+                + "192.168.1.1      0x1         0x2         00:11:22:33:44:55     *        eth0\n"
+                + "192.168.1.2      0x1         0x0         00:00:00:00:00:00     *        eth0\n"
+                + "192.168.1.3      0x1         0x6         00:11:22:33:44:66     *        eth0\n"));
+        assertThat(snapshot.size(), is(2));
+        assertThat(snapshot.get("192.168.1.1").hardwareAddress, is("00:11:22:33:44:55"));
+        assertThat(snapshot.containsKey("192.168.1.2"), is(false));
+        assertThat(snapshot.get("192.168.1.3").reachable, is(false));
+    }
+
+    @Test
+    public void parseIpNeighbour() throws IOException {
+        Map<String, NeighbourTable.Entry> snapshot = NeighbourTable.parseIpNeighbour(
+                reader("fe80::1 dev eth0 lladdr 00:11:22:33:44:55 router REACHABLE\n" + "fe80::2 dev eth0 FAILED\n"
+                        + "2001:db8::3 dev eth0 lladdr 00:11:22:33:44:66 STALE\n"));
+        assertThat(snapshot.size(), is(2));
+        assertThat(snapshot.get("fe80:0:0:0:0:0:0:1").reachable, is(true));
+        assertThat(snapshot.get("2001:db8:0:0:0:0:0:3").reachable, is(false));
+        assertThat(NeighbourTable.normalizeAddress("fe80::1%eth0"), is("fe80:0:0:0:0:0:0:1"));
+    }
+
+    @Test
+    public void onlyActivityIsReported() {
+        NeighbourTable table = new NeighbourTable();
+        // The first snapshot is the baseline: old complete entries are not reported, reachable ones are
+        assertThat(table.update(Collections.singletonMap("10.0.0.1", new NeighbourTable.Entry("a", false))).size(),
+                is(0));
+        assertThat(table.update(Collections.singletonMap("10.0.0.1", new NeighbourTable.Entry("a", false))).size(),
+                is(0));
+        // Changed hardware address
+        assertThat(table.update(Collections.singletonMap("10.0.0.1", new NeighbourTable.Entry("b", false))),
+                hasItem("10.0.0.1"));
+        // Disappeared and reappeared
+        assertThat(table.update(Collections.emptyMap()).size(), is(0));
+        assertThat(table.update(Collections.singletonMap("10.0.0.1", new NeighbourTable.Entry("b", false))),
+                hasItem("10.0.0.1"));
+        // Reachable entries are reported as long as they are reachable
+        assertThat(table.update(Collections.singletonMap("10.0.0.1", new NeighbourTable.Entry("b", true))),
+                hasItem("10.0.0.1"));
+        assertThat(table.update(Collections.singletonMap("10.0.0.1", new NeighbourTable.Entry("b", true))),
+                hasItem("10.0.0.1"));
+    }
+
+    @Test
+    public void testService() throws IOException {
+        Path arpTable = Files.createTempFile("arp", null);
+        Path previousPath = NeighbourTableListenService.arpTablePath;
+        NeighbourTableListenService.arpTablePath = arpTable;
+        try {
+            NeighbourSeenCallback listener = mock(NeighbourSeenCallback.class);
+            assertThat(NeighbourTableListenService.instance, is(nullValue()));
+            assertThat(NeighbourTableListenService.register("10.1.2.3", listener), is(true));
+            assertThat(NeighbourTableListenService.instance, is(notNullValue()));
+
+            // Replace the polling tables by a fresh state and read manually
+            NeighbourTableListenService.ipv4Table = new NeighbourTable();
+            Files.write(arpTable, ARP_HEADER.getBytes());
+            NeighbourTableListenService.readNeighbourTables();
+            Files.write(arpTable, (ARP_HEADER + "10.1.2.3 0x1 0x2 00:11:22:33:44:55 * eth0\n"
+                    + "10.1.2.4 0x1 0x2 00:11:22:33:44:66 * eth0\n").getBytes());
+            NeighbourTableListenService.readNeighbourTables();
+            verify(listener, timeout(1000).atLeastOnce()).neighbourSeen(eq("10.1.2.3"));
+            verify(listener, never()).neighbourSeen(eq("10.1.2.4"));
+
+            NeighbourTableListenService.unregister("10.1.2.3");
+            assertThat(NeighbourTableListenService.instance, is(nullValue()));
+        } finally {
+            NeighbourTableListenService.arpTablePath = previousPath;
+            Files.delete(arpTable);
+        }
+    }
+}
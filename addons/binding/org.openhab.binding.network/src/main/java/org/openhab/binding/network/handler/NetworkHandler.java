@@ -176,7 +176,12 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
             // Hand over binding configurations to the network service
             presenceDetection.setUseDhcpSniffing(configuration.allowDHCPlisten);
             presenceDetection.setUseIcmpPing(configuration.allowSystemPings);
+            if (configuration.allowSystemPings) {
+                presenceDetection.setUseFping(configuration.fpingToolPath);
+            }
             presenceDetection.setUseArpPing(true, configuration.arpPingToolPath);
+            presenceDetection.setUseNeighbourTable(configuration.allowNeighbourTableListen);
+            presenceDetection.setPassiveDetectionTime(configuration.passiveDetectionTimeInMS.longValue());
         }
 
         this.retries = handlerConfiguration.retry.intValue();
@@ -194,6 +199,8 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
         updateProperty(NetworkBindingConstants.PROPERTY_PRESENCE_DETECTION_TYPE, "");
         updateProperty(NetworkBindingConstants.PROPERTY_IOS_WAKEUP, presenceDetection.isIOSdevice() ? "On" : "Off");
         updateProperty(NetworkBindingConstants.PROPERTY_DHCP_STATE, presenceDetection.getDhcpState());
+        updateProperty(NetworkBindingConstants.PROPERTY_NEIGHBOUR_TABLE_STATE,
+                presenceDetection.getNeighbourTableState());
     }
 
     // Create a new network service and apply all configurations.
@@ -23,11 +23,17 @@ public class NetworkBindingConfiguration {
     public Boolean allowDHCPlisten = true;
     public BigDecimal cacheDeviceStateTimeInMS = BigDecimal.valueOf(2000);
     public String arpPingToolPath = "arping";
+    public String fpingToolPath = "fping";
+    public Boolean allowNeighbourTableListen = true;
+    public BigDecimal passiveDetectionTimeInMS = BigDecimal.ZERO;
 
     public void update(@NonNull NetworkBindingConfiguration newConfiguration) {
         this.allowSystemPings = newConfiguration.allowSystemPings;
         this.allowDHCPlisten = newConfiguration.allowDHCPlisten;
         this.cacheDeviceStateTimeInMS = newConfiguration.cacheDeviceStateTimeInMS;
         this.arpPingToolPath = newConfiguration.arpPingToolPath;
+        this.fpingToolPath = newConfiguration.fpingToolPath;
+        this.allowNeighbourTableListen = newConfiguration.allowNeighbourTableListen;
+        this.passiveDetectionTimeInMS = newConfiguration.passiveDetectionTimeInMS;
     }
 }
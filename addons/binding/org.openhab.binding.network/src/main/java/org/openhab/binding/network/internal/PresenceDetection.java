@@ -16,7 +16,7 @@ import java.net.UnknownHostException;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -25,6 +25,8 @@ import java.util.function.Consumer;
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.network.internal.dhcp.DHCPListenService;
 import org.openhab.binding.network.internal.dhcp.IPRequestReceivedCallback;
+import org.openhab.binding.network.internal.neighbour.NeighbourSeenCallback;
+import org.openhab.binding.network.internal.neighbour.NeighbourTableListenService;
 import org.openhab.binding.network.internal.toberemoved.cache.ExpiringCacheAsync;
 import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
@@ -38,22 +40,28 @@ import org.slf4j.LoggerFactory;
  * @author David Gräff, 2017 - Rewritten
  * @author Marc Mettke - Initial contribution
  */
-public class PresenceDetection implements IPRequestReceivedCallback {
+public class PresenceDetection implements IPRequestReceivedCallback, NeighbourSeenCallback {
     public static final double NOT_REACHABLE = -1;
     NetworkUtils networkUtils = new NetworkUtils();
+    PresenceDetectionEngine engine = PresenceDetectionEngine.getInstance();
     private Logger logger = LoggerFactory.getLogger(PresenceDetection.class);
 
     /// Configuration variables
     private boolean useDHCPsniffing = false;
+    private boolean useNeighbourTable = false;
+    private long passiveDetectionTimeInMS = 0;
     private ArpPingUtilEnum arpPingMethod = null;
     private String arpPingUtilPath = "arping";
     private IpPingMethodEnum pingMethod = null;
+    private String fpingToolPath = null;
     private boolean iosDevice;
     private Set<Integer> tcpPorts = new HashSet<Integer>();
 
     private long refreshIntervalInMS = 60000;
     private int timeoutInMS = 5000;
     private long lastSeenInMS;
+    private long lastPassiveSeenInMS;
+    private PresenceDetectionType lastPassiveType;
 
     private String hostname;
 
@@ -64,6 +72,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     private InetAddress destination;
     ExecutorService executorService;
     private String dhcpState = "off";
+    private String neighbourTableState = "off";
     Integer currentCheck = 0;
     int detectionChecks;
 
@@ -111,6 +120,28 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         this.useDHCPsniffing = enable;
     }
 
+    /**
+     * Enables or disables watching the neighbour table (ARP cache) of the operating system for
+     * activity of the device. This does not send any packets.
+     */
+    public void setUseNeighbourTable(boolean enable) {
+        this.useNeighbourTable = enable;
+    }
+
+    /**
+     * Sets the time for which no active checks (pings, TCP connections) are performed after the device has
+     * been detected passively, by a DHCP request or by neighbour table activity.
+     *
+     * @param passiveDetectionTime The time in milliseconds or 0 to always perform active checks.
+     */
+    public void setPassiveDetectionTime(long passiveDetectionTime) {
+        this.passiveDetectionTimeInMS = passiveDetectionTime;
+    }
+
+    public long getPassiveDetectionTime() {
+        return passiveDetectionTimeInMS;
+    }
+
     public void setRefreshInterval(long refreshInterval) {
         this.refreshIntervalInMS = refreshInterval;
     }
@@ -136,6 +167,30 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         }
     }
 
+    /**
+     * Enables or disables sending system pings by fping, together with the pings of other presence detections that
+     * are due at the same time. This method will perform a feature test, fping is disabled if it fails.
+     *
+     * @param fpingToolPath The file path to fping or null to disable fping.
+     */
+    public void setUseFping(String fpingToolPath) {
+        this.fpingToolPath = networkUtils.isFpingAvailable(fpingToolPath) ? fpingToolPath : null;
+    }
+
+    /**
+     * Sets the fping tool without a feature test. Use this if many presence detections are set up at once
+     * and fping has already been tested by {@link NetworkUtils#isFpingAvailable(String)}.
+     *
+     * @param fpingToolPath The file path to fping or null to disable fping.
+     */
+    public void setFpingToolPath(String fpingToolPath) {
+        this.fpingToolPath = fpingToolPath;
+    }
+
+    public String getFpingToolPath() {
+        return fpingToolPath;
+    }
+
     /**
      * Enables or disables ARP pings. Will be automatically disabled if the destination
      * is not an IPv4 address. If the feature test for the native arping utility fails,
@@ -156,6 +211,41 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         arpPingMethod = networkUtils.determineNativeARPpingMethod(arpPingUtilPath);
     }
 
+    /**
+     * Sets the ping method without a feature test. Use this if many presence detections are set up at once
+     * and the method has already been determined by {@link NetworkUtils#determinePingMethod()}.
+     *
+     * @param method The ping method or null to disable ICMP pings.
+     */
+    public void setPingMethod(IpPingMethodEnum method) {
+        pingMethod = method;
+    }
+
+    /**
+     * Sets the ARP ping tool without a feature test. Use this if many presence detections are set up at once
+     * and the tool has already been determined by {@link NetworkUtils#determineNativeARPpingMethod(String)}.
+     * ARP pings are disabled if the destination is not an IPv4 address or the path is empty.
+     *
+     * @param method The ARP ping tool or null to disable ARP pings.
+     * @param arpPingUtilPath The file path to the utility
+     */
+    public void setArpPingMethod(ArpPingUtilEnum method, String arpPingUtilPath) {
+        this.arpPingUtilPath = arpPingUtilPath;
+        if (StringUtils.isBlank(arpPingUtilPath) || !(destination instanceof Inet4Address)) {
+            arpPingMethod = null;
+            return;
+        }
+        arpPingMethod = method;
+    }
+
+    /**
+     * Sets the engine that performs the checks. By default, the engine shared by the presence detections of
+     * all things is used.
+     */
+    public void setEngine(PresenceDetectionEngine engine) {
+        this.engine = engine;
+    }
+
     public ArpPingUtilEnum arpPingMethod() {
         return arpPingMethod;
     }
@@ -168,6 +258,10 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return dhcpState;
     }
 
+    public String getNeighbourTableState() {
+        return neighbourTableState;
+    }
+
     /**
      * Return true if the device presence detection is performed for an iOS device
      * like iPhone or iPads. An additional port knock is performed before a ping.
@@ -202,14 +296,21 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         cache.getValue(callback);
     }
 
+    /**
+     * Return the executor for the checks of one presence detection. No threads are created,
+     * the checks are performed by the thread pool of the {@link PresenceDetectionEngine} that is
+     * shared by all presence detections of the binding.
+     *
+     * @param threadCount The amount of checks that will be submitted
+     */
     public ExecutorService getThreadsFor(int threadCount) {
-        return Executors.newFixedThreadPool(threadCount);
+        return engine.newTaskGroup();
     }
 
     /**
      * Perform a presence detection with ICMP-, ARP ping and
-     * TCP connection attempts simultaneously. A fixed thread pool will be created with as many
-     * thread as necessary to perform all tests at once.
+     * TCP connection attempts simultaneously. The checks are performed by the shared
+     * thread pool of the {@link PresenceDetectionEngine}.
      *
      * This is a NO-OP, if there is already an ongoing detection or if the cached value
      * is not expired yet.
@@ -234,6 +335,11 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return false;
         }
 
+        if (isPassivelyDetected()) {
+            submitPassiveResult();
+            return true;
+        }
+
         Set<String> interfaceNames = null;
 
         currentCheck = 0;
@@ -252,36 +358,44 @@ public class PresenceDetection implements IPRequestReceivedCallback {
 
         executorService = getThreadsFor(detectionChecks);
 
-        for (Integer tcpPort : tcpPorts) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionTCP_" + hostname + " " + String.valueOf(tcpPort));
-                performServicePing(tcpPort);
-                checkIfFinished();
-            });
-        }
-
-        // ARP ping for IPv4 addresses. Use an own executor for each network interface
-        if (interfaceNames != null) {
-            for (final String interfaceName : interfaceNames) {
+        try {
+            for (Integer tcpPort : tcpPorts) {
                 executorService.execute(() -> {
-                    Thread.currentThread().setName("presenceDetectionARP_" + hostname + " " + interfaceName);
-                    performARPping(interfaceName);
+                    Thread.currentThread().setName("presenceDetectionTCP_" + hostname + " " + String.valueOf(tcpPort));
+                    performServicePing(tcpPort);
                     checkIfFinished();
                 });
             }
-        }
 
-        // ICMP ping
-        if (pingMethod != null) {
-            executorService.execute(() -> {
-                if (pingMethod != IpPingMethodEnum.JAVA_PING) {
-                    Thread.currentThread().setName("presenceDetectionICMP_" + hostname);
-                    performSystemPing();
-                } else {
-                    performJavaPing();
+            // ARP ping for IPv4 addresses. Use an own executor for each network interface
+            if (interfaceNames != null) {
+                for (final String interfaceName : interfaceNames) {
+                    executorService.execute(() -> {
+                        Thread.currentThread().setName("presenceDetectionARP_" + hostname + " " + interfaceName);
+                        performARPping(interfaceName);
+                        checkIfFinished();
+                    });
                 }
-                checkIfFinished();
-            });
+            }
+
+            // ICMP ping
+            if (pingMethod != null) {
+                executorService.execute(() -> {
+                    if (pingMethod != IpPingMethodEnum.JAVA_PING) {
+                        Thread.currentThread().setName("presenceDetectionICMP_" + hostname);
+                        performSystemPing();
+                    } else {
+                        performJavaPing();
+                    }
+                    checkIfFinished();
+                });
+            }
+        } catch (RejectedExecutionException e) {
+            // Too many checks of the binding wait for a free thread, the next refresh tries again
+            logger.debug("Skipping the presence detection for {}: {}", hostname, e.getMessage());
+            executorService.shutdownNow();
+            executorService = null;
+            return false;
         }
 
         if (waitForDetectionToFinish) {
@@ -322,6 +436,30 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         updateListener.finalDetectionResult(v);
     }
 
+    /**
+     * Return true if the device has been detected passively within the passive detection time.
+     */
+    private synchronized boolean isPassivelyDetected() {
+        return passiveDetectionTimeInMS > 0 && lastPassiveType != null
+                && lastPassiveSeenInMS + passiveDetectionTimeInMS > System.currentTimeMillis();
+    }
+
+    /**
+     * Calls updateListener.finalDetectionResult() with the result of the passive detection,
+     * without performing active checks.
+     */
+    private void submitPassiveResult() {
+        PresenceDetectionValue v;
+        synchronized (this) {
+            logger.trace("Skip active presence detection for {}, it has been detected by {}", hostname,
+                    lastPassiveType);
+            v = new PresenceDetectionValue(destination.getHostAddress(), 0);
+            v.addType(lastPassiveType);
+            cache.setValue(v);
+        }
+        updateListener.finalDetectionResult(v);
+    }
+
     /**
      * This method is called after each individual check and increases a check counter.
      * If the counter equals the total checks,the final result is submitted. This will
@@ -341,16 +479,22 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * if no presence detection is performed right now.
      */
     public void waitForPresenceDetection() {
-        if (executorService == null) {
+        ExecutorService service = executorService;
+        if (service == null) {
             return;
         }
         try {
             // We may get interrupted here by cancelRefreshJob().
-            executorService.awaitTermination(timeoutInMS + 100, TimeUnit.MILLISECONDS);
+            // The timeout applies to the checks, not to the time they wait for a free thread of the shared pool.
+            while (!service.awaitTermination(timeoutInMS + 100, TimeUnit.MILLISECONDS)
+                    && service instanceof PresenceDetectionEngine.TaskGroup
+                    && ((PresenceDetectionEngine.TaskGroup) service).hasQueuedTasks()) {
+                logger.trace("Presence detection checks for {} wait for a free thread", hostname);
+            }
             submitFinalResult();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Reset interrupt flag
-            executorService.shutdownNow();
+            service.shutdownNow();
             executorService = null;
         }
     }
@@ -383,9 +527,10 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     protected void performServicePing(int tcpPort) {
         logger.trace("Perform TCP presence detection for {} on port: {}", hostname, tcpPort);
         try {
-            double pingTime = System.nanoTime();
-            if (networkUtils.servicePing(destination.getHostAddress(), tcpPort, timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            final String address = destination.getHostAddress();
+            final double latency = engine.performProbe("tcp " + timeoutInMS + " " + address + " " + tcpPort,
+                    () -> networkUtils.servicePing(address, tcpPort, timeoutInMS));
+            if (latency != NOT_REACHABLE) {
                 PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION, latency);
                 v.addReachableTcpService(tcpPort);
                 updateListener.partialDetectionResult(v);
@@ -393,6 +538,8 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         } catch (IOException e) {
             // This should not happen and might be a user configuration issue, we log a warning message therefore.
             logger.warn("Could not create a socket connection", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Reset interrupt flag
         }
     }
 
@@ -411,17 +558,20 @@ public class PresenceDetection implements IPRequestReceivedCallback {
                 networkUtils.wakeUpIOS(destination);
                 Thread.sleep(50);
             }
-            double pingTime = System.nanoTime();
-            if (networkUtils.nativeARPPing(arpPingMethod, arpPingUtilPath, interfaceName, destination.getHostAddress(),
-                    timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            final String address = destination.getHostAddress();
+            final double latency = engine.performProbe(
+                    "arp " + arpPingMethod + " " + arpPingUtilPath + " " + timeoutInMS + " " + interfaceName + " "
+                            + address,
+                    () -> networkUtils.nativeARPPing(arpPingMethod, arpPingUtilPath, interfaceName, address,
+                            timeoutInMS));
+            if (latency != NOT_REACHABLE) {
                 PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ARP_PING, latency);
                 updateListener.partialDetectionResult(v);
             }
         } catch (IOException e) {
             logger.trace("Failed to execute an arp ping for ip {}", hostname, e);
-        } catch (InterruptedException ignored) {
-            // This can be ignored, the thread will end anyway
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Reset interrupt flag
         }
     }
 
@@ -434,36 +584,70 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     protected void performJavaPing() {
         try {
             logger.trace("Perform java ping presence detection for {}", hostname);
-            double pingTime = System.nanoTime();
-            if (destination.isReachable(timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            final double latency = engine.performProbe("java " + timeoutInMS + " " + destination.getHostAddress(),
+                    () -> destination.isReachable(timeoutInMS));
+            if (latency != NOT_REACHABLE) {
                 PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ICMP_PING, latency);
                 updateListener.partialDetectionResult(v);
             }
         } catch (IOException e) {
             logger.trace("Failed to execute a java ping for ip {}", hostname, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Reset interrupt flag
         }
     }
 
     protected void performSystemPing() {
         try {
             logger.trace("Perform native ping presence detection for {}", hostname);
-            double pingTime = System.nanoTime();
-            if (networkUtils.nativePing(pingMethod, destination.getHostAddress(), timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            final String address = destination.getHostAddress();
+            final String fpingToolPath = this.fpingToolPath;
+            Double latency = null;
+            if (fpingToolPath != null) {
+                try {
+                    latency = engine.performBatchedPing(address, timeoutInMS,
+                            (addresses, timeout) -> networkUtils.nativeFping(fpingToolPath, addresses, timeout));
+                } catch (IOException e) {
+                    logger.trace("Failed to execute fping for ip {}, using ping instead", hostname, e);
+                }
+            }
+            if (latency == null) {
+                latency = engine.performProbe("icmp " + pingMethod + " " + timeoutInMS + " " + address,
+                        () -> networkUtils.nativePing(pingMethod, address, timeoutInMS));
+            }
+            if (latency != NOT_REACHABLE) {
                 PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ICMP_PING, latency);
                 updateListener.partialDetectionResult(v);
             }
         } catch (IOException e) {
             logger.trace("Failed to execute a native ping for ip {}", hostname, e);
         } catch (InterruptedException e) {
-            // This can be ignored, the thread will end anyway
+            Thread.currentThread().interrupt(); // Reset interrupt flag
         }
     }
 
     @Override
     public void dhcpRequestReceived(String ipAddress) {
-        PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.DHCP_REQUEST, 0);
+        passiveDetection(PresenceDetectionType.DHCP_REQUEST);
+    }
+
+    @Override
+    public void neighbourSeen(String ipAddress) {
+        passiveDetection(PresenceDetectionType.NEIGHBOUR_TABLE);
+    }
+
+    /**
+     * The device has been detected without sending packets to it.
+     *
+     * @param type The passive detection type
+     */
+    void passiveDetection(PresenceDetectionType type) {
+        PresenceDetectionValue v;
+        synchronized (this) {
+            lastPassiveSeenInMS = System.currentTimeMillis();
+            lastPassiveType = type;
+            v = updateReachableValue(type, 0);
+        }
         updateListener.partialDetectionResult(v);
     }
 
@@ -480,6 +664,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
                 refreshIntervalInMS, TimeUnit.MILLISECONDS);
 
         enableDHCPListen(useDHCPsniffing);
+        enableNeighbourTableListen(useNeighbourTable);
     }
 
     /**
@@ -498,6 +683,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             refreshJob = null;
         }
         enableDHCPListen(false);
+        enableNeighbourTableListen(false);
     }
 
     /**
@@ -525,4 +711,24 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             dhcpState = "off";
         }
     }
+
+    /**
+     * Enables/Disables watching the neighbour table of the operating system for activity of the device.
+     * The hostname of this network service object will be registered to the neighbour table listener if
+     * enabled and unregistered otherwise.
+     *
+     * @param enabled Enable/Disable the neighbour table listen service for this hostname.
+     */
+    private void enableNeighbourTableListen(boolean enabled) {
+        if (enabled) {
+            if (NeighbourTableListenService.register(destination.getHostAddress(), this)) {
+                neighbourTableState = "Running normally";
+            } else {
+                neighbourTableState = "Not available on this operating system";
+            }
+        } else {
+            NeighbourTableListenService.unregister(destination.getHostAddress());
+            neighbourTableState = "off";
+        }
+    }
 }
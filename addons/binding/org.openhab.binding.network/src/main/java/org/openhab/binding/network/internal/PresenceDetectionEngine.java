@@ -0,0 +1,389 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared by all {@link PresenceDetection} objects of the things of the binding. It owns one bounded thread pool for all
+ * presence detection checks, instead of a thread pool per detection, and makes sure that identical checks (same method
+ * and same destination) that are in progress at the same time are performed only once. ICMP pings to different
+ * destinations that are due at the same time can be sent by one process, see
+ * {@link #performBatchedPing(String, int, BatchPing)}.
+ *
+ * The discovery scans whole subnets and has an instance of its own, see {@link #getDiscoveryInstance()}. A scan
+ * therefore does not delay the refreshes of things.
+ *
+ * A detection submits its checks to a {@link TaskGroup}, which is an {@link java.util.concurrent.ExecutorService}
+ * view on the shared pool. Shutting down a task group cancels the checks of this detection only and does not create
+ * or destroy any threads.
+ *
+ * @author agent - Initial contribution
+ */
+public class PresenceDetectionEngine {
+    /** The maximum number of checks that are performed at the same time by the whole binding */
+    public static final int MAXIMUM_THREADS = 32;
+    /** The maximum number of checks that are performed at the same time by a discovery scan */
+    public static final int MAXIMUM_DISCOVERY_THREADS = 16;
+    /** The maximum number of checks that wait for a free thread, further checks are rejected */
+    public static final int MAXIMUM_QUEUED_TASKS = 1024;
+    /** The time in milliseconds a batched ping waits for further destinations */
+    static final long BATCH_WINDOW_IN_MS = 100;
+    /** The maximum number of destinations of a batched ping */
+    static final int MAXIMUM_BATCH_SIZE = 256;
+    private static final long THREAD_KEEP_ALIVE_IN_S = 60;
+
+    private static final PresenceDetectionEngine INSTANCE = new PresenceDetectionEngine();
+    private static final PresenceDetectionEngine DISCOVERY_INSTANCE = new PresenceDetectionEngine(
+            "networkDiscovery-", MAXIMUM_DISCOVERY_THREADS, MAXIMUM_QUEUED_TASKS);
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<Double>> runningProbes = new ConcurrentHashMap<>();
+    // Batched pings that still accept destinations, by timeout
+    private final Map<Integer, Map<String, CompletableFuture<Double>>> openBatches = new HashMap<>();
+
+    /**
+     * A check, for example a native ping. Returns true if the device responded.
+     */
+    @FunctionalInterface
+    public static interface Probe {
+        boolean perform() throws IOException, InterruptedException;
+    }
+
+    /**
+     * An ICMP ping of many destinations by one process, for example by fping. Returns the latency in milliseconds of
+     * every destination that responded.
+     */
+    @FunctionalInterface
+    public static interface BatchPing {
+        Map<String, Double> perform(Set<String> addresses, int timeoutInMS) throws IOException, InterruptedException;
+    }
+
+    PresenceDetectionEngine() {
+        this(MAXIMUM_THREADS, MAXIMUM_QUEUED_TASKS);
+    }
+
+    PresenceDetectionEngine(int maximumThreads, int maximumQueuedTasks) {
+        this("networkPresenceDetection-", maximumThreads, maximumQueuedTasks);
+    }
+
+    private PresenceDetectionEngine(String threadNamePrefix, int maximumThreads, int maximumQueuedTasks) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(maximumThreads, maximumThreads, THREAD_KEEP_ALIVE_IN_S, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maximumQueuedTasks), threadFactory);
+        // Threads are only kept while there is something to do
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Return the engine of the presence detections of things.
+     */
+    public static PresenceDetectionEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return the engine of the discovery, with a thread pool of its own.
+     */
+    public static PresenceDetectionEngine getDiscoveryInstance() {
+        return DISCOVERY_INSTANCE;
+    }
+
+    /**
+     * Create a new, empty group of tasks, executed by the shared thread pool.
+     */
+    public TaskGroup newTaskGroup() {
+        return new TaskGroup();
+    }
+
+    /**
+     * Perform a check in the calling thread. If the same check (identified by the key) is already performed by
+     * another thread, no new check is started, but the result of the running one is awaited and returned. If the
+     * thread performing the check gets interrupted, the check is performed again by one of the waiting threads.
+     *
+     * @param key Identifies the check, that is all parameters that influence the result, for example the method,
+     *            the timeout and the destination address. Must not be null.
+     * @param probe The check. Must not be null.
+     * @return The latency in milliseconds if the device responded, {@link PresenceDetection#NOT_REACHABLE} otherwise.
+     * @throws IOException The check could not be performed
+     * @throws InterruptedException The thread was interrupted while performing or waiting for the check
+     */
+    public double performProbe(String key, Probe probe) throws IOException, InterruptedException {
+        while (true) {
+            CompletableFuture<Double> ownResult = new CompletableFuture<>();
+            CompletableFuture<Double> runningResult = runningProbes.putIfAbsent(key, ownResult);
+            if (runningResult == null) {
+                return performProbe(key, probe, ownResult);
+            }
+            try {
+                return runningResult.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                // The performing thread got interrupted, the check has no result. Perform it again.
+            }
+        }
+    }
+
+    private double performProbe(String key, Probe probe, CompletableFuture<Double> ownResult)
+            throws IOException, InterruptedException {
+        try {
+            double pingTime = System.nanoTime();
+            double latency = PresenceDetection.NOT_REACHABLE;
+            if (probe.perform()) {
+                latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            }
+            ownResult.complete(latency);
+            return latency;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            ownResult.completeExceptionally(e);
+            throw e;
+        } finally {
+            runningProbes.remove(key, ownResult);
+        }
+    }
+
+    /**
+     * Ping a destination together with all other destinations that are pinged with the same timeout within
+     * {@value #BATCH_WINDOW_IN_MS} ms. The calling thread that opens a batch waits for further destinations and
+     * performs the ping for all of them, the other calling threads wait for its result.
+     *
+     * @param address The destination address. Must not be null.
+     * @param timeoutInMS The timeout of the ping in milliseconds
+     * @param batchPing Performs the ping of all destinations. Must not be null.
+     * @return The latency in milliseconds if the device responded, {@link PresenceDetection#NOT_REACHABLE} otherwise.
+     * @throws IOException The ping could not be performed, for example because the tool is missing
+     * @throws InterruptedException The thread was interrupted while performing or waiting for the ping
+     */
+    public double performBatchedPing(String address, int timeoutInMS, BatchPing batchPing)
+            throws IOException, InterruptedException {
+        while (true) {
+            Map<String, CompletableFuture<Double>> batch;
+            CompletableFuture<Double> result;
+            boolean performBatch = false;
+            synchronized (openBatches) {
+                batch = openBatches.get(timeoutInMS);
+                if (batch == null) {
+                    batch = new HashMap<>();
+                    openBatches.put(timeoutInMS, batch);
+                    performBatch = true;
+                }
+                result = batch.computeIfAbsent(address, a -> new CompletableFuture<>());
+                if (batch.size() >= MAXIMUM_BATCH_SIZE) {
+                    openBatches.remove(timeoutInMS, batch);
+                }
+            }
+            if (performBatch) {
+                performBatch(timeoutInMS, batch, batchPing);
+            }
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                // The performing thread got interrupted, the ping has no result. Join or open a new batch.
+            }
+        }
+    }
+
+    private void performBatch(int timeoutInMS, Map<String, CompletableFuture<Double>> batch, BatchPing batchPing)
+            throws InterruptedException {
+        Map<String, CompletableFuture<Double>> results = null;
+        try {
+            Thread.sleep(BATCH_WINDOW_IN_MS);
+            results = closeBatch(timeoutInMS, batch);
+            Map<String, Double> latencies = batchPing.perform(results.keySet(), timeoutInMS);
+            results.forEach((address, result) -> result
+                    .complete(latencies.getOrDefault(address, PresenceDetection.NOT_REACHABLE)));
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            if (results == null) {
+                results = closeBatch(timeoutInMS, batch);
+            }
+            results.values().forEach(result -> result.completeExceptionally(e));
+            if (e instanceof InterruptedException) {
+                throw (InterruptedException) e;
+            }
+        }
+    }
+
+    private Map<String, CompletableFuture<Double>> closeBatch(int timeoutInMS,
+            Map<String, CompletableFuture<Double>> batch) {
+        synchronized (openBatches) {
+            openBatches.remove(timeoutInMS, batch);
+            return new HashMap<>(batch);
+        }
+    }
+
+    /**
+     * Return the number of checks that wait for a free thread.
+     */
+    public int getQueuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * The tasks of one presence detection. All tasks are executed by the shared thread pool, the number of tasks
+     * of a group is not limited.
+     */
+    public class TaskGroup extends AbstractExecutorService {
+        private final Set<Task> tasks = new HashSet<>();
+        private boolean shutdown = false;
+
+        private class Task extends FutureTask<Void> {
+            private volatile boolean started = false;
+
+            Task(Runnable runnable) {
+                super(runnable, null);
+            }
+
+            @Override
+            public void run() {
+                started = true;
+                // Tasks may name the thread after their check, restore the name of the pool thread afterwards
+                String threadName = Thread.currentThread().getName();
+                try {
+                    super.run();
+                } finally {
+                    Thread.currentThread().setName(threadName);
+                }
+            }
+
+            @Override
+            protected void done() {
+                taskDone(this);
+            }
+        }
+
+        private TaskGroup() {
+        }
+
+        /**
+         * Execute a task by the shared thread pool.
+         *
+         * @throws RejectedExecutionException The group is shut down or too many tasks of the binding are waiting for
+         *             a free thread
+         */
+        @Override
+        public void execute(Runnable command) {
+            Task task = new Task(command);
+            synchronized (this) {
+                if (shutdown) {
+                    throw new RejectedExecutionException("The task group is shut down");
+                }
+                tasks.add(task);
+            }
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                taskDone(task);
+                throw e;
+            }
+        }
+
+        private synchronized void taskDone(Task task) {
+            tasks.remove(task);
+            if (tasks.isEmpty()) {
+                notifyAll();
+            }
+        }
+
+        /**
+         * Return true if at least one task of this group is still waiting for a free thread of the shared pool.
+         */
+        public synchronized boolean hasQueuedTasks() {
+            for (Task task : tasks) {
+                if (!task.started) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            shutdown = true;
+            if (tasks.isEmpty()) {
+                notifyAll();
+            }
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            List<Task> cancelTasks;
+            synchronized (this) {
+                shutdown = true;
+                cancelTasks = new ArrayList<>(tasks);
+            }
+            // Cancelled tasks are removed from the group by Task.done()
+            List<Runnable> notStarted = new ArrayList<>();
+            for (Task task : cancelTasks) {
+                if (!task.started) {
+                    notStarted.add(task);
+                }
+                task.cancel(true);
+            }
+            executor.purge();
+            return Collections.unmodifiableList(notStarted);
+        }
+
+        @Override
+        public synchronized boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public synchronized boolean isTerminated() {
+            return shutdown && tasks.isEmpty();
+        }
+
+        @Override
+        public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        }
+    }
+}
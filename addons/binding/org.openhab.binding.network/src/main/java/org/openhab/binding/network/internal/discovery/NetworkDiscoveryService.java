@@ -10,7 +10,11 @@ package org.openhab.binding.network.internal.discovery;
 
 import static org.openhab.binding.network.NetworkBindingConstants.*;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,9 +30,12 @@ import org.eclipse.smarthome.config.discovery.DiscoveryService;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.openhab.binding.network.internal.NetworkBindingConfiguration;
 import org.openhab.binding.network.internal.PresenceDetection;
+import org.openhab.binding.network.internal.PresenceDetectionEngine;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
 import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
+import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -43,6 +50,11 @@ import com.google.common.collect.Sets;
  * the current Network. It uses every Network Interface which is connected to a network.
  * It tries common TCP ports to connect to, ICMP pings and ARP pings.
  *
+ * All TCP connection attempts are performed by one {@link TcpPortScanner} with non-blocking sockets.
+ * ICMP and ARP pings are performed for many IPs in parallel by the discovery {@link PresenceDetectionEngine}, which
+ * does not share its threads with the presence detections of things.
+ * Devices are reported as soon as they are found, while the scan is still running.
+ *
  * @author David Graeff - Rewritten
  * @author Marc Mettke - Initial contribution
  */
@@ -59,6 +71,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     private Set<Integer> tcp_service_ports = Sets.newHashSet(80, 548, 554, 1025);
     private Integer scannedIPcount;
     private ExecutorService executorService = null;
+    private TcpPortScanner tcpPortScanner = null;
     private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
     NetworkUtils networkUtils = new NetworkUtils();
 
@@ -120,8 +133,37 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
         logger.trace("Starting Network Device Discovery");
 
         final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE);
-        executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        // The threads only wait for the ping results of an IP, the pings are performed by the discovery engine
+        executorService = Executors.newFixedThreadPool(PresenceDetectionEngine.MAXIMUM_DISCOVERY_THREADS + 1);
         scannedIPcount = 0;
+        // All IPs and the TCP port scan
+        final int scanTasks = networkIPs.size() + 1;
+
+        List<InetSocketAddress> tcpDestinations = new ArrayList<>();
+        for (String ip : networkIPs) {
+            for (int port : tcp_service_ports) {
+                tcpDestinations.add(new InetSocketAddress(ip, port));
+            }
+        }
+        final TcpPortScanner scanner = new TcpPortScanner(tcpDestinations, PING_TIMEOUT_IN_MS,
+                (address, latency) -> newServiceDevice(address.getAddress().getHostAddress(), address.getPort()));
+        tcpPortScanner = scanner;
+        executorService.execute(() -> {
+            Thread.currentThread().setName("Discovery TCP port scan");
+            try {
+                scanner.run();
+            } catch (IOException e) {
+                logger.warn("TCP port scan failed", e);
+            }
+            scanFinished(scanTasks);
+        });
+
+        // Feature tests of the ping tools are performed once for all IPs
+        IpPingMethodEnum pingMethod = networkUtils.determinePingMethod();
+        ArpPingUtilEnum arpPingMethod = networkUtils.determineNativeARPpingMethod(configuration.arpPingToolPath);
+        String fpingToolPath = networkUtils.isFpingAvailable(configuration.fpingToolPath)
+                ? configuration.fpingToolPath
+                : null;
 
         for (String ip : networkIPs) {
             final PresenceDetection s = new PresenceDetection(this, 2000);
@@ -131,35 +173,43 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
                 logger.trace("Skip IP that cannot be converted to a InetAddress", unknownHostException);
                 continue;
             }
+            s.setEngine(PresenceDetectionEngine.getDiscoveryInstance());
             s.setIOSDevice(true);
             s.setUseDhcpSniffing(false);
             s.setTimeout(PING_TIMEOUT_IN_MS);
             // Ping devices
-            s.setUseIcmpPing(true);
-            s.setUseArpPing(true, configuration.arpPingToolPath);
-            // TCP devices
-            s.setServicePorts(tcp_service_ports);
+            s.setPingMethod(pingMethod);
+            s.setFpingToolPath(fpingToolPath);
+            s.setArpPingMethod(arpPingMethod, configuration.arpPingToolPath);
+            // TCP devices are found by the port scanner
+            s.setServicePorts(Collections.emptySet());
 
             executorService.execute(() -> {
                 Thread.currentThread().setName("Discovery thread " + ip);
                 s.performPresenceDetection(true);
-                synchronized (scannedIPcount) {
-                    scannedIPcount += 1;
-                    if (scannedIPcount == networkIPs.size()) {
-                        logger.trace("Scan of {} IPs successful", scannedIPcount);
-                        stopScan();
-                    }
-                }
+                scanFinished(scanTasks);
             });
         }
     }
 
+    private synchronized void scanFinished(int scanTasks) {
+        scannedIPcount += 1;
+        if (scannedIPcount == scanTasks) {
+            logger.trace("Scan of {} IPs successful", scanTasks - 1);
+            stopScan();
+        }
+    }
+
     @Override
     protected synchronized void stopScan() {
         super.stopScan();
         if (executorService == null) {
             return;
         }
+        if (tcpPortScanner != null) {
+            tcpPortScanner.stop();
+            tcpPortScanner = null;
+        }
 
         try {
             executorService.awaitTermination(PING_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
@@ -176,7 +226,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the TCP port scanner in {@link startScan}.
      *
      * @param ip The device IP
      * @param tcpPort The TCP port
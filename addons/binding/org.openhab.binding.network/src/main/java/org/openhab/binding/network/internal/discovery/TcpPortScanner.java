@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tries to establish TCP connections to many destinations at once, with non-blocking sockets
+ * and a single thread. Open ports are reported to the listener as soon as the connection is established.
+ *
+ * The amount of connection attempts in flight is limited by a window, that adapts itself: It grows with every
+ * attempt that completes before its timeout (connection established, refused or no route) and is halved if the
+ * operating system runs out of resources (sockets, buffers).
+ *
+ * A destination is retried only if the connection attempt timed out, although the host answered on another port.
+ * Most addresses of a subnet are not in use and would time out again.
+ *
+ * @author agent - Initial contribution
+ */
+public class TcpPortScanner {
+    static final int MINIMUM_WINDOW = 16;
+    static final int INITIAL_WINDOW = 64;
+    static final int MAXIMUM_WINDOW = 256;
+    static final int MAXIMUM_RETRIES = 1;
+
+    private final Logger logger = LoggerFactory.getLogger(TcpPortScanner.class);
+
+    /**
+     * Implement this callback to be notified of open ports.
+     */
+    @FunctionalInterface
+    public static interface Listener {
+        void portOpen(InetSocketAddress address, double latency);
+    }
+
+    private static class Target {
+        final InetSocketAddress address;
+        int attempt = 0;
+        long startTime;
+        SocketChannel channel;
+
+        Target(InetSocketAddress address) {
+            this.address = address;
+        }
+    }
+
+    private final Listener listener;
+    private final long timeoutInNS;
+    private final ArrayDeque<Target> pending = new ArrayDeque<>();
+    // Ordered by start time, which is also the order of the timeouts
+    private final Set<Target> inFlight = new LinkedHashSet<>();
+    private final List<Target> timedOut = new ArrayList<>();
+    private final Set<InetAddress> answeringHosts = new HashSet<>();
+    private int window = INITIAL_WINDOW;
+    private volatile boolean stopped = false;
+    private volatile Selector selector;
+
+    /**
+     * Create a new scanner.
+     *
+     * @param destinations The IP addresses and ports to connect to
+     * @param timeoutInMS Timeout of a single connection attempt in milliseconds
+     * @param listener Will be called for every open port. Must not block.
+     */
+    public TcpPortScanner(Collection<InetSocketAddress> destinations, int timeoutInMS, Listener listener) {
+        this.listener = listener;
+        this.timeoutInNS = TimeUnit.MILLISECONDS.toNanos(timeoutInMS);
+        for (InetSocketAddress destination : destinations) {
+            pending.add(new Target(destination));
+        }
+    }
+
+    /**
+     * Perform the scan in the calling thread. Returns when all destinations have been tried
+     * or the scan has been stopped.
+     *
+     * @throws IOException If no selector could be opened
+     */
+    public void run() throws IOException {
+        selector = Selector.open();
+        try {
+            while (!stopped) {
+                if (pending.isEmpty() && inFlight.isEmpty() && !retryTimedOut()) {
+                    break;
+                }
+                while (inFlight.size() < window && !pending.isEmpty() && !stopped) {
+                    connect(pending.poll());
+                }
+                if (inFlight.isEmpty()) {
+                    continue;
+                }
+                long waitTime = inFlight.iterator().next().startTime + timeoutInNS - System.nanoTime();
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitTime)));
+                for (SelectionKey key : selector.selectedKeys()) {
+                    finishConnect((Target) key.attachment());
+                }
+                selector.selectedKeys().clear();
+                expire();
+            }
+        } finally {
+            for (Target target : inFlight) {
+                close(target);
+            }
+            inFlight.clear();
+            selector.close();
+        }
+    }
+
+    /**
+     * Stop a running scan. Can be called from any thread.
+     */
+    public void stop() {
+        stopped = true;
+        Selector s = selector;
+        if (s != null) {
+            s.wakeup();
+        }
+    }
+
+    /**
+     * Return the current amount of connection attempts that may be in flight at the same time.
+     */
+    int getWindow() {
+        return window;
+    }
+
+    private void connect(Target target) {
+        target.startTime = System.nanoTime();
+        try {
+            target.channel = SocketChannel.open();
+            target.channel.configureBlocking(false);
+            target.channel.register(selector, SelectionKey.OP_CONNECT, target);
+        } catch (IOException e) {
+            // Out of sockets or buffers. Try again later with less connections in flight.
+            close(target);
+            window = Math.max(MINIMUM_WINDOW, window / 2);
+            if (target.attempt++ < MAXIMUM_RETRIES) {
+                pending.add(target);
+            } else {
+                logger.debug("Could not open a socket for {}: {}", target.address, e.getMessage());
+            }
+            return;
+        }
+        try {
+            if (target.channel.connect(target.address)) {
+                completed(target, true, true);
+                close(target);
+            } else {
+                inFlight.add(target);
+            }
+        } catch (IOException e) {
+            completed(target, false, e instanceof ConnectException);
+            close(target);
+        }
+    }
+
+    private void finishConnect(Target target) {
+        inFlight.remove(target);
+        try {
+            if (target.channel.finishConnect()) {
+                completed(target, true, true);
+            }
+        } catch (IOException e) {
+            // A refused connection means that the host is there. Other errors, like a NoRouteToHostException
+            // because the host did not answer ARP requests, do not.
+            completed(target, false, e instanceof ConnectException);
+        } finally {
+            close(target);
+        }
+    }
+
+    private void completed(Target target, boolean open, boolean hostAnswered) {
+        window = Math.min(MAXIMUM_WINDOW, window + 1);
+        if (hostAnswered) {
+            answeringHosts.add(target.address.getAddress());
+        }
+        if (open) {
+            listener.portOpen(target.address, Math.round((System.nanoTime() - target.startTime) / 1000000.0f));
+        }
+    }
+
+    private void expire() {
+        long now = System.nanoTime();
+        Iterator<Target> iterator = inFlight.iterator();
+        while (iterator.hasNext()) {
+            Target target = iterator.next();
+            if (target.startTime + timeoutInNS - now > 0) {
+                break;
+            }
+            iterator.remove();
+            close(target);
+            timedOut.add(target);
+        }
+    }
+
+    /**
+     * Moves the timed out destinations of hosts that answered on other ports back to the pending ones.
+     *
+     * @return Return true if there are destinations to retry.
+     */
+    private boolean retryTimedOut() {
+        for (Target target : timedOut) {
+            if (target.attempt < MAXIMUM_RETRIES && answeringHosts.contains(target.address.getAddress())) {
+                target.attempt++;
+                pending.add(target);
+            }
+        }
+        timedOut.clear();
+        return !pending.isEmpty();
+    }
+
+    private void close(Target target) {
+        if (target.channel != null) {
+            try {
+                target.channel.close();
+            } catch (IOException ignored) {
+            }
+            target.channel = null;
+        }
+    }
+}
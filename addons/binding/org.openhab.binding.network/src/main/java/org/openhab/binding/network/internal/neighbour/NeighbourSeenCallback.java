@@ -0,0 +1,19 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.neighbour;
+
+/**
+ * Implement this callback to be notified if a device has been seen in the neighbour table (ARP cache) of the
+ * operating system.
+ *
+ * @author agent - Initial contribution
+ */
+public interface NeighbourSeenCallback {
+    void neighbourSeen(String ipAddress);
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.neighbour;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * The last known snapshot of a neighbour table (ARP cache) of the operating system. A new snapshot is compared
+ * to the last one to figure out which devices have been active in the meantime:
+ * - A new entry or an entry with a changed hardware address means the device has sent or answered an ARP request.
+ * - An entry in the REACHABLE state (only available with the "ip neigh" tool) has been confirmed recently.
+ * Unchanged entries in other states are not reported, because the kernel keeps them for a long time
+ * after a device has left the network.
+ *
+ * @author agent - Initial contribution
+ */
+public class NeighbourTable {
+    // ARP entry flag: The entry is complete (hardware address is known), see linux/if_arp.h
+    private static final int ATF_COM = 0x02;
+
+    /**
+     * A single entry of a neighbour table
+     */
+    public static class Entry {
+        final String hardwareAddress;
+        final boolean reachable;
+
+        public Entry(String hardwareAddress, boolean reachable) {
+            this.hardwareAddress = hardwareAddress;
+            this.reachable = reachable;
+        }
+    }
+
+    private Map<String, Entry> entries = Collections.emptyMap();
+    private boolean initialized = false;
+
+    /**
+     * Replaces the last snapshot by the given one.
+     *
+     * @param snapshot A new snapshot of the neighbour table. Must not be null.
+     * @return Returns the IP addresses of the devices that have been active since the last snapshot.
+     *         The first snapshot only reports devices in the REACHABLE state.
+     */
+    public Set<String> update(Map<String, Entry> snapshot) {
+        Set<String> seen = new HashSet<>();
+        for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+            Entry previous = entries.get(entry.getKey());
+            Entry current = entry.getValue();
+            if (current.reachable || (initialized
+                    && (previous == null || !previous.hardwareAddress.equals(current.hardwareAddress)))) {
+                seen.add(entry.getKey());
+            }
+        }
+        entries = snapshot;
+        initialized = true;
+        return seen;
+    }
+
+    /**
+     * Parses the linux ARP table (/proc/net/arp). Incomplete entries are skipped.
+     *
+     * <pre>
+     * IP address       HW type     Flags       HW address            Mask     Device
+     * 192.168.1.1      0x1         0x2         00:11:22:33:44:55     *        eth0
+     * </pre>
+     *
+     * @param reader A reader for the ARP table
+     * @return The complete entries, keyed by IP address
+     * @throws IOException If reading failed
+     */
+    public static Map<String, Entry> parseProcNetArp(BufferedReader reader) throws IOException {
+        Map<String, Entry> snapshot = new HashMap<>();
+        // Skip the header line
+        String line = reader.readLine();
+        while ((line = reader.readLine()) != null) {
+            String[] columns = StringUtils.split(line);
+            if (columns.length < 4) {
+                continue;
+            }
+            int flags;
+            try {
+                flags = Integer.decode(columns[2]);
+            } catch (NumberFormatException ignored) {
+                continue;
+            }
+            if ((flags & ATF_COM) != 0) {
+                snapshot.put(columns[0], new Entry(columns[3], false));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Parses the output of the linux "ip neigh show" tool. Entries without a hardware address
+     * (for example INCOMPLETE or FAILED) are skipped.
+     *
+     * <pre>
+     * fe80::1 dev eth0 lladdr 00:11:22:33:44:55 router REACHABLE
+     * </pre>
+     *
+     * @param reader A reader for the tool output
+     * @return The entries with a hardware address, keyed by normalized IP address
+     * @throws IOException If reading failed
+     */
+    public static Map<String, Entry> parseIpNeighbour(BufferedReader reader) throws IOException {
+        Map<String, Entry> snapshot = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] columns = StringUtils.split(line);
+            if (columns.length < 2) {
+                continue;
+            }
+            int lladdrIndex = -1;
+            for (int i = 1; i < columns.length - 1; i++) {
+                if ("lladdr".equals(columns[i])) {
+                    lladdrIndex = i;
+                    break;
+                }
+            }
+            if (lladdrIndex < 0) {
+                continue;
+            }
+            String state = columns[columns.length - 1];
+            snapshot.put(normalizeAddress(columns[0]),
+                    new Entry(columns[lladdrIndex + 1], "REACHABLE".equals(state)));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Return the address in the format of {@link InetAddress#getHostAddress()} without an IPv6 scope,
+     * so that addresses of the neighbour tables and of the configuration can be compared.
+     *
+     * @param address An IP address literal
+     */
+    public static String normalizeAddress(String address) {
+        int scopeIndex = address.indexOf('%');
+        String withoutScope = scopeIndex >= 0 ? address.substring(0, scopeIndex) : address;
+        if (withoutScope.indexOf(':') < 0) {
+            return withoutScope;
+        }
+        try {
+            // An IPv6 literal is parsed without a name service lookup
+            return InetAddress.getByName(withoutScope).getHostAddress();
+        } catch (UnknownHostException ignored) {
+            return withoutScope;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.neighbour;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A singleton. NeighbourSeenCallback objects can register and unregister.
+ * If the first one is registered, a thread is started that periodically reads the neighbour tables of the operating
+ * system: The IPv4 ARP table (/proc/net/arp, no process is started for this) and, only if IPv6 addresses are
+ * registered, the IPv6 neighbour table ("ip -6 neigh show"). If the last NeighbourSeenCallback is removed, the thread
+ * will be stopped.
+ * NeighbourSeenCallback will be called for the address that is registered and has been active since the last read,
+ * see {@link NeighbourTable}. No packets are sent to the devices.
+ *
+ * @author agent - Initial contribution
+ */
+public class NeighbourTableListenService {
+    static final long POLL_INTERVAL_IN_MS = 5000;
+    private static final long IP_TOOL_TIMEOUT_IN_MS = 2000;
+
+    static Path arpTablePath = Paths.get("/proc/net/arp");
+    static ScheduledExecutorService instance;
+    static Map<String, NeighbourSeenCallback> registeredListeners = new TreeMap<>();
+    static NeighbourTable ipv4Table = new NeighbourTable();
+    static NeighbourTable ipv6Table = new NeighbourTable();
+    static Logger logger = LoggerFactory.getLogger(NeighbourTableListenService.class);
+
+    /**
+     * Return true if the neighbour table of this operating system can be read.
+     */
+    public static boolean isAvailable() {
+        return Files.isReadable(arpTablePath);
+    }
+
+    /**
+     * Register a callback for the given address.
+     *
+     * @param hostAddress The IP address
+     * @param listener The callback
+     * @return Return false if the neighbour table is not available on this system. The callback is not
+     *         registered in that case.
+     */
+    public static synchronized boolean register(String hostAddress, NeighbourSeenCallback listener) {
+        if (!isAvailable()) {
+            return false;
+        }
+        synchronized (registeredListeners) {
+            registeredListeners.put(NeighbourTable.normalizeAddress(hostAddress), listener);
+        }
+        if (instance == null) {
+            ipv4Table = new NeighbourTable();
+            ipv6Table = new NeighbourTable();
+            instance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "networkNeighbourTableListener");
+                thread.setDaemon(true);
+                return thread;
+            });
+            instance.scheduleWithFixedDelay(NeighbourTableListenService::readNeighbourTables, 0,
+                    POLL_INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    public static synchronized void unregister(String hostAddress) {
+        synchronized (registeredListeners) {
+            registeredListeners.remove(NeighbourTable.normalizeAddress(hostAddress));
+            if (!registeredListeners.isEmpty()) {
+                return;
+            }
+        }
+
+        if (instance != null) {
+            instance.shutdownNow();
+        }
+        instance = null;
+    }
+
+    /**
+     * Read the neighbour tables once and notify the registered callbacks of active devices.
+     */
+    static void readNeighbourTables() {
+        Map<String, NeighbourSeenCallback> listeners;
+        synchronized (registeredListeners) {
+            listeners = new HashMap<>(registeredListeners);
+        }
+
+        Set<String> seen = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(arpTablePath, StandardCharsets.US_ASCII)) {
+            seen.addAll(ipv4Table.update(NeighbourTable.parseProcNetArp(reader)));
+        } catch (IOException e) {
+            logger.debug("Failed to read the ARP table {}", arpTablePath, e);
+        }
+
+        if (listeners.keySet().stream().anyMatch(address -> address.indexOf(':') >= 0)) {
+            Map<String, NeighbourTable.Entry> snapshot = readIpv6NeighbourTable();
+            // Keep the last snapshot on failure, otherwise all entries would be reported as new next time
+            if (snapshot != null) {
+                seen.addAll(ipv6Table.update(snapshot));
+            }
+        }
+
+        for (String address : seen) {
+            NeighbourSeenCallback listener = listeners.get(address);
+            if (listener != null) {
+                try {
+                    listener.neighbourSeen(address);
+                } catch (RuntimeException e) {
+                    // An exception would stop the periodic reads
+                    logger.warn("Neighbour table listener for {} failed", address, e);
+                }
+            } else {
+                logger.trace("Neighbour table activity of unknown address: {}", address);
+            }
+        }
+    }
+
+    /**
+     * Return the IPv6 neighbour table or null if the "ip" tool failed.
+     */
+    private static Map<String, NeighbourTable.Entry> readIpv6NeighbourTable() {
+        Process proc = null;
+        try {
+            proc = new ProcessBuilder("ip", "-6", "neigh", "show").redirectErrorStream(true).start();
+            Map<String, NeighbourTable.Entry> snapshot;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(proc.getInputStream(), StandardCharsets.US_ASCII))) {
+                snapshot = NeighbourTable.parseIpNeighbour(reader);
+            }
+            if (proc.waitFor(IP_TOOL_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS) && proc.exitValue() == 0) {
+                return snapshot;
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to read the IPv6 neighbour table", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Reset interrupt flag
+        } finally {
+            if (proc != null) {
+                proc.destroy();
+            }
+        }
+        return null;
+    }
+}
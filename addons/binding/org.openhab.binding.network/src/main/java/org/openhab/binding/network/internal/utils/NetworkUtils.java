@@ -24,11 +24,19 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.SystemUtils;
@@ -41,6 +49,9 @@ import org.eclipse.smarthome.io.net.exec.ExecUtil;
  * @author David Graeff <david.graeff@web.de>
  */
 public class NetworkUtils {
+    // A responding destination in the output of fping -a -e, for example "192.168.0.1 (0.51 ms)"
+    private static final Pattern FPING_ALIVE_PATTERN = Pattern.compile("^(\\S+) (?:is alive )?\\(([0-9.]+) ms\\).*");
+
     /**
      * Gets every IPv4 Address on each Interface except the loopback
      * The Address format is ip/subnet
@@ -213,6 +224,17 @@ public class NetworkUtils {
         return ArpPingUtilEnum.UNKNOWN_TOOL;
     }
 
+    /**
+     * Return true if the fping tool is available and executable on the given path.
+     */
+    public boolean isFpingAvailable(String fpingToolPath) {
+        if (StringUtils.isBlank(fpingToolPath)) {
+            return false;
+        }
+        String result = ExecUtil.executeCommandLineAndWaitResponse(fpingToolPath + " -v", 100);
+        return StringUtils.contains(result, "fping");
+    }
+
     public enum IpPingMethodEnum {
         JAVA_PING,
         WINDOWS_PING,
@@ -282,6 +304,42 @@ public class NetworkUtils {
         }
     }
 
+    /**
+     * Use the fping tool to send ICMP pings to many destinations by one process.
+     *
+     * @param fpingToolPath The fping absolute path including filename. Example: "fping" or "/usr/bin/fping"
+     * @param addresses The IPv4 or IPv6 addresses. Must not be null.
+     * @param timeoutInMS Timeout in milliseconds
+     * @return The latency in milliseconds of every destination that responded
+     * @throws IOException The fping command could probably not be found or failed
+     */
+    public Map<String, Double> nativeFping(String fpingToolPath, Collection<String> addresses, int timeoutInMS)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(
+                Arrays.asList(fpingToolPath, "-a", "-e", "-r", "0", "-t", String.valueOf(timeoutInMS)));
+        command.addAll(addresses);
+        Process proc = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        Map<String, Double> latencies = new HashMap<>();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(proc.getInputStream()))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                Matcher matcher = FPING_ALIVE_PATTERN.matcher(line);
+                if (matcher.matches()) {
+                    latencies.put(matcher.group(1), Double.valueOf(matcher.group(2)));
+                }
+            }
+        }
+
+        // The return code is 0 if all destinations responded, 1 if some did not respond and 2 if an address could
+        // not be resolved. Higher return codes are errors like invalid arguments.
+        int result = proc.waitFor();
+        if (result > 2) {
+            throw new IOException("fping failed with return code " + result);
+        }
+        return latencies;
+    }
+
     public enum ArpPingUtilEnum {
         UNKNOWN_TOOL,
         IPUTILS_ARPING,
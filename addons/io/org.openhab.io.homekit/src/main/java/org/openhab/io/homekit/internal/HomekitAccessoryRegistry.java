@@ -8,6 +8,8 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -27,53 +29,74 @@ import com.beowulfe.hap.HomekitRoot;
  * Stores the created HomekitAccessories. GroupedAccessories are also held here
  * in a pre-created pending state until all required characteristics are found.
  *
+ * Accessories are created from scratch for every batch of item changes, but only
+ * handed to the bridge by {@link #publish(Collection)}. Accessories whose items did not
+ * change are kept on the bridge, as every change of the bridge resets its connections.
+ *
  * @author Andy Lintner
  */
 class HomekitAccessoryRegistry {
 
     private HomekitRoot bridge;
-    private final List<HomekitAccessory> createdAccessories = new LinkedList<>();
-    private final Set<Integer> createdIds = new HashSet<>();
+    private final Map<Integer, HomekitAccessory> createdAccessories = new HashMap<>();
+    // names of the items an accessory is made of, by accessory id
+    private final Map<Integer, Set<String>> createdItemNames = new HashMap<>();
+    private final Map<Integer, HomekitAccessory> publishedAccessories = new HashMap<>();
+    private final Map<Integer, Set<String>> publishedItemNames = new HashMap<>();
     private final Map<String, GroupedAccessory> pendingGroupedAccessories = new HashMap<>();
+    private final Map<String, Set<String>> pendingGroupedItemNames = new HashMap<>();
     private final List<HomekitTaggedItem> pendingCharacteristics = new LinkedList<>();
 
     private final Logger logger = LoggerFactory.getLogger(HomekitAccessoryRegistry.class);
 
-    public void remove(HomekitTaggedItem taggedItem) {
-        Iterator<HomekitAccessory> i = createdAccessories.iterator();
-        while (i.hasNext()) {
-            HomekitAccessory accessory = i.next();
-            if (accessory.getId() == taggedItem.getId()) {
-                logger.debug("Removed accessory {}", accessory.getId());
-                bridge.removeAccessory(accessory);
-                i.remove();
-            }
-        }
+    /**
+     * Discards the created accessories, before they are created again for the next batch.
+     * The bridge is not touched.
+     */
+    public synchronized void reset() {
+        createdAccessories.clear();
+        createdItemNames.clear();
+        pendingGroupedAccessories.clear();
+        pendingGroupedItemNames.clear();
+        pendingCharacteristics.clear();
     }
 
+    /**
+     * Removes all accessories from the bridge.
+     */
     public synchronized void clear() {
-        while (!createdAccessories.isEmpty()) {
-            bridge.removeAccessory(createdAccessories.remove(0));
+        reset();
+        if (bridge != null) {
+            publishedAccessories.values().forEach(accessory -> bridge.removeAccessory(accessory));
         }
-        createdIds.clear();
+        publishedAccessories.clear();
+        publishedItemNames.clear();
     }
 
     public synchronized void setBridge(HomekitRoot bridge) {
         this.bridge = bridge;
-        createdAccessories.forEach(accessory -> bridge.addAccessory(accessory));
+        if (bridge != null) {
+            publishedAccessories.values().forEach(accessory -> bridge.addAccessory(accessory));
+        }
     }
 
-    public synchronized void addRootDevice(HomekitAccessory accessory) {
+    public synchronized void addRootDevice(HomekitAccessory accessory, String itemName) {
         if (accessory instanceof GroupedAccessory) {
             GroupedAccessory groupedAccessory = (GroupedAccessory) accessory;
             pendingGroupedAccessories.put(groupedAccessory.getGroupName(), groupedAccessory);
-            for (HomekitTaggedItem characteristic : pendingCharacteristics) {
+            Set<String> itemNames = new HashSet<>();
+            itemNames.add(itemName);
+            pendingGroupedItemNames.put(groupedAccessory.getGroupName(), itemNames);
+            Iterator<HomekitTaggedItem> i = pendingCharacteristics.iterator();
+            while (i.hasNext() && pendingGroupedAccessories.containsKey(groupedAccessory.getGroupName())) {
+                HomekitTaggedItem characteristic = i.next();
                 if (characteristic.getItem().getGroupNames().contains(groupedAccessory.getGroupName())) {
+                    i.remove();
                     addCharacteristicToGroup(groupedAccessory.getGroupName(), characteristic);
                 }
             }
         } else {
-            doAddDevice(accessory);
+            doAddDevice(accessory, Collections.singleton(itemName));
         }
     }
 
@@ -89,22 +112,72 @@ class HomekitAccessoryRegistry {
         logger.debug("Stored {} until group is ready", item.getItem().getName());
     }
 
+    /**
+     * Brings the bridge in line with the created accessories. Accessories that are already on the bridge
+     * are only replaced if one of their items is among the changed ones.
+     *
+     * @param changedItemNames The names of the items that have been added, updated or removed since the last
+     *            publication
+     */
+    public synchronized void publish(Collection<String> changedItemNames) {
+        Iterator<Map.Entry<Integer, HomekitAccessory>> i = publishedAccessories.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry<Integer, HomekitAccessory> entry = i.next();
+            if (!createdAccessories.containsKey(entry.getKey())) {
+                logger.debug("Removed accessory {}", entry.getKey());
+                removeFromBridge(entry.getValue());
+                publishedItemNames.remove(entry.getKey());
+                i.remove();
+            }
+        }
+
+        int added = 0;
+        int replaced = 0;
+        for (Map.Entry<Integer, HomekitAccessory> entry : createdAccessories.entrySet()) {
+            Integer id = entry.getKey();
+            HomekitAccessory published = publishedAccessories.get(id);
+            Set<String> itemNames = createdItemNames.get(id);
+            if (published != null) {
+                if (!itemNames.equals(publishedItemNames.get(id))
+                        || !Collections.disjoint(itemNames, changedItemNames)) {
+                    removeFromBridge(published);
+                    replaced++;
+                } else {
+                    // unchanged, the accessory on the bridge stays
+                    continue;
+                }
+            } else {
+                added++;
+            }
+            publishedAccessories.put(id, entry.getValue());
+            publishedItemNames.put(id, itemNames);
+            if (bridge != null) {
+                bridge.addAccessory(entry.getValue());
+            }
+        }
+        logger.debug("Published {} accessories, {} added and {} replaced", publishedAccessories.size(), added,
+                replaced);
+    }
+
     private void addCharacteristicToGroup(String group, HomekitTaggedItem item) {
         GroupedAccessory accessory = pendingGroupedAccessories.get(group);
         accessory.addCharacteristic(item);
+        pendingGroupedItemNames.get(group).add(item.getItem().getName());
         if (accessory.isComplete()) {
             pendingGroupedAccessories.remove(group);
-            doAddDevice(accessory);
+            doAddDevice(accessory, pendingGroupedItemNames.remove(group));
         }
     }
 
-    private void doAddDevice(HomekitAccessory accessory) {
-        createdAccessories.add(accessory);
-        createdIds.add(accessory.getId());
+    private void doAddDevice(HomekitAccessory accessory, Set<String> itemNames) {
+        createdAccessories.put(accessory.getId(), accessory);
+        createdItemNames.put(accessory.getId(), itemNames);
+        logger.debug("Created accessory {}", accessory.getId());
+    }
+
+    private void removeFromBridge(HomekitAccessory accessory) {
         if (bridge != null) {
-            bridge.addAccessory(accessory);
+            bridge.removeAccessory(accessory);
         }
-        logger.debug("Added accessory {}", accessory.getId());
     }
-
 }
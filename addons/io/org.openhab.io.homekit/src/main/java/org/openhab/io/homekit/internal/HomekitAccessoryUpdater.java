@@ -10,7 +10,10 @@ package org.openhab.io.homekit.internal;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.StateChangeListener;
@@ -26,12 +29,23 @@ import com.beowulfe.hap.HomekitCharacteristicChangeCallback;
  * Homekit library takes care of insuring only a single subscription exists for
  * each accessory.
  *
+ * Homekit clients are notified from a shared thread pool, so slow connections do not delay the
+ * item event handling. Notifications of a characteristic are sent at most once per minimum
+ * notification interval (see {@link HomekitSettings}). Changes within the interval are combined
+ * into a single notification at its end, which reads the latest state.
+ *
  * @author Andy Lintner
  */
 public class HomekitAccessoryUpdater {
 
     private Logger logger = LoggerFactory.getLogger(HomekitAccessoryUpdater.class);
     private final ConcurrentMap<ItemKey, Subscription> subscriptionsByName = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("homekit");
+    private HomekitSettings settings;
+
+    public void setSettings(HomekitSettings settings) {
+        this.settings = settings;
+    }
 
     public void subscribe(GenericItem item, HomekitCharacteristicChangeCallback callback) {
         subscribe(item, null, callback);
@@ -50,7 +64,7 @@ public class HomekitAccessoryUpdater {
                 logger.error("Received duplicate subscription on {}", item.getName());
                 unsubscribe(item, key);
             }
-            Subscription subscription = (changedItem, oldState, newState) -> callback.changed();
+            Subscription subscription = new Subscription(callback);
             item.addStateChangeListener(subscription);
             return subscription;
         });
@@ -66,20 +80,84 @@ public class HomekitAccessoryUpdater {
         }
         subscriptionsByName.computeIfPresent(new ItemKey(item, key), (k, v) -> {
             item.removeStateChangeListener(v);
+            v.cancel();
             return null;
         });
     }
 
-    @FunctionalInterface
-    private static interface Subscription extends StateChangeListener {
+    /**
+     * Moves the subscriptions of an item to the instance that replaced it in the item registry.
+     */
+    public void replaceItem(GenericItem oldItem, GenericItem newItem) {
+        for (ItemKey itemKey : subscriptionsByName.keySet()) {
+            if (itemKey.item != oldItem) {
+                continue;
+            }
+            Subscription subscription = subscriptionsByName.remove(itemKey);
+            if (subscription != null) {
+                oldItem.removeStateChangeListener(subscription);
+                newItem.addStateChangeListener(subscription);
+                subscriptionsByName.put(new ItemKey(newItem, itemKey.key), subscription);
+            }
+        }
+    }
+
+    private long getMinimumNotificationIntervalInNS() {
+        HomekitSettings settings = this.settings;
+        return settings != null ? TimeUnit.MILLISECONDS.toNanos(settings.getMinimumNotificationInterval()) : 0;
+    }
+
+    private class Subscription implements StateChangeListener {
+        private final HomekitCharacteristicChangeCallback callback;
+        private long nextNotification = System.nanoTime();
+        private boolean notificationPending = false;
+        private boolean cancelled = false;
+
+        public Subscription(HomekitCharacteristicChangeCallback callback) {
+            this.callback = callback;
+        }
 
         @Override
-        void stateChanged(Item item, State oldState, State newState);
+        public void stateChanged(Item item, State oldState, State newState) {
+            long delay;
+            synchronized (this) {
+                if (notificationPending || cancelled) {
+                    // The pending notification will send the latest state
+                    return;
+                }
+                notificationPending = true;
+                delay = Math.max(0, nextNotification - System.nanoTime());
+            }
+            if (delay == 0) {
+                scheduler.execute(this::notifyClients);
+            } else {
+                scheduler.schedule(this::notifyClients, delay, TimeUnit.NANOSECONDS);
+            }
+        }
 
         @Override
-        default void stateUpdated(Item item, State state) {
+        public void stateUpdated(Item item, State state) {
             // Do nothing on non-change update
         }
+
+        public synchronized void cancel() {
+            cancelled = true;
+        }
+
+        private void notifyClients() {
+            synchronized (this) {
+                notificationPending = false;
+                if (cancelled) {
+                    return;
+                }
+                nextNotification = System.nanoTime() + getMinimumNotificationIntervalInNS();
+            }
+            try {
+                callback.changed();
+            } catch (RuntimeException e) {
+                logger.warn("Could not notify homekit clients of a change: {}", e.getMessage(), e);
+            }
+        }
     }
 
     private static class ItemKey {
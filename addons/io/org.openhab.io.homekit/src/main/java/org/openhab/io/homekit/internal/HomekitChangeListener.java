@@ -9,7 +9,16 @@
 package org.openhab.io.homekit.internal;
 
 import java.util.Collection;
-
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.GroupItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.items.ItemRegistryChangeListener;
@@ -23,49 +32,55 @@ import com.beowulfe.hap.HomekitRoot;
  * Listens for changes to the item registry. When changes are detected, check
  * for Homekit tags and, if present, add the items to the HomekitAccessoryRegistry.
  *
+ * Changes are collected and applied to the bridge at once, after no further change has been
+ * received for a quiet period. Startup and bulk changes like reloading an items file thereby
+ * result in a single update of the accessories.
+ *
  * @author Andy Lintner
  */
 public class HomekitChangeListener implements ItemRegistryChangeListener {
+    static final long QUIET_PERIOD_IN_MS = 1000;
 
     private ItemRegistry itemRegistry;
     private HomekitAccessoryUpdater updater = new HomekitAccessoryUpdater();
     private Logger logger = LoggerFactory.getLogger(HomekitChangeListener.class);
     private final HomekitAccessoryRegistry accessoryRegistry = new HomekitAccessoryRegistry();
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("homekit");
+    // names of the items that changed since the last update of the accessories
+    private final Set<String> pendingChanges = new HashSet<>();
+    private ScheduledFuture<?> pendingUpdate;
     private HomekitSettings settings;
 
     @Override
     public synchronized void added(Item item) {
-        HomekitTaggedItem taggedItem = new HomekitTaggedItem(item, itemRegistry);
-        if (taggedItem.isTagged()) {
-            if (taggedItem.isRootDevice()) {
-                createRootDevice(taggedItem);
-            }
-            if (taggedItem.isCharacteristic()) {
-                createCharacteristic(taggedItem);
-            }
-        }
+        itemChanged(item.getName());
     }
 
     @Override
-    public void allItemsChanged(Collection<String> oldItemNames) {
-        clearAccessories();
+    public synchronized void allItemsChanged(Collection<String> oldItemNames) {
+        pendingChanges.addAll(oldItemNames);
+        itemRegistry.getAll().forEach(item -> itemChanged(item.getName()));
     }
 
     @Override
     public synchronized void removed(Item item) {
-        HomekitTaggedItem taggedItem = new HomekitTaggedItem(item, itemRegistry);
-        if (taggedItem.isTagged()) {
-            accessoryRegistry.remove(taggedItem);
-        }
+        itemChanged(item.getName());
     }
 
     @Override
-    public void updated(Item oldElement, Item element) {
-        removed(oldElement);
-        added(element);
+    public synchronized void updated(Item oldElement, Item element) {
+        if (isSameAccessory(oldElement, element)) {
+            // The accessories look items up by name, only the state listeners have to move to the new item
+            if (oldElement instanceof GenericItem && element instanceof GenericItem) {
+                updater.replaceItem((GenericItem) oldElement, (GenericItem) element);
+            }
+        } else {
+            itemChanged(element.getName());
+        }
     }
 
     public synchronized void clearAccessories() {
+        cancelPendingUpdate();
         accessoryRegistry.clear();
     }
 
@@ -76,28 +91,88 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     public synchronized void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
         itemRegistry.addRegistryChangeListener(this);
-        itemRegistry.getAll().forEach(item -> added(item));
+        itemRegistry.getAll().forEach(item -> itemChanged(item.getName()));
     }
 
     public void setUpdater(HomekitAccessoryUpdater updater) {
         this.updater = updater;
+        updater.setSettings(settings);
     }
 
     public void setSettings(HomekitSettings settings) {
         this.settings = settings;
+        updater.setSettings(settings);
     }
 
-    public void stop() {
+    public synchronized void stop() {
+        cancelPendingUpdate();
         if (this.itemRegistry != null) {
             this.itemRegistry.removeRegistryChangeListener(this);
         }
     }
 
+    /**
+     * Applies the collected changes to the bridge now, instead of waiting for the quiet period to pass.
+     */
+    public synchronized void flush() {
+        cancelPendingUpdate();
+        if (itemRegistry == null || pendingChanges.isEmpty()) {
+            return;
+        }
+        logger.debug("Updating homekit accessories for {} changed items", pendingChanges.size());
+        accessoryRegistry.reset();
+        for (Item item : itemRegistry.getAll()) {
+            HomekitTaggedItem taggedItem = new HomekitTaggedItem(item, itemRegistry);
+            if (taggedItem.isTagged()) {
+                if (taggedItem.isRootDevice()) {
+                    createRootDevice(taggedItem);
+                }
+                if (taggedItem.isCharacteristic()) {
+                    createCharacteristic(taggedItem);
+                }
+            }
+        }
+        accessoryRegistry.publish(pendingChanges);
+        pendingChanges.clear();
+    }
+
+    private void itemChanged(String itemName) {
+        pendingChanges.add(itemName);
+        // start the quiet period again
+        cancelPendingUpdate();
+        pendingUpdate = scheduler.schedule(this::flush, QUIET_PERIOD_IN_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelPendingUpdate() {
+        if (pendingUpdate != null) {
+            pendingUpdate.cancel(false);
+            pendingUpdate = null;
+        }
+    }
+
+    /**
+     * Return true if an updated item results in the same accessory or characteristic as before.
+     */
+    private boolean isSameAccessory(Item oldElement, Item element) {
+        return oldElement.getClass() == element.getClass()
+                && Objects.equals(oldElement.getLabel(), element.getLabel())
+                && oldElement.getTags().equals(element.getTags())
+                && oldElement.getGroupNames().equals(element.getGroupNames())
+                && Objects.equals(getBaseItemClass(oldElement), getBaseItemClass(element));
+    }
+
+    private Class<?> getBaseItemClass(Item item) {
+        if (item instanceof GroupItem && ((GroupItem) item).getBaseItem() != null) {
+            return ((GroupItem) item).getBaseItem().getClass();
+        }
+        return null;
+    }
+
     private void createRootDevice(HomekitTaggedItem taggedItem) {
         try {
             logger.debug("Adding homekit device {}", taggedItem.getItem().getName());
-            accessoryRegistry
-                    .addRootDevice(HomekitAccessoryFactory.create(taggedItem, itemRegistry, updater, settings));
+            accessoryRegistry.addRootDevice(HomekitAccessoryFactory.create(taggedItem, itemRegistry, updater, settings),
+                    taggedItem.getItem().getName());
             logger.debug("Added homekit device {}", taggedItem.getItem().getName());
         } catch (Exception e) {
             logger.error("Could not add device: {}", e.getMessage(), e);
@@ -97,7 +97,9 @@ public class HomekitImpl implements Homekit {
         homekit = new HomekitServer(settings.getNetworkInterface(), settings.getPort());
         bridge = homekit.createBridge(new HomekitAuthInfoImpl(storageService, settings.getPin()), settings.getName(),
                 settings.getManufacturer(), settings.getModel(), settings.getSerialNumber());
-        bridge.start();
         changeListener.setBridge(bridge);
+        // Accessories added before the start do not reset the connections of the bridge one by one
+        changeListener.flush();
+        bridge.start();
     }
 }
@@ -38,6 +38,7 @@ public class HomekitSettings {
     private String thermostatCoolMode = "CoolOn";
     private String thermostatAutoMode = "Auto";
     private String thermostatOffMode = "Off";
+    private int minimumNotificationInterval = 500;
     private InetAddress networkInterface;
 
     private final Logger logger = LoggerFactory.getLogger(HomekitSettings.class);
@@ -78,6 +79,10 @@ public class HomekitSettings {
         this.thermostatCoolMode = (String) properties.get("thermostatCoolMode");
         this.thermostatAutoMode = (String) properties.get("thermostatAutoMode");
         this.thermostatOffMode = (String) properties.get("thermostatOffMode");
+        Object minimumNotificationInterval = properties.get("minimumNotificationInterval");
+        if (minimumNotificationInterval != null) {
+            this.minimumNotificationInterval = Integer.parseInt(minimumNotificationInterval.toString());
+        }
 
         String networkInterface = (String) properties.get("networkInterface");
         if (networkInterface == null) {
@@ -148,6 +153,10 @@ public class HomekitSettings {
         return thermostatOffMode;
     }
 
+    public int getMinimumNotificationInterval() {
+        return minimumNotificationInterval;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -158,6 +167,7 @@ public class HomekitSettings {
         temp = Double.doubleToLongBits(minimumTemperature);
         result = prime * result + (int) (temp ^ (temp >>> 32));
         result = prime * result + ((pin == null) ? 0 : pin.hashCode());
+        result = prime * result + minimumNotificationInterval;
         result = prime * result + port;
         result = prime * result + ((thermostatAutoMode == null) ? 0 : thermostatAutoMode.hashCode());
         result = prime * result + ((thermostatCoolMode == null) ? 0 : thermostatCoolMode.hashCode());
@@ -192,6 +202,9 @@ public class HomekitSettings {
         } else if (!pin.equals(other.pin)) {
             return false;
         }
+        if (minimumNotificationInterval != other.minimumNotificationInterval) {
+            return false;
+        }
         if (port != other.port) {
             return false;
         }
@@ -0,0 +1,328 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.ArrayUtils;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.items.ItemRegistryChangeListener;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.io.hueemulation.internal.api.HueDevice;
+import org.openhab.io.hueemulation.internal.api.HueState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Index of the items that are exposed as Hue devices. The index is built once from the item registry
+ * and kept up to date by item registry change events, so that API requests do not have to walk through all items.
+ *
+ * The JSON representation of each device is cached until the state of its item changes. The mapping of
+ * Hue device ids to item names is persisted asynchronously, changes in a short time frame are written at once.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class HueDeviceIndex implements ItemRegistryChangeListener {
+    private static final String[] SUPPORTED_TAGS = new String[] { "Switchable", "Lighting" };
+    private static final long PERSIST_DELAY_IN_MS = 2000;
+
+    private final Logger logger = LoggerFactory.getLogger(HueDeviceIndex.class);
+    private final Gson gson = new Gson();
+    private final File itemFile;
+    private final ScheduledExecutorService scheduler;
+    private ItemRegistry itemRegistry;
+    private boolean started = false;
+    // deviceMap maps a Hue numeric id to a Item Name, ordered by that id
+    private final TreeMap<Integer, String> deviceMap = new TreeMap<>();
+    private final Map<String, Integer> deviceIds = new HashMap<>();
+    // lights are read without locking by the API requests
+    private final ConcurrentSkipListMap<Integer, Light> lights = new ConcurrentSkipListMap<>();
+    private ScheduledFuture<?> persistJob;
+
+    /**
+     * A Hue device with its cached JSON representation
+     */
+    private class Light {
+        private final Integer id;
+        private final Item item;
+        private State cachedState;
+        private String cachedJson;
+
+        Light(Integer id, Item item) {
+            this.id = id;
+            this.item = item;
+        }
+
+        synchronized String toJson() {
+            State state = item.getState();
+            if (cachedJson == null || !state.equals(cachedState)) {
+                cachedJson = gson.toJson(itemToDevice(item, state, id));
+                cachedState = state;
+            }
+            return cachedJson;
+        }
+    }
+
+    /**
+     * Create a new index.
+     *
+     * @param itemFile The file the mapping of Hue device ids to item names is persisted to
+     * @param scheduler Scheduler for persisting the mapping
+     */
+    public HueDeviceIndex(File itemFile, ScheduledExecutorService scheduler) {
+        this.itemFile = itemFile;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Loads the persisted Hue device ids and starts indexing the items of the item registry.
+     */
+    public void start() throws IOException {
+        // load item list from disk
+        if (itemFile.exists()) {
+            JsonReader reader = null;
+            try {
+                reader = new JsonReader(new FileReader(itemFile));
+                Map<Integer, String> tmpMap = gson.fromJson(reader, new TypeToken<Map<Integer, String>>() {
+                }.getType());
+                if (tmpMap != null) {
+                    synchronized (this) {
+                        deviceMap.putAll(tmpMap);
+                        tmpMap.forEach((id, itemName) -> deviceIds.put(itemName, id));
+                    }
+                }
+            } finally {
+                IOUtils.closeQuietly(reader);
+            }
+        }
+        synchronized (this) {
+            started = true;
+            rebuild();
+        }
+    }
+
+    /**
+     * Stops indexing and writes pending changes to disk.
+     */
+    public void stop() {
+        boolean pendingChanges;
+        synchronized (this) {
+            started = false;
+            pendingChanges = persistJob != null && persistJob.cancel(false);
+            persistJob = null;
+        }
+        if (pendingChanges) {
+            persist();
+        }
+    }
+
+    /**
+     * Switches to another item registry. The index is rebuilt if it has been started already.
+     *
+     * @param itemRegistry The item registry or null if there is none
+     */
+    public synchronized void setItemRegistry(ItemRegistry itemRegistry) {
+        if (this.itemRegistry != null) {
+            this.itemRegistry.removeRegistryChangeListener(this);
+        }
+        this.itemRegistry = itemRegistry;
+        if (itemRegistry != null) {
+            itemRegistry.addRegistryChangeListener(this);
+            rebuild();
+        } else {
+            // the items of the previous registry are not available anymore, but their ids are kept
+            lights.clear();
+        }
+    }
+
+    /**
+     * Return the JSON representation of a Hue device or null if there is no device with this id
+     */
+    public String getDeviceJson(Integer id) {
+        Light light = lights.get(id);
+        return light != null ? light.toJson() : null;
+    }
+
+    /**
+     * Return the JSON representation of all Hue devices, an object with the Hue device ids as keys
+     */
+    public String getDevicesJson() {
+        StringBuilder json = new StringBuilder("{");
+        for (Light light : lights.values()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(light.id).append("\":").append(light.toJson());
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Return the item of a Hue device or null if there is no device with this id
+     */
+    public Item getItem(Integer id) {
+        Light light = lights.get(id);
+        return light != null ? light.item : null;
+    }
+
+    /**
+     * Return the ids of all Hue devices in ascending order
+     */
+    public NavigableSet<Integer> getIds() {
+        return lights.keySet();
+    }
+
+    @Override
+    public synchronized void added(Item item) {
+        // Ids must not be assigned before the persisted ones are known
+        if (!started || !isSupported(item)) {
+            return;
+        }
+        Integer id = deviceIds.get(item.getName());
+        if (id == null) {
+            // hue devices are assigned a numeric number starting with 1, if a device is
+            // removed that number is not used again. Not sure how high this id can get
+            // not worrying about it here
+            id = deviceMap.isEmpty() ? 1 : deviceMap.lastKey().intValue() + 1;
+            deviceMap.put(id, item.getName());
+            deviceIds.put(item.getName(), id);
+            persistLater();
+        }
+        lights.put(id, new Light(id, item));
+    }
+
+    @Override
+    public synchronized void removed(Item item) {
+        if (!started) {
+            return;
+        }
+        Integer id = deviceIds.remove(item.getName());
+        if (id != null) {
+            deviceMap.remove(id);
+            lights.remove(id);
+            persistLater();
+        }
+    }
+
+    @Override
+    public synchronized void updated(Item oldElement, Item element) {
+        if (isSupported(element)) {
+            // Replaces the device and thereby its cached JSON, the label may have changed
+            added(element);
+        } else {
+            removed(oldElement);
+        }
+    }
+
+    @Override
+    public synchronized void allItemsChanged(Collection<String> oldItemNames) {
+        rebuild();
+    }
+
+    /**
+     * Indexes all tagged items of the registry. Devices of items that are not in the registry are not exposed, but
+     * keep their ids: the registry may not contain all items yet, for example right after startup. Ids are only
+     * released when an item is removed or loses its tag.
+     */
+    private synchronized void rebuild() {
+        if (!started || itemRegistry == null) {
+            return;
+        }
+        Set<Integer> indexedIds = new HashSet<>();
+        for (Item item : itemRegistry.getItems()) {
+            if (isSupported(item)) {
+                added(item);
+                indexedIds.add(deviceIds.get(item.getName()));
+            }
+        }
+        lights.keySet().retainAll(indexedIds);
+    }
+
+    private boolean isSupported(Item item) {
+        for (String tag : item.getTags()) {
+            if (ArrayUtils.contains(SUPPORTED_TAGS, tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts an Item to a HueDevice
+     */
+    private HueDevice itemToDevice(Item item, State itemState, Integer key) {
+        HueState hueState;
+        if (itemState instanceof HSBType) {
+            HSBType color = (HSBType) itemState;
+            hueState = new HueState(color);
+        } else if (itemState instanceof DecimalType) {
+            short bri = (short) ((((DecimalType) itemState).intValue() * 255) / 100);
+            hueState = new HueState(bri);
+        } else if (itemState instanceof OnOffType) {
+            short bri = (short) (((OnOffType) itemState) == OnOffType.ON ? 255 : 0);
+            hueState = new HueState(bri);
+        } else {
+            hueState = new HueState((short) 0);
+        }
+
+        HueDevice d = new HueDevice(hueState, item.getLabel(), key);
+        return d;
+    }
+
+    private synchronized void persistLater() {
+        if (persistJob == null) {
+            persistJob = scheduler.schedule(this::persist, PERSIST_DELAY_IN_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void persist() {
+        Map<Integer, String> snapshot;
+        synchronized (this) {
+            // Changes from now on are written by the next job
+            persistJob = null;
+            snapshot = new TreeMap<>(deviceMap);
+        }
+        itemFile.getParentFile().mkdirs();
+        JsonWriter writer = null;
+        try {
+            writer = new JsonWriter(new FileWriter(itemFile));
+            gson.toJson(snapshot, new TypeToken<Map<Integer, String>>() {
+            }.getType(), writer);
+        } catch (IOException e) {
+            logger.error("Could not persist item cache", e);
+        } finally {
+            IOUtils.closeQuietly(writer);
+        }
+    }
+}
@@ -11,22 +11,15 @@ package org.openhab.io.hueemulation.internal;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.Dictionary;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Hashtable;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
 import java.util.UUID;
 
 import javax.servlet.ServletException;
@@ -35,22 +28,16 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang.ArrayUtils;
 import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.items.Item;
-import org.eclipse.smarthome.core.items.ItemNotFoundException;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.items.events.ItemEventFactory;
-import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.HSBType;
-import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.types.Command;
-import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.TypeParser;
 import org.openhab.io.hueemulation.internal.api.HueCreateUser;
-import org.openhab.io.hueemulation.internal.api.HueDataStore;
-import org.openhab.io.hueemulation.internal.api.HueDevice;
 import org.openhab.io.hueemulation.internal.api.HueErrorResponse;
 import org.openhab.io.hueemulation.internal.api.HueGroup;
 import org.openhab.io.hueemulation.internal.api.HueState;
@@ -60,9 +47,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonWriter;
 
 /**
  * Emulates A Hue compatible HTTP API server
@@ -91,10 +75,8 @@ public class HueEmulationServlet extends HttpServlet {
             ConfigConstants.getUserDataFolder() + File.separator + "hueemulation" + File.separator + "udn");
     private static final File ITEM_FILE = new File(
             ConfigConstants.getUserDataFolder() + File.separator + "hueemulation" + File.separator + "items");
-    private static final String[] SUPPORTED_TAGS = new String[] { "Switchable", "Lighting" };
     private Gson gson = new Gson();
     private HttpService httpService;
-    private ItemRegistry itemRegistry;
     private EventPublisher eventPublisher;
     private HueEmulationUpnpServer disco;
     private String udn;
@@ -103,8 +85,9 @@ public class HueEmulationServlet extends HttpServlet {
     private boolean pairingEnabled = false;
     // list of valid Hue API user ids
     private List<String> userNames = new ArrayList<>();
-    // deviceMap maps a Hue numeric id to a Item Name, ordered by that id
-    private TreeMap<Integer, String> deviceMap = new TreeMap<>();
+    // tagged items, kept up to date by item registry events
+    private final HueDeviceIndex deviceIndex = new HueDeviceIndex(ITEM_FILE,
+            ThreadPoolManager.getScheduledPool("hueemulation"));
 
     protected void activate(Map<String, Object> config) {
         modified(config);
@@ -123,21 +106,8 @@ public class HueEmulationServlet extends HttpServlet {
                 }
             }
 
-            // load item list from disk
-            if (ITEM_FILE.exists()) {
-                JsonReader reader = null;
-                try {
-                    reader = new JsonReader(new FileReader(ITEM_FILE));
-                    LinkedHashMap<Integer, String> tmpMap = gson.fromJson(reader,
-                            new TypeToken<Map<Integer, String>>() {
-                            }.getType());
-                    if (tmpMap != null) {
-                        deviceMap.putAll(tmpMap);
-                    }
-                } finally {
-                    IOUtils.closeQuietly(reader);
-                }
-            }
+            // load item list from disk and index the tagged items
+            deviceIndex.start();
             logger.info("Started Hue Emulation service at " + PATH);
         } catch (Exception e) {
             logger.error("Could not start Hue Emulation service: {}", e.getMessage(), e);
@@ -183,14 +153,15 @@ public class HueEmulationServlet extends HttpServlet {
         if (disco != null) {
             disco.shutdown();
         }
+        deviceIndex.stop();
     }
 
     protected void setItemRegistry(ItemRegistry itemRegistry) {
-        this.itemRegistry = itemRegistry;
+        deviceIndex.setItemRegistry(itemRegistry);
     }
 
     protected void unsetItemRegistry(ItemRegistry itemRegistry) {
-        this.itemRegistry = null;
+        deviceIndex.setItemRegistry(null);
     }
 
     protected void setEventPublisher(EventPublisher eventPublisher) {
@@ -318,46 +289,45 @@ public class HueEmulationServlet extends HttpServlet {
             apiServerError(req, out, HueErrorResponse.METHOD_NOT_AVAILABLE, "Only PUT allowed for this resource");
             return;
         }
-        try {
-            // will throw exception if not found
-            Item item = itemRegistry.getItem(deviceMap.get(new Integer(id)));
-            HueState state = gson.fromJson(req.getReader(), HueState.class);
-            HSBType hsb = state.toHSBType();
-            logger.debug("HuState {}", state);
-            logger.debug("HSBType {}", hsb);
-            Command command = null;
-            if (hsb.getBrightness().intValue() > 0) {
-                // if state is on then send HSB, Brightness or ON
-                if (item.getAcceptedCommandTypes().contains(HSBType.class)) {
-                    command = hsb;
-                } else {
-                    // try and set the brightness level first
-                    command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), hsb.getBrightness().toString());
-                    if (command == null) {
-                        // if the item does not accept a number or String type, try ON
-                        command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), "ON");
-                    }
-                }
+        Item item = deviceIndex.getItem(Integer.valueOf(id));
+        if (item == null) {
+            logger.debug("Item not found: {}", id);
+            apiServerError(req, out, HueErrorResponse.NOT_AVAILABLE, "The Hue device could not be found");
+            return;
+        }
+        HueState state = gson.fromJson(req.getReader(), HueState.class);
+        HSBType hsb = state.toHSBType();
+        logger.debug("HuState {}", state);
+        logger.debug("HSBType {}", hsb);
+        Command command = null;
+        if (hsb.getBrightness().intValue() > 0) {
+            // if state is on then send HSB, Brightness or ON
+            if (item.getAcceptedCommandTypes().contains(HSBType.class)) {
+                command = hsb;
             } else {
-                // if state is off, then send 0 or 0FF
-                command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), "0");
+                // try and set the brightness level first
+                command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), hsb.getBrightness().toString());
                 if (command == null) {
-                    command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), "OFF");
+                    // if the item does not accept a number or String type, try ON
+                    command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), "ON");
                 }
             }
-
-            if (command != null) {
-                logger.debug("sending {} to {}", command, item.getName());
-                eventPublisher.post(ItemEventFactory.createCommandEvent(item.getName(), command));
-                out.write(String.format(STATE_RESP, id, String.valueOf(state.on)));
-            } else {
-                logger.error("Item {} does not accept Decimal, ON/OFF or String types", item.getName());
-                apiServerError(req, out, HueErrorResponse.INTERNAL_ERROR,
-                        "The Hue device does not respond to that command");
+        } else {
+            // if state is off, then send 0 or 0FF
+            command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), "0");
+            if (command == null) {
+                command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), "OFF");
             }
-        } catch (ItemNotFoundException e) {
-            logger.debug("Item not found: {}", id);
-            apiServerError(req, out, HueErrorResponse.NOT_AVAILABLE, "The Hue device could not be found");
+        }
+
+        if (command != null) {
+            logger.debug("sending {} to {}", command, item.getName());
+            eventPublisher.post(ItemEventFactory.createCommandEvent(item.getName(), command));
+            out.write(String.format(STATE_RESP, id, String.valueOf(state.on)));
+        } else {
+            logger.error("Item {} does not accept Decimal, ON/OFF or String types", item.getName());
+            apiServerError(req, out, HueErrorResponse.INTERNAL_ERROR,
+                    "The Hue device does not respond to that command");
         }
     }
 
@@ -365,14 +335,14 @@ public class HueEmulationServlet extends HttpServlet {
      * Hue API call to get the state of a single light
      */
     private void apiLight(String id, HttpServletRequest req, PrintWriter out) throws IOException {
-        HueDevice device = getHueDevices().get(new Integer(id));
+        String device = deviceIndex.getDeviceJson(Integer.valueOf(id));
 
         if (device == null) {
             logger.error("\"Could not find light for id {}. ", id);
             apiServerError(req, out, HueErrorResponse.NOT_AVAILABLE, "Light " + id + " does not exist.");
             return;
         } else {
-            out.write(gson.toJson(device));
+            out.write(device);
         }
     }
 
@@ -380,7 +350,7 @@ public class HueEmulationServlet extends HttpServlet {
      * Hue API call to get a listing of all lights
      */
     public void apiLights(HttpServletRequest req, PrintWriter out) throws IOException {
-        out.write(gson.toJson(getHueDevices()));
+        out.write(deviceIndex.getDevicesJson());
     }
 
     /**
@@ -388,7 +358,7 @@ public class HueEmulationServlet extends HttpServlet {
      */
     public void apiGroupZero(HttpServletRequest req, PrintWriter out) throws IOException {
         List<String> lights = new LinkedList<String>();
-        for (Integer key : deviceMap.keySet()) {
+        for (Integer key : deviceIndex.getIds()) {
             lights.add(key.toString());
         }
         HueState action = new HueState();
@@ -400,9 +370,8 @@ public class HueEmulationServlet extends HttpServlet {
      */
     public void apiDataStore(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         PrintWriter out = resp.getWriter();
-        HueDataStore ds = new HueDataStore();
-        ds.lights = getHueDevices();
-        out.write(gson.toJson(ds));
+        // same as a serialized HueDataStore, but with the cached JSON of the lights
+        out.write("{\"lights\":" + deviceIndex.getDevicesJson() + "}");
     }
 
     /**
@@ -465,96 +434,6 @@ public class HueEmulationServlet extends HttpServlet {
         }
     }
 
-    /**
-     * Converts an Item to a HueDevice
-     */
-    private HueDevice itemToDevice(Item item, Integer key) {
-        State itemState = item.getState();
-        HueState hueState;
-        if (itemState instanceof HSBType) {
-            HSBType color = (HSBType) itemState;
-            hueState = new HueState(color);
-        } else if (itemState instanceof DecimalType) {
-            short bri = (short) ((((DecimalType) itemState).intValue() * 255) / 100);
-            hueState = new HueState(bri);
-        } else if (itemState instanceof OnOffType) {
-            short bri = (short) (((OnOffType) itemState) == OnOffType.ON ? 255 : 0);
-            hueState = new HueState(bri);
-        } else {
-            hueState = new HueState((short) 0);
-        }
-
-        HueDevice d = new HueDevice(hueState, item.getLabel(), key);
-        return d;
-    }
-
-    /**
-     * Gets and syncs all items tagged for voice.
-     */
-    private synchronized TreeMap<Integer, HueDevice> getHueDevices() {
-        TreeMap<Integer, HueDevice> returnMap = new TreeMap<Integer, HueDevice>();
-        HashMap<String, Item> taggedItems = new HashMap<String, Item>();
-
-        // if we modify our internal map, persist it to disk
-        boolean modified = false;
-
-        // get all tagged items
-        for (Item item : itemRegistry.getItems()) {
-            for (String tag : item.getTags()) {
-                if (ArrayUtils.contains(SUPPORTED_TAGS, tag)) {
-                    taggedItems.put(item.getName(), item);
-                    if (!deviceMap.containsValue(item.getName())) {
-                        // hue devices are assigned a numeric number starting with 1, if a device is
-                        // removed that number is not used again. Not sure how high this id can get
-                        // not worrying about it here
-                        Integer next = deviceMap.size() == 0 ? 1 : new Integer(deviceMap.lastKey().intValue() + 1);
-                        deviceMap.put(next, item.getName());
-                        modified = true;
-                    }
-                    break;
-                }
-            }
-        }
-
-        Set<Integer> keysToRemove = new HashSet<>();
-
-        // clean up removed entries
-        for (Map.Entry<Integer, String> entry : deviceMap.entrySet()) {
-            String itemName = entry.getValue();
-            if (!taggedItems.containsKey(itemName)) {
-                keysToRemove.add(entry.getKey());
-                modified = true;
-            }
-        }
-
-        for (Integer key : keysToRemove) {
-            deviceMap.remove(key);
-        }
-
-        // for each entry, lookup the item and convert it to a hue device
-        for (Integer key : deviceMap.keySet()) {
-            try {
-                returnMap.put(key, itemToDevice(itemRegistry.getItem(deviceMap.get(key)), key));
-            } catch (ItemNotFoundException e) {
-                logger.warn("Could not find item", e);
-            }
-        }
-
-        if (modified) {
-            JsonWriter writer = null;
-            try {
-                writer = new JsonWriter(new FileWriter(ITEM_FILE));
-                gson.toJson(deviceMap, new TypeToken<Map<Integer, String>>() {
-                }.getType(), writer);
-            } catch (IOException e) {
-                logger.error("Could not persist item cache", e);
-            } finally {
-                IOUtils.closeQuietly(writer);
-            }
-        }
-        return returnMap;
-    }
-
     /**
      * Checks if the username exists in our user list
      */
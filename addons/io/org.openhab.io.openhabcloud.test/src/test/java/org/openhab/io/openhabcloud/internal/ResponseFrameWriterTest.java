@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests cases for {@link ResponseFrameWriter}
+ *
+ * @author agent - Initial contribution
+ */
+public class ResponseFrameWriterTest {
+    private static final int FRAME_SIZE = 64 * 1024;
+
+    private final List<byte[]> frames = new ArrayList<>();
+    private final ResponseFrameWriter writer = new ResponseFrameWriter(FRAME_SIZE, frames::add);
+
+    private static byte[] content(int offset, int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (offset + i);
+        }
+        return content;
+    }
+
+    private byte[] framesContent() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        frames.forEach(frame -> outputStream.write(frame, 0, frame.length));
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void smallChunksAreCoalescedIntoFrames() {
+        int total = 0;
+        int sent = 0;
+        for (int length : new int[] { 1000, 3000, 20000, 50000, 100000, 7 }) {
+            sent += writer.write(ByteBuffer.wrap(content(total, length)));
+            total += length;
+        }
+        assertThat(sent, is(2 * FRAME_SIZE));
+        assertThat(frames.size(), is(2));
+
+        sent += writer.flush();
+
+        assertThat(sent, is(total));
+        assertThat(frames.size(), is(3));
+        assertThat(frames.get(0).length, is(FRAME_SIZE));
+        assertThat(frames.get(1).length, is(FRAME_SIZE));
+        assertThat(frames.get(2).length, is(total - 2 * FRAME_SIZE));
+        assertThat(framesContent(), is(content(0, total)));
+    }
+
+    @Test
+    public void framesAreNotReused() {
+        writer.write(ByteBuffer.wrap(content(0, FRAME_SIZE)));
+        writer.write(ByteBuffer.wrap(content(1, FRAME_SIZE)));
+
+        assertThat(frames.size(), is(2));
+        assertNotSame(frames.get(0), frames.get(1));
+        // the first frame is unchanged after the second one has been written
+        assertThat(frames.get(0), is(content(0, FRAME_SIZE)));
+    }
+
+    @Test
+    public void smallResponseIsSentAsOneFrameOfItsSize() {
+        assertThat(writer.write(ByteBuffer.wrap(content(0, 10))), is(0));
+        assertThat(writer.flush(), is(10));
+
+        assertThat(frames.size(), is(1));
+        assertThat(frames.get(0), is(content(0, 10)));
+        // nothing left to send
+        assertThat(writer.flush(), is(0));
+        assertThat(frames.size(), is(1));
+    }
+
+    @Test
+    public void releaseDropsUnsentContent() {
+        writer.write(ByteBuffer.wrap(content(0, 10)));
+        writer.release();
+
+        assertThat(writer.flush(), is(0));
+        assertThat(frames.isEmpty(), is(true));
+
+        // the writer can be used again
+        writer.write(ByteBuffer.wrap(content(0, 5)));
+        assertThat(writer.flush(), is(5));
+        assertThat(frames.get(0), is(content(0, 5)));
+    }
+}
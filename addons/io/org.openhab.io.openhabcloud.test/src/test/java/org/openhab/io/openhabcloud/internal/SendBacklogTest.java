@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests cases for {@link SendBacklog}
+ *
+ * @author agent - Initial contribution
+ */
+public class SendBacklogTest {
+    private static final int LIMIT = 1000;
+
+    private final AtomicInteger resumed = new AtomicInteger();
+    // resume waiting senders right away
+    private final SendBacklog backlog = new SendBacklog(LIMIT, Runnable::run);
+
+    private void add(int bytes) {
+        backlog.add(bytes, resumed::incrementAndGet);
+    }
+
+    @Test
+    public void sendersWaitWhileBacklogIsAboveLimit() {
+        add(600);
+        assertThat(resumed.get(), is(1));
+        add(600);
+        assertThat(resumed.get(), is(1));
+        assertThat(backlog.getPendingBytes(), is(1200L));
+
+        backlog.drained();
+        assertThat(backlog.getPendingBytes(), is(600L));
+        assertThat(resumed.get(), is(2));
+    }
+
+    @Test
+    public void drainRemovesOnlyTheWrittenBatch() {
+        // written right away
+        add(300);
+        // buffered while the first batch is written
+        add(200);
+        add(100);
+
+        backlog.drained();
+        assertThat(backlog.getPendingBytes(), is(300L));
+
+        // buffered while the second batch is written
+        add(400);
+        assertThat(backlog.getPendingBytes(), is(700L));
+
+        backlog.drained();
+        assertThat(backlog.getPendingBytes(), is(400L));
+        backlog.drained();
+        assertThat(backlog.getPendingBytes(), is(0L));
+
+        // nothing is written anymore, next data is written right away
+        add(100);
+        backlog.drained();
+        assertThat(backlog.getPendingBytes(), is(0L));
+    }
+
+    @Test
+    public void senderWaitsUntilEnoughHasBeenWritten() {
+        add(800);
+        add(800);
+        add(800);
+        assertThat(resumed.get(), is(1));
+
+        // 1600 bytes buffered still
+        backlog.drained();
+        assertThat(resumed.get(), is(1));
+
+        backlog.drained();
+        assertThat(resumed.get(), is(3));
+    }
+
+    @Test
+    public void clearResumesAllSenders() {
+        add(800);
+        add(800);
+        add(800);
+
+        backlog.clear();
+
+        assertThat(backlog.getPendingBytes(), is(0L));
+        assertThat(resumed.get(), is(3));
+    }
+}
@@ -16,18 +16,19 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Request.FailureListener;
 import org.eclipse.jetty.client.api.Response;
-import org.eclipse.jetty.client.api.Response.ContentListener;
+import org.eclipse.jetty.client.api.Response.AsyncContentListener;
 import org.eclipse.jetty.client.api.Response.HeadersListener;
 import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BytesContentProvider;
@@ -35,7 +36,7 @@ import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
-import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.json.JSONException;
@@ -79,6 +80,20 @@ public class CloudClient {
      */
     private static final int HTTP_CLIENT_TIMEOUT = 30000;
 
+    /*
+     * This constant defines the maximum size of a response content frame sent to the openHAB Cloud.
+     * Smaller content chunks of the local response are coalesced up to this size
+     */
+    private static final int RESPONSE_FRAME_SIZE = 64 * 1024;
+
+    /*
+     * This constant defines how many bytes of response content may wait to be written to the
+     * openHAB Cloud before reading local responses is paused
+     */
+    private static final int MAX_SEND_BACKLOG = 1024 * 1024;
+
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+
     /*
      * This variable holds base URL for the openHAB Cloud connections
      */
@@ -105,9 +120,16 @@ public class CloudClient {
     private HttpClient jettyClient;
 
     /*
-     * This hashmap holds HTTP requests to local openHAB which are currently running
+     * This map holds HTTP requests to local openHAB which are currently running. It is accessed
+     * from Socket.IO and Jetty threads
      */
-    private HashMap<Integer, Request> runningRequests;
+    private final ConcurrentMap<Integer, Request> runningRequests = new ConcurrentHashMap<>();
+
+    /*
+     * This variable holds the response content which has not been written to the openHAB Cloud yet
+     */
+    private final SendBacklog sendBacklog = new SendBacklog(MAX_SEND_BACKLOG,
+            ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD));
 
     /*
      * This variable indicates if connection to the openHAB Cloud is currently in an established state
@@ -155,7 +177,6 @@ public class CloudClient {
         this.localBaseUrl = localBaseUrl;
         this.remoteAccessEnabled = remoteAccessEnabled;
         this.exposedItems = exposedItems;
-        runningRequests = new HashMap<Integer, Request>();
         jettyClient = new HttpClient();
         jettyClient.setMaxConnectionsPerDestination(HTTP_CLIENT_MAX_CONNECTIONS_PER_DEST);
         jettyClient.setConnectTimeout(HTTP_CLIENT_TIMEOUT);
@@ -180,6 +201,12 @@ public class CloudClient {
             public void call(Object... args) {
                 logger.trace("Manager.EVENT_TRANSPORT");
                 Transport transport = (Transport) args[0];
+                transport.on(Transport.EVENT_DRAIN, new Emitter.Listener() {
+                    @Override
+                    public void call(Object... args) {
+                        sendBacklog.drained();
+                    }
+                });
                 transport.on(Transport.EVENT_REQUEST_HEADERS, new Emitter.Listener() {
                     @Override
                     public void call(Object... args) {
@@ -249,6 +276,9 @@ public class CloudClient {
                 logger.error("Could not start Jetty client: {}", e.getMessage());
             }
         }
+        if (listener != null) {
+            listener.onConnected();
+        }
     }
 
     /**
@@ -268,9 +298,9 @@ public class CloudClient {
             }
         }
         // And clean up the list of running requests
-        if (runningRequests != null) {
-            runningRequests.clear();
-        }
+        runningRequests.clear();
+        // Nothing will be written anymore, let paused responses end
+        sendBacklog.clear();
     }
 
     /**
@@ -361,10 +391,11 @@ public class CloudClient {
                 return;
             }
             ResponseListener listener = new ResponseListener(requestId);
-            request.onResponseHeaders(listener).onResponseContent(listener).onRequestFailure(listener).send(listener);
-            // If successfully submitted request to http client, add it to the list of currently
-            // running requests to be able to cancel it if needed
+            // Add the request to the list of currently running requests to be able to cancel it if needed.
+            // This has to happen before sending, as a fast response removes it again.
             runningRequests.put(requestId, request);
+            request.onResponseHeaders(listener).onResponseContentAsync(listener).onRequestFailure(listener)
+                    .send(listener);
         } catch (JSONException e) {
             logger.error("{}", e.getMessage());
         } catch (IOException e) {
@@ -398,10 +429,9 @@ public class CloudClient {
             int requestId = data.getInt("id");
             logger.debug("Received cancel for request {}", requestId);
             // Find and abort running request
-            if (runningRequests.containsKey(requestId)) {
-                Request request = runningRequests.get(requestId);
+            Request request = runningRequests.remove(requestId);
+            if (request != null) {
                 request.abort(new InterruptedException());
-                runningRequests.remove(requestId);
             }
         } catch (JSONException e) {
             logger.error("{}", e.getMessage());
@@ -503,9 +533,10 @@ public class CloudClient {
      *
      * @param itemName the name of the item
      * @param itemState updated item state
+     * @return true if the update has been sent
      *
      */
-    public void sendItemUpdate(String itemName, String itemState) {
+    public boolean sendItemUpdate(String itemName, String itemState) {
         if (isConnected()) {
             logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
             JSONObject itemUpdateMessage = new JSONObject();
@@ -513,12 +544,14 @@ public class CloudClient {
                 itemUpdateMessage.put("itemName", itemName);
                 itemUpdateMessage.put("itemStatus", itemState);
                 socket.emit("itemupdate", itemUpdateMessage);
+                return true;
             } catch (JSONException e) {
                 logger.error("{}", e.getMessage());
             }
         } else {
             logger.debug("No connection, Item update is not sent");
         }
+        return false;
     }
 
     /**
@@ -557,14 +590,27 @@ public class CloudClient {
      * An internal class which forwards response headers and data back to the openHAB Cloud
      */
     private class ResponseListener
-            implements Response.CompleteListener, HeadersListener, ContentListener, FailureListener {
+            implements Response.CompleteListener, HeadersListener, AsyncContentListener, FailureListener {
 
-        private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
         private int mRequestId;
         private boolean mHeadersSent = false;
+        private final ResponseFrameWriter mFrameWriter;
 
         public ResponseListener(int requestId) {
             mRequestId = requestId;
+            mFrameWriter = new ResponseFrameWriter(RESPONSE_FRAME_SIZE, this::sendContent);
+        }
+
+        private void sendContent(byte[] frame) {
+            JSONObject responseJson = new JSONObject();
+            try {
+                responseJson.put("id", mRequestId);
+                responseJson.put("body", frame);
+                socket.emit("responseContentBinary", responseJson);
+                logger.debug("Sent content of size {} to request {}", frame.length, mRequestId);
+            } catch (JSONException e) {
+                logger.error("{}", e.getMessage());
+            }
         }
 
         private JSONObject getJSONHeaders(HttpFields httpFields) {
@@ -583,6 +629,13 @@ public class CloudClient {
         public void onComplete(Result result) {
             // Remove this request from list of running requests
             runningRequests.remove(mRequestId);
+            // Send the rest of the content before the response is finished
+            synchronized (this) {
+                if (result == null || !result.isFailed()) {
+                    mFrameWriter.flush();
+                }
+                mFrameWriter.release();
+            }
             if ((result != null && result.isFailed())
                     && (result.getResponse() != null && result.getResponse().getStatus() != HttpStatus.OK_200)) {
                 if (result.getFailure() != null) {
@@ -627,17 +680,14 @@ public class CloudClient {
         }
 
         @Override
-        public void onContent(Response response, ByteBuffer content) {
+        public void onContent(Response response, ByteBuffer content, Callback callback) {
             logger.debug("Jetty received response content of size {}", String.valueOf(content.remaining()));
-            JSONObject responseJson = new JSONObject();
-            try {
-                responseJson.put("id", mRequestId);
-                responseJson.put("body", BufferUtil.toArray(content));
-                socket.emit("responseContentBinary", responseJson);
-                logger.debug("Sent content to request {}", mRequestId);
-            } catch (JSONException e) {
-                logger.error("{}", e.getMessage());
+            int sent;
+            synchronized (this) {
+                sent = mFrameWriter.write(content);
             }
+            // Jetty continues reading the response when the callback succeeds
+            sendBacklog.add(sent, callback::succeeded);
         }
 
         @Override
@@ -24,6 +24,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.core.events.EventFilter;
 import org.eclipse.smarthome.core.events.EventPublisher;
@@ -62,11 +63,17 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     private static final String CFG_MODE = "mode";
     private static final String SECRET_FILE_NAME = "openhabcloud" + File.separator + "secret";
     private static final String DEFAULT_URL = "https://myopenhab.org/";
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+    /*
+     * Minimum time between two transmissions of item updates, updates in between are collected
+     */
+    private static final long ITEM_UPDATE_INTERVAL = 500;
 
     private Logger logger = LoggerFactory.getLogger(CloudService.class);
 
     public static String clientVersion = null;
     private CloudClient cloudClient;
+    private ItemUpdateBatcher itemUpdateBatcher;
     private String cloudBaseUrl = null;
     protected ItemRegistry itemRegistry = null;
     protected EventPublisher eventPublisher = null;
@@ -149,6 +156,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
 
     protected void deactivate() {
         logger.debug("openHAB Cloud connector deactivated");
+        itemUpdateBatcher.shutdown();
         cloudClient.shutdown();
     }
 
@@ -186,6 +194,9 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
 
         logger.debug("UUID = {}, secret = {}", InstanceUUID.get(), getSecret());
 
+        if (itemUpdateBatcher != null) {
+            itemUpdateBatcher.shutdown();
+        }
         if (cloudClient != null) {
             cloudClient.shutdown();
         }
@@ -193,9 +204,11 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
         String localBaseUrl = "http://localhost:" + localPort;
         cloudClient = new CloudClient(InstanceUUID.get(), getSecret(), cloudBaseUrl, localBaseUrl, remoteAccessEnabled,
                 exposedItems);
+        itemUpdateBatcher = new ItemUpdateBatcher(cloudClient,
+                ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD), ITEM_UPDATE_INTERVAL);
         cloudClient.setOpenHABVersion(OpenHAB.getVersion());
-        cloudClient.connect();
         cloudClient.setListener(this);
+        cloudClient.connect();
         NotificationAction.cloudService = this;
     }
 
@@ -261,6 +274,14 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
         return newSecretString;
     }
 
+    @Override
+    public void onConnected() {
+        // the openHAB Cloud may have missed item updates while disconnected
+        if (itemUpdateBatcher != null) {
+            itemUpdateBatcher.resendAll();
+        }
+    }
+
     @Override
     public void sendCommand(String itemName, String commandString) {
         try {
@@ -334,7 +355,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     public void receive(Event event) {
         ItemStateEvent ise = (ItemStateEvent) event;
         if (exposedItems != null && exposedItems.contains(ise.getItemName())) {
-            cloudClient.sendItemUpdate(ise.getItemName(), ise.getItemState().toString());
+            itemUpdateBatcher.update(ise.getItemName(), ise.getItemState().toString());
         }
     }
 
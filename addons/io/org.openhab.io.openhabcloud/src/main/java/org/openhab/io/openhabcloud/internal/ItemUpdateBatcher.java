@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class collects item updates before they are sent to the openHAB Cloud. If an update arrives
+ * within the send interval after the last transmission, it is held back until the interval has passed.
+ * Only the latest state of an item is sent then, and states that the openHAB Cloud already knows
+ * are not sent at all.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class ItemUpdateBatcher {
+    /*
+     * Logger for this class
+     */
+    private final Logger logger = LoggerFactory.getLogger(ItemUpdateBatcher.class);
+
+    private final CloudClient cloudClient;
+    private final ScheduledExecutorService scheduler;
+    private final long sendIntervalInNS;
+
+    /*
+     * Latest state per item that has not been sent yet, in order of arrival
+     */
+    private final Map<String, String> pendingUpdates = new LinkedHashMap<>();
+
+    /*
+     * Last state per item that has been sent to the openHAB Cloud
+     */
+    private final Map<String, String> sentStates = new HashMap<>();
+
+    private ScheduledFuture<?> flushJob;
+    private long nextFlush = System.nanoTime();
+
+    private final AtomicLong receivedUpdates = new AtomicLong();
+    private final AtomicLong sentUpdates = new AtomicLong();
+    private final AtomicLong suppressedUpdates = new AtomicLong();
+
+    /**
+     * Constructor of ItemUpdateBatcher
+     *
+     * @param cloudClient the client to send the item updates with
+     * @param scheduler the scheduler for sending held back updates
+     * @param sendIntervalInMS the minimum time between two transmissions in milliseconds
+     */
+    public ItemUpdateBatcher(CloudClient cloudClient, ScheduledExecutorService scheduler, long sendIntervalInMS) {
+        this.cloudClient = cloudClient;
+        this.scheduler = scheduler;
+        this.sendIntervalInNS = TimeUnit.MILLISECONDS.toNanos(sendIntervalInMS);
+    }
+
+    /**
+     * Queue an item update. It is sent immediately if no transmission happened within the send interval.
+     *
+     * @param itemName the name of the item
+     * @param itemState updated item state
+     */
+    public void update(String itemName, String itemState) {
+        receivedUpdates.incrementAndGet();
+        synchronized (this) {
+            if (pendingUpdates.isEmpty() && itemState.equals(sentStates.get(itemName))) {
+                suppressedUpdates.incrementAndGet();
+                return;
+            }
+            // an earlier state of the same item is overwritten
+            pendingUpdates.put(itemName, itemState);
+            if (flushJob != null) {
+                return;
+            }
+            long delay = nextFlush - System.nanoTime();
+            if (delay > 0) {
+                flushJob = scheduler.schedule(this::flush, delay, TimeUnit.NANOSECONDS);
+                return;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Send all pending item updates now.
+     */
+    public void flush() {
+        Map<String, String> updates;
+        synchronized (this) {
+            if (flushJob != null) {
+                flushJob.cancel(false);
+                flushJob = null;
+            }
+            nextFlush = System.nanoTime() + sendIntervalInNS;
+            if (pendingUpdates.isEmpty()) {
+                return;
+            }
+            updates = new LinkedHashMap<>(pendingUpdates);
+            pendingUpdates.clear();
+            if (!cloudClient.isConnected()) {
+                // the openHAB Cloud may have missed states, send everything again after reconnecting
+                sentStates.clear();
+            }
+        }
+
+        for (Map.Entry<String, String> update : updates.entrySet()) {
+            synchronized (this) {
+                if (update.getValue().equals(sentStates.get(update.getKey()))) {
+                    suppressedUpdates.incrementAndGet();
+                    continue;
+                }
+            }
+            if (cloudClient.sendItemUpdate(update.getKey(), update.getValue())) {
+                sentUpdates.incrementAndGet();
+                synchronized (this) {
+                    sentStates.put(update.getKey(), update.getValue());
+                }
+            }
+        }
+        logger.trace("Item updates received: {}, sent: {}, suppressed: {}", receivedUpdates, sentUpdates,
+                suppressedUpdates);
+    }
+
+    /**
+     * Forget the states sent so far, so that the next update of every item is sent. To be called after
+     * (re)connecting, since the openHAB Cloud may have missed updates in the meantime.
+     */
+    public synchronized void resendAll() {
+        sentStates.clear();
+    }
+
+    /**
+     * Stop sending held back updates.
+     */
+    public synchronized void shutdown() {
+        if (flushJob != null) {
+            flushJob.cancel(false);
+            flushJob = null;
+        }
+        pendingUpdates.clear();
+        logger.debug("Item updates received: {}, sent: {}, suppressed: {}", receivedUpdates, sentUpdates,
+                suppressedUpdates);
+    }
+
+    /**
+     * Returns the number of item updates passed to {@link #update(String, String)}
+     */
+    public long getReceivedUpdates() {
+        return receivedUpdates.get();
+    }
+
+    /**
+     * Returns the number of item updates sent to the openHAB Cloud
+     */
+    public long getSentUpdates() {
+        return sentUpdates.get();
+    }
+
+    /**
+     * Returns the number of item updates that were not sent, because the openHAB Cloud already had the state
+     */
+    public long getSuppressedUpdates() {
+        return suppressedUpdates.get();
+    }
+}
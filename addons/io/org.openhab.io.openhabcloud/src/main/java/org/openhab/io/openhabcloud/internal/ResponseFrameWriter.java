@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class coalesces the content chunks of a proxied response into frames of a fixed maximum size,
+ * instead of sending every chunk the HTTP client delivers on its own.
+ *
+ * The frame buffer grows with the content up to the frame size, so small responses do not allocate
+ * whole frames. A frame that fills its buffer exactly is handed to the sender as it is, other frames
+ * are copied to their size. Sent frames are not reused, since the Socket.IO client keeps them until
+ * they have been written.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class ResponseFrameWriter {
+    /*
+     * The initial size of the frame buffer
+     */
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    /**
+     * Implement this interface to send the frames.
+     */
+    @FunctionalInterface
+    public static interface FrameSender {
+        /**
+         * Send a frame. The sender takes ownership of the array.
+         */
+        void send(byte[] frame);
+    }
+
+    private final int frameSize;
+    private final FrameSender sender;
+    private byte[] frame;
+    private int position = 0;
+
+    /**
+     * Constructor of ResponseFrameWriter
+     *
+     * @param frameSize the maximum size of a frame in bytes
+     * @param sender the sender of the frames
+     */
+    public ResponseFrameWriter(int frameSize, FrameSender sender) {
+        this.frameSize = frameSize;
+        this.sender = sender;
+    }
+
+    /**
+     * Copy content into the current frame, full frames are sent.
+     *
+     * @param content the content, which is consumed
+     * @return the number of bytes that have been sent
+     */
+    public int write(ByteBuffer content) {
+        int sent = 0;
+        while (content.hasRemaining()) {
+            int length = Math.min(content.remaining(), frameSize - position);
+            ensureCapacity(position + length);
+            content.get(frame, position, length);
+            position += length;
+            if (position == frameSize) {
+                sent += send();
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Send the partially filled frame, if any.
+     *
+     * @return the number of bytes that have been sent
+     */
+    public int flush() {
+        return position == 0 ? 0 : send();
+    }
+
+    /**
+     * Drop the frame buffer, unsent content is dropped.
+     */
+    public void release() {
+        frame = null;
+        position = 0;
+    }
+
+    private int send() {
+        int sent = position;
+        byte[] sentFrame = frame.length == position ? frame : Arrays.copyOf(frame, position);
+        frame = null;
+        position = 0;
+        sender.send(sentFrame);
+        return sent;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (frame == null) {
+            frame = new byte[Math.min(frameSize, Math.max(INITIAL_BUFFER_SIZE, capacity))];
+        } else if (frame.length < capacity) {
+            frame = Arrays.copyOf(frame, Math.min(frameSize, Math.max(2 * frame.length, capacity)));
+        }
+    }
+}
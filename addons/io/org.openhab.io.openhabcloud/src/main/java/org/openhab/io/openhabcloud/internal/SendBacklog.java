@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * This class keeps track of the proxied response data that has been handed to the Socket.IO connection,
+ * but not yet written to the network. Proxied responses are paused while the backlog exceeds its limit,
+ * so that a slow connection to the openHAB Cloud does not buffer whole responses in memory.
+ *
+ * The transport writes one batch of data at a time, and reports when it has written a batch. Data handed
+ * over while a batch is being written is buffered by the Socket.IO client, and written as the next batch
+ * right after the current one. The backlog is reduced by the size of each written batch.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class SendBacklog {
+    private final long limit;
+    private final Executor executor;
+    private long writingBytes = 0;
+    private long bufferedBytes = 0;
+    private final List<Runnable> waiting = new ArrayList<>();
+
+    /**
+     * Constructor of SendBacklog
+     *
+     * @param limit the number of bytes above which senders have to wait
+     * @param executor the executor resuming waiting senders
+     */
+    public SendBacklog(long limit, Executor executor) {
+        this.limit = limit;
+        this.executor = executor;
+    }
+
+    /**
+     * Add sent bytes to the backlog.
+     *
+     * @param bytes the number of bytes that have been sent
+     * @param resume called as soon as the backlog is below its limit, possibly right away
+     */
+    public void add(int bytes, Runnable resume) {
+        synchronized (this) {
+            if (writingBytes == 0) {
+                // nothing is being written, the transport writes the data right away
+                writingBytes += bytes;
+            } else {
+                bufferedBytes += bytes;
+            }
+            if (getPendingBytes() > limit) {
+                waiting.add(resume);
+                return;
+            }
+        }
+        resume.run();
+    }
+
+    /**
+     * Remove the batch that the transport has written from the backlog. The buffered data is written next.
+     */
+    public void drained() {
+        synchronized (this) {
+            writingBytes = bufferedBytes;
+            bufferedBytes = 0;
+        }
+        resumeWaiting();
+    }
+
+    /**
+     * Clear the backlog, after the connection has been closed.
+     */
+    public void clear() {
+        synchronized (this) {
+            writingBytes = 0;
+            bufferedBytes = 0;
+        }
+        resumeWaiting();
+    }
+
+    private void resumeWaiting() {
+        List<Runnable> resumed;
+        synchronized (this) {
+            if (waiting.isEmpty() || getPendingBytes() > limit) {
+                return;
+            }
+            resumed = new ArrayList<>(waiting);
+            waiting.clear();
+        }
+        // not on the thread of the transport, the senders continue with reading the next content
+        for (Runnable resume : resumed) {
+            executor.execute(resume);
+        }
+    }
+
+    /**
+     * Returns the number of bytes waiting to be written
+     */
+    public synchronized long getPendingBytes() {
+        return writingBytes + bufferedBytes;
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusRegister;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusRegister;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * Tests for the allocation-free extraction methods of {@link ModbusBitUtilities}. Extensive tests for the value
+ * types are in {@link BitUtilitiesExtractStateFromRegistersTest}, which uses the same code path.
+ *
+ * @author agent - Initial contribution
+ */
+public class BitUtilitiesExtractPrimitiveFromRegistersTest {
+
+    private static ModbusRegisterArray shortArrayToRegisterArray(int... arr) {
+        ModbusRegister[] tmp = new ModbusRegister[0];
+        return new BasicModbusRegisterArray(IntStream.of(arr).mapToObj(val -> {
+            ByteBuffer buffer = ByteBuffer.allocate(2);
+            buffer.putShort((short) val);
+            return new BasicModbusRegister(buffer.get(0), buffer.get(1));
+        }).collect(Collectors.toList()).toArray(tmp));
+    }
+
+    @Test
+    public void testExtractLong() {
+        ModbusRegisterArray registers = shortArrayToRegisterArray(0xfffe, 0x0001, 0x8000);
+        assertThat(ModbusBitUtilities.extractLongFromRegisters(registers, 0, ValueType.INT16), is(equalTo(-2L)));
+        assertThat(ModbusBitUtilities.extractLongFromRegisters(registers, 0, ValueType.UINT16), is(equalTo(65534L)));
+        assertThat(ModbusBitUtilities.extractLongFromRegisters(registers, 0, ValueType.INT8), is(equalTo(-2L)));
+        assertThat(ModbusBitUtilities.extractLongFromRegisters(registers, 1, ValueType.UINT8), is(equalTo(255L)));
+        assertThat(ModbusBitUtilities.extractLongFromRegisters(registers, 0, ValueType.BIT), is(equalTo(0L)));
+        assertThat(ModbusBitUtilities.extractLongFromRegisters(registers, 1, ValueType.BIT), is(equalTo(1L)));
+        assertThat(ModbusBitUtilities.extractLongFromRegisters(registers, 0, ValueType.INT32),
+                is(equalTo((long) 0xfffe0001)));
+        assertThat(ModbusBitUtilities.extractLongFromRegisters(registers, 0, ValueType.UINT32),
+                is(equalTo(0xfffe0001L)));
+        assertThat(ModbusBitUtilities.extractLongFromRegisters(registers, 1, ValueType.INT32_SWAP),
+                is(equalTo((long) 0x80000001)));
+        assertThat(ModbusBitUtilities.extractLongFromRegisters(registers, 1, ValueType.UINT32_SWAP),
+                is(equalTo(0x80000001L)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtractLongWithFloat() {
+        ModbusBitUtilities.extractLongFromRegisters(shortArrayToRegisterArray(0, 0), 0, ValueType.FLOAT32);
+    }
+
+    @Test
+    public void testExtractInt() {
+        ModbusRegisterArray registers = shortArrayToRegisterArray(0xfffe, 0x0001);
+        assertThat(ModbusBitUtilities.extractIntFromRegisters(registers, 0, ValueType.INT32), is(equalTo(0xfffe0001)));
+        assertThat(ModbusBitUtilities.extractIntFromRegisters(registers, 0, ValueType.INT16), is(equalTo(-2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtractIntWithUnsigned32() {
+        ModbusBitUtilities.extractIntFromRegisters(shortArrayToRegisterArray(0, 0), 0, ValueType.UINT32);
+    }
+
+    @Test
+    public void testExtractFloat() {
+        int bits = Float.floatToIntBits(-1.5f);
+        ModbusRegisterArray registers = shortArrayToRegisterArray(bits >>> 16, bits & 0xffff);
+        assertThat(ModbusBitUtilities.extractFloatFromRegisters(registers, 0, ValueType.FLOAT32), is(equalTo(-1.5f)));
+        ModbusRegisterArray swapped = shortArrayToRegisterArray(bits & 0xffff, bits >>> 16);
+        assertThat(ModbusBitUtilities.extractFloatFromRegisters(swapped, 0, ValueType.FLOAT32_SWAP),
+                is(equalTo(-1.5f)));
+        assertThat(ModbusBitUtilities.extractDoubleFromRegisters(registers, 0, ValueType.FLOAT32), is(equalTo(-1.5)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtractFloatWithInteger() {
+        ModbusBitUtilities.extractFloatFromRegisters(shortArrayToRegisterArray(0, 0), 0, ValueType.INT32);
+    }
+
+    @Test
+    public void testExtractDouble() {
+        ModbusRegisterArray registers = shortArrayToRegisterArray(0xffff, 0xffff);
+        assertThat(ModbusBitUtilities.extractDoubleFromRegisters(registers, 0, ValueType.UINT32),
+                is(equalTo(4294967295.0)));
+        assertThat(ModbusBitUtilities.extractDoubleFromRegisters(registers, 0, ValueType.INT32), is(equalTo(-1.0)));
+    }
+
+    @Test
+    public void testExtractRawBits() {
+        ModbusRegisterArray registers = shortArrayToRegisterArray(0x1234, 0x5678);
+        assertThat(ModbusBitUtilities.extractRawBitsFromRegisters(registers, 0, ValueType.FLOAT32),
+                is(equalTo(0x12345678L)));
+        assertThat(ModbusBitUtilities.extractRawBitsFromRegisters(registers, 0, ValueType.INT32_SWAP),
+                is(equalTo(0x56781234L)));
+        assertThat(ModbusBitUtilities.extractRawBitsFromRegisters(registers, 1, ValueType.INT16),
+                is(equalTo(0x5678L)));
+        assertThat(ModbusBitUtilities.extractRawBitsFromRegisters(registers, 3, ValueType.UINT8),
+                is(equalTo(0x56L)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtractRawBitsOutOfBounds() {
+        ModbusBitUtilities.extractRawBitsFromRegisters(shortArrayToRegisterArray(0, 0), 1, ValueType.INT32);
+    }
+}
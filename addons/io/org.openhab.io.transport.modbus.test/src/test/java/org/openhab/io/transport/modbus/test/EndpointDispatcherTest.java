@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusWriteCoilRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BasicWriteTask;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.WriteTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.EndpointDispatcher;
+import org.openhab.io.transport.modbus.internal.EndpointDispatcher.Priority;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class EndpointDispatcherTest {
+
+    /**
+     * Executor running the submitted runnables only when asked to
+     */
+    private static class ManualExecutor implements Executor {
+        private final Queue<Runnable> runnables = new LinkedList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            runnables.add(command);
+        }
+
+        public void runAll() {
+            Runnable runnable;
+            while ((runnable = runnables.poll()) != null) {
+                runnable.run();
+            }
+        }
+
+        public int size() {
+            return runnables.size();
+        }
+    }
+
+    private final ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("127.0.0.1", 502);
+    private ManualExecutor executor;
+    private EndpointDispatcher dispatcher;
+    private List<String> executed;
+
+    @Before
+    public void setUp() {
+        executor = new ManualExecutor();
+        dispatcher = new EndpointDispatcher(endpoint, executor);
+        executed = new ArrayList<>();
+    }
+
+    private PollTask pollTask(int reference) {
+        return new BasicPollTaskImpl(endpoint,
+                new BasicModbusReadRequestBlueprint(1, ModbusReadFunctionCode.READ_COILS, reference, 1, 1), null);
+    }
+
+    private WriteTask writeTask(int reference) {
+        return new BasicWriteTask(endpoint, new BasicModbusWriteCoilRequestBlueprint(1, reference, true, false, 1),
+                null);
+    }
+
+    @Test
+    public void testPriorityOrder() {
+        dispatcher.submitRegularPoll(pollTask(0), () -> executed.add("regular1"));
+        dispatcher.submit(pollTask(1), Priority.ONE_OFF_POLL, () -> executed.add("oneOff1"));
+        dispatcher.submitRegularPoll(pollTask(2), () -> executed.add("regular2"));
+        dispatcher.submit(writeTask(3), Priority.WRITE, () -> executed.add("write1"));
+        dispatcher.submit(pollTask(4), Priority.ONE_OFF_POLL, () -> executed.add("oneOff2"));
+        dispatcher.submit(writeTask(5), Priority.WRITE, () -> executed.add("write2"));
+
+        // Only one operation at a time with the endpoint
+        assertThat(executor.size(), is(equalTo(1)));
+        assertThat(dispatcher.getQueueDepth(), is(equalTo(6)));
+        executor.runAll();
+
+        assertThat(executed,
+                is(equalTo(Arrays.asList("write1", "write2", "oneOff1", "oneOff2", "regular1", "regular2"))));
+        assertThat(dispatcher.getQueueDepth(), is(equalTo(0)));
+        assertThat(dispatcher.getMaxQueueDepth(), is(equalTo(6)));
+        assertThat(dispatcher.getExecutedOperations(), is(equalTo(6L)));
+    }
+
+    @Test
+    public void testStaleRegularPollIsSkipped() {
+        PollTask task = pollTask(0);
+        assertTrue(dispatcher.submitRegularPoll(task, () -> executed.add("regular")));
+        // previous cycle still queued
+        assertFalse(dispatcher.submitRegularPoll(task, () -> executed.add("regular")));
+        assertFalse(dispatcher.submitRegularPoll(task, () -> executed.add("regular")));
+        assertThat(dispatcher.getSkippedPolls(), is(equalTo(2L)));
+
+        executor.runAll();
+        assertThat(executed.size(), is(equalTo(1)));
+
+        // previous cycle has been executed, the poll can be queued again
+        assertTrue(dispatcher.submitRegularPoll(task, () -> executed.add("regular")));
+        executor.runAll();
+        assertThat(executed.size(), is(equalTo(2)));
+    }
+
+    @Test
+    public void testRegularPollMissingItsDeadlineIsSkipped() {
+        PollTask latePoll = pollTask(0);
+        PollTask timelyPoll = pollTask(1);
+        // the next cycle of the poll was due before the queue was processed
+        assertTrue(dispatcher.submitRegularPoll(latePoll, System.nanoTime() - 1, () -> executed.add("late")));
+        assertTrue(dispatcher.submitRegularPoll(timelyPoll, System.nanoTime() + TimeUnit.MINUTES.toNanos(1),
+                () -> executed.add("timely")));
+
+        executor.runAll();
+        assertThat(executed, is(equalTo(Arrays.asList("timely"))));
+        assertThat(dispatcher.getSkippedPolls(), is(equalTo(1L)));
+        assertThat(dispatcher.getExecutedOperations(), is(equalTo(1L)));
+
+        // the skipped poll does not block the next cycle
+        assertTrue(dispatcher.submitRegularPoll(latePoll, System.nanoTime() + TimeUnit.MINUTES.toNanos(1),
+                () -> executed.add("late")));
+        executor.runAll();
+        assertThat(executed, is(equalTo(Arrays.asList("timely", "late"))));
+    }
+
+    @Test
+    public void testCancel() {
+        PollTask task = pollTask(0);
+        PollTask otherTask = pollTask(1);
+        dispatcher.submitRegularPoll(task, () -> executed.add("regular"));
+        ScheduledFuture<?> future = dispatcher.submit(otherTask, Priority.ONE_OFF_POLL, () -> executed.add("oneOff"));
+        dispatcher.cancel(task, true);
+        assertTrue(future.cancel(false));
+
+        executor.runAll();
+        assertThat(executed.size(), is(equalTo(0)));
+        // canceled poll can be queued again
+        assertTrue(dispatcher.submitRegularPoll(task, () -> executed.add("regular")));
+    }
+
+    @Test
+    public void testFutureOrder() {
+        ScheduledFuture<?> write = dispatcher.submit(writeTask(0), Priority.WRITE, () -> executed.add("write"));
+        ScheduledFuture<?> oneOff = dispatcher.submit(pollTask(1), Priority.ONE_OFF_POLL,
+                () -> executed.add("oneOff"));
+        Delayed later = mock(Delayed.class);
+        when(later.getDelay(any())).thenReturn(1000L);
+
+        assertThat(write.compareTo(write), is(equalTo(0)));
+        assertTrue(write.compareTo(oneOff) < 0);
+        assertTrue(oneOff.compareTo(write) > 0);
+        // queued operations are due immediately
+        assertTrue(oneOff.compareTo(later) < 0);
+    }
+
+    @Test
+    public void testConcurrency() {
+        dispatcher.setMaxConcurrency(2);
+        for (int i = 0; i < 5; i++) {
+            int index = i;
+            dispatcher.submit(pollTask(i), Priority.ONE_OFF_POLL, () -> executed.add("oneOff" + index));
+        }
+        assertThat(executor.size(), is(equalTo(2)));
+        executor.runAll();
+        assertThat(executed.size(), is(equalTo(5)));
+    }
+
+    @Test
+    public void testBackToBack() {
+        List<Integer> batchSizes = new ArrayList<>();
+        dispatcher.setBackToBack(true);
+        dispatcher.setBatchFinishedListener(() -> batchSizes.add(executed.size()));
+        dispatcher.submit(pollTask(0), Priority.ONE_OFF_POLL, () -> {
+            executed.add("oneOff0");
+            // queued during the batch, executed in the same batch
+            dispatcher.submit(writeTask(1), Priority.WRITE, () -> executed.add("write1"));
+        });
+        dispatcher.submit(pollTask(2), Priority.ONE_OFF_POLL, () -> executed.add("oneOff2"));
+
+        // single thread drains the whole queue
+        assertThat(executor.size(), is(equalTo(1)));
+        executor.runAll();
+        assertThat(executed, is(equalTo(Arrays.asList("oneOff0", "write1", "oneOff2"))));
+        assertThat(batchSizes, is(equalTo(Arrays.asList(3))));
+        assertThat(dispatcher.getExecutedBatches(), is(equalTo(1L)));
+
+        dispatcher.submit(pollTask(3), Priority.ONE_OFF_POLL, () -> executed.add("oneOff3"));
+        executor.runAll();
+        assertThat(batchSizes, is(equalTo(Arrays.asList(3, 4))));
+    }
+}
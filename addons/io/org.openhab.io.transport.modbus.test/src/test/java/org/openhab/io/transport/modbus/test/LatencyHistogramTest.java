@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.LatencyHistogram;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getCount(), is(equalTo(0L)));
+        assertThat(histogram.getMean(), is(equalTo(0.0)));
+        assertThat(histogram.getMax(), is(equalTo(0L)));
+        assertThat(histogram.getValueAtPercentile(99), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testSmallValuesExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getCount(), is(equalTo(10L)));
+        assertThat(histogram.getMean(), is(equalTo(5.5)));
+        assertThat(histogram.getMax(), is(equalTo(10L)));
+        assertThat(histogram.getValueAtPercentile(0), is(equalTo(1L)));
+        assertThat(histogram.getValueAtPercentile(50), is(equalTo(5L)));
+        assertThat(histogram.getValueAtPercentile(90), is(equalTo(9L)));
+        assertThat(histogram.getValueAtPercentile(100), is(equalTo(10L)));
+    }
+
+    @Test
+    public void testRelativeErrorBounded() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1_000_000; value++) {
+            histogram.record(value);
+        }
+        for (double percentile : new double[] { 10, 50, 95, 99, 99.9 }) {
+            long expected = (long) (percentile / 100 * 1_000_000);
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue(String.format("p%s: expected %d, got %d", percentile, expected, actual), actual >= expected);
+            assertTrue(String.format("p%s: expected %d, got %d", percentile, expected, actual),
+                    actual <= expected + expected / 16);
+        }
+        assertThat(histogram.getValueAtPercentile(100), is(equalTo(1_000_000L)));
+    }
+
+    @Test
+    public void testLargeAndNegativeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE / 2);
+        assertThat(histogram.getCount(), is(equalTo(2L)));
+        assertThat(histogram.getValueAtPercentile(50), is(equalTo(0L)));
+        assertThat(histogram.getValueAtPercentile(100), is(equalTo(Long.MAX_VALUE / 2)));
+    }
+
+    @Test
+    public void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.reset();
+        assertThat(histogram.getCount(), is(equalTo(0L)));
+        assertThat(histogram.getMax(), is(equalTo(0L)));
+        assertThat(histogram.getValueAtPercentile(50), is(equalTo(0L)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new LatencyHistogram().getValueAtPercentile(101);
+    }
+}
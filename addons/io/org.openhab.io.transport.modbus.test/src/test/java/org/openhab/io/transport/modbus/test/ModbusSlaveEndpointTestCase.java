@@ -102,4 +102,36 @@ public class ModbusSlaveEndpointTestCase {
         Assert.assertNotEquals(e1, e2);
         Assert.assertNotEquals(e1.hashCode(), e2.hashCode());
     }
+
+    @Test
+    public void testInterFrameDelay9600() {
+        // 8N1 -> 10 bits per character, 3.5 characters take 3.65 ms
+        ModbusSerialSlaveEndpoint endpoint = new ModbusSerialSlaveEndpoint("port1", 9600, SerialPort.FLOWCONTROL_NONE,
+                SerialPort.FLOWCONTROL_NONE, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE,
+                Modbus.DEFAULT_SERIAL_ENCODING, false, 500);
+        Assert.assertEquals(1041.67, endpoint.getCharacterTimeMicros(), 0.01);
+        Assert.assertEquals(3646, endpoint.getInterFrameDelayMicros());
+        Assert.assertEquals(4, endpoint.getInterFrameDelayMillis());
+    }
+
+    @Test
+    public void testInterFrameDelayParityAndStopBits() {
+        // 8E2 -> 12 bits per character
+        ModbusSerialSlaveEndpoint endpoint = new ModbusSerialSlaveEndpoint("port1", 1200, SerialPort.FLOWCONTROL_NONE,
+                SerialPort.FLOWCONTROL_NONE, SerialPort.DATABITS_8, SerialPort.STOPBITS_2, SerialPort.PARITY_EVEN,
+                Modbus.DEFAULT_SERIAL_ENCODING, false, 500);
+        Assert.assertEquals(10000, endpoint.getCharacterTimeMicros(), 0.01);
+        Assert.assertEquals(35000, endpoint.getInterFrameDelayMicros());
+        Assert.assertEquals(35, endpoint.getInterFrameDelayMillis());
+    }
+
+    @Test
+    public void testInterFrameDelayHighBaudRate() {
+        // fixed 1.75 ms above 19200 baud
+        ModbusSerialSlaveEndpoint endpoint = new ModbusSerialSlaveEndpoint("port1", 115200,
+                SerialPort.FLOWCONTROL_NONE, SerialPort.FLOWCONTROL_NONE, SerialPort.DATABITS_8, SerialPort.STOPBITS_1,
+                SerialPort.PARITY_NONE, Modbus.DEFAULT_SERIAL_ENCODING, false, 500);
+        Assert.assertEquals(1750, endpoint.getInterFrameDelayMicros());
+        Assert.assertEquals(2, endpoint.getInterFrameDelayMillis());
+    }
 }
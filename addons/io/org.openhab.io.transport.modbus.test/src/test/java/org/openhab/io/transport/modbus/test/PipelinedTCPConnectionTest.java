@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.internal.PipelinedTCPConnection;
+
+import net.wimpi.modbus.io.ModbusTransaction;
+import net.wimpi.modbus.msg.ReadMultipleRegistersRequest;
+import net.wimpi.modbus.msg.ReadMultipleRegistersResponse;
+
+/**
+ * Tests for {@link PipelinedTCPConnection}, using a slave answering each request after a fixed latency
+ *
+ * @author agent - Initial contribution
+ */
+public class PipelinedTCPConnectionTest {
+
+    private static final int LATENCY_MILLIS = 200;
+    private static final int MAX_IN_FLIGHT = 4;
+    private static final int REQUESTS = 8;
+
+    private ServerSocket serverSocket;
+    private ScheduledExecutorService slaveExecutor;
+    private ExecutorService clients;
+    private final List<Long> requestsReceivedMillis = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws IOException {
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        slaveExecutor = Executors.newScheduledThreadPool(REQUESTS + 1);
+        slaveExecutor.execute(this::serve);
+        clients = Executors.newFixedThreadPool(REQUESTS);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        clients.shutdownNow();
+        slaveExecutor.shutdownNow();
+        serverSocket.close();
+    }
+
+    /**
+     * Answer read holding registers requests of one connection, each register having the value of its address
+     */
+    private void serve() {
+        try (Socket socket = serverSocket.accept()) {
+            DataInputStream input = new DataInputStream(socket.getInputStream());
+            // whole responses are written at once, like real slaves do
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            while (true) {
+                int transactionId = input.readUnsignedShort();
+                input.readUnsignedShort(); // protocol
+                int length = input.readUnsignedShort();
+                int unitId = input.readUnsignedByte();
+                input.readUnsignedByte(); // function code
+                int reference = input.readUnsignedShort();
+                int count = input.readUnsignedShort();
+                input.skipBytes(length - 6);
+                requestsReceivedMillis.add(System.currentTimeMillis());
+                slaveExecutor.schedule(() -> {
+                    synchronized (output) {
+                        try {
+                            output.writeShort(transactionId);
+                            output.writeShort(0);
+                            output.writeShort(3 + 2 * count);
+                            output.writeByte(unitId);
+                            output.writeByte(3);
+                            output.writeByte(2 * count);
+                            for (int i = 0; i < count; i++) {
+                                output.writeShort(reference + i);
+                            }
+                            output.flush();
+                        } catch (IOException e) {
+                            // connection closed by the test
+                        }
+                    }
+                }, LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (IOException e) {
+            // connection closed by the test
+        }
+    }
+
+    /**
+     * Read one register with each of the requests concurrently
+     *
+     * @return milliseconds taken by the requests
+     */
+    private long readConcurrently(PipelinedTCPConnection connection) throws Exception {
+        assertTrue(connection.connect());
+        List<Future<Integer>> values = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < REQUESTS; i++) {
+            int reference = i;
+            values.add(clients.submit(() -> {
+                ReadMultipleRegistersRequest request = new ReadMultipleRegistersRequest(reference, 1);
+                request.setUnitID(1);
+                ModbusTransaction transaction = connection.createTransaction();
+                transaction.setRequest(request);
+                transaction.execute();
+                return ((ReadMultipleRegistersResponse) transaction.getResponse()).getRegisterValue(0);
+            }));
+        }
+        for (int i = 0; i < REQUESTS; i++) {
+            // responses are matched to the right requests
+            assertThat(values.get(i).get(5, TimeUnit.SECONDS), is(equalTo(i)));
+        }
+        long took = System.currentTimeMillis() - start;
+        connection.resetConnection();
+        return took;
+    }
+
+    @Test
+    public void testRequestsAreDelayedButRoundTripsOverlap() throws Exception {
+        long delayMillis = 50;
+        long took = readConcurrently(new PipelinedTCPConnection(InetAddress.getLoopbackAddress(),
+                serverSocket.getLocalPort(), MAX_IN_FLIGHT, 0, 5000, delayMillis));
+
+        assertThat(requestsReceivedMillis.size(), is(equalTo(REQUESTS)));
+        for (int i = 1; i < REQUESTS; i++) {
+            long gap = requestsReceivedMillis.get(i) - requestsReceivedMillis.get(i - 1);
+            // allow some jitter of the clocks
+            assertTrue(String.valueOf(gap), gap >= delayMillis - 10);
+        }
+        // One request at a time would take REQUESTS * (LATENCY_MILLIS + delayMillis) = 2000 ms, while pipelined
+        // requests take about two round trips
+        assertTrue(String.valueOf(took), took < REQUESTS * (LATENCY_MILLIS + delayMillis) / 2);
+    }
+
+    @Test
+    public void testRequestsAreSentInBatchesWithoutDelay() throws Exception {
+        long took = readConcurrently(new PipelinedTCPConnection(InetAddress.getLoopbackAddress(),
+                serverSocket.getLocalPort(), MAX_IN_FLIGHT, 0, 5000, 0));
+
+        assertThat(requestsReceivedMillis.size(), is(equalTo(REQUESTS)));
+        // The in-flight window is filled right away
+        long firstBatch = requestsReceivedMillis.get(MAX_IN_FLIGHT - 1) - requestsReceivedMillis.get(0);
+        assertTrue(String.valueOf(firstBatch), firstBatch < LATENCY_MILLIS / 2);
+        // The second batch is sent when the responses to the first one arrive
+        long betweenBatches = requestsReceivedMillis.get(MAX_IN_FLIGHT) - requestsReceivedMillis.get(0);
+        assertTrue(String.valueOf(betweenBatches), betweenBatches >= LATENCY_MILLIS - 10);
+        assertTrue(String.valueOf(took), took < 3 * LATENCY_MILLIS);
+    }
+}
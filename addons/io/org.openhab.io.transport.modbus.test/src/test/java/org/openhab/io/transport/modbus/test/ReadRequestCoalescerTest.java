@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.CoalescedPollTask;
+import org.openhab.io.transport.modbus.internal.ReadRequestCoalescer;
+import org.openhab.io.transport.modbus.internal.RegisterArraySlice;
+
+/**
+ * Tests cases for {@link ReadRequestCoalescer}
+ *
+ * @author agent - Initial contribution
+ */
+public class ReadRequestCoalescerTest {
+
+    private static final ModbusSlaveEndpoint ENDPOINT = new ModbusTCPSlaveEndpoint("127.0.0.1", 502);
+
+    private static PollTask task(ModbusReadFunctionCode functionCode, int start, int length) {
+        return task(functionCode, start, length, null);
+    }
+
+    private static PollTask task(ModbusReadFunctionCode functionCode, int start, int length,
+            ModbusReadCallback callback) {
+        return new BasicPollTaskImpl(ENDPOINT, new BasicModbusReadRequestBlueprint(1, functionCode, start, length, 3),
+                callback);
+    }
+
+    @Test
+    public void testAdjacentAndOverlappingRequestsAreMerged() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 10);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 10, 5);
+        PollTask task3 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 12, 10);
+        List<List<PollTask>> plan = new ReadRequestCoalescer(0).plan(Arrays.asList(task3, task1, task2));
+        assertThat(plan.size(), is(equalTo(1)));
+        assertThat(plan.get(0), is(equalTo(Arrays.asList(task1, task2, task3))));
+
+        CoalescedPollTask coalesced = new CoalescedPollTask(ENDPOINT, plan.get(0));
+        assertThat(coalesced.getRequest().getReference(), is(equalTo(0)));
+        assertThat(coalesced.getRequest().getDataLength(), is(equalTo(22)));
+        assertThat(coalesced.getRequest().getMaxTries(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testHoles() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_INPUT_REGISTERS, 0, 10);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_INPUT_REGISTERS, 13, 5);
+        assertThat(new ReadRequestCoalescer(0).plan(Arrays.asList(task1, task2)).size(), is(equalTo(2)));
+        assertThat(new ReadRequestCoalescer(2).plan(Arrays.asList(task1, task2)).size(), is(equalTo(2)));
+        assertThat(new ReadRequestCoalescer(3).plan(Arrays.asList(task1, task2)).size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void testRegisterLimit() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 100);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 100, 25);
+        PollTask task3 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 125, 1);
+        List<List<PollTask>> plan = new ReadRequestCoalescer(0).plan(Arrays.asList(task1, task2, task3));
+        assertThat(plan.size(), is(equalTo(2)));
+        assertThat(plan.get(0), is(equalTo(Arrays.asList(task1, task2))));
+        assertThat(plan.get(1), is(equalTo(Arrays.asList(task3))));
+    }
+
+    @Test
+    public void testCoilLimit() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_COILS, 0, 1000);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_COILS, 1000, 1000);
+        PollTask task3 = task(ModbusReadFunctionCode.READ_COILS, 1999, 2);
+        List<List<PollTask>> plan = new ReadRequestCoalescer(0).plan(Arrays.asList(task1, task2, task3));
+        assertThat(plan.size(), is(equalTo(2)));
+        assertThat(plan.get(0), is(equalTo(Arrays.asList(task1, task2))));
+        assertThat(plan.get(1), is(equalTo(Arrays.asList(task3))));
+    }
+
+    @Test
+    public void testOversizedRequestIsKeptAsIs() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 200);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 10, 5);
+        List<List<PollTask>> plan = new ReadRequestCoalescer(0).plan(Arrays.asList(task1, task2));
+        assertThat(plan.size(), is(equalTo(2)));
+        assertThat(plan.get(0), is(equalTo(Arrays.asList(task1))));
+        assertThat(plan.get(1), is(equalTo(Arrays.asList(task2))));
+    }
+
+    @Test
+    public void testRegistersAreDistributedAsSlices() {
+        ModbusReadCallback callback1 = mock(ModbusReadCallback.class);
+        ModbusReadCallback callback2 = mock(ModbusReadCallback.class);
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 5, 2, callback1);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 7, 3, callback2);
+        CoalescedPollTask coalesced = new CoalescedPollTask(ENDPOINT, Arrays.asList(task1, task2));
+
+        coalesced.getCallback().onRegisters(coalesced.getRequest(), new BasicModbusRegisterArray(1, 2, 3, 4, 5));
+
+        ArgumentCaptor<ModbusRegisterArray> registers1 = ArgumentCaptor.forClass(ModbusRegisterArray.class);
+        verify(callback1).onRegisters(eq(task1.getRequest()), registers1.capture());
+        assertThat(registers1.getValue(), is(instanceOf(RegisterArraySlice.class)));
+        assertThat(registers1.getValue().toHexString(), is(equalTo("00 01 00 02")));
+
+        ArgumentCaptor<ModbusRegisterArray> registers2 = ArgumentCaptor.forClass(ModbusRegisterArray.class);
+        verify(callback2).onRegisters(eq(task2.getRequest()), registers2.capture());
+        assertThat(registers2.getValue().toHexString(), is(equalTo("00 03 00 04 00 05")));
+    }
+
+    @Test
+    public void testBitsAreDistributedAsSlices() {
+        ModbusReadCallback callback1 = mock(ModbusReadCallback.class);
+        ModbusReadCallback callback2 = mock(ModbusReadCallback.class);
+        PollTask task1 = task(ModbusReadFunctionCode.READ_COILS, 0, 2, callback1);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_COILS, 1, 3, callback2);
+        CoalescedPollTask coalesced = new CoalescedPollTask(ENDPOINT, Arrays.asList(task1, task2));
+
+        coalesced.getCallback().onBits(coalesced.getRequest(), new BasicBitArray(true, false, true, true));
+
+        ArgumentCaptor<BitArray> bits1 = ArgumentCaptor.forClass(BitArray.class);
+        verify(callback1).onBits(eq(task1.getRequest()), bits1.capture());
+        assertThat(bits1.getValue().toBinaryString(), is(equalTo("10")));
+
+        ArgumentCaptor<BitArray> bits2 = ArgumentCaptor.forClass(BitArray.class);
+        verify(callback2).onBits(eq(task2.getRequest()), bits2.capture());
+        assertThat(bits2.getValue().toBinaryString(), is(equalTo("011")));
+    }
+
+    @Test
+    public void testErrorIsDistributed() {
+        ModbusReadCallback callback1 = mock(ModbusReadCallback.class);
+        ModbusReadCallback callback2 = mock(ModbusReadCallback.class);
+        PollTask task1 = task(ModbusReadFunctionCode.READ_COILS, 0, 2, callback1);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_COILS, 2, 3, callback2);
+        CoalescedPollTask coalesced = new CoalescedPollTask(ENDPOINT, Arrays.asList(task1, task2));
+        Exception error = new Exception();
+
+        coalesced.getCallback().onError(coalesced.getRequest(), error);
+
+        verify(callback1).onError(task1.getRequest(), error);
+        verify(callback2).onError(task2.getRequest(), error);
+    }
+}
@@ -11,6 +11,8 @@ package org.openhab.io.transport.modbus.test;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -20,6 +22,7 @@ import org.junit.Test;
 import org.openhab.io.transport.modbus.BitArray;
 import org.openhab.io.transport.modbus.BasicBitArray;
 import org.openhab.io.transport.modbus.ModbusConnectionException;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
 import org.openhab.io.transport.modbus.ModbusManagerListener;
 import org.openhab.io.transport.modbus.ModbusReadCallback;
 import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
@@ -38,11 +41,13 @@ import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
 import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
 import org.openhab.io.transport.modbus.internal.BitArrayWrappingBitVector;
+import org.openhab.io.transport.modbus.internal.ModbusManagerImpl;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableSet;
 
 import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ReadMultipleRegistersRequest;
 import net.wimpi.modbus.msg.WriteCoilRequest;
 import net.wimpi.modbus.msg.WriteMultipleCoilsRequest;
 import net.wimpi.modbus.procimg.SimpleDigitalIn;
@@ -141,6 +146,11 @@ public class SmokeTest extends IntegrationTestSupport {
         assertThat(okCount.get(), is(equalTo(0)));
         assertThat(errorCount.get(), is(equalTo(1)));
         assertTrue(lastError.toString(), lastError.get() instanceof ModbusSlaveErrorResponseException);
+
+        ModbusEndpointMetrics metrics = modbusManager.getEndpointMetrics(endpoint);
+        assertThat(metrics.getErrors(), is(equalTo(1L)));
+        assertThat(metrics.getRetries(), is(equalTo(0L)));
+        assertThat(metrics.getTransactions(), is(equalTo(0L)));
     }
 
     /**
@@ -361,6 +371,67 @@ public class SmokeTest extends IntegrationTestSupport {
         ModbusRegisterArray registers = (ModbusRegisterArray) lastData.get();
         assertThat(registers.size(), is(equalTo(15)));
         testHoldingValues(registers, 1);
+
+        ModbusEndpointMetrics metrics = modbusManager.getEndpointMetrics(endpoint);
+        // callback might be called before the transaction is recorded
+        long deadline = System.currentTimeMillis() + 1000;
+        while (metrics.getTransactions() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(metrics.getTransactions(), is(equalTo(1L)));
+        assertThat(metrics.getErrors(), is(equalTo(0L)));
+        assertThat(metrics.getConnects(), is(equalTo(1L)));
+        assertThat(metrics.getTransactionTimes().getCount(), is(equalTo(1L)));
+        assertThat(metrics.getBorrowWaitTimes().getCount(), is(equalTo(1L)));
+        assertThat(metrics.getCallbackLags().getCount(), is(equalTo(1L)));
+    }
+
+    /**
+     * Metrics of the endpoint are kept until its last user closes the endpoint
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testEndpointMetricsDiscardedWhenLastUserCloses() throws InterruptedException {
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        modbusManager.openEndpoint(endpoint);
+        modbusManager.openEndpoint(endpoint);
+
+        CountDownLatch callbackCalled = new CountDownLatch(1);
+        modbusManager.submitOneTimePoll(new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(
+                SLAVE_UNIT_ID, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 1, 1), new ModbusReadCallback() {
+
+                    @Override
+                    public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                        callbackCalled.countDown();
+                    }
+
+                    @Override
+                    public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                        callbackCalled.countDown();
+                    }
+
+                    @Override
+                    public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                        callbackCalled.countDown();
+                    }
+                }));
+        assertTrue(callbackCalled.await(5, TimeUnit.SECONDS));
+        ModbusEndpointMetrics metrics = modbusManager.getEndpointMetrics(endpoint);
+        // callback might be called before the transaction is recorded
+        long deadline = System.currentTimeMillis() + 1000;
+        while (metrics.getTransactions() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(metrics.getTransactions(), is(equalTo(1L)));
+
+        modbusManager.closeEndpoint(endpoint);
+        assertThat(modbusManager.getEndpointMetrics(endpoint), is(sameInstance(metrics)));
+
+        modbusManager.closeEndpoint(endpoint);
+        assertThat(modbusManager.getEndpointMetrics(endpoint), is(not(sameInstance(metrics))));
+        assertThat(modbusManager.getEndpointMetrics(endpoint).getTransactions(), is(equalTo(0L)));
     }
 
     /**
@@ -704,6 +775,98 @@ public class SmokeTest extends IntegrationTestSupport {
         assertTrue(String.valueOf(averagePollPeriodMillis), averagePollPeriodMillis < 300);
     }
 
+    /**
+     * Testing coalescing of regular polls: adjacent polls are read with a single request, and each callback receives
+     * only the data it requested
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testRegularReadCoalescedWithHolding() throws InterruptedException {
+        modbusManager.close();
+        Map<String, Object> configProperties = new HashMap<>();
+        configProperties.put(ModbusManagerImpl.PROPERTY_COALESCE_POLLS, "true");
+        modbusManager = new NonOSGIModbusManager(configProperties);
+
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+
+        AtomicInteger unexpectedCount = new AtomicInteger();
+        CountDownLatch callbackCalled = new CountDownLatch(6);
+
+        BasicPollTaskImpl task1 = new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 5, 1), new ModbusReadCallback() {
+
+                    @Override
+                    public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                        try {
+                            assertThat(request.getReference(), is(equalTo(1)));
+                            assertThat(registers.size(), is(equalTo(5)));
+                            testHoldingValues(registers, 1);
+                        } catch (AssertionError e) {
+                            unexpectedCount.incrementAndGet();
+                        }
+                        callbackCalled.countDown();
+                    }
+
+                    @Override
+                    public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                        unexpectedCount.incrementAndGet();
+                        callbackCalled.countDown();
+                    }
+
+                    @Override
+                    public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                        unexpectedCount.incrementAndGet();
+                        callbackCalled.countDown();
+                    }
+                });
+        BasicPollTaskImpl task2 = new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 6, 10, 1), new ModbusReadCallback() {
+
+                    @Override
+                    public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                        try {
+                            assertThat(request.getReference(), is(equalTo(6)));
+                            assertThat(registers.size(), is(equalTo(10)));
+                            testHoldingValues(registers, 6);
+                        } catch (AssertionError e) {
+                            unexpectedCount.incrementAndGet();
+                        }
+                        callbackCalled.countDown();
+                    }
+
+                    @Override
+                    public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                        unexpectedCount.incrementAndGet();
+                        callbackCalled.countDown();
+                    }
+
+                    @Override
+                    public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                        unexpectedCount.incrementAndGet();
+                        callbackCalled.countDown();
+                    }
+                });
+        // Initial delay ensures that both tasks are registered before the first poll
+        modbusManager.registerRegularPoll(task1, 150, 200);
+        modbusManager.registerRegularPoll(task2, 150, 200);
+        assertThat(modbusManager.getRegisteredRegularPolls(), is(equalTo(ImmutableSet.of(task1, task2))));
+        callbackCalled.await(5, TimeUnit.SECONDS);
+        assertThat(callbackCalled.getCount(), is(equalTo(0L)));
+        assertThat(unexpectedCount.get(), is(equalTo(0)));
+
+        // The requests received by the slave should read both tasks at once
+        for (int i = 0; i < 3; i++) {
+            ModbusRequest request = modbustRequestCaptor.getAllReturnValues().get(i);
+            assertThat(((ReadMultipleRegistersRequest) request).getReference(), is(equalTo(1)));
+            assertThat(((ReadMultipleRegistersRequest) request).getWordCount(), is(equalTo(15)));
+        }
+
+        modbusManager.unregisterRegularPoll(task1);
+        assertThat(modbusManager.getRegisteredRegularPolls(), is(equalTo(ImmutableSet.of(task2))));
+    }
+
     @Test
     public void testRegularReadFirstErrorThenOK() throws InterruptedException {
         generateData();
@@ -828,6 +991,63 @@ public class SmokeTest extends IntegrationTestSupport {
         assertTrue(String.valueOf(averagePollPeriodMillis), averagePollPeriodMillis < 400);
     }
 
+    /**
+     * Read many holding registers with one-off polls, several transactions outstanding at the same time over single
+     * connection
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testOneOffReadsPipelinedWithHolding() throws InterruptedException {
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setMaxInFlight(4);
+        modbusManager.setEndpointPoolConfiguration(endpoint, configuration);
+
+        int requests = 20;
+        AtomicInteger unexpectedCount = new AtomicInteger();
+        AtomicInteger mismatchCount = new AtomicInteger();
+        CountDownLatch callbackCalled = new CountDownLatch(requests);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < requests; i++) {
+            BasicPollTaskImpl task = new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(
+                    SLAVE_UNIT_ID, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, i, 1, 1), new ModbusReadCallback() {
+
+                        @Override
+                        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                            // Response should match the request, even with many transactions outstanding
+                            if (registers.getRegister(0).toUnsignedShort() != request.getReference()
+                                    * HOLDING_REGISTER_MULTIPLIER) {
+                                mismatchCount.incrementAndGet();
+                            }
+                            callbackCalled.countDown();
+                        }
+
+                        @Override
+                        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                            unexpectedCount.incrementAndGet();
+                            callbackCalled.countDown();
+                        }
+
+                        @Override
+                        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                            unexpectedCount.incrementAndGet();
+                            callbackCalled.countDown();
+                        }
+                    });
+            modbusManager.submitOneTimePoll(task);
+        }
+        assertTrue(callbackCalled.await(5, TimeUnit.SECONDS));
+        LoggerFactory.getLogger(this.getClass()).info("{} pipelined reads took {} ms", requests,
+                System.currentTimeMillis() - start);
+        assertThat(unexpectedCount.get(), is(equalTo(0)));
+        assertThat(mismatchCount.get(), is(equalTo(0)));
+        assertThat(modbustRequestCaptor.getAllReturnValues().size(), is(equalTo(requests)));
+        // All requests are sent over the same connection
+        waitForConnectionsReceived(1);
+    }
+
     @SuppressWarnings("null")
     @Test
     public void testPoolConfigurationWithoutListener() {
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Histogram of durations with bounded relative error, in the spirit of HdrHistogram.
+ *
+ * Values are recorded in microseconds into log-linear buckets: every power of two range is divided into
+ * {@value #SUB_BUCKET_COUNT} linear sub-buckets, keeping the relative error of the reported percentiles below
+ * 1/{@value #SUB_BUCKET_COUNT}. Values up to 2^{@value #MAX_MAGNITUDE} microseconds (roughly 12 days) are tracked,
+ * larger values are counted in the last bucket.
+ *
+ * Recording is lock-free and safe to call from many threads. Readers might see a recording that is in progress
+ * partially, which is acceptable for monitoring use.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 40;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_MAGNITUDE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a duration
+     *
+     * @param micros duration in microseconds. Negative values are recorded as zero.
+     */
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Record a duration measured with {@link System#nanoTime()}
+     *
+     * @param startNanos start time of the measured operation
+     */
+    public void recordSince(long startNanos) {
+        record((System.nanoTime() - startNanos) / 1000);
+    }
+
+    /**
+     * Get number of recorded values
+     *
+     * @return number of recorded values
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Get mean of recorded values
+     *
+     * @return mean in microseconds, or zero if nothing has been recorded
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Get largest recorded value
+     *
+     * @return maximum in microseconds, or zero if nothing has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the value at given percentile. The returned value is the upper bound of the bucket containing the
+     * percentile, but never more than the largest recorded value.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return value at percentile in microseconds, or zero if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile should be between 0 and 100");
+        }
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= countAtPercentile) {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clear all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude >= MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        } else if (index == BUCKET_COUNT - 1) {
+            // last bucket holds all the values out of range
+            return Long.MAX_VALUE;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("count", getCount())
+                .append("mean", String.format("%.1f", getMean())).append("p50", getValueAtPercentile(50))
+                .append("p95", getValueAtPercentile(95)).append("p99", getValueAtPercentile(99))
+                .append("max", getMax()).toString();
+    }
+}
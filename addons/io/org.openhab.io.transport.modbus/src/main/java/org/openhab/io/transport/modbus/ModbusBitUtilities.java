@@ -9,8 +9,6 @@
 package org.openhab.io.transport.modbus;
 
 import java.math.BigDecimal;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.Optional;
 
@@ -82,6 +80,138 @@ public class ModbusBitUtilities {
      */
     public static DecimalType extractStateFromRegisters(ModbusRegisterArray registers, int index,
             ModbusConstants.ValueType type) {
+        switch (type) {
+            case FLOAT32:
+            case FLOAT32_SWAP:
+                return new DecimalType(extractFloatFromRegisters(registers, index, type));
+            default:
+                return new DecimalType(extractLongFromRegisters(registers, index, type));
+        }
+    }
+
+    /**
+     * Read integer data from registers without intermediate allocations
+     *
+     * See {@link #extractStateFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)} for the
+     * interpretation of <tt>index</tt>.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type integer item type. Floating point types are not accepted.
+     * @return value of the item
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers, or when <tt>type</tt> is a
+     *             floating point type
+     */
+    public static long extractLongFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        long rawBits = extractRawBitsFromRegisters(registers, index, type);
+        switch (type) {
+            case BIT:
+            case UINT8:
+            case UINT16:
+            case UINT32:
+            case UINT32_SWAP:
+                return rawBits;
+            case INT8:
+                return (byte) rawBits;
+            case INT16:
+                return (short) rawBits;
+            case INT32:
+            case INT32_SWAP:
+                return (int) rawBits;
+            default:
+                throw new IllegalArgumentException(
+                        String.format("Type=%s cannot be represented as integer", type.getConfigValue()));
+        }
+    }
+
+    /**
+     * Read integer data from registers without intermediate allocations
+     *
+     * See {@link #extractStateFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)} for the
+     * interpretation of <tt>index</tt>.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type integer item type fitting to int. Floating point types and unsigned 32 bit types are not accepted.
+     * @return value of the item
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers, or when <tt>type</tt> cannot
+     *             be represented as int
+     */
+    public static int extractIntFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        if (type == ModbusConstants.ValueType.UINT32 || type == ModbusConstants.ValueType.UINT32_SWAP) {
+            throw new IllegalArgumentException(
+                    String.format("Type=%s cannot be represented as int", type.getConfigValue()));
+        }
+        return (int) extractLongFromRegisters(registers, index, type);
+    }
+
+    /**
+     * Read floating point data from registers without intermediate allocations
+     *
+     * See {@link #extractStateFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)} for the
+     * interpretation of <tt>index</tt>.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based register index
+     * @param type floating point item type (FLOAT32 or FLOAT32_SWAP)
+     * @return value of the item
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers, or when <tt>type</tt> is not
+     *             a floating point type
+     */
+    public static float extractFloatFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        if (type != ModbusConstants.ValueType.FLOAT32 && type != ModbusConstants.ValueType.FLOAT32_SWAP) {
+            throw new IllegalArgumentException(
+                    String.format("Type=%s is not a floating point type", type.getConfigValue()));
+        }
+        return Float.intBitsToFloat((int) extractRawBitsFromRegisters(registers, index, type));
+    }
+
+    /**
+     * Read data of any type from registers without intermediate allocations
+     *
+     * See {@link #extractStateFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)} for the
+     * interpretation of <tt>index</tt>.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type item type
+     * @return value of the item
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers
+     */
+    public static double extractDoubleFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        switch (type) {
+            case FLOAT32:
+            case FLOAT32_SWAP:
+                return extractFloatFromRegisters(registers, index, type);
+            default:
+                return extractLongFromRegisters(registers, index, type);
+        }
+    }
+
+    /**
+     * Read the raw bits of an item from registers, without interpreting the data
+     *
+     * The bits of the item are returned in the least significant bits of the returned value, most significant bit
+     * first. With the swapped types, the registers are swapped. Other bits are zero.
+     *
+     * Since equal raw bits always decode to equal values, the returned value is useful for detecting changes in the
+     * data without decoding it.
+     *
+     * See {@link #extractStateFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)} for the
+     * interpretation of <tt>index</tt>.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type item type
+     * @return raw bits of the item
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers
+     */
+    public static long extractRawBitsFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
         int endBitIndex = (type.getBits() >= 16 ? 16 * index : type.getBits() * index) + type.getBits() - 1;
         // each register has 16 bits
         int lastValidIndex = registers.size() * 16 - 1;
@@ -92,57 +222,23 @@ public class ModbusBitUtilities {
         }
         switch (type) {
             case BIT:
-                return new DecimalType((registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1);
+                return (registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1;
             case INT8:
-                return new DecimalType(registers.getRegister(index / 2).getBytes()[1 - (index % 2)]);
             case UINT8:
-                return new DecimalType(
-                        (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff);
-            case INT16: {
-                ByteBuffer buff = ByteBuffer.allocate(2);
-                buff.put(registers.getRegister(index).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getShort(0));
-            }
+                return (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff;
+            case INT16:
             case UINT16:
-                return new DecimalType(registers.getRegister(index).toUnsignedShort());
-            case INT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0));
-            }
-            case UINT32: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0));
-            }
-            case FLOAT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0));
-            }
-            case INT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0));
-            }
-            case UINT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0));
-            }
-            case FLOAT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0));
-            }
+                return registers.getRegister(index).toUnsignedShort();
+            case INT32:
+            case UINT32:
+            case FLOAT32:
+                return ((long) registers.getRegister(index).toUnsignedShort() << 16)
+                        | registers.getRegister(index + 1).toUnsignedShort();
+            case INT32_SWAP:
+            case UINT32_SWAP:
+            case FLOAT32_SWAP:
+                return ((long) registers.getRegister(index + 1).toUnsignedShort() << 16)
+                        | registers.getRegister(index).toUnsignedShort();
             default:
                 throw new IllegalArgumentException(type.getConfigValue());
         }
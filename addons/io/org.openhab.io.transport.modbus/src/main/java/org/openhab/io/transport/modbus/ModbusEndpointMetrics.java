@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Metrics of the communication with a single endpoint, accumulated since the endpoint was first used.
+ *
+ * Durations are in microseconds.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface ModbusEndpointMetrics {
+
+    /**
+     * Get number of successful transactions
+     *
+     * @return number of successful transactions
+     */
+    public long getTransactions();
+
+    /**
+     * Get number of failed transactions. Each failed try is counted separately.
+     *
+     * @return number of failed transactions
+     */
+    public long getErrors();
+
+    /**
+     * Get number of retried transactions
+     *
+     * @return number of retries
+     */
+    public long getRetries();
+
+    /**
+     * Get number of connection establishments, including re-connects
+     *
+     * @return number of connects
+     */
+    public long getConnects();
+
+    /**
+     * Get number of operations currently waiting for execution
+     *
+     * @return queue depth
+     */
+    public int getQueueDepth();
+
+    /**
+     * Get number of regular poll cycles skipped since the previous cycle was still waiting for execution
+     *
+     * @return number of skipped polls
+     */
+    public long getSkippedPolls();
+
+    /**
+     * Get histogram of transaction round-trip times, from sending the request until the response has been received
+     *
+     * @return round-trip time histogram
+     */
+    public LatencyHistogram getTransactionTimes();
+
+    /**
+     * Get histogram of times waited for a connection to the endpoint, including the delays between transactions
+     *
+     * @return connection wait histogram
+     */
+    public LatencyHistogram getBorrowWaitTimes();
+
+    /**
+     * Get histogram of times the callbacks waited for a free callback thread
+     *
+     * @return callback lag histogram
+     */
+    public LatencyHistogram getCallbackLags();
+}
@@ -100,4 +100,28 @@ public interface ModbusManager {
      */
     public Set<PollTask> getRegisteredRegularPolls();
 
+    /**
+     * Get metrics of the communication with the endpoint
+     *
+     * @param endpoint endpoint to query
+     * @return metrics of the endpoint. Counters are zero if nothing has been communicated with the endpoint yet.
+     */
+    public ModbusEndpointMetrics getEndpointMetrics(ModbusSlaveEndpoint endpoint);
+
+    /**
+     * Register a user of the endpoint, e.g. a thing representing the slave. Metrics of the endpoint are kept as
+     * long as the endpoint has users.
+     *
+     * @param endpoint endpoint to open
+     */
+    public void openEndpoint(ModbusSlaveEndpoint endpoint);
+
+    /**
+     * Unregister a user of the endpoint registered with {@link #openEndpoint(ModbusSlaveEndpoint)}. Metrics of the
+     * endpoint are discarded when its last user closes the endpoint.
+     *
+     * @param endpoint endpoint to close
+     */
+    public void closeEndpoint(ModbusSlaveEndpoint endpoint);
+
 }
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Exception representing situation where the response contains less data than was requested
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ModbusUnexpectedResponseSizeException extends ModbusTransportException {
+
+    private static final long serialVersionUID = 2460907938819984483L;
+    private int requestSize;
+    private int responseSize;
+
+    public ModbusUnexpectedResponseSizeException(int requestSize, int responseSize) {
+        this.requestSize = requestSize;
+        this.responseSize = responseSize;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.format("Data length of the response (%d) is smaller than requested (%d)", responseSize,
+                requestSize);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ModbusUnexpectedResponseSizeException(requestSize=%d, responseSize=%d)", requestSize,
+                responseSize);
+    }
+
+    public int getRequestSize() {
+        return requestSize;
+    }
+
+    public int getResponseSize() {
+        return responseSize;
+    }
+
+}
@@ -57,6 +57,40 @@ public class EndpointPoolConfiguration {
      */
     private int connectTimeoutMillis;
 
+    /**
+     * How long to wait for the response to a request with Modbus TCP endpoints. In milliseconds. Default of 0 means
+     * that the default of the Modbus library is respected.
+     */
+    private int responseTimeoutMillis;
+
+    /**
+     * How many transactions can be outstanding at the same time with the endpoint. Default of 1 means that the next
+     * request is sent only after the response to the previous request has been received.
+     *
+     * Values above 1 enable pipelining: requests are sent over a single connection without waiting for the previous
+     * responses, and the responses are matched to requests using the transaction ID. Pipelining is supported with
+     * Modbus TCP endpoints only, and the slave must be able to process several requests per connection. With
+     * pipelining, interTransactionDelayMillis is respected between consecutive requests sent, unless disabled with
+     * delayPipelinedRequests.
+     */
+    private int maxInFlight = 1;
+
+    /**
+     * Whether interTransactionDelayMillis is respected between consecutive requests sent over a pipelined connection.
+     * When disabled, requests are sent as soon as there is room in the in-flight window, and interTransactionDelayMillis
+     * is respected only between retries of the same request.
+     */
+    private boolean delayPipelinedRequests = true;
+
+    /**
+     * Whether operations queued for the endpoint are executed back-to-back, keeping the connection borrowed until the
+     * queue has been drained. Transactions of the same batch are separated only by the inter-frame silence of the
+     * serial line (3.5 character times), while interTransactionDelayMillis is respected between batches.
+     *
+     * Supported with serial endpoints only.
+     */
+    private boolean backToBackTransactions;
+
     private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
 
     static {
@@ -103,10 +137,44 @@ public class EndpointPoolConfiguration {
         this.connectTimeoutMillis = connectTimeoutMillis;
     }
 
+    public int getResponseTimeoutMillis() {
+        return responseTimeoutMillis;
+    }
+
+    public void setResponseTimeoutMillis(int responseTimeoutMillis) {
+        this.responseTimeoutMillis = responseTimeoutMillis;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public boolean isDelayPipelinedRequests() {
+        return delayPipelinedRequests;
+    }
+
+    public void setDelayPipelinedRequests(boolean delayPipelinedRequests) {
+        this.delayPipelinedRequests = delayPipelinedRequests;
+    }
+
+    public boolean isBackToBackTransactions() {
+        return backToBackTransactions;
+    }
+
+    public void setBackToBackTransactions(boolean backToBackTransactions) {
+        this.backToBackTransactions = backToBackTransactions;
+    }
+
     @Override
     public int hashCode() {
         return new HashCodeBuilder(2149, 3117).append(interTransactionDelayMillis).append(interConnectDelayMillis)
-                .append(connectMaxTries).append(reconnectAfterMillis).append(connectTimeoutMillis).toHashCode();
+                .append(connectMaxTries).append(reconnectAfterMillis).append(connectTimeoutMillis)
+                .append(responseTimeoutMillis).append(maxInFlight).append(delayPipelinedRequests)
+                .append(backToBackTransactions).toHashCode();
     }
 
     @Override
@@ -115,7 +183,10 @@ public class EndpointPoolConfiguration {
                 .append("interTransactionDelayMillis", interTransactionDelayMillis)
                 .append("interConnectDelayMillis", interConnectDelayMillis).append("connectMaxTries", connectMaxTries)
                 .append("reconnectAfterMillis", reconnectAfterMillis)
-                .append("connectTimeoutMillis", connectTimeoutMillis).toString();
+                .append("connectTimeoutMillis", connectTimeoutMillis)
+                .append("responseTimeoutMillis", responseTimeoutMillis).append("maxInFlight", maxInFlight)
+                .append("delayPipelinedRequests", delayPipelinedRequests)
+                .append("backToBackTransactions", backToBackTransactions).toString();
     }
 
     @Override
@@ -133,7 +204,10 @@ public class EndpointPoolConfiguration {
         return new EqualsBuilder().append(interTransactionDelayMillis, rhs.interTransactionDelayMillis)
                 .append(interConnectDelayMillis, rhs.interConnectDelayMillis)
                 .append(connectMaxTries, rhs.connectMaxTries).append(reconnectAfterMillis, rhs.reconnectAfterMillis)
-                .append(connectTimeoutMillis, rhs.connectTimeoutMillis).isEquals();
+                .append(connectTimeoutMillis, rhs.connectTimeoutMillis)
+                .append(responseTimeoutMillis, rhs.responseTimeoutMillis).append(maxInFlight, rhs.maxInFlight)
+                .append(delayPipelinedRequests, rhs.delayPipelinedRequests)
+                .append(backToBackTransactions, rhs.backToBackTransactions).isEquals();
     }
 
 }
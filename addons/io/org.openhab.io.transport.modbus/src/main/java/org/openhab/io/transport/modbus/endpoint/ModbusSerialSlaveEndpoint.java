@@ -14,6 +14,7 @@ import org.apache.commons.lang.builder.ToStringBuilder;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 
+import gnu.io.SerialPort;
 import net.wimpi.modbus.util.SerialParameters;
 
 /**
@@ -27,6 +28,12 @@ import net.wimpi.modbus.util.SerialParameters;
 @NonNullByDefault
 public class ModbusSerialSlaveEndpoint implements ModbusSlaveEndpoint {
 
+    /**
+     * Inter-frame silence used with baud rates above 19200, as recommended by the Modbus over serial line
+     * specification. In microseconds.
+     */
+    public static final long FIXED_INTER_FRAME_DELAY_MICROS = 1750;
+
     private SerialParameters serialParameters;
     private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
 
@@ -73,6 +80,57 @@ public class ModbusSerialSlaveEndpoint implements ModbusSlaveEndpoint {
         return serialParameters.getPortName();
     }
 
+    /**
+     * Get the time it takes to transmit a single character, taking into account the start bit, data bits, parity bit
+     * and stop bits.
+     *
+     * @return character time in microseconds
+     */
+    public double getCharacterTimeMicros() {
+        int baudRate = serialParameters.getBaudRate();
+        if (baudRate <= 0) {
+            return 0;
+        }
+        double stopBits;
+        switch (serialParameters.getStopbits()) {
+            case SerialPort.STOPBITS_2:
+                stopBits = 2;
+                break;
+            case SerialPort.STOPBITS_1_5:
+                stopBits = 1.5;
+                break;
+            default:
+                stopBits = 1;
+                break;
+        }
+        int parityBits = serialParameters.getParity() == SerialPort.PARITY_NONE ? 0 : 1;
+        double bitsPerCharacter = 1 + serialParameters.getDatabits() + parityBits + stopBits;
+        return bitsPerCharacter * 1_000_000 / baudRate;
+    }
+
+    /**
+     * Get the minimum silent interval between two frames on the serial line, i.e. 3.5 character times.
+     *
+     * With baud rates above 19200 the fixed interval of {@link #FIXED_INTER_FRAME_DELAY_MICROS} is used.
+     *
+     * @return inter-frame delay in microseconds
+     */
+    public long getInterFrameDelayMicros() {
+        if (serialParameters.getBaudRate() > 19200) {
+            return FIXED_INTER_FRAME_DELAY_MICROS;
+        }
+        return (long) Math.ceil(3.5 * getCharacterTimeMicros());
+    }
+
+    /**
+     * Get the minimum silent interval between two frames on the serial line, rounded up to whole milliseconds
+     *
+     * @return inter-frame delay in milliseconds
+     */
+    public long getInterFrameDelayMillis() {
+        return (getInterFrameDelayMicros() + 999) / 1000;
+    }
+
     @Override
     public int hashCode() {
         // hashcode & equal is determined purely by port name
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BitArray;
+
+/**
+ * {@link BitArray} representing a contiguous part of another bit array
+ *
+ * No data is copied, bits are read from the wrapped array.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class BitArraySlice implements BitArray {
+
+    private final BitArray wrapped;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Construct slice of the given bit array
+     *
+     * @param wrapped bit array to wrap
+     * @param offset index of the wrapped array corresponding to the first bit of this slice
+     * @param length number of bits in this slice
+     * @throws IndexOutOfBoundsException when the slice would exceed the bounds of the wrapped array
+     */
+    public BitArraySlice(BitArray wrapped, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > wrapped.size()) {
+            throw new IndexOutOfBoundsException(
+                    String.format("Slice with offset=%d and length=%d is out-of-bounds given bits of size %d", offset,
+                            length, wrapped.size()));
+        }
+        this.wrapped = wrapped;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public boolean getBit(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return wrapped.getBit(offset + index);
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("BitArraySlice(bits=").append(length == 0 ? "<empty>" : toBinaryString()).append(")")
+                .toString();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        return sizeAndValuesEquals(obj);
+    }
+
+}
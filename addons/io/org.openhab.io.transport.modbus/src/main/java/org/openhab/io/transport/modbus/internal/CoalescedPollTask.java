@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusUnexpectedResponseSizeException;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link PollTask} reading the data of several compatible poll tasks with a single request.
+ *
+ * The response is distributed to the callbacks of the member tasks. Each member receives a slice of the response
+ * matching its own request, no data is copied.
+ *
+ * Identity based equals and hashCode are used on purpose: coalesced tasks are re-created whenever the set of member
+ * tasks changes.
+ *
+ * @author agent - Initial contribution
+ *
+ * @see ReadRequestCoalescer
+ */
+@NonNullByDefault
+public class CoalescedPollTask implements PollTask {
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    /**
+     * Callback distributing the data (or error) to the callbacks of member tasks
+     */
+    private class FanOutCallback implements ModbusReadCallback {
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            for (PollTask member : members) {
+                ModbusReadCallback callback = member.getCallback();
+                if (callback == null) {
+                    continue;
+                }
+                ModbusReadRequestBlueprint memberRequest = member.getRequest();
+                int offset = memberRequest.getReference() - request.getReference();
+                int length = memberRequest.getDataLength();
+                if (offset + length > registers.size()) {
+                    invokeSafely(() -> callback.onError(memberRequest,
+                            new ModbusUnexpectedResponseSizeException(offset + length, registers.size())));
+                    continue;
+                }
+                RegisterArraySlice slice = new RegisterArraySlice(registers, offset, length);
+                invokeSafely(() -> callback.onRegisters(memberRequest, slice));
+            }
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+            for (PollTask member : members) {
+                ModbusReadCallback callback = member.getCallback();
+                if (callback == null) {
+                    continue;
+                }
+                ModbusReadRequestBlueprint memberRequest = member.getRequest();
+                int offset = memberRequest.getReference() - request.getReference();
+                int length = memberRequest.getDataLength();
+                if (offset + length > bits.size()) {
+                    invokeSafely(() -> callback.onError(memberRequest,
+                            new ModbusUnexpectedResponseSizeException(offset + length, bits.size())));
+                    continue;
+                }
+                BitArraySlice slice = new BitArraySlice(bits, offset, length);
+                invokeSafely(() -> callback.onBits(memberRequest, slice));
+            }
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            for (PollTask member : members) {
+                ModbusReadCallback callback = member.getCallback();
+                if (callback == null) {
+                    continue;
+                }
+                invokeSafely(() -> callback.onError(member.getRequest(), error));
+            }
+        }
+
+        /**
+         * Invoke member callback, making sure that exceptions do not prevent the remaining members from receiving
+         * the data
+         */
+        private void invokeSafely(Runnable invocation) {
+            try {
+                invocation.run();
+            } catch (RuntimeException e) {
+                logger.error("Unexpected exception from callback of coalesced poll task {}: {} {}",
+                        CoalescedPollTask.this, e.getClass().getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(CoalescedPollTask.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final BasicModbusReadRequestBlueprint request;
+    private final List<PollTask> members;
+    private final ModbusReadCallback callback = new FanOutCallback();
+
+    /**
+     *
+     * @param endpoint endpoint of the member tasks
+     * @param members compatible poll tasks, as grouped by {@link ReadRequestCoalescer}. Should not be empty.
+     */
+    public CoalescedPollTask(ModbusSlaveEndpoint endpoint, List<PollTask> members) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Coalesced poll task should have at least one member");
+        }
+        ModbusReadRequestBlueprint first = members.get(0).getRequest();
+        int start = Integer.MAX_VALUE;
+        // exclusive
+        int end = Integer.MIN_VALUE;
+        for (PollTask member : members) {
+            ModbusReadRequestBlueprint memberRequest = member.getRequest();
+            start = Math.min(start, memberRequest.getReference());
+            end = Math.max(end, memberRequest.getReference() + memberRequest.getDataLength());
+        }
+        this.endpoint = endpoint;
+        this.request = new BasicModbusReadRequestBlueprint(first.getUnitID(), first.getFunctionCode(), start,
+                end - start, first.getMaxTries());
+        this.members = Collections.unmodifiableList(members);
+    }
+
+    @Override
+    public ModbusReadRequestBlueprint getRequest() {
+        return request;
+    }
+
+    @Override
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public @Nullable ModbusReadCallback getCallback() {
+        return callback;
+    }
+
+    /**
+     * Get poll tasks which are read with this task
+     *
+     * @return member tasks
+     */
+    public List<PollTask> getMembers() {
+        return members;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("request", request).append("endpoint", endpoint)
+                .append("members", members.size()).toString();
+    }
+
+}
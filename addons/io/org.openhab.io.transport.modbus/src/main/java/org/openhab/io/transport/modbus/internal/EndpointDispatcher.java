@@ -0,0 +1,483 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.TaskWithEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dispatches the operations of a single endpoint in priority order.
+ *
+ * Operations are queued per endpoint and executed by the shared executor, at most
+ * {@link #setMaxConcurrency(int) maxConcurrency} operations at a time. This way an endpoint with slow responses (e.g.
+ * serial slave with low baud rate) does not occupy the threads other endpoints need. Each thread executes a single
+ * operation before yielding, making sure endpoints get their turn in a fair fashion.
+ *
+ * Writes are executed before one-off polls (e.g. refresh), which in turn are executed before regular polls.
+ *
+ * Regular poll that is still queued from the previous cycle is not queued again. Instead the cycle is skipped,
+ * preventing stale polls from piling up when the endpoint cannot keep up with the poll periods. Likewise a regular poll
+ * that is taken from the queue after its deadline, when the next cycle is already due, is skipped instead of executed.
+ *
+ * In {@link #setBackToBack(boolean) back-to-back} mode the thread keeps executing operations until the queue has
+ * been drained, after which the {@link #setBatchFinishedListener(Runnable) batch finished listener} is called. This
+ * allows the connection to be kept between the operations of the same batch.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class EndpointDispatcher {
+
+    /**
+     * Priority of the operation. Operations with higher priority are declared first.
+     */
+    public static enum Priority {
+        WRITE,
+        ONE_OFF_POLL,
+        REGULAR_POLL
+    }
+
+    /**
+     * Queued operation. Also acts as the future returned to callers submitting one-off tasks.
+     *
+     * @author agent - Initial contribution
+     *
+     */
+    public class DispatchedOperation extends FutureTask<@Nullable Void> implements ScheduledFuture<@Nullable Void> {
+
+        private final TaskWithEndpoint<?, ?> task;
+        private final Priority priority;
+        private final long sequence;
+        private final long enqueuedMillis;
+        @Nullable
+        private final Long deadlineNanos;
+
+        private DispatchedOperation(TaskWithEndpoint<?, ?> task, Priority priority, @Nullable Long deadlineNanos,
+                Runnable operation) {
+            super(operation, null);
+            this.task = task;
+            this.priority = priority;
+            this.sequence = sequenceCounter.getAndIncrement();
+            this.enqueuedMillis = System.currentTimeMillis();
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public TaskWithEndpoint<?, ?> getTask() {
+            return task;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public long getDelay(@Nullable TimeUnit unit) {
+            // Queued operations are due immediately
+            return 0;
+        }
+
+        @Override
+        public int compareTo(@Nullable Delayed other) {
+            if (other == null) {
+                return -1;
+            }
+            int delayOrder = Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+            if (delayOrder == 0 && other instanceof DispatchedOperation) {
+                // Both are due, the one executed first is considered earlier
+                return EXECUTION_ORDER.compare(this, (DispatchedOperation) other);
+            }
+            return delayOrder;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, toStringStyle).append("priority", priority).append("task", task)
+                    .toString();
+        }
+    }
+
+    private static final Comparator<DispatchedOperation> EXECUTION_ORDER = Comparator
+            .<DispatchedOperation, Priority> comparing(operation -> operation.priority)
+            .thenComparingLong(operation -> operation.sequence);
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(EndpointDispatcher.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final Executor executor;
+    private final PriorityBlockingQueue<DispatchedOperation> queue = new PriorityBlockingQueue<>(11,
+            EXECUTION_ORDER);
+    private final Set<DispatchedOperation> running = ConcurrentHashMap.newKeySet();
+    /**
+     * Regular polls currently waiting in the queue
+     */
+    private final Set<PollTask> queuedRegularPolls = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequenceCounter = new AtomicLong();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private volatile int maxConcurrency = 1;
+    private volatile boolean backToBack;
+    @Nullable
+    private volatile Runnable batchFinishedListener;
+
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong executedOperations = new AtomicLong();
+    private final AtomicLong skippedPolls = new AtomicLong();
+    private final AtomicLong executedBatches = new AtomicLong();
+    private final AtomicLong totalLatenessMillis = new AtomicLong();
+    private final AtomicLong maxLatenessMillis = new AtomicLong();
+    private volatile long lastLatenessMillis;
+
+    /**
+     *
+     * @param endpoint endpoint of the dispatched operations
+     * @param executor executor executing the operations
+     */
+    public EndpointDispatcher(ModbusSlaveEndpoint endpoint, Executor executor) {
+        this.endpoint = endpoint;
+        this.executor = executor;
+    }
+
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Set how many operations of this endpoint can be executed at the same time
+     *
+     * @param maxConcurrency maximum number of concurrently executed operations, should be positive
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency should be positive");
+        }
+        this.maxConcurrency = maxConcurrency;
+        startWorkersIfNeeded();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Set whether queued operations are executed back-to-back, draining the queue before yielding the thread
+     *
+     * @param backToBack whether to execute operations back-to-back
+     */
+    public void setBackToBack(boolean backToBack) {
+        this.backToBack = backToBack;
+    }
+
+    public boolean isBackToBack() {
+        return backToBack;
+    }
+
+    /**
+     * Set listener called after a back-to-back batch of operations has been executed, from the thread that executed
+     * the batch.
+     *
+     * @param batchFinishedListener listener to call, or null to remove the listener
+     */
+    public void setBatchFinishedListener(@Nullable Runnable batchFinishedListener) {
+        this.batchFinishedListener = batchFinishedListener;
+    }
+
+    /**
+     * Queue an operation for execution
+     *
+     * @param task task the operation is executing
+     * @param priority priority of the operation
+     * @param operation operation to execute
+     * @return future representing the queued operation
+     */
+    public DispatchedOperation submit(TaskWithEndpoint<?, ?> task, Priority priority, Runnable operation) {
+        DispatchedOperation dispatched = new DispatchedOperation(task, priority, null, operation);
+        enqueue(dispatched);
+        return dispatched;
+    }
+
+    /**
+     * Queue a cycle of regular poll for execution, unless the previous cycle is still waiting in the queue. The poll
+     * has no deadline.
+     *
+     * @param task regular poll task
+     * @param operation operation to execute
+     * @return whether the operation was queued. False means that the poll cycle was skipped.
+     */
+    public boolean submitRegularPoll(PollTask task, Runnable operation) {
+        return submitRegularPoll(task, null, operation);
+    }
+
+    /**
+     * Queue a cycle of regular poll for execution, unless the previous cycle is still waiting in the queue.
+     *
+     * @param task regular poll task
+     * @param deadlineNanos time in nanoseconds (as in {@link System#nanoTime()}) after which the poll is stale,
+     *            typically when the next cycle is due. A poll taken from the queue after its deadline is skipped. Null
+     *            for no deadline.
+     * @param operation operation to execute
+     * @return whether the operation was queued. False means that the poll cycle was skipped.
+     */
+    public boolean submitRegularPoll(PollTask task, @Nullable Long deadlineNanos, Runnable operation) {
+        if (!queuedRegularPolls.add(task)) {
+            long skipped = skippedPolls.incrementAndGet();
+            logger.debug("Previous poll of {} is still queued for endpoint {}. Skipping the poll cycle (skipped {})",
+                    task, endpoint, skipped);
+            return false;
+        }
+        enqueue(new DispatchedOperation(task, Priority.REGULAR_POLL, deadlineNanos, operation));
+        return true;
+    }
+
+    /**
+     * Cancel queued and running operations of the given task
+     *
+     * @param task task to cancel
+     * @param mayInterruptIfRunning whether running operation should be interrupted
+     */
+    public void cancel(TaskWithEndpoint<?, ?> task, boolean mayInterruptIfRunning) {
+        queue.removeIf(operation -> {
+            if (operation.task.equals(task)) {
+                operation.cancel(false);
+                return true;
+            }
+            return false;
+        });
+        if (task instanceof PollTask) {
+            queuedRegularPolls.remove(task);
+        }
+        running.stream().filter(operation -> operation.task.equals(task))
+                .forEach(operation -> operation.cancel(mayInterruptIfRunning));
+    }
+
+    /**
+     * Cancel all queued operations
+     */
+    public void cancelAll() {
+        DispatchedOperation operation;
+        while ((operation = queue.poll()) != null) {
+            operation.cancel(false);
+        }
+        queuedRegularPolls.clear();
+    }
+
+    /**
+     * Get number of operations waiting in the queue
+     *
+     * @return current queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Get maximum number of operations waiting in the queue at the same time
+     *
+     * @return maximum queue depth
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Get number of executed operations
+     *
+     * @return number of executed operations
+     */
+    public long getExecutedOperations() {
+        return executedOperations.get();
+    }
+
+    /**
+     * Get number of regular poll cycles skipped because the previous cycle was still queued, or because the poll
+     * missed its deadline
+     *
+     * @return number of skipped poll cycles
+     */
+    public long getSkippedPolls() {
+        return skippedPolls.get();
+    }
+
+    /**
+     * Get number of back-to-back batches executed
+     *
+     * @return number of executed batches
+     */
+    public long getExecutedBatches() {
+        return executedBatches.get();
+    }
+
+    /**
+     * Get how long the latest executed operation waited in the queue
+     *
+     * @return lateness in milliseconds
+     */
+    public long getLastLatenessMillis() {
+        return lastLatenessMillis;
+    }
+
+    /**
+     * Get longest time an executed operation waited in the queue
+     *
+     * @return lateness in milliseconds
+     */
+    public long getMaxLatenessMillis() {
+        return maxLatenessMillis.get();
+    }
+
+    /**
+     * Get average time executed operations waited in the queue
+     *
+     * @return lateness in milliseconds
+     */
+    public double getAverageLatenessMillis() {
+        long executed = executedOperations.get();
+        return executed == 0 ? 0 : (double) totalLatenessMillis.get() / executed;
+    }
+
+    private void enqueue(DispatchedOperation operation) {
+        queue.add(operation);
+        maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+        logger.trace("Queued {} for endpoint {}. Queue depth {}", operation, endpoint, queue.size());
+        startWorkersIfNeeded();
+    }
+
+    private void startWorkersIfNeeded() {
+        while (!queue.isEmpty()) {
+            int active = activeWorkers.get();
+            if (active >= maxConcurrency) {
+                return;
+            }
+            if (activeWorkers.compareAndSet(active, active + 1)) {
+                try {
+                    executor.execute(this::executeNext);
+                } catch (RejectedExecutionException e) {
+                    activeWorkers.decrementAndGet();
+                    logger.warn("Could not execute operations of endpoint {}: {}", endpoint, e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Execute single operation from the queue, or all queued operations in back-to-back mode, then yield the thread
+     * to other endpoints
+     */
+    private void executeNext() {
+        try {
+            if (backToBack) {
+                executeBatch();
+            } else {
+                executeOne();
+            }
+        } finally {
+            activeWorkers.decrementAndGet();
+            startWorkersIfNeeded();
+        }
+    }
+
+    private void executeBatch() {
+        int executed = 0;
+        try {
+            while (executeOne()) {
+                executed++;
+            }
+        } finally {
+            if (executed > 0) {
+                executedBatches.incrementAndGet();
+                logger.trace("Executed batch of {} operations for endpoint {}", executed, endpoint);
+                Runnable batchFinishedListener = this.batchFinishedListener;
+                if (batchFinishedListener != null) {
+                    try {
+                        batchFinishedListener.run();
+                    } catch (RuntimeException e) {
+                        logger.warn("Error finishing batch of endpoint {}: {}", endpoint, e.getMessage(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Execute single operation from the queue
+     *
+     * @return whether an operation was taken from the queue
+     */
+    private boolean executeOne() {
+        DispatchedOperation operation = queue.poll();
+        if (operation == null) {
+            return false;
+        }
+        if (operation.priority == Priority.REGULAR_POLL) {
+            queuedRegularPolls.remove(operation.task);
+        }
+        if (operation.isCancelled()) {
+            return true;
+        }
+        Long deadlineNanos = operation.deadlineNanos;
+        if (deadlineNanos != null && System.nanoTime() - deadlineNanos > 0) {
+            long skipped = skippedPolls.incrementAndGet();
+            logger.debug("{} for endpoint {} missed its deadline by {} ms. Skipping the poll cycle (skipped {})",
+                    operation, endpoint, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - deadlineNanos), skipped);
+            operation.cancel(false);
+            return true;
+        }
+        long lateness = Math.max(0, System.currentTimeMillis() - operation.enqueuedMillis);
+        lastLatenessMillis = lateness;
+        maxLatenessMillis.accumulateAndGet(lateness, Math::max);
+        totalLatenessMillis.addAndGet(lateness);
+        executedOperations.incrementAndGet();
+        logger.trace("Executing {} for endpoint {}, waited in queue for {} ms", operation, endpoint, lateness);
+        running.add(operation);
+        try {
+            operation.run();
+        } finally {
+            running.remove(operation);
+            // Clear interrupt possibly caused by cancellation, the thread is shared
+            Thread.interrupted();
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("endpoint", endpoint)
+                .append("queueDepth", getQueueDepth()).append("maxQueueDepth", getMaxQueueDepth())
+                .append("executedOperations", getExecutedOperations()).append("executedBatches", getExecutedBatches())
+                .append("skippedPolls", getSkippedPolls())
+                .append("lastLatenessMillis", getLastLatenessMillis())
+                .append("maxLatenessMillis", getMaxLatenessMillis()).toString();
+    }
+
+}
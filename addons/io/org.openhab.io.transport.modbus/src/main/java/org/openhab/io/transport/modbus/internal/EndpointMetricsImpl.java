@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.LatencyHistogram;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Metrics of a single endpoint, updated by {@link ModbusManagerImpl}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class EndpointMetricsImpl implements ModbusEndpointMetrics {
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    private final LatencyHistogram transactionTimes = new LatencyHistogram();
+    private final LatencyHistogram borrowWaitTimes = new LatencyHistogram();
+    private final LatencyHistogram callbackLags = new LatencyHistogram();
+    @Nullable
+    private volatile EndpointDispatcher dispatcher;
+
+    public EndpointMetricsImpl(ModbusSlaveEndpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void setDispatcher(@Nullable EndpointDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    void recordTransaction(long startNanos) {
+        transactions.incrementAndGet();
+        transactionTimes.recordSince(startNanos);
+    }
+
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    void recordConnect() {
+        connects.incrementAndGet();
+    }
+
+    void recordBorrowWait(long startNanos) {
+        borrowWaitTimes.recordSince(startNanos);
+    }
+
+    void recordCallbackLag(long queuedNanos) {
+        callbackLags.recordSince(queuedNanos);
+    }
+
+    @Override
+    public long getTransactions() {
+        return transactions.get();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.get();
+    }
+
+    @Override
+    public long getConnects() {
+        return connects.get();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        EndpointDispatcher dispatcher = this.dispatcher;
+        return dispatcher == null ? 0 : dispatcher.getQueueDepth();
+    }
+
+    @Override
+    public long getSkippedPolls() {
+        EndpointDispatcher dispatcher = this.dispatcher;
+        return dispatcher == null ? 0 : dispatcher.getSkippedPolls();
+    }
+
+    @Override
+    public LatencyHistogram getTransactionTimes() {
+        return transactionTimes;
+    }
+
+    @Override
+    public LatencyHistogram getBorrowWaitTimes() {
+        return borrowWaitTimes;
+    }
+
+    @Override
+    public LatencyHistogram getCallbackLags() {
+        return callbackLags;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("endpoint", endpoint)
+                .append("transactions", getTransactions()).append("errors", getErrors())
+                .append("retries", getRetries()).append("connects", getConnects())
+                .append("queueDepth", getQueueDepth()).append("skippedPolls", getSkippedPolls())
+                .append("transactionTimes", transactionTimes).append("borrowWaitTimes", borrowWaitTimes)
+                .append("callbackLags", callbackLags).toString();
+    }
+}
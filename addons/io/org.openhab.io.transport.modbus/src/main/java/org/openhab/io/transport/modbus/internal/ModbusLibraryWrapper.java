@@ -174,6 +174,9 @@ public class ModbusLibraryWrapper {
 
             @Override
             public @NonNull ModbusTransaction visit(ModbusTCPSlaveEndpoint modbusIPSlavePoolingKey) {
+                if (connection.isPresent() && connection.get() instanceof PipelinedTCPConnection) {
+                    return ((PipelinedTCPConnection) connection.get()).createTransaction();
+                }
                 ModbusTCPTransaction transaction = new ModbusTCPTransaction();
                 transaction.setReconnecting(false);
                 return transaction;
@@ -198,6 +201,8 @@ public class ModbusLibraryWrapper {
             ((ModbusUDPTransaction) transaction).setTerminal(((UDPMasterConnection) connection.get()).getTerminal());
         } else if (transaction instanceof ModbusTCPTransaction) {
             ((ModbusTCPTransaction) transaction).setConnection((TCPMasterConnection) connection.get());
+        } else if (connection.isPresent() && connection.get() instanceof PipelinedTCPConnection) {
+            // transaction is bound to the connection already
         } else {
             throw new IllegalStateException();
         }
@@ -9,7 +9,13 @@
 package org.openhab.io.transport.modbus.internal;
 
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -21,10 +27,13 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.imageio.IIOException;
 
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.pool2.KeyedObjectPool;
 import org.apache.commons.pool2.SwallowedExceptionListener;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
@@ -35,9 +44,11 @@ import org.eclipse.smarthome.core.common.QueueingThreadPoolExecutor;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.io.transport.modbus.ModbusCallback;
 import org.openhab.io.transport.modbus.ModbusConnectionException;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
 import org.openhab.io.transport.modbus.ModbusManager;
 import org.openhab.io.transport.modbus.ModbusManagerListener;
 import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
 import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
 import org.openhab.io.transport.modbus.ModbusRequestBlueprint;
 import org.openhab.io.transport.modbus.ModbusUnexpectedTransactionIdException;
@@ -75,6 +86,13 @@ import net.wimpi.modbus.net.ModbusSlaveConnection;
  * important with serial slaves but practice has shown that even many tcp slaves have limited
  * capability to handle many connections at the same time
  *
+ * Modbus TCP endpoints configured with {@link EndpointPoolConfiguration#getMaxInFlight()} above one are an exception:
+ * all transactions with such an endpoint share a single {@link PipelinedTCPConnection}, allowing several transactions
+ * to be outstanding at the same time.
+ *
+ * Operations are executed in priority order by per-endpoint {@link EndpointDispatcher}s: writes first, then one-off
+ * polls, and finally regular polls. This way, slow endpoints do not block the threads needed by other endpoints.
+ *
  * @author Sami Salonen - Initial contribution
  */
 @Component(service = ModbusManager.class, immediate = true, configurationPid = "transport.modbus")
@@ -89,6 +107,52 @@ public class ModbusManagerImpl implements ModbusManager {
         private static final long serialVersionUID = 6939730579178506885L;
     }
 
+    /**
+     * Key identifying regular polls that can be coalesced together. Only polls with the same endpoint, unit id,
+     * function code, maximum tries and poll period are merged.
+     *
+     * @author agent - Initial contribution
+     *
+     */
+    private static class CoalescingKey {
+        private final ModbusSlaveEndpoint endpoint;
+        private final int unitId;
+        private final ModbusReadFunctionCode functionCode;
+        private final int maxTries;
+        private final long pollPeriodMillis;
+
+        public CoalescingKey(PollTask task, long pollPeriodMillis) {
+            this.endpoint = task.getEndpoint();
+            this.unitId = task.getRequest().getUnitID();
+            this.functionCode = task.getRequest().getFunctionCode();
+            this.maxTries = task.getMaxTries();
+            this.pollPeriodMillis = pollPeriodMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder(53, 11).append(endpoint).append(unitId).append(functionCode).append(maxTries)
+                    .append(pollPeriodMillis).toHashCode();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (obj == null) {
+                return false;
+            }
+            if (obj == this) {
+                return true;
+            }
+            if (obj.getClass() != getClass()) {
+                return false;
+            }
+            CoalescingKey rhs = (CoalescingKey) obj;
+            return new EqualsBuilder().append(endpoint, rhs.endpoint).append(unitId, rhs.unitId)
+                    .append(functionCode, rhs.functionCode).append(maxTries, rhs.maxTries)
+                    .append(pollPeriodMillis, rhs.pollPeriodMillis).isEquals();
+        }
+    }
+
     @FunctionalInterface
     private interface ModbusOperation<T> {
 
@@ -160,8 +224,9 @@ public class ModbusManagerImpl implements ModbusManager {
             logger.trace("Response for read request (FC={}, transaction ID={}): {} [operation ID {}]",
                     response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(), operationId);
             checkTransactionId(response, libRequest, task, operationId);
-            if (callback != null && callbackThreadPool != null) {
-                callbackThreadPool.execute(() -> {
+            ExecutorService callbackPool = callbackThreadPool;
+            if (callback != null && callbackPool != null) {
+                executeCallback(endpoint, callbackPool, () -> {
                     ModbusLibraryWrapper.invokeCallbackWithResponse(request, callback, response);
                 });
             }
@@ -199,14 +264,31 @@ public class ModbusManagerImpl implements ModbusManager {
                     response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(), operationId);
 
             checkTransactionId(response, libRequest, task, operationId);
-            if (callback != null && callbackThreadPool != null) {
-                callbackThreadPool.execute(() -> {
+            ExecutorService callbackPool = callbackThreadPool;
+            if (callback != null && callbackPool != null) {
+                executeCallback(endpoint, callbackPool, () -> {
                     invokeCallbackWithResponse(request, callback, new ModbusResponseImpl(response));
                 });
             }
         }
     }
 
+    /**
+     * Connection kept borrowed between the transactions of a back-to-back batch
+     *
+     * @author agent - Initial contribution
+     *
+     */
+    private static class HeldConnection {
+        private final ModbusSlaveConnection connection;
+        private final long lastTransactionMillis;
+
+        public HeldConnection(ModbusSlaveConnection connection, long lastTransactionMillis) {
+            this.connection = connection;
+            this.lastTransactionMillis = lastTransactionMillis;
+        }
+    }
+
     private final Logger logger = LoggerFactory.getLogger(ModbusManagerImpl.class);
     private final Logger pollMonitorLogger = LoggerFactory
             .getLogger(ModbusManagerImpl.class.getName() + ".PollMonitor");
@@ -226,6 +308,23 @@ public class ModbusManagerImpl implements ModbusManager {
      * here https://community.openhab.org/t/connection-pooling-in-modbus-binding/5246/111?u=ssalonen
      */
     public static final long DEFAULT_SERIAL_INTER_TRANSACTION_DELAY_MILLIS = 35;
+
+    /**
+     * Configuration property for enabling coalescing of regular polls. When enabled, regular polls reading adjacent
+     * (or overlapping) data from the same slave with the same poll period are merged into as few requests as possible.
+     *
+     * Disabled by default.
+     */
+    public static final String PROPERTY_COALESCE_POLLS = "coalescePolls";
+
+    /**
+     * Configuration property for maximum number of unrequested registers (or bits) allowed between two coalesced
+     * polls. Data in these "holes" is read but discarded.
+     *
+     * Defaults to 0, since some slaves respond with error when reading unmapped addresses.
+     */
+    public static final String PROPERTY_COALESCE_MAX_HOLES = "coalesceMaxHoles";
+
     /**
      * Thread naming for modbus read & write requests. Also used by the monitor thread
      */
@@ -268,7 +367,46 @@ public class ModbusManagerImpl implements ModbusManager {
     private volatile KeyedObjectPool<ModbusSlaveEndpoint, ModbusSlaveConnection> connectionPool;
     @Nullable
     private volatile ModbusSlaveConnectionFactoryImpl connectionFactory;
+    /**
+     * Shared connections of the endpoints with pipelining enabled, see {@link EndpointPoolConfiguration#getMaxInFlight()}
+     */
+    private final Map<ModbusSlaveEndpoint, PipelinedTCPConnection> pipelinedConnections = new ConcurrentHashMap<>();
     private volatile Map<PollTask, ScheduledFuture<?>> scheduledPollTasks = new ConcurrentHashMap<>();
+    /**
+     * Whether regular polls are coalesced, see {@link #PROPERTY_COALESCE_POLLS}
+     */
+    private volatile boolean coalescePolls;
+    private volatile ReadRequestCoalescer coalescer = new ReadRequestCoalescer(0);
+    /**
+     * Registered regular polls subject to coalescing, grouped by compatibility. Guarded by this.
+     */
+    private final Map<CoalescingKey, Set<PollTask>> coalescingGroups = new HashMap<>();
+    /**
+     * Futures of the (possibly coalesced) reads scheduled for each group. Guarded by this.
+     */
+    private final Map<CoalescingKey, List<ScheduledFuture<?>>> coalescingGroupFutures = new HashMap<>();
+    /**
+     * Currently scheduled coalesced poll tasks
+     */
+    private final Set<PollTask> scheduledCoalescedPollTasks = ConcurrentHashMap.newKeySet();
+    /**
+     * Dispatchers executing the operations of each endpoint
+     */
+    private final Map<ModbusSlaveEndpoint, EndpointDispatcher> dispatchers = new ConcurrentHashMap<>();
+    /**
+     * Idle connections kept borrowed between the transactions of a back-to-back batch, see
+     * {@link EndpointPoolConfiguration#isBackToBackTransactions()}
+     */
+    private final Map<ModbusSlaveEndpoint, HeldConnection> heldConnections = new ConcurrentHashMap<>();
+    /**
+     * Metrics of each endpoint. Kept over re-activations so that the counters are not lost on reconfiguration, and
+     * removed when the last user closes the endpoint.
+     */
+    private final Map<ModbusSlaveEndpoint, EndpointMetricsImpl> endpointMetrics = new ConcurrentHashMap<>();
+    /**
+     * Number of users of each open endpoint, see {@link #openEndpoint(ModbusSlaveEndpoint)}
+     */
+    private final Map<ModbusSlaveEndpoint, Integer> endpointUsers = new ConcurrentHashMap<>();
     /**
      * Executor for requests
      */
@@ -285,6 +423,7 @@ public class ModbusManagerImpl implements ModbusManager {
 
     private void constructConnectionPool() {
         ModbusSlaveConnectionFactoryImpl connectionFactory = new ModbusSlaveConnectionFactoryImpl();
+        connectionFactory.setConnectListener(endpoint -> getMetrics(endpoint).recordConnect());
         connectionFactory.setDefaultPoolConfigurationFactory(endpoint -> {
             return endpoint.accept(new ModbusSlaveEndpointVisitor<EndpointPoolConfiguration>() {
 
@@ -335,9 +474,21 @@ public class ModbusManagerImpl implements ModbusManager {
     private Optional<ModbusSlaveConnection> borrowConnection(ModbusSlaveEndpoint endpoint) {
         Optional<ModbusSlaveConnection> connection = Optional.empty();
         KeyedObjectPool<ModbusSlaveEndpoint, ModbusSlaveConnection> pool = connectionPool;
-        if (pool == null) {
+        ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+        if (pool == null || connectionFactory == null) {
             return connection;
         }
+        EndpointPoolConfiguration config = connectionFactory.getEndpointPoolConfiguration(endpoint);
+        if (endpoint instanceof ModbusTCPSlaveEndpoint && config != null && config.getMaxInFlight() > 1) {
+            return borrowPipelinedConnection((ModbusTCPSlaveEndpoint) endpoint, config);
+        }
+        HeldConnection held = heldConnections.remove(endpoint);
+        if (held != null) {
+            if (held.connection.isConnected()) {
+                return Optional.of(continueWithHeldConnection(endpoint, held));
+            }
+            invalidate(endpoint, Optional.of(held.connection));
+        }
         long start = System.currentTimeMillis();
         try {
             connection = Optional.ofNullable(pool.borrowObject(endpoint));
@@ -359,7 +510,114 @@ public class ModbusManagerImpl implements ModbusManager {
         return connection;
     }
 
+    /**
+     * Get the shared connection of an endpoint with pipelining enabled. The connection is established if necessary.
+     *
+     * Unlike connections borrowed from the pool, the connection can be used by many operations at the same time.
+     *
+     * @param endpoint endpoint to connect to
+     * @param config configuration of the endpoint
+     * @return connected connection, or empty {@link Optional} when connection cannot be established
+     */
+    private Optional<ModbusSlaveConnection> borrowPipelinedConnection(ModbusTCPSlaveEndpoint endpoint,
+            EndpointPoolConfiguration config) {
+        @Nullable
+        PipelinedTCPConnection connection = pipelinedConnections.computeIfAbsent(endpoint, key -> {
+            try {
+                return new PipelinedTCPConnection(InetAddress.getByName(endpoint.getAddress()), endpoint.getPort(),
+                        config.getMaxInFlight(), config.getConnectTimeoutMillis(),
+                        config.getResponseTimeoutMillis() > 0 ? config.getResponseTimeoutMillis()
+                                : Modbus.DEFAULT_TIMEOUT,
+                        config.isDelayPipelinedRequests() ? config.getInterTransactionDelayMillis() : 0);
+            } catch (UnknownHostException e) {
+                logger.error("Unknown host: {}. Connection creation failed for endpoint {}.", e.getMessage(),
+                        endpoint);
+                return null;
+            }
+        });
+        if (connection == null) {
+            return Optional.empty();
+        }
+        if (!connection.isConnected()) {
+            try {
+                connection.connect();
+                getMetrics(endpoint).recordConnect();
+            } catch (Exception e) {
+                logger.warn("Error connecting pipelined connection {} for endpoint {}. Error was: {} {}", connection,
+                        endpoint, e.getClass().getName(), e.getMessage());
+                return Optional.empty();
+            }
+        }
+        return Optional.of(connection);
+    }
+
+    /**
+     * Continue a back-to-back batch with the held connection, waiting for the inter-frame silence of the serial line
+     * first.
+     */
+    private ModbusSlaveConnection continueWithHeldConnection(ModbusSlaveEndpoint endpoint, HeldConnection held) {
+        long interFrameDelayMillis = endpoint instanceof ModbusSerialSlaveEndpoint
+                ? ((ModbusSerialSlaveEndpoint) endpoint).getInterFrameDelayMillis()
+                : 0;
+        try {
+            long waited = ModbusSlaveConnectionFactoryImpl.waitAtleast(held.lastTransactionMillis,
+                    interFrameDelayMillis);
+            logger.trace("Continuing back-to-back batch with connection {} for endpoint {}, waited {} ms",
+                    held.connection, endpoint, waited);
+        } catch (InterruptedException e) {
+            // Operation notices the interrupt and aborts
+            Thread.currentThread().interrupt();
+        }
+        return held.connection;
+    }
+
+    /**
+     * Whether connections of the endpoint are kept borrowed between the operations of the same batch
+     */
+    private boolean isBackToBack(ModbusSlaveEndpoint endpoint) {
+        EndpointDispatcher dispatcher = dispatchers.get(endpoint);
+        return dispatcher != null && dispatcher.isBackToBack();
+    }
+
+    /**
+     * Whether the endpoint is configured to execute transactions back-to-back. Supported with serial endpoints only.
+     */
+    private boolean isBackToBackConfigured(ModbusSlaveEndpoint endpoint) {
+        ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+        if (connectionFactory == null || !(endpoint instanceof ModbusSerialSlaveEndpoint)) {
+            return false;
+        }
+        EndpointPoolConfiguration config = connectionFactory.getEndpointPoolConfiguration(endpoint);
+        return config != null && config.isBackToBackTransactions();
+    }
+
+    /**
+     * Return the connection held after a back-to-back batch to the pool
+     *
+     * @param endpoint endpoint of the connection
+     */
+    private void releaseHeldConnection(ModbusSlaveEndpoint endpoint) {
+        HeldConnection held = heldConnections.remove(endpoint);
+        if (held != null) {
+            logger.trace("Back-to-back batch finished, returning connection {} of endpoint {} to pool",
+                    held.connection, endpoint);
+            returnConnectionToPool(endpoint, Optional.of(held.connection));
+        }
+    }
+
+    private void closePipelinedConnection(ModbusSlaveEndpoint endpoint) {
+        PipelinedTCPConnection connection = pipelinedConnections.remove(endpoint);
+        if (connection != null) {
+            connection.resetConnection();
+        }
+    }
+
     private void invalidate(ModbusSlaveEndpoint endpoint, Optional<ModbusSlaveConnection> connection) {
+        if (connection.isPresent() && connection.get() instanceof PipelinedTCPConnection) {
+            // Outstanding transactions of other operations fail as well, and are retried with a new connection
+            connection.get().resetConnection();
+            return;
+        }
         KeyedObjectPool<ModbusSlaveEndpoint, ModbusSlaveConnection> pool = connectionPool;
         if (pool == null) {
             return;
@@ -375,6 +633,24 @@ public class ModbusManagerImpl implements ModbusManager {
     }
 
     private void returnConnection(ModbusSlaveEndpoint endpoint, Optional<ModbusSlaveConnection> connection) {
+        if (connection.isPresent() && connection.get() instanceof PipelinedTCPConnection) {
+            // Shared connection is kept open
+            return;
+        }
+        if (connection.isPresent() && connection.get().isConnected() && isBackToBack(endpoint)) {
+            // Connection is kept for the next operation of the batch, and returned to the pool once the batch
+            // finishes
+            HeldConnection previous = heldConnections.put(endpoint,
+                    new HeldConnection(connection.get(), System.currentTimeMillis()));
+            if (previous != null && previous.connection != connection.get()) {
+                returnConnectionToPool(endpoint, Optional.of(previous.connection));
+            }
+            return;
+        }
+        returnConnectionToPool(endpoint, connection);
+    }
+
+    private void returnConnectionToPool(ModbusSlaveEndpoint endpoint, Optional<ModbusSlaveConnection> connection) {
         KeyedObjectPool<ModbusSlaveEndpoint, ModbusSlaveConnection> pool = connectionPool;
         if (pool == null) {
             return;
@@ -413,11 +689,15 @@ public class ModbusManagerImpl implements ModbusManager {
                 task, oneOffTask, connectionPool.getNumIdle(task.getEndpoint()),
                 connectionPool.getNumActive(task.getEndpoint()), operationId);
         long connectionBorrowStart = System.currentTimeMillis();
+        long connectionBorrowStartNanos = System.nanoTime();
         ModbusCallback callback = task.getCallback();
         ModbusSlaveEndpoint endpoint = task.getEndpoint();
 
         ModbusRequestBlueprint request = task.getRequest();
         Optional<ModbusSlaveConnection> connection = borrowConnection(endpoint);
+        if (connection.isPresent()) {
+            getMetrics(endpoint).recordBorrowWait(connectionBorrowStartNanos);
+        }
         logger.trace("Executing task {} (oneOff={})! Connection received in {} ms [operation ID {}]", task, oneOffTask,
                 System.currentTimeMillis() - connectionBorrowStart, operationId);
         ExecutorService callbackPool = callbackThreadPool;
@@ -430,7 +710,7 @@ public class ModbusManagerImpl implements ModbusManager {
             logger.warn("Could not connect to endpoint {} -- aborting request {} [operation ID {}]", endpoint, request,
                     operationId);
             if (callback != null) {
-                callbackPool.execute(() -> {
+                executeCallback(endpoint, callbackPool, () -> {
                     invokeCallbackWithError(request, callback, new ModbusConnectionException(endpoint));
                 });
             }
@@ -469,7 +749,7 @@ public class ModbusManagerImpl implements ModbusManager {
     }
 
     private void verifyTaskIsRegistered(PollTask task) throws PollTaskUnregistered {
-        if (!this.scheduledPollTasks.containsKey(task)) {
+        if (!this.scheduledPollTasks.containsKey(task) && !this.scheduledCoalescedPollTasks.contains(task)) {
             String msg = String.format("Poll task %s is unregistered", task);
             logger.debug(msg);
             throw new PollTaskUnregistered(msg);
@@ -505,8 +785,9 @@ public class ModbusManagerImpl implements ModbusManager {
         C callback = task.getCallback();
         int maxTries = task.getMaxTries();
         AtomicReference<@Nullable Exception> lastError = new AtomicReference<>();
-        long retryDelay = Optional.ofNullable(connectionFactory.getEndpointPoolConfiguration(endpoint))
-                .map(cfg -> cfg.getInterTransactionDelayMillis()).orElse(0L);
+        EndpointMetricsImpl metrics = getMetrics(endpoint);
+        long retryDelay = ModbusSlaveConnectionFactoryImpl.getInterTransactionDelayMillis(endpoint,
+                connectionFactory.getEndpointPoolConfiguration(endpoint));
 
         if (maxTries <= 0) {
             throw new IllegalArgumentException("maxTries should be positive");
@@ -568,9 +849,14 @@ public class ModbusManagerImpl implements ModbusManager {
 
                 boolean willRetry = false;
                 try {
+                    if (tryIndex > 0) {
+                        metrics.recordRetry();
+                    }
                     tryIndex++;
                     willRetry = tryIndex < maxTries;
+                    long transactionStart = System.nanoTime();
                     operation.accept(operationId, task, connection.get());
+                    metrics.recordTransaction(transactionStart);
                     lastError.set(null);
                     break;
                 } catch (IOException e) {
@@ -654,6 +940,9 @@ public class ModbusManagerImpl implements ModbusManager {
                     continue;
                 } finally {
                     lastTryMillis = System.currentTimeMillis();
+                    if (lastError.get() != null) {
+                        metrics.recordError();
+                    }
                     // Connection was reseted in error handling and needs to be reconnected.
                     // Try to re-establish connection.
                     if (willRetry && !connection.isPresent()) {
@@ -665,7 +954,7 @@ public class ModbusManagerImpl implements ModbusManager {
             if (exception != null) {
                 // All retries failed with some error
                 if (callback != null) {
-                    callbackThreadPool.execute(() -> {
+                    executeCallback(endpoint, callbackThreadPool, () -> {
                         invokeCallbackWithError(request, callback, exception);
                     });
                 }
@@ -692,12 +981,13 @@ public class ModbusManagerImpl implements ModbusManager {
         Objects.requireNonNull(executor, "Not activated!");
         long scheduleTime = System.currentTimeMillis();
         logger.debug("Scheduling one-off poll task {}", task);
-        ScheduledFuture<?> future = executor.schedule(() -> {
-            long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-            logger.debug("Will now execute one-off poll task {}, waited in thread pool for {}", task,
-                    millisInThreadPoolWaiting);
-            executeOperation(task, true, pollOperation);
-        }, 0L, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> future = getDispatcher(executor, task.getEndpoint()).submit(task,
+                EndpointDispatcher.Priority.ONE_OFF_POLL, () -> {
+                    long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
+                    logger.debug("Will now execute one-off poll task {}, waited in thread pool for {}", task,
+                            millisInThreadPoolWaiting);
+                    executeOperation(task, true, pollOperation);
+                });
         return future;
     }
 
@@ -712,7 +1002,36 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.trace("Unregistering previous poll task (possibly with different period)");
                 unregisterRegularPoll(task);
             }
-            ScheduledFuture<?> future = executor.scheduleWithFixedDelay(() -> {
+            if (coalescePolls) {
+                CoalescingKey key = new CoalescingKey(task, pollPeriodMillis);
+                coalescingGroups.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(task);
+                rescheduleCoalescingGroup(executor, key, initialDelayMillis);
+            } else {
+                ScheduledFuture<?> future = scheduleRegularPoll(executor, task, pollPeriodMillis, initialDelayMillis);
+                scheduledPollTasks.put(task, future);
+            }
+            logger.trace("Registered poll task {} with period {} using initial delay {}", task, pollPeriodMillis,
+                    initialDelayMillis);
+        }
+    }
+
+    /**
+     * Schedule regular poll. The poll is queued to the dispatcher of the endpoint every poll period. Each queued poll
+     * has the time the next cycle is due as deadline, so that a poll delayed by a busy endpoint or executor is skipped
+     * instead of being executed right before the next one.
+     *
+     * @return future of the periodic queuing
+     */
+    private ScheduledFuture<?> scheduleRegularPoll(ScheduledExecutorService executor, PollTask task,
+            long pollPeriodMillis, long initialDelayMillis) {
+        EndpointDispatcher dispatcher = getDispatcher(executor, task.getEndpoint());
+        // Time the current cycle was due. Delayed runs of the fixed rate schedule get the deadline of their own cycle.
+        AtomicLong cycleDueNanos = new AtomicLong(
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(initialDelayMillis - pollPeriodMillis));
+        return executor.scheduleAtFixedRate(() -> {
+            long deadlineNanos = cycleDueNanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(pollPeriodMillis))
+                    + TimeUnit.MILLISECONDS.toNanos(pollPeriodMillis);
+            dispatcher.submitRegularPoll(task, deadlineNanos, () -> {
                 long started = System.currentTimeMillis();
                 logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
                         started);
@@ -721,12 +1040,151 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.debug(
                         "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
                         pollPeriodMillis, task, finished, started, finished - started);
-            }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
+            });
+        }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
+    }
 
-            scheduledPollTasks.put(task, future);
-            logger.trace("Registered poll task {} with period {} using initial delay {}", task, pollPeriodMillis,
-                    initialDelayMillis);
+    /**
+     * Get dispatcher of the endpoint, creating one if necessary
+     *
+     * @param executor executor to use with new dispatcher
+     * @param endpoint endpoint
+     * @return dispatcher of the endpoint
+     */
+    private EndpointDispatcher getDispatcher(ScheduledExecutorService executor, ModbusSlaveEndpoint endpoint) {
+        return dispatchers.computeIfAbsent(endpoint, key -> {
+            EndpointDispatcher dispatcher = new EndpointDispatcher(key, executor);
+            dispatcher.setMaxConcurrency(getMaxConcurrency(key));
+            dispatcher.setBackToBack(isBackToBackConfigured(key));
+            dispatcher.setBatchFinishedListener(() -> releaseHeldConnection(key));
+            getMetrics(key).setDispatcher(dispatcher);
+            return dispatcher;
+        });
+    }
+
+    private EndpointMetricsImpl getMetrics(ModbusSlaveEndpoint endpoint) {
+        return endpointMetrics.computeIfAbsent(endpoint, key -> {
+            EndpointMetricsImpl metrics = new EndpointMetricsImpl(key);
+            metrics.setDispatcher(dispatchers.get(key));
+            return metrics;
+        });
+    }
+
+    @Override
+    public ModbusEndpointMetrics getEndpointMetrics(ModbusSlaveEndpoint endpoint) {
+        return getMetrics(endpoint);
+    }
+
+    @Override
+    public void openEndpoint(ModbusSlaveEndpoint endpoint) {
+        endpointUsers.merge(endpoint, 1, Integer::sum);
+    }
+
+    @Override
+    public void closeEndpoint(ModbusSlaveEndpoint endpoint) {
+        endpointUsers.compute(endpoint, (key, users) -> {
+            if (users != null && users > 1) {
+                return users - 1;
+            }
+            logger.debug("Last user closed endpoint {}, discarding its metrics", key);
+            endpointMetrics.remove(key);
+            return null;
+        });
+    }
+
+    /**
+     * Execute callback in the callback thread pool, recording the time the callback waited for a free thread
+     *
+     * @param endpoint endpoint of the operation
+     * @param callbackPool callback thread pool
+     * @param callback callback invocation
+     */
+    private void executeCallback(ModbusSlaveEndpoint endpoint, ExecutorService callbackPool, Runnable callback) {
+        EndpointMetricsImpl metrics = getMetrics(endpoint);
+        long queuedNanos = System.nanoTime();
+        callbackPool.execute(() -> {
+            metrics.recordCallbackLag(queuedNanos);
+            callback.run();
+        });
+    }
+
+    /**
+     * Get the number of operations that can be executed concurrently with the endpoint. Only endpoints with
+     * pipelining enabled support more than one operation at a time.
+     */
+    private int getMaxConcurrency(ModbusSlaveEndpoint endpoint) {
+        ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+        if (connectionFactory == null || !(endpoint instanceof ModbusTCPSlaveEndpoint)) {
+            return 1;
         }
+        EndpointPoolConfiguration config = connectionFactory.getEndpointPoolConfiguration(endpoint);
+        return config == null ? 1 : Math.max(1, config.getMaxInFlight());
+    }
+
+    /**
+     * Get dispatcher of the endpoint, providing statistics about the queued operations
+     *
+     * @param endpoint endpoint
+     * @return dispatcher of the endpoint, or null if no operations have been submitted with the endpoint
+     */
+    public @Nullable EndpointDispatcher getEndpointDispatcher(ModbusSlaveEndpoint endpoint) {
+        return dispatchers.get(endpoint);
+    }
+
+    /**
+     * Re-plan the reads of a coalescing group after its members have changed, and schedule the resulting reads.
+     *
+     * Previously scheduled reads of the group are canceled without interrupting, so that ongoing transactions can
+     * complete. The new reads keep the phase of the previous ones, so that the members of the group are not polled
+     * earlier or later than planned when other members join or leave.
+     *
+     * Should be called while holding the lock of this.
+     *
+     * @param executor executor to schedule the reads with
+     * @param key group to re-plan
+     * @param initialDelayMillis initial delay for the reads, used only when the group has no reads scheduled yet
+     */
+    private void rescheduleCoalescingGroup(ScheduledExecutorService executor, CoalescingKey key,
+            long initialDelayMillis) {
+        long delayMillis = initialDelayMillis;
+        List<ScheduledFuture<?>> previousFutures = coalescingGroupFutures.remove(key);
+        if (previousFutures != null && !previousFutures.isEmpty()) {
+            // All reads of the group are scheduled at the same time
+            delayMillis = Math.max(0, previousFutures.get(0).getDelay(TimeUnit.MILLISECONDS));
+            previousFutures.forEach(future -> future.cancel(false));
+        }
+        scheduledCoalescedPollTasks.removeIf(scheduled -> {
+            if (key.equals(new CoalescingKey(scheduled, key.pollPeriodMillis))) {
+                // Drop the queued read, if any. Ongoing read is allowed to complete
+                getDispatcher(executor, key.endpoint).cancel(scheduled, false);
+                return true;
+            }
+            return false;
+        });
+
+        Set<PollTask> members = coalescingGroups.get(key);
+        if (members == null || members.isEmpty()) {
+            coalescingGroups.remove(key);
+            return;
+        }
+
+        List<ScheduledFuture<?>> futures = new ArrayList<>();
+        for (List<PollTask> group : coalescer.plan(members)) {
+            PollTask scheduledTask;
+            if (group.size() == 1) {
+                scheduledTask = group.get(0);
+            } else {
+                scheduledTask = new CoalescedPollTask(key.endpoint, group);
+                scheduledCoalescedPollTasks.add(scheduledTask);
+            }
+            ScheduledFuture<?> future = scheduleRegularPoll(executor, scheduledTask, key.pollPeriodMillis,
+                    delayMillis);
+            futures.add(future);
+            group.forEach(member -> scheduledPollTasks.put(member, future));
+            logger.debug("Scheduled {} with period {} reading the data of {} registered poll task(s)", scheduledTask,
+                    key.pollPeriodMillis, group.size());
+        }
+        coalescingGroupFutures.put(key, futures);
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -748,14 +1206,35 @@ public class ModbusManagerImpl implements ModbusManager {
             }
             logger.info("Unregistering regular poll task {} (interrupting if necessary)", task);
 
-            // Make sure connections to this endpoint are closed when they are returned to pool (which
-            // is usually pretty soon as transactions should be relatively short-lived)
-            factory.disconnectOnReturn(task.getEndpoint(), System.currentTimeMillis());
+            Optional<CoalescingKey> coalescingKey = coalescingGroups.entrySet().stream()
+                    .filter(entry -> entry.getValue().contains(task)).map(entry -> entry.getKey()).findFirst();
+            Set<PollTask> members = coalescingKey.map(coalescingGroups::get).orElse(null);
+            // Remaining members of the coalescing group keep polling the endpoint with the same connections
+            boolean lastOfGroup = members == null || members.size() <= 1;
 
-            future.cancel(true);
+            if (lastOfGroup) {
+                // Make sure connections to this endpoint are closed when they are returned to pool (which
+                // is usually pretty soon as transactions should be relatively short-lived)
+                factory.disconnectOnReturn(task.getEndpoint(), System.currentTimeMillis());
+            }
+
+            if (coalescingKey.isPresent()) {
+                // Poll task shares the scheduled read with other tasks. Re-plan the reads of the remaining tasks
+                if (members != null) {
+                    members.remove(task);
+                }
+                rescheduleCoalescingGroup(executor, coalescingKey.get(), coalescingKey.get().pollPeriodMillis);
+            } else {
+                future.cancel(true);
+                getDispatcher(executor, task.getEndpoint()).cancel(task, true);
+            }
 
             logger.info("Poll task {} canceled", task);
 
+            if (!lastOfGroup) {
+                return true;
+            }
+
             try {
                 // Close all idle connections as well (they will be reconnected if necessary on borrow)
                 if (connectionPool != null) {
@@ -777,12 +1256,13 @@ public class ModbusManagerImpl implements ModbusManager {
         Objects.requireNonNull(scheduledThreadPoolExecutor, "Not activated!");
         long scheduleTime = System.currentTimeMillis();
         logger.debug("Scheduling one-off write task {}", task);
-        ScheduledFuture<?> future = scheduledThreadPoolExecutor.schedule(() -> {
-            long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-            logger.debug("Will now execute one-off write task {}, waited in thread pool for {}", task,
-                    millisInThreadPoolWaiting);
-            executeOperation(task, true, writeOperation);
-        }, 0L, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> future = getDispatcher(scheduledThreadPoolExecutor, task.getEndpoint()).submit(task,
+                EndpointDispatcher.Priority.WRITE, () -> {
+                    long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
+                    logger.debug("Will now execute one-off write task {}, waited in thread pool for {}", task,
+                            millisInThreadPoolWaiting);
+                    executeOperation(task, true, writeOperation);
+                });
         return future;
     }
 
@@ -791,6 +1271,15 @@ public class ModbusManagerImpl implements ModbusManager {
             @Nullable EndpointPoolConfiguration configuration) {
         Objects.requireNonNull(connectionFactory, "Not activated!");
         connectionFactory.setEndpointPoolConfiguration(endpoint, configuration);
+        // Pipelined connection is re-created with the new configuration on next use
+        closePipelinedConnection(endpoint);
+        EndpointDispatcher dispatcher = dispatchers.get(endpoint);
+        if (dispatcher != null) {
+            dispatcher.setMaxConcurrency(getMaxConcurrency(endpoint));
+            dispatcher.setBackToBack(isBackToBackConfigured(endpoint));
+        }
+        // Idle connection held from the previous batch is returned to the pool
+        releaseHeldConnection(endpoint);
         for (ModbusManagerListener listener : listeners) {
             listener.onEndpointPoolConfigurationSet(endpoint, configuration);
         }
@@ -821,6 +1310,7 @@ public class ModbusManagerImpl implements ModbusManager {
     protected void activate(Map<String, Object> configProperties) {
         synchronized (this) {
             logger.info("Modbus manager activated");
+            configureCoalescing(configProperties);
             if (connectionPool == null) {
                 constructConnectionPool();
             }
@@ -852,10 +1342,15 @@ public class ModbusManagerImpl implements ModbusManager {
                 for (PollTask task : polls) {
                     unregisterRegularPoll(task);
                 }
+                heldConnections.keySet().forEach(this::releaseHeldConnection);
 
                 connectionPool.close();
                 this.connectionPool = connectionPool = null;
             }
+            pipelinedConnections.keySet().forEach(this::closePipelinedConnection);
+            dispatchers.values().forEach(EndpointDispatcher::cancelAll);
+            dispatchers.clear();
+            endpointMetrics.values().forEach(metrics -> metrics.setDispatcher(null));
 
             if (monitorFuture != null) {
                 monitorFuture.cancel(true);
@@ -870,6 +1365,23 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    private void configureCoalescing(Map<String, Object> configProperties) {
+        coalescePolls = Boolean.parseBoolean(String.valueOf(configProperties.get(PROPERTY_COALESCE_POLLS)));
+        int maxHoles = 0;
+        Object maxHolesProperty = configProperties.get(PROPERTY_COALESCE_MAX_HOLES);
+        if (maxHolesProperty != null) {
+            try {
+                maxHoles = Math.max(0, Integer.parseInt(String.valueOf(maxHolesProperty).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} '{}', expecting non-negative integer. Using {} instead.",
+                        PROPERTY_COALESCE_MAX_HOLES, maxHolesProperty, maxHoles);
+            }
+        }
+        coalescer = new ReadRequestCoalescer(maxHoles);
+        logger.debug("Coalescing of regular polls {} (max holes {})", coalescePolls ? "enabled" : "disabled",
+                maxHoles);
+    }
+
     private void logTaskQueueInfo() {
         synchronized (pollMonitorLogger) {
             ScheduledExecutorService scheduledThreadPoolExecutor = this.scheduledThreadPoolExecutor;
@@ -890,6 +1402,20 @@ public class ModbusManagerImpl implements ModbusManager {
                         task.getRequest().getDataLength(), future.isDone(), future.isCancelled(),
                         future.getDelay(TimeUnit.MILLISECONDS), task);
             });
+            this.dispatchers.values().forEach(dispatcher -> {
+                pollMonitorLogger.trace(
+                        "POLL MONITOR: endpoint {} queue depth: {} (max {}), executed {}, skipped polls {}, lateness {}ms (max {}ms, avg {}ms)",
+                        dispatcher.getEndpoint(), dispatcher.getQueueDepth(), dispatcher.getMaxQueueDepth(),
+                        dispatcher.getExecutedOperations(), dispatcher.getSkippedPolls(),
+                        dispatcher.getLastLatenessMillis(), dispatcher.getMaxLatenessMillis(),
+                        String.format("%.1f", dispatcher.getAverageLatenessMillis()));
+                pollMonitorLogger.trace("POLL MONITOR: {}", getMetrics(dispatcher.getEndpoint()));
+                if (dispatcher.getQueueDepth() >= WARN_QUEUE_SIZE) {
+                    pollMonitorLogger.warn(
+                            "Many ({}) operations queued for endpoint {}! This might be sign of bad design or bug in the binding code.",
+                            dispatcher.getQueueDepth(), dispatcher.getEndpoint());
+                }
+            });
             if (callbackThreadPool instanceof QueueingThreadPoolExecutor) {
                 QueueingThreadPoolExecutor callbackPool = ((QueueingThreadPoolExecutor) callbackThreadPool);
                 pollMonitorLogger.trace(
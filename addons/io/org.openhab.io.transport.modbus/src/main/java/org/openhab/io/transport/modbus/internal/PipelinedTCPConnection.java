@@ -0,0 +1,359 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.internal.pooling.ModbusSlaveConnectionFactoryImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.wimpi.modbus.Modbus;
+import net.wimpi.modbus.ModbusException;
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.ModbusSlaveException;
+import net.wimpi.modbus.io.ModbusTCPTransport;
+import net.wimpi.modbus.io.ModbusTransaction;
+import net.wimpi.modbus.msg.ExceptionResponse;
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ModbusResponse;
+import net.wimpi.modbus.net.ModbusSlaveConnection;
+
+/**
+ * Modbus TCP connection allowing several transactions to be outstanding at the same time.
+ *
+ * Requests are written to the socket as soon as there is room in the in-flight window, without waiting for the
+ * responses of the previous requests. A dedicated reader thread reads the responses and matches them to the waiting
+ * requests using the MBAP transaction ID. Responses with unknown transaction ID (e.g. responses to requests that have
+ * timed out already) are discarded.
+ *
+ * Consecutive requests are written at least the inter-request delay apart, protecting slaves that cannot handle
+ * requests in quick succession. The round trips of the requests still overlap.
+ *
+ * Transactions are created with {@link #createTransaction()} and can be executed concurrently from many threads.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PipelinedTCPConnection implements ModbusSlaveConnection {
+
+    /**
+     * Transaction executed over the pipelined connection. Blocks until the response is received.
+     *
+     * @author agent - Initial contribution
+     *
+     */
+    private class PipelinedTransaction implements ModbusTransaction {
+
+        @Nullable
+        private ModbusRequest request;
+        @Nullable
+        private ModbusResponse response;
+
+        @Override
+        public void setRequest(@Nullable ModbusRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public @Nullable ModbusRequest getRequest() {
+            return request;
+        }
+
+        @Override
+        public @Nullable ModbusResponse getResponse() {
+            return response;
+        }
+
+        @Override
+        public int getTransactionID() {
+            ModbusRequest request = this.request;
+            return request == null ? 0 : request.getTransactionID();
+        }
+
+        @Override
+        public void setRetries(int retries) {
+            // retries are handled by the caller
+        }
+
+        @Override
+        public int getRetries() {
+            return 0;
+        }
+
+        @Override
+        public void setRetryDelayMillis(long retryDelayMillis) {
+            // retries are handled by the caller
+        }
+
+        @Override
+        public long getRetryDelayMillis() {
+            return 0;
+        }
+
+        @Override
+        public void setCheckingValidity(boolean checkingValidity) {
+            // responses are always matched by transaction id
+        }
+
+        @Override
+        public boolean isCheckingValidity() {
+            return true;
+        }
+
+        @Override
+        public void execute() throws ModbusException {
+            ModbusRequest request = this.request;
+            if (request == null) {
+                throw new ModbusException("No request set");
+            }
+            response = PipelinedTCPConnection.this.execute(request);
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(PipelinedTCPConnection.class);
+
+    private final InetAddress address;
+    private final int port;
+    private final int maxInFlight;
+    private final int connectTimeoutMillis;
+    private final int responseTimeoutMillis;
+    private final long interRequestDelayMillis;
+    private final Semaphore inFlight;
+    private final Map<Integer, CompletableFuture<ModbusResponse>> pendingResponses = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private int lastTransactionId;
+    @Nullable
+    private Long lastRequestMillis;
+
+    @Nullable
+    private volatile Socket socket;
+    @Nullable
+    private volatile ModbusTCPTransport transport;
+
+    /**
+     *
+     * @param address address of the slave
+     * @param port port of the slave
+     * @param maxInFlight maximum number of outstanding transactions, should be positive
+     * @param connectTimeoutMillis connect timeout in milliseconds. Zero means system default
+     * @param responseTimeoutMillis how long to wait for the response, in milliseconds
+     * @param interRequestDelayMillis minimum time between consecutive requests written, in milliseconds
+     */
+    public PipelinedTCPConnection(InetAddress address, int port, int maxInFlight, int connectTimeoutMillis,
+            int responseTimeoutMillis, long interRequestDelayMillis) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight should be positive");
+        }
+        this.address = address;
+        this.port = port;
+        this.maxInFlight = maxInFlight;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.responseTimeoutMillis = responseTimeoutMillis;
+        this.interRequestDelayMillis = interRequestDelayMillis;
+        this.inFlight = new Semaphore(maxInFlight, true);
+    }
+
+    /**
+     * Get maximum number of outstanding transactions
+     *
+     * @return maximum number of outstanding transactions
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Get number of transactions currently waiting for response
+     *
+     * @return number of outstanding transactions
+     */
+    public int getInFlight() {
+        return pendingResponses.size();
+    }
+
+    /**
+     * Create new transaction using this connection
+     *
+     * @return new transaction
+     */
+    public ModbusTransaction createTransaction() {
+        return new PipelinedTransaction();
+    }
+
+    @Override
+    public synchronized boolean connect() throws Exception {
+        if (isConnected()) {
+            return true;
+        }
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(address, port), connectTimeoutMillis);
+        ModbusTCPTransport transport = new ModbusTCPTransport(socket);
+        this.socket = socket;
+        this.transport = transport;
+        Thread reader = new Thread(() -> readResponses(socket, transport),
+                String.format("modbusPipelinedReader-%s:%d", address.getHostAddress(), port));
+        reader.setDaemon(true);
+        reader.start();
+        logger.debug("Connected pipelined connection {}", this);
+        return true;
+    }
+
+    @Override
+    public boolean isConnected() {
+        Socket socket = this.socket;
+        return socket != null && socket.isConnected() && !socket.isClosed();
+    }
+
+    /**
+     * Close the connection. Outstanding transactions fail with {@link ModbusIOException}.
+     */
+    @Override
+    public synchronized void resetConnection() {
+        Socket socket = this.socket;
+        ModbusTCPTransport transport = this.transport;
+        this.socket = null;
+        this.transport = null;
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (IOException e) {
+                logger.debug("Error closing transport of connection {}: {}", this, e.getMessage());
+            }
+        }
+        if (socket != null) {
+            logger.debug("Closed pipelined connection {}", this);
+        }
+        failPending("Connection reset");
+    }
+
+    private ModbusResponse execute(ModbusRequest request) throws ModbusException {
+        boolean acquired = false;
+        int transactionId = -1;
+        try {
+            acquired = inFlight.tryAcquire(responseTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                throw new ModbusIOException(
+                        String.format("Timeout waiting for free slot (max in flight %d)", maxInFlight));
+            }
+            CompletableFuture<ModbusResponse> responseFuture = new CompletableFuture<>();
+            synchronized (writeLock) {
+                ModbusTCPTransport transport = this.transport;
+                if (transport == null || !isConnected()) {
+                    throw new ModbusIOException("Not connected");
+                }
+                long waited = ModbusSlaveConnectionFactoryImpl.waitAtleast(lastRequestMillis,
+                        interRequestDelayMillis);
+                if (waited > 0) {
+                    logger.trace("Waited {}ms (interRequestDelayMillis {}ms) before writing request to {}", waited,
+                            interRequestDelayMillis, this);
+                }
+                transactionId = nextTransactionId();
+                request.setTransactionID(transactionId);
+                pendingResponses.put(transactionId, responseFuture);
+                // Writing is not synchronized in the transport
+                try {
+                    transport.writeMessage(request);
+                } finally {
+                    lastRequestMillis = System.currentTimeMillis();
+                }
+            }
+            ModbusResponse response = responseFuture.get(responseTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (response instanceof ExceptionResponse) {
+                throw new ModbusSlaveException(((ExceptionResponse) response).getExceptionCode());
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModbusIOException("Interrupted while waiting for response");
+        } catch (TimeoutException e) {
+            throw new ModbusIOException(String.format("Timeout waiting for response to transaction %d (%d ms)",
+                    transactionId, responseTimeoutMillis));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ModbusException) {
+                throw (ModbusException) cause;
+            }
+            throw new ModbusIOException(String.valueOf(cause));
+        } finally {
+            if (transactionId != -1) {
+                pendingResponses.remove(transactionId);
+            }
+            if (acquired) {
+                inFlight.release();
+            }
+        }
+    }
+
+    /**
+     * Get next unused transaction id. Should be called holding the write lock.
+     *
+     * Transaction id 0 is reserved for headless requests, and is never used.
+     */
+    private int nextTransactionId() {
+        do {
+            lastTransactionId = lastTransactionId % Modbus.MAX_TRANSACTION_ID + 1;
+        } while (pendingResponses.containsKey(lastTransactionId));
+        return lastTransactionId;
+    }
+
+    private void readResponses(Socket socket, ModbusTCPTransport transport) {
+        try {
+            while (!socket.isClosed()) {
+                ModbusResponse response = transport.readResponse();
+                CompletableFuture<ModbusResponse> responseFuture = pendingResponses
+                        .remove(response.getTransactionID());
+                if (responseFuture == null) {
+                    logger.debug(
+                            "Received response with unexpected transaction id {} from {}, possibly request timed out already. Ignoring response.",
+                            response.getTransactionID(), this);
+                } else {
+                    responseFuture.complete(response);
+                }
+            }
+        } catch (ModbusIOException e) {
+            if (!socket.isClosed()) {
+                logger.debug("Error reading responses from {}, closing the connection: {}", this, e.getMessage());
+            }
+        } finally {
+            synchronized (this) {
+                if (this.socket == socket) {
+                    resetConnection();
+                }
+            }
+        }
+    }
+
+    private void failPending(String message) {
+        pendingResponses.values().removeIf(responseFuture -> {
+            responseFuture.completeExceptionally(new ModbusIOException(message));
+            return true;
+        });
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PipelinedTCPConnection(address=%s, port=%d, maxInFlight=%d, inFlight=%d)",
+                address.getHostAddress(), port, maxInFlight, getInFlight());
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.ModbusConstants;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.PollTask;
+
+/**
+ * Plans how regularly polled read requests can be merged together.
+ *
+ * Poll tasks given to {@link #plan(Collection)} are expected to be compatible with each other, that is, they should
+ * share the endpoint, unit id, function code and maximum tries. The tasks are merged into as few reads as possible
+ * while respecting the protocol limits ({@link ModbusConstants#MAX_REGISTERS_READ_COUNT} registers,
+ * {@link ModbusConstants#MAX_BITS_READ_COUNT} coils or discrete inputs).
+ *
+ * Requests that are not adjacent can be merged as well when the gap ("hole") between them is small enough. The data
+ * in the holes is read but ignored. Note that some slaves respond with error when reading unmapped addresses, and
+ * thus holes are not allowed by default.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadRequestCoalescer {
+
+    private static final Comparator<PollTask> BY_START_THEN_LONGEST_FIRST = Comparator
+            .<PollTask> comparingInt(task -> task.getRequest().getReference())
+            .thenComparing(Comparator.<PollTask> comparingInt(task -> task.getRequest().getDataLength()).reversed());
+
+    private final int maxHoles;
+
+    /**
+     *
+     * @param maxHoles maximum number of registers (or bits) between two requests that are merged together
+     */
+    public ReadRequestCoalescer(int maxHoles) {
+        if (maxHoles < 0) {
+            throw new IllegalArgumentException("maxHoles should be non-negative");
+        }
+        this.maxHoles = maxHoles;
+    }
+
+    /**
+     * Get maximum number of data elements that can be read with single request
+     *
+     * @param functionCode function code of the read request
+     * @return maximum data length of single request
+     */
+    public static int getMaxDataLength(ModbusReadFunctionCode functionCode) {
+        switch (functionCode) {
+            case READ_COILS:
+            case READ_INPUT_DISCRETES:
+                return ModbusConstants.MAX_BITS_READ_COUNT;
+            case READ_MULTIPLE_REGISTERS:
+            case READ_INPUT_REGISTERS:
+                return ModbusConstants.MAX_REGISTERS_READ_COUNT;
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected function code %s", functionCode));
+        }
+    }
+
+    /**
+     * Group poll tasks such that each group can be read with a single request.
+     *
+     * Tasks requesting more data than the protocol allows are never merged with other tasks and will form a group of
+     * their own.
+     *
+     * @param tasks compatible poll tasks to group
+     * @return groups of poll tasks, ordered by start address. Each group contains at least one task.
+     */
+    public List<List<PollTask>> plan(Collection<PollTask> tasks) {
+        List<PollTask> sorted = new ArrayList<>(tasks);
+        sorted.sort(BY_START_THEN_LONGEST_FIRST);
+
+        List<List<PollTask>> groups = new ArrayList<>();
+        @Nullable
+        List<PollTask> currentGroup = null;
+        int groupStart = 0;
+        // exclusive
+        int groupEnd = 0;
+        for (PollTask task : sorted) {
+            ModbusReadRequestBlueprint request = task.getRequest();
+            int start = request.getReference();
+            int end = start + request.getDataLength();
+            int maxLength = getMaxDataLength(request.getFunctionCode());
+            if (currentGroup != null && start - groupEnd <= maxHoles
+                    && Math.max(groupEnd, end) - groupStart <= maxLength) {
+                currentGroup.add(task);
+                groupEnd = Math.max(groupEnd, end);
+            } else {
+                currentGroup = new ArrayList<>();
+                currentGroup.add(task);
+                groups.add(currentGroup);
+                groupStart = start;
+                groupEnd = end;
+            }
+        }
+        return groups;
+    }
+
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.ModbusRegister;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * {@link ModbusRegisterArray} representing a contiguous part of another register array
+ *
+ * No data is copied, registers are read from the wrapped array.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RegisterArraySlice implements ModbusRegisterArray {
+
+    private final ModbusRegisterArray wrapped;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Construct slice of the given register array
+     *
+     * @param wrapped register array to wrap
+     * @param offset index of the wrapped array corresponding to the first register of this slice
+     * @param length number of registers in this slice
+     * @throws IndexOutOfBoundsException when the slice would exceed the bounds of the wrapped array
+     */
+    public RegisterArraySlice(ModbusRegisterArray wrapped, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > wrapped.size()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Slice with offset=%d and length=%d is out-of-bounds given registers of size %d", offset, length,
+                    wrapped.size()));
+        }
+        this.wrapped = wrapped;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public ModbusRegister getRegister(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return wrapped.getRegister(offset + index);
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        if (length == 0) {
+            return "RegisterArraySlice(<empty>)";
+        }
+        StringBuffer buffer = new StringBuffer(length * 2).append("RegisterArraySlice(");
+        return appendHexString(buffer).append(')').toString();
+    }
+
+}
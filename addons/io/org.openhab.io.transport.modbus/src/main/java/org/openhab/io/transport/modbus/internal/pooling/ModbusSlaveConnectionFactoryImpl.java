@@ -12,6 +12,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
@@ -80,6 +81,8 @@ public class ModbusSlaveConnectionFactoryImpl
     private volatile Map<ModbusSlaveEndpoint, Long> lastConnectMillis = new ConcurrentHashMap<>();
     private volatile Map<ModbusSlaveEndpoint, Long> disconnectIfConnectedBefore = new ConcurrentHashMap<>();
     private volatile Function<ModbusSlaveEndpoint, @Nullable EndpointPoolConfiguration> defaultPoolConfigurationFactory = endpoint -> null;
+    private volatile Consumer<ModbusSlaveEndpoint> connectListener = endpoint -> {
+    };
 
     private @Nullable InetAddress getInetAddress(ModbusIPSlaveEndpoint key) {
         try {
@@ -109,10 +112,15 @@ public class ModbusSlaveConnectionFactoryImpl
                 }
                 EndpointPoolConfiguration config = getEndpointPoolConfiguration(key);
                 int connectTimeoutMillis = 0;
+                int responseTimeoutMillis = 0;
                 if (config != null) {
                     connectTimeoutMillis = config.getConnectTimeoutMillis();
+                    responseTimeoutMillis = config.getResponseTimeoutMillis();
                 }
                 TCPMasterConnection connection = new TCPMasterConnection(address, key.getPort(), connectTimeoutMillis);
+                if (responseTimeoutMillis > 0) {
+                    connection.setTimeout(responseTimeoutMillis);
+                }
                 logger.trace("Created connection {} for endpoint {}", connection, key);
                 return connection;
             }
@@ -166,10 +174,11 @@ public class ModbusSlaveConnectionFactoryImpl
             }
 
             if (config != null) {
-                long waited = waitAtleast(lastPassivateMillis.get(endpoint), config.getInterTransactionDelayMillis());
+                long interTransactionDelayMillis = getInterTransactionDelayMillis(endpoint, config);
+                long waited = waitAtleast(lastPassivateMillis.get(endpoint), interTransactionDelayMillis);
                 logger.trace(
                         "Waited {}ms (interTransactionDelayMillis {}ms) before giving returning connection {} for endpoint {}, to ensure delay between transactions.",
-                        waited, config.getInterTransactionDelayMillis(), obj.getObject(), endpoint);
+                        waited, interTransactionDelayMillis, obj.getObject(), endpoint);
             }
         } catch (InterruptedException e) {
             // Someone wants to cancel us, reset the connection and abort
@@ -264,6 +273,15 @@ public class ModbusSlaveConnectionFactoryImpl
         this.defaultPoolConfigurationFactory = defaultPoolConfigurationFactory;
     }
 
+    /**
+     * Set listener called every time a connection to an endpoint has been established
+     *
+     * @param connectListener listener receiving the endpoint of the connection
+     */
+    public void setConnectListener(Consumer<ModbusSlaveEndpoint> connectListener) {
+        this.connectListener = connectListener;
+    }
+
     private void tryConnect(ModbusSlaveEndpoint endpoint, PooledObject<ModbusSlaveConnection> obj,
             ModbusSlaveConnection connection, @Nullable EndpointPoolConfiguration config) throws Exception {
         if (connection.isConnected()) {
@@ -290,6 +308,7 @@ public class ModbusSlaveConnectionFactoryImpl
                 long curTime = System.currentTimeMillis();
                 ((PooledConnection) obj).setLastConnected(curTime);
                 lastConnectMillis.put(endpoint, curTime);
+                connectListener.accept(endpoint);
                 break;
             } catch (InterruptedException e) {
                 logger.error("connect try {}/{} error: {}. Aborting since interrupted. Connection {}. Endpoint {}.",
@@ -309,6 +328,25 @@ public class ModbusSlaveConnectionFactoryImpl
         } while (true);
     }
 
+    /**
+     * Get the minimum delay between transactions with the endpoint.
+     *
+     * With serial endpoints, the delay is never shorter than the inter-frame silence (3.5 character times) required
+     * by the serial line.
+     *
+     * @param endpoint endpoint
+     * @param config configuration of the endpoint, or null if not configured
+     * @return delay in milliseconds
+     */
+    public static long getInterTransactionDelayMillis(ModbusSlaveEndpoint endpoint,
+            @Nullable EndpointPoolConfiguration config) {
+        long configured = config == null ? 0 : config.getInterTransactionDelayMillis();
+        if (endpoint instanceof ModbusSerialSlaveEndpoint) {
+            return Math.max(configured, ((ModbusSerialSlaveEndpoint) endpoint).getInterFrameDelayMillis());
+        }
+        return configured;
+    }
+
     /**
      * Sleep until <code>waitMillis</code> has passed from <code>lastOperation</code>
      *
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.backend;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.rrd4j.ConsolFun;
+
+/**
+ * Tests cases for {@link ChartSeries}
+ *
+ * @author agent - Initial contribution
+ */
+public class ChartSeriesTest {
+    private static final double NAN = Double.NaN;
+    private static final double DELTA = 1e-9;
+
+    // Raw rows of two data sources, consolidated into buckets of 1000 ms: rows 0-3, rows 4-5 and row 6
+    private static final long[] TIMESTAMPS = { 0, 250, 500, 999, 1000, 1500, 2500 };
+    private static final double[] VALUES_A = { 1, 3, 5, 7, NAN, 2, 10 };
+    private static final double[] VALUES_B = { 2, NAN, 6, 8, NAN, 4, NAN };
+
+    private static final long[] BUCKET_TIMESTAMPS = { 999, 1500, 2500 };
+
+    private static ChartSeries fixture() {
+        return new ChartSeries(TIMESTAMPS, new double[][] { VALUES_A, VALUES_B });
+    }
+
+    private static void assertDownsampled(ConsolFun consolidationFunction, double[] expectedA, double[] expectedB) {
+        ChartSeries series = fixture().downsample(1000, consolidationFunction);
+
+        assertArrayEquals(BUCKET_TIMESTAMPS, series.getTimestamps());
+        assertThat(series.getColumnCount(), is(2));
+        // missing values are ignored, a bucket of missing values only stays missing
+        assertArrayEquals(expectedA, series.getValues()[0], DELTA);
+        assertArrayEquals(expectedB, series.getValues()[1], DELTA);
+    }
+
+    @Test
+    public void averageOfBuckets() {
+        assertDownsampled(ConsolFun.AVERAGE, new double[] { 4, 2, 10 }, new double[] { 16.0 / 3, 4, NAN });
+    }
+
+    @Test
+    public void minimumAndMaximumOfBuckets() {
+        assertDownsampled(ConsolFun.MIN, new double[] { 1, 2, 10 }, new double[] { 2, 4, NAN });
+        assertDownsampled(ConsolFun.MAX, new double[] { 7, 2, 10 }, new double[] { 8, 4, NAN });
+    }
+
+    @Test
+    public void firstAndLastOfBuckets() {
+        assertDownsampled(ConsolFun.FIRST, new double[] { 1, 2, 10 }, new double[] { 2, 4, NAN });
+        assertDownsampled(ConsolFun.LAST, new double[] { 7, 2, 10 }, new double[] { 8, 4, NAN });
+    }
+
+    @Test
+    public void totalOfBuckets() {
+        assertDownsampled(ConsolFun.TOTAL, new double[] { 16, 2, 10 }, new double[] { 16, 4, NAN });
+    }
+
+    @Test
+    public void averageMatchesRawDataOfEachBucket() {
+        // a day of minute samples, consolidated to hours
+        long minute = 60 * 1000;
+        long hour = 60 * minute;
+        int rows = 24 * 60;
+        long[] timestamps = new long[rows];
+        double[] values = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            timestamps[row] = row * minute;
+            values[row] = 20 + 5 * Math.sin(row / 100.0);
+        }
+
+        ChartSeries series = new ChartSeries(timestamps, new double[][] { values }).downsample(hour,
+                ConsolFun.AVERAGE);
+
+        assertThat(series.getRowCount(), is(24));
+        for (int bucket = 0; bucket < 24; bucket++) {
+            double[] raw = Arrays.copyOfRange(values, bucket * 60, (bucket + 1) * 60);
+            assertThat(series.getTimestamps()[bucket], is((bucket + 1) * hour - minute));
+            assertEquals(Arrays.stream(raw).average().getAsDouble(), series.getValues()[0][bucket], DELTA);
+        }
+    }
+
+    @Test
+    public void seriesIsUnchangedWhenBucketsHoldSingleRows() {
+        ChartSeries series = fixture();
+        assertSame(series, series.downsample(100, ConsolFun.AVERAGE));
+        assertSame(series, series.downsample(0, ConsolFun.AVERAGE));
+    }
+
+    @Test
+    public void mergeAlignsRowsOnTimestamps() {
+        ChartSeries first = new ChartSeries(new long[] { 1, 3 }, new double[][] { { 10, 30 } });
+        ChartSeries second = new ChartSeries(new long[] { 2, 3 }, new double[][] { { 20, 31 } });
+
+        ChartSeries merged = ChartSeries.merge(Arrays.asList(first, second));
+
+        assertArrayEquals(new long[] { 1, 2, 3 }, merged.getTimestamps());
+        assertArrayEquals(new double[] { 10, NAN, 30 }, merged.getValues()[0], DELTA);
+        assertArrayEquals(new double[] { NAN, 20, 31 }, merged.getValues()[1], DELTA);
+    }
+
+    @Test
+    public void writeJsonFormatsValuesLikeRrdTool() throws IOException {
+        ChartSeries series = new ChartSeries(new long[] { 1000, 2000 }, new double[][] { { 1.5, NAN } });
+        StringWriter writer = new StringWriter();
+
+        series.writeJson(writer);
+
+        assertThat(writer.toString(), is(equalTo("[[1000,[\"1.5000000000E00\"]],[2000,[\"null\"]]]")));
+    }
+}
@@ -8,20 +8,21 @@
  */
 package org.openhab.ui.cometvisu.internal.backend;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TreeMap;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -31,6 +32,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.eclipse.smarthome.core.items.GroupItem;
@@ -64,19 +66,10 @@ import org.slf4j.LoggerFactory;
 public class ChartResource implements RESTResource {
     private final Logger logger = LoggerFactory.getLogger(ChartResource.class);
 
-    // pattern RRDTool uses to format doubles in XML files
-    static final String PATTERN = "0.0000000000E00";
-
-    static final DecimalFormat df;
-
     protected static final String RRD_FOLDER = org.eclipse.smarthome.config.core.ConfigConstants.getUserDataFolder()
             + File.separator + "persistence" + File.separator + "rrd4j";
 
-    static {
-        df = (DecimalFormat) NumberFormat.getNumberInstance(Locale.ENGLISH);
-        df.applyPattern(PATTERN);
-        // df.setPositivePrefix("+");
-    }
+    private static final int INITIAL_CAPACITY = 256;
 
     protected static Map<String, QueryablePersistenceService> persistenceServices = new HashMap<String, QueryablePersistenceService>();
 
@@ -160,12 +153,18 @@ public class ChartResource implements RESTResource {
             } else {
                 logger.debug("using {} persistence for item {}", persistenceService.getId(), itemName);
             }
-            Object data = null;
+            ChartSeries series;
             if (persistenceService.getId().equals("rrd4j")) {
-                data = getRrdSeries(persistenceService, item, consilidationFunction, startTime, endTime, resolution);
+                series = getRrdSeries(persistenceService, item, consilidationFunction, startTime, endTime, resolution);
             } else {
-                data = getPersistenceSeries(persistenceService, item, startTime, endTime, resolution);
+                series = getPersistenceSeries(persistenceService, item, consilidationFunction, startTime, endTime,
+                        resolution);
             }
+            StreamingOutput data = output -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+                series.writeJson(writer);
+                writer.flush();
+            };
             return Response.ok(data, responseType).build();
         } catch (ItemNotFoundException e1) {
             logger.error("Item '{}' not found error while requesting series data.", itemName);
@@ -174,9 +173,21 @@ public class ChartResource implements RESTResource {
         return Response.serverError().build();
     }
 
-    public Object getPersistenceSeries(QueryablePersistenceService persistenceService, Item item, Date timeBegin,
-            Date timeEnd, long resolution) {
-        Map<Long, ArrayList<String>> data = new HashMap<Long, ArrayList<String>>();
+    /**
+     * returns the series data of the given item from a persistence service
+     *
+     * @param persistenceService
+     * @param item
+     * @param consilidationFunction
+     * @param timeBegin
+     * @param timeEnd
+     * @param resolution
+     * @return
+     */
+    public ChartSeries getPersistenceSeries(QueryablePersistenceService persistenceService, Item item,
+            ConsolFun consilidationFunction, Date timeBegin, Date timeEnd, long resolution) {
+        long[] timestamps = new long[INITIAL_CAPACITY];
+        double[] values = new double[INITIAL_CAPACITY];
 
         // Define the data filter
         FilterCriteria filter = new FilterCriteria();
@@ -191,19 +202,36 @@ public class ChartResource implements RESTResource {
 
         // Iterate through the data
         int dataCounter = 0;
+        int rows = 0;
+        long lastTime = Long.MIN_VALUE;
         while (it.hasNext()) {
             dataCounter++;
             HistoricItem historicItem = it.next();
             org.eclipse.smarthome.core.types.State state = historicItem.getState();
             if (state instanceof DecimalType) {
-                ArrayList<String> vals = new ArrayList<String>();
-                vals.add(formatDouble(((DecimalType) state).doubleValue(), "null", true));
-                data.put(historicItem.getTimestamp().getTime(), vals);
+                long time = historicItem.getTimestamp().getTime();
+                if (rows > 0 && time <= lastTime) {
+                    // keep the timestamps unique and ascending, a later value with the same timestamp wins
+                    if (time == lastTime) {
+                        values[rows - 1] = ((DecimalType) state).doubleValue();
+                    }
+                    continue;
+                }
+                if (rows == timestamps.length) {
+                    timestamps = Arrays.copyOf(timestamps, rows * 2);
+                    values = Arrays.copyOf(values, rows * 2);
+                }
+                timestamps[rows] = time;
+                values[rows] = ((DecimalType) state).doubleValue();
+                lastTime = time;
+                rows++;
             }
         }
         logger.debug("'{}' querying item '{}' from '{}' to '{}' => '{}' results", persistenceService.getId(),
                 filter.getItemName(), filter.getBeginDate(), filter.getEndDate(), dataCounter);
-        return convertToRrd(data);
+        ChartSeries series = new ChartSeries(Arrays.copyOf(timestamps, rows),
+                new double[][] { Arrays.copyOf(values, rows) });
+        return series.downsample(resolution * 1000, consilidationFunction);
     }
 
     /**
@@ -217,9 +245,9 @@ public class ChartResource implements RESTResource {
      * @param resolution
      * @return
      */
-    public Object getRrdSeries(QueryablePersistenceService persistenceService, Item item,
+    public ChartSeries getRrdSeries(QueryablePersistenceService persistenceService, Item item,
             ConsolFun consilidationFunction, Date timeBegin, Date timeEnd, long resolution) {
-        Map<Long, ArrayList<String>> data = new TreeMap<Long, ArrayList<String>>();
+        List<ChartSeries> series = new ArrayList<ChartSeries>();
         try {
             List<String> itemNames = new ArrayList<String>();
 
@@ -232,71 +260,45 @@ public class ChartResource implements RESTResource {
                 itemNames.add(item.getName());
             }
             for (String itemName : itemNames) {
-                addRrdData(data, itemName, consilidationFunction, timeBegin, timeEnd, resolution);
+                series.add(getRrdData(itemName, consilidationFunction, timeBegin, timeEnd, resolution));
             }
 
         } catch (FileNotFoundException e) {
             // rrd file does not exist, fallback to generic persistance service
             logger.debug("no rrd file found '{}'", (RRD_FOLDER + File.separator + item.getName() + ".rrd"));
-            return getPersistenceSeries(persistenceService, item, timeBegin, timeEnd, resolution);
+            return getPersistenceSeries(persistenceService, item, consilidationFunction, timeBegin, timeEnd,
+                    resolution);
         } catch (Exception e) {
             logger.error("{}: fallback to generic persistance service", e.getLocalizedMessage());
-            return getPersistenceSeries(persistenceService, item, timeBegin, timeEnd, resolution);
+            return getPersistenceSeries(persistenceService, item, consilidationFunction, timeBegin, timeEnd,
+                    resolution);
         }
-        return convertToRrd(data);
-    }
-
-    private ArrayList<Object> convertToRrd(Map<Long, ArrayList<String>> data) {
-        // sort data by key
-        Map<Long, ArrayList<String>> treeMap = new TreeMap<Long, ArrayList<String>>(data);
-        ArrayList<Object> rrd = new ArrayList<Object>();
-        for (Long time : treeMap.keySet()) {
-            Object[] entry = new Object[2];
-            entry[0] = time;
-            entry[1] = data.get(time);
-            rrd.add(entry);
+        if (series.isEmpty()) {
+            return new ChartSeries(new long[0], new double[0][]);
         }
-        return rrd;
+        // the archive chosen by rrd4j may be finer than the requested resolution
+        return ChartSeries.merge(series).downsample(resolution * 1000, consilidationFunction);
     }
 
-    private Map<Long, ArrayList<String>> addRrdData(Map<Long, ArrayList<String>> data, String itemName,
-            ConsolFun consilidationFunction, Date timeBegin, Date timeEnd, long resolution) throws IOException {
+    private ChartSeries getRrdData(String itemName, ConsolFun consilidationFunction, Date timeBegin, Date timeEnd,
+            long resolution) throws IOException {
         RrdDb rrdDb = new RrdDb(RRD_FOLDER + File.separator + itemName + ".rrd");
-        FetchRequest fetchRequest = rrdDb.createFetchRequest(consilidationFunction, Util.getTimestamp(timeBegin),
-                Util.getTimestamp(timeEnd), resolution);
-        FetchData fetchData = fetchRequest.fetchData();
-        // logger.info(fetchData.toString());
-        long[] timestamps = fetchData.getTimestamps();
-        double[][] values = fetchData.getValues();
-
-        logger.debug("RRD fetch returned '{}' rows and '{}' columns", fetchData.getRowCount(),
-                fetchData.getColumnCount());
-
-        for (int row = 0; row < fetchData.getRowCount(); row++) {
-            // change to microseconds
-            long time = timestamps[row] * 1000;
-
-            if (!data.containsKey(time)) {
-                data.put(time, new ArrayList<String>());
-            }
-            ArrayList<String> vals = data.get(time);
-            int indexOffset = vals.size();
-            for (int dsIndex = 0; dsIndex < fetchData.getColumnCount(); dsIndex++) {
-                vals.add(dsIndex + indexOffset, formatDouble(values[dsIndex][row], "null", true));
-            }
-        }
-        rrdDb.close();
+        try {
+            FetchRequest fetchRequest = rrdDb.createFetchRequest(consilidationFunction, Util.getTimestamp(timeBegin),
+                    Util.getTimestamp(timeEnd), resolution);
+            FetchData fetchData = fetchRequest.fetchData();
 
-        return data;
-    }
+            logger.debug("RRD fetch returned '{}' rows and '{}' columns", fetchData.getRowCount(),
+                    fetchData.getColumnCount());
 
-    static String formatDouble(double x, String nanString, boolean forceExponents) {
-        if (Double.isNaN(x)) {
-            return nanString;
-        }
-        if (forceExponents) {
-            return df.format(x);
+            long[] timestamps = fetchData.getTimestamps().clone();
+            for (int row = 0; row < timestamps.length; row++) {
+                // change to milliseconds
+                timestamps[row] *= 1000;
+            }
+            return new ChartSeries(timestamps, fetchData.getValues());
+        } finally {
+            rrdDb.close();
         }
-        return "" + x;
     }
 }
@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.backend;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.rrd4j.ConsolFun;
+
+/**
+ * Chart series data of one or more data sources, kept in primitive arrays. All data sources share the
+ * timestamps, missing values are NaN.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class ChartSeries {
+    // pattern RRDTool uses to format doubles in XML files
+    static final String PATTERN = "0.0000000000E00";
+
+    private static final String NAN_STRING = "null";
+
+    private final long[] timestamps;
+
+    // values[column][row]
+    private final double[][] values;
+
+    /**
+     * Constructor of ChartSeries
+     *
+     * @param timestamps ascending timestamps in milliseconds
+     * @param values the values of every data source, each one as long as the timestamps
+     */
+    public ChartSeries(long[] timestamps, double[][] values) {
+        this.timestamps = timestamps;
+        this.values = values;
+    }
+
+    /**
+     * Returns the number of rows
+     */
+    public int getRowCount() {
+        return timestamps.length;
+    }
+
+    /**
+     * Returns the number of data sources
+     */
+    public int getColumnCount() {
+        return values.length;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public double[][] getValues() {
+        return values;
+    }
+
+    /**
+     * Combines the data sources of several series, the timestamps of all series are merged.
+     *
+     * @param series the series to combine
+     * @return a series containing the data sources of all given series
+     */
+    public static ChartSeries merge(List<ChartSeries> series) {
+        if (series.size() == 1) {
+            return series.get(0);
+        }
+        long[] timestamps = new long[0];
+        int columns = 0;
+        boolean aligned = true;
+        for (ChartSeries s : series) {
+            columns += s.getColumnCount();
+            if (s == series.get(0)) {
+                timestamps = s.timestamps;
+            } else if (!Arrays.equals(timestamps, s.timestamps)) {
+                aligned = false;
+            }
+        }
+        if (!aligned) {
+            timestamps = mergeTimestamps(series);
+        }
+
+        double[][] values = new double[columns][];
+        int column = 0;
+        for (ChartSeries s : series) {
+            for (double[] sourceValues : s.values) {
+                if (aligned) {
+                    values[column++] = sourceValues;
+                    continue;
+                }
+                double[] columnValues = new double[timestamps.length];
+                Arrays.fill(columnValues, Double.NaN);
+                for (int row = 0; row < s.timestamps.length; row++) {
+                    columnValues[Arrays.binarySearch(timestamps, s.timestamps[row])] = sourceValues[row];
+                }
+                values[column++] = columnValues;
+            }
+        }
+        return new ChartSeries(timestamps, values);
+    }
+
+    private static long[] mergeTimestamps(List<ChartSeries> series) {
+        int length = 0;
+        for (ChartSeries s : series) {
+            length += s.timestamps.length;
+        }
+        long[] all = new long[length];
+        int offset = 0;
+        for (ChartSeries s : series) {
+            System.arraycopy(s.timestamps, 0, all, offset, s.timestamps.length);
+            offset += s.timestamps.length;
+        }
+        Arrays.sort(all);
+        int unique = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (unique == 0 || all[unique - 1] != all[i]) {
+                all[unique++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, unique);
+    }
+
+    /**
+     * Consolidates the rows into time buckets, like RRD archives do. Each bucket is represented by
+     * the timestamp of its last row.
+     *
+     * @param bucketWidth the width of a bucket in milliseconds, the series is not changed if it is not positive
+     * @param consolidationFunction the function to consolidate the values within a bucket
+     * @return the consolidated series, which is this series if no bucket contains more than one row
+     */
+    public ChartSeries downsample(long bucketWidth, ConsolFun consolidationFunction) {
+        if (bucketWidth <= 1 || timestamps.length < 2) {
+            return this;
+        }
+        // the row at which each bucket starts, and one past the last row
+        int[] bucketStarts = new int[timestamps.length + 1];
+        int buckets = 0;
+        long currentBucket = 0;
+        for (int row = 0; row < timestamps.length; row++) {
+            long bucket = Math.floorDiv(timestamps[row], bucketWidth);
+            if (row == 0 || bucket != currentBucket) {
+                bucketStarts[buckets++] = row;
+                currentBucket = bucket;
+            }
+        }
+        if (buckets == timestamps.length) {
+            return this;
+        }
+        bucketStarts[buckets] = timestamps.length;
+
+        long[] consolidatedTimestamps = new long[buckets];
+        double[][] consolidatedValues = new double[values.length][buckets];
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int from = bucketStarts[bucket];
+            int to = bucketStarts[bucket + 1];
+            consolidatedTimestamps[bucket] = timestamps[to - 1];
+            for (int column = 0; column < values.length; column++) {
+                consolidatedValues[column][bucket] = consolidate(values[column], from, to, consolidationFunction);
+            }
+        }
+        return new ChartSeries(consolidatedTimestamps, consolidatedValues);
+    }
+
+    private static double consolidate(double[] columnValues, int from, int to, ConsolFun consolidationFunction) {
+        double result = Double.NaN;
+        double sum = 0;
+        int count = 0;
+        for (int row = from; row < to; row++) {
+            double value = columnValues[row];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            switch (consolidationFunction) {
+                case MIN:
+                    result = count == 0 ? value : Math.min(result, value);
+                    break;
+                case MAX:
+                    result = count == 0 ? value : Math.max(result, value);
+                    break;
+                case FIRST:
+                    if (count == 0) {
+                        result = value;
+                    }
+                    break;
+                case LAST:
+                    result = value;
+                    break;
+                default:
+                    sum += value;
+                    break;
+            }
+            count++;
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        switch (consolidationFunction) {
+            case AVERAGE:
+                return sum / count;
+            case TOTAL:
+                return sum;
+            default:
+                return result;
+        }
+    }
+
+    /**
+     * Writes the series as JSON array of [timestamp,[value1,value2,...]] entries, the values are
+     * formatted like RRDTool does.
+     *
+     * @param writer the writer to write to, it is not flushed
+     * @throws IOException
+     */
+    public void writeJson(Writer writer) throws IOException {
+        // DecimalFormat is not thread safe
+        DecimalFormat df = (DecimalFormat) NumberFormat.getNumberInstance(Locale.ENGLISH);
+        df.applyPattern(PATTERN);
+
+        writer.write('[');
+        for (int row = 0; row < timestamps.length; row++) {
+            if (row > 0) {
+                writer.write(',');
+            }
+            writer.write('[');
+            writer.write(Long.toString(timestamps[row]));
+            writer.write(",[");
+            for (int column = 0; column < values.length; column++) {
+                if (column > 0) {
+                    writer.write(',');
+                }
+                double value = values[column][row];
+                writer.write('"');
+                writer.write(Double.isNaN(value) ? NAN_STRING : df.format(value));
+                writer.write('"');
+            }
+            writer.write("]]");
+        }
+        writer.write(']');
+    }
+}
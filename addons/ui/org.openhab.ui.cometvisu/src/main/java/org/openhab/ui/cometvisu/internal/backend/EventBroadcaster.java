@@ -21,10 +21,8 @@ import org.eclipse.smarthome.core.types.State;
 public interface EventBroadcaster {
     /**
      * Broadcasts an event described by the given parameters to all currently
-     * listening clients.
+     * listening clients that requested the item of the event.
      *
-     * @param item
-     *            - the item that should be broadcasted
      * @param eventObject
      *            - bean that can be converted to a JSON object.
      */
@@ -40,11 +38,10 @@ public interface EventBroadcaster {
     public void registerItem(Item item);
 
     /**
-     * listens to state changes of the given item, if it is part of the
-     * requested items
+     * stops listening to state changes of the given item
      *
      * @param item
-     *            - the new item, that should be listened to
+     *            - the item, that should not be listened to anymore
      */
     public void unregisterItem(Item item);
 
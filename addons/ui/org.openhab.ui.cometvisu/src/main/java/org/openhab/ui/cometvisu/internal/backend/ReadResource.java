@@ -12,8 +12,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -35,7 +37,7 @@ import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.io.rest.RESTResource;
 import org.glassfish.jersey.media.sse.EventOutput;
-import org.glassfish.jersey.media.sse.SseBroadcaster;
+import org.glassfish.jersey.media.sse.OutboundEvent;
 import org.glassfish.jersey.media.sse.SseFeature;
 import org.openhab.ui.cometvisu.internal.Config;
 import org.openhab.ui.cometvisu.internal.backend.beans.StateBean;
@@ -48,22 +50,35 @@ import org.slf4j.LoggerFactory;
  * handles read request from the CometVisu client every request initializes a
  * SSE communication
  *
+ * Every client only receives the states of the items it has requested. An item
+ * state is serialized once and written to all clients that requested it.
+ *
  * @author Tobias Bräutigam
  */
 @Path(Config.COMETVISU_BACKEND_ALIAS + "/" + Config.COMETVISU_BACKEND_READ_ALIAS)
 public class ReadResource implements EventBroadcaster, RESTResource {
     private final Logger logger = LoggerFactory.getLogger(ReadResource.class);
 
-    private SseBroadcaster broadcaster = new SseBroadcaster();
-
     private final ExecutorService executorService;
 
     private ItemRegistry itemRegistry;
 
     private StateEventListener stateEventListener;
 
-    private List<String> itemNames = new ArrayList<String>();
-    private Map<Item, Map<String, Class<? extends State>>> items = new HashMap<Item, Map<String, Class<? extends State>>>();
+    /*
+     * requested item names (including the optional type prefix) of every client
+     */
+    private final Map<EventOutput, Set<String>> subscriptions = new HashMap<>();
+
+    /*
+     * clients listening to a requested item name
+     */
+    private final Map<String, Set<EventOutput>> subscribers = new HashMap<>();
+
+    /*
+     * openHAB item name mapped to the requested item names and their state types
+     */
+    private final Map<String, Map<String, Class<? extends State>>> items = new HashMap<>();
 
     @Context
     private UriInfo uriInfo;
@@ -114,57 +129,164 @@ public class ReadResource implements EventBroadcaster, RESTResource {
             @QueryParam("t") long time) throws IOException, InterruptedException {
         final EventOutput eventOutput = new EventOutput();
 
-        this.itemNames = itemNames;
+        List<String> newItemNames = subscribe(eventOutput, itemNames);
+        // listen to state changes of the requested items
+        if (this.itemRegistry != null) {
+            for (String ohItemName : newItemNames) {
+                try {
+                    registerItem(this.itemRegistry.getItem(ohItemName));
+                } catch (ItemNotFoundException e) {
+                    logger.error("{}", e.getLocalizedMessage());
+                }
+            }
+        }
+
+        // send the current states of all items to the new client, in line with the state changes
+        // that have been queued since it subscribed
+        executorService.execute(() -> sendStates(eventOutput, itemNames));
 
-        broadcaster.add(eventOutput);
+        return eventOutput;
+    }
 
-        // get all requested items and send their states to the client
-        items = new HashMap<Item, Map<String, Class<? extends State>>>();
-        // send the current states of all items to the client
-        if (this.itemRegistry != null) {
-            List<StateBean> states = new ArrayList<StateBean>();
+    /**
+     * Adds the client as subscriber of the given item names, closed clients are removed.
+     *
+     * @return the names of the openHAB items nobody has been listening to before
+     */
+    private List<String> subscribe(EventOutput eventOutput, List<String> itemNames) {
+        List<String> newItemNames = new ArrayList<String>();
+        synchronized (subscriptions) {
+            List<EventOutput> closed = new ArrayList<EventOutput>();
+            for (EventOutput client : subscriptions.keySet()) {
+                if (client.isClosed()) {
+                    closed.add(client);
+                }
+            }
+            for (EventOutput client : closed) {
+                unsubscribe(client);
+            }
+
+            subscriptions.put(eventOutput, new HashSet<String>(itemNames));
             for (String cvItemName : itemNames) {
-                try {
-                    String[] parts = cvItemName.split(":");
-                    String ohItemName = cvItemName;
-                    Class<? extends State> stateClass = null;
-                    if (parts.length == 2) {
-                        String classPrefix = parts[0].toLowerCase();
-                        if (Config.itemTypeMapper.containsKey(classPrefix)) {
-                            stateClass = Config.itemTypeMapper.get(classPrefix);
-                            classPrefix += ":";
-                        } else {
-                            logger.debug("no type found for '{}'", classPrefix);
-                            classPrefix = "";
-                        }
-                        ohItemName = parts[1];
+                subscribers.computeIfAbsent(cvItemName, k -> new HashSet<EventOutput>()).add(eventOutput);
+                String ohItemName = getItemName(cvItemName);
+                if (!items.containsKey(ohItemName)) {
+                    items.put(ohItemName, new HashMap<String, Class<? extends State>>());
+                    newItemNames.add(ohItemName);
+                }
+                items.get(ohItemName).put(cvItemName, getStateClass(cvItemName));
+            }
+        }
+        return newItemNames;
+    }
+
+    /**
+     * Removes the client from all subscriptions, items nobody is interested in anymore
+     * are not listened to.
+     */
+    private void unsubscribe(EventOutput eventOutput) {
+        List<String> unusedItemNames = new ArrayList<String>();
+        synchronized (subscriptions) {
+            Set<String> itemNames = subscriptions.remove(eventOutput);
+            if (itemNames == null) {
+                return;
+            }
+            for (String cvItemName : itemNames) {
+                Set<EventOutput> clients = subscribers.get(cvItemName);
+                if (clients == null || !clients.remove(eventOutput) || !clients.isEmpty()) {
+                    continue;
+                }
+                subscribers.remove(cvItemName);
+                String ohItemName = getItemName(cvItemName);
+                Map<String, Class<? extends State>> clientItems = items.get(ohItemName);
+                if (clientItems != null) {
+                    clientItems.remove(cvItemName);
+                    if (clientItems.isEmpty()) {
+                        items.remove(ohItemName);
+                        unusedItemNames.add(ohItemName);
                     }
+                }
+            }
+        }
+        if (this.itemRegistry != null) {
+            for (String ohItemName : unusedItemNames) {
+                try {
                     Item item = this.itemRegistry.getItem(ohItemName);
-                    if (!items.containsKey(item)) {
-                        items.put(item, new HashMap<String, Class<? extends State>>());
-                    }
-                    items.get(item).put(cvItemName, stateClass);
-                    StateBean itemState = new StateBean();
-                    itemState.name = cvItemName;
-
-                    if (stateClass != null) {
-                        itemState.state = item.getStateAs(stateClass).toString();
-                        logger.trace("get state of '{}' as '{}' == '{}'", item, stateClass, itemState.state);
-                    } else {
-                        itemState.state = item.getState().toString();
+                    if (item instanceof GenericItem) {
+                        ((GenericItem) item).removeStateChangeListener(stateEventListener);
                     }
-                    states.add(itemState);
                 } catch (ItemNotFoundException e) {
-                    logger.error("{}", e.getLocalizedMessage());
+                    // the item has already been removed
                 }
             }
-            logger.debug("initially broadcasting {}/{} item states", states.size(), itemNames.size());
-            broadcaster.broadcast(SseUtil.buildEvent(states));
         }
-        // listen to state changes of the requested items
-        registerItems();
+    }
 
-        return eventOutput;
+    /**
+     * sends the current states of the requested items to a single client
+     */
+    private void sendStates(EventOutput eventOutput, List<String> itemNames) {
+        if (this.itemRegistry == null) {
+            return;
+        }
+        List<StateBean> states = new ArrayList<StateBean>();
+        for (String cvItemName : itemNames) {
+            try {
+                Item item = this.itemRegistry.getItem(getItemName(cvItemName));
+                Class<? extends State> stateClass = getStateClass(cvItemName);
+                StateBean itemState = new StateBean();
+                itemState.name = cvItemName;
+
+                if (stateClass != null) {
+                    itemState.state = item.getStateAs(stateClass).toString();
+                    logger.trace("get state of '{}' as '{}' == '{}'", item, stateClass, itemState.state);
+                } else {
+                    itemState.state = item.getState().toString();
+                }
+                states.add(itemState);
+            } catch (ItemNotFoundException e) {
+                logger.error("{}", e.getLocalizedMessage());
+            }
+        }
+        logger.debug("initially sending {}/{} item states", states.size(), itemNames.size());
+        write(eventOutput, SseUtil.buildEvent(states));
+    }
+
+    private void write(EventOutput eventOutput, OutboundEvent event) {
+        try {
+            eventOutput.write(event);
+        } catch (IOException e) {
+            logger.debug("Closing event output: {}", e.getMessage());
+            try {
+                eventOutput.close();
+            } catch (IOException ignored) {
+                // the connection is already gone
+            }
+            unsubscribe(eventOutput);
+        }
+    }
+
+    /**
+     * returns the openHAB item name of a requested item name, which may be prefixed by a type
+     */
+    private String getItemName(String cvItemName) {
+        String[] parts = cvItemName.split(":");
+        return parts.length == 2 ? parts[1] : cvItemName;
+    }
+
+    /**
+     * returns the state type of a requested item name, which may be prefixed by a type
+     */
+    private Class<? extends State> getStateClass(String cvItemName) {
+        String[] parts = cvItemName.split(":");
+        if (parts.length == 2) {
+            String classPrefix = parts[0].toLowerCase();
+            if (Config.itemTypeMapper.containsKey(classPrefix)) {
+                return Config.itemTypeMapper.get(classPrefix);
+            }
+            logger.debug("no type found for '{}'", classPrefix);
+        }
+        return null;
     }
 
     /**
@@ -172,9 +294,18 @@ public class ReadResource implements EventBroadcaster, RESTResource {
      */
     @Override
     public void registerItems() {
-        for (Item item : items.keySet()) {
-            if (item instanceof GenericItem) {
-                ((GenericItem) item).addStateChangeListener(stateEventListener);
+        List<String> itemNames;
+        synchronized (subscriptions) {
+            itemNames = new ArrayList<String>(items.keySet());
+        }
+        if (this.itemRegistry == null) {
+            return;
+        }
+        for (String ohItemName : itemNames) {
+            try {
+                registerItem(this.itemRegistry.getItem(ohItemName));
+            } catch (ItemNotFoundException e) {
+                logger.debug("{}", e.getLocalizedMessage());
             }
         }
     }
@@ -188,50 +319,68 @@ public class ReadResource implements EventBroadcaster, RESTResource {
      */
     @Override
     public void registerItem(Item item) {
-        if (item == null || items.containsKey(item) || !itemNames.contains(item.getName())) {
+        if (item == null) {
             return;
         }
+        synchronized (subscriptions) {
+            if (!items.containsKey(item.getName())) {
+                return;
+            }
+        }
         if (item instanceof GenericItem) {
+            // a listener is only added once
             ((GenericItem) item).addStateChangeListener(stateEventListener);
         }
     }
 
     /**
-     * listens to state changes of the given item, if it is part of the
-     * requested items
+     * stops listening to state changes of the given item
      *
      * @param item
-     *            - the new item, that should be listened to
+     *            - the item, that should not be listened to anymore
      */
     @Override
     public void unregisterItem(Item item) {
-        if (item == null || items.containsKey(item) || !itemNames.contains(item.getName())) {
-            return;
-        }
         if (item instanceof GenericItem) {
             ((GenericItem) item).removeStateChangeListener(stateEventListener);
-            items.remove(item);
         }
     }
 
     /**
-     * Broadcasts an event described by the given parameters to all currently
-     * listening clients.
+     * Sends an event described by the given parameters to all clients that
+     * requested the item of the event.
      *
-     * @param item
-     *            - the item which has changed
      * @param eventObject
      *            - bean that can be converted to a JSON object.
      */
     @Override
     public void broadcastEvent(final Object eventObject) {
+        if (!(eventObject instanceof StateBean)) {
+            return;
+        }
+        String cvItemName = ((StateBean) eventObject).name;
         executorService.execute(() -> {
-            broadcaster.broadcast(SseUtil.buildEvent(eventObject));
+            List<EventOutput> clients;
+            synchronized (subscriptions) {
+                Set<EventOutput> subscribed = subscribers.get(cvItemName);
+                if (subscribed == null) {
+                    return;
+                }
+                clients = new ArrayList<EventOutput>(subscribed);
+            }
+            // serialized once for all clients
+            OutboundEvent event = SseUtil.buildEvent(eventObject);
+            for (EventOutput eventOutput : clients) {
+                write(eventOutput, event);
+            }
         });
     }
 
     @Override
     public Map<String, Class<? extends State>> getClientItems(Item item) {
-        return items.get(item);
+        synchronized (subscriptions) {
+            Map<String, Class<? extends State>> clientItems = items.get(item.getName());
+            return clientItems != null ? new HashMap<String, Class<? extends State>>(clientItems) : null;
+        }
     }
 }
@@ -92,6 +92,11 @@ public class VisuConfig {
 
     private ObjectFactory factory = new ObjectFactory();
 
+    /*
+     * creating a JAXBContext is expensive, it is thread safe and shared by all configs
+     */
+    private static JAXBContext jaxbContext;
+
     public VisuConfig(Sitemap sitemap, CometVisuApp app, File rootFolder) {
         this.sitemap = sitemap;
         this.app = app;
@@ -138,11 +143,10 @@ public class VisuConfig {
     private String marshal(Pages bean, String xsdSchema) {
         String res = "";
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(bean.getClass());
             SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
             Schema schema = (xsdSchema == null || xsdSchema.trim().length() == 0) ? null
                     : schemaFactory.newSchema(new File(xsdSchema));
-            Marshaller marshaller = jaxbContext.createMarshaller();
+            Marshaller marshaller = getJAXBContext().createMarshaller();
             marshaller.setSchema(schema);
             marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
             marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
@@ -157,6 +161,13 @@ public class VisuConfig {
         return res;
     }
 
+    private static synchronized JAXBContext getJAXBContext() throws JAXBException {
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(SchemaPages.class);
+        }
+        return jaxbContext;
+    }
+
     private Pages createPages(Pages pagesBean) {
         Page rootPage = new Page();
         rootPage.setName(sitemap.getName());
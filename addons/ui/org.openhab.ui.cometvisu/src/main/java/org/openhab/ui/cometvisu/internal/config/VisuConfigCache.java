@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.items.ItemRegistryChangeListener;
+import org.eclipse.smarthome.model.core.EventType;
+import org.eclipse.smarthome.model.core.ModelRepositoryChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the CometVisu configs generated from openHAB sitemaps, so that they are only generated again
+ * after a sitemap or an item has been changed. The configs are kept gzipped together with an ETag
+ * to let clients revalidate them.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class VisuConfigCache implements ModelRepositoryChangeListener, ItemRegistryChangeListener {
+    private final Logger logger = LoggerFactory.getLogger(VisuConfigCache.class);
+
+    private static final String SITEMAP_EXTENSION = ".sitemap";
+
+    /**
+     * A generated config
+     */
+    public static class CachedConfig {
+        private final String path;
+        private final byte[] xml;
+        private final byte[] gzippedXml;
+        private final String eTag;
+
+        CachedConfig(String path, String xml) throws IOException {
+            this.path = path;
+            this.xml = xml.getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(this.xml.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(this.xml);
+            }
+            this.gzippedXml = out.toByteArray();
+            CRC32 checksum = new CRC32();
+            checksum.update(this.xml);
+            this.eTag = "\"" + Long.toHexString(checksum.getValue()) + "-" + this.xml.length + "\"";
+        }
+
+        /**
+         * Returns the config as UTF-8 encoded XML
+         */
+        public byte[] getXml() {
+            return xml;
+        }
+
+        /**
+         * Returns the gzipped config
+         */
+        public byte[] getGzippedXml() {
+            return gzippedXml;
+        }
+
+        /**
+         * Returns the quoted ETag of the config
+         */
+        public String getETag() {
+            return eTag;
+        }
+    }
+
+    private final Map<String, CachedConfig> configs = new ConcurrentHashMap<>();
+
+    /*
+     * incremented on every change, configs generated during a change are not cached
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the cached config of a sitemap, the config is generated if it is not cached yet.
+     *
+     * @param sitemapName name of the sitemap
+     * @param path the requested path, which determines the relative location of the XSD schema
+     * @param generator generates the config XML
+     * @return the config
+     * @throws IOException if the config could not be compressed
+     */
+    public CachedConfig getConfig(String sitemapName, String path, Supplier<String> generator) throws IOException {
+        CachedConfig config = configs.get(sitemapName);
+        if (config != null && config.path.equals(path)) {
+            return config;
+        }
+        long generationBefore = generation.get();
+        logger.debug("generating config for sitemap '{}'", sitemapName);
+        String xml = generator.get();
+        config = new CachedConfig(path, xml);
+        // an empty config is the result of an error, which may be gone next time
+        if (!xml.isEmpty() && generationBefore == generation.get()) {
+            configs.put(sitemapName, config);
+        }
+        return config;
+    }
+
+    /**
+     * Removes all cached configs.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        configs.clear();
+    }
+
+    @Override
+    public void modelChanged(String modelName, EventType type) {
+        if (modelName.endsWith(SITEMAP_EXTENSION)) {
+            generation.incrementAndGet();
+            configs.remove(modelName.substring(0, modelName.length() - SITEMAP_EXTENSION.length()));
+        }
+    }
+
+    @Override
+    public void added(Item element) {
+        invalidateAll();
+    }
+
+    @Override
+    public void removed(Item element) {
+        invalidateAll();
+    }
+
+    @Override
+    public void updated(Item oldElement, Item element) {
+        invalidateAll();
+    }
+
+    @Override
+    public void allItemsChanged(Collection<String> oldItemNames) {
+        invalidateAll();
+    }
+}
@@ -27,6 +27,7 @@ import org.eclipse.smarthome.model.sitemap.SitemapProvider;
 import org.eclipse.smarthome.ui.icon.IconProvider;
 import org.eclipse.smarthome.ui.items.ItemUIRegistry;
 import org.openhab.ui.cometvisu.internal.Config;
+import org.openhab.ui.cometvisu.internal.config.VisuConfigCache;
 import org.openhab.ui.cometvisu.internal.util.ClientInstaller;
 import org.openhab.ui.cometvisu.php.PHProvider;
 import org.osgi.framework.BundleContext;
@@ -65,6 +66,8 @@ public class CometVisuApp {
 
     private final ClientInstaller installer = ClientInstaller.getInstance();
 
+    private final VisuConfigCache configCache = new VisuConfigCache();
+
     private Map<String, Object> properties = new HashMap<>();
 
     public Map<String, Object> getProperties() {
@@ -94,11 +97,14 @@ public class CometVisuApp {
     public void addPersistenceService(PersistenceService service) {
         if (service instanceof QueryablePersistenceService) {
             persistenceServices.put(service.getId(), (QueryablePersistenceService) service);
+            configCache.invalidateAll();
         }
     }
 
     public void removePersistenceService(PersistenceService service) {
-        persistenceServices.remove(service.getId());
+        if (persistenceServices.remove(service.getId()) != null) {
+            configCache.invalidateAll();
+        }
     }
 
     public static Map<String, QueryablePersistenceService> getPersistenceServices() {
@@ -119,6 +125,8 @@ public class CometVisuApp {
 
     protected void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
+        itemRegistry.addRegistryChangeListener(configCache);
+        configCache.invalidateAll();
     }
 
     public ItemRegistry getItemRegistry() {
@@ -126,6 +134,7 @@ public class CometVisuApp {
     }
 
     protected void unsetItemRegistry(ItemRegistry itemRegistry) {
+        itemRegistry.removeRegistryChangeListener(configCache);
         this.itemRegistry = null;
     }
 
@@ -139,10 +148,14 @@ public class CometVisuApp {
 
     public void addSitemapProvider(SitemapProvider provider) {
         sitemapProviders.add(provider);
+        provider.addModelChangeListener(configCache);
+        configCache.invalidateAll();
     }
 
     public void removeSitemapProvider(SitemapProvider provider) {
+        provider.removeModelChangeListener(configCache);
         sitemapProviders.remove(provider);
+        configCache.invalidateAll();
     }
 
     public ItemUIRegistry getItemUIRegistry() {
@@ -153,6 +166,10 @@ public class CometVisuApp {
         return sitemapProviders;
     }
 
+    public VisuConfigCache getConfigCache() {
+        return configCache;
+    }
+
     protected void setHttpService(HttpService httpService) {
         this.httpService = httpService;
     }
@@ -180,6 +197,7 @@ public class CometVisuApp {
     }
 
     private void readConfiguration(final Map<String, Object> properties) {
+        configCache.invalidateAll();
         if (properties != null) {
             setProperties(properties);
             if (properties.get(Config.COMETVISU_WEBFOLDER_PROPERTY) != null) {
@@ -69,6 +69,7 @@ import org.eclipse.smarthome.model.sitemap.SitemapProvider;
 import org.openhab.ui.cometvisu.internal.Config;
 import org.openhab.ui.cometvisu.internal.config.ConfigHelper.Transform;
 import org.openhab.ui.cometvisu.internal.config.VisuConfig;
+import org.openhab.ui.cometvisu.internal.config.VisuConfigCache.CachedConfig;
 import org.openhab.ui.cometvisu.internal.editor.dataprovider.beans.DataBean;
 import org.openhab.ui.cometvisu.internal.editor.dataprovider.beans.ItemBean;
 import org.openhab.ui.cometvisu.internal.rss.beans.Feed;
@@ -231,13 +232,9 @@ public class CometVisuServlet extends HttpServlet {
                 Sitemap sitemap = getSitemap(matcher.group(2));
                 if (sitemap != null) {
                     logger.debug("reading sitemap '{}'", sitemap);
-                    VisuConfig config = new VisuConfig(sitemap, cometVisuApp, rootFolder);
-
-                    // logger.info("response: "+config.getConfigXml());
-                    resp.setContentType(MediaType.APPLICATION_XML);
-                    resp.getWriter().write(config.getConfigXml(req));
-                    resp.flushBuffer();
-
+                    CachedConfig config = cometVisuApp.getConfigCache().getConfig(matcher.group(2), path,
+                            () -> new VisuConfig(sitemap, cometVisuApp, rootFolder).getConfigXml(req));
+                    processConfigRequest(config, req, resp);
                     return;
                 } else {
                     logger.debug("Config file not found. Neither as normal config ('{}') nor as sitemap ('{}.sitemap')",
@@ -259,6 +256,41 @@ public class CometVisuServlet extends HttpServlet {
         }
     }
 
+    /**
+     * serves a config generated from a sitemap, the config is sent gzipped if the client accepts that
+     *
+     * @param config
+     * @param request
+     * @param response
+     */
+    private void processConfigRequest(CachedConfig config, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader("ETag", config.getETag());
+        // the config has to be revalidated, as it changes with the sitemap
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("Vary", "Accept-Encoding");
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && matches(ifNoneMatch, config.getETag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_XML);
+        response.setCharacterEncoding("UTF-8");
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        byte[] content;
+        if (acceptEncoding != null && accepts(acceptEncoding, "gzip")) {
+            response.setHeader("Content-Encoding", "gzip");
+            content = config.getGzippedXml();
+        } else {
+            content = config.getXml();
+        }
+        response.setContentLength(content.length);
+        response.getOutputStream().write(content);
+        response.flushBuffer();
+    }
+
     protected void processPhpRequest(File file, HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         if (!this.phpEnabled) {
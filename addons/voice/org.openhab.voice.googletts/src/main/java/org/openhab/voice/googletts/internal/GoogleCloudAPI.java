@@ -16,10 +16,9 @@ import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
-import java.math.BigInteger;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 /**
@@ -28,16 +27,6 @@ import java.util.*;
  * @author Gabor Bicskei - Initial contribution and API
  */
 class GoogleCloudAPI {
-    /**
-     * Stream buffer size
-     */
-    private static final int READ_BUFFER_SIZE = 4096;
-
-    /**
-     * Default encoding
-     */
-    private static final String UTF_8 = "UTF-8";
-
     /**
      * Logger
      */
@@ -53,11 +42,6 @@ class GoogleCloudAPI {
      */
     private TextToSpeechClient googleClient;
 
-    /**
-     * Cache folder
-     */
-    private File cacheFolder;
-
     /**
      * Configuration
      */
@@ -68,15 +52,6 @@ class GoogleCloudAPI {
      */
     private boolean initialized;
 
-    /**
-     * Constructor.
-     *
-     * @param cacheFolder Service cache folder
-     */
-    GoogleCloudAPI(File cacheFolder) {
-        this.cacheFolder = cacheFolder;
-    }
-
     /**
      * Configuration update.
      *
@@ -186,47 +161,29 @@ class GoogleCloudAPI {
      * Converts openHAB audio format to Google parameters.
      *
      * @param codec Requested codec
-     * @return String array of Google audio format and the file extension to use.
+     * @return Google audio format
      */
-    private String[] getFormatForCodec(String codec) {
+    private String getFormatForCodec(String codec) {
         switch (codec) {
             case AudioFormat.CODEC_MP3:
-                return new String[]{AudioEncoding.MP3.toString(), "mp3"};
+                return AudioEncoding.MP3.toString();
             case AudioFormat.CODEC_PCM_SIGNED:
-                return new String[]{AudioEncoding.LINEAR16.toString(), "wav"};
+                return AudioEncoding.LINEAR16.toString();
             default:
                 throw new IllegalArgumentException("Audio format " + codec + " is not yet supported");
         }
     }
 
-    File synthesizeSpeech(String text, GoogleTTSVoice voice, String codec) {
-        String[] format = getFormatForCodec(codec);
-        String fileNameInCache = getUniqueFilenameForText(text, voice.getLocale());
-        // check if in cache
-        File audioFileInCache = new File(cacheFolder, fileNameInCache + "." + format[1]);
-        if (audioFileInCache.exists()) {
-            logger.debug("Audio file {} was found in cache.", audioFileInCache.getName());
-            return audioFileInCache;
-        }
-
-        // if not in cache, get audio data and put to cache
-        try (InputStream is = synthesizeSpeechByGoogle(text, voice, format[0]);
-             FileOutputStream fos = new FileOutputStream(audioFileInCache)) {
-            logger.debug("Caching audio file {}", audioFileInCache.getName());
-            copyStream(is, fos);
-            // write text to file for transparency too
-            // this allows to know which contents is in which audio file
-            File txtFileInCache = new File(cacheFolder, fileNameInCache + ".txt");
-            writeText(txtFileInCache, text);
-            // return from cache
-            return audioFileInCache;
-        } catch (FileNotFoundException ex) {
-            logger.warn("Could not write {} to cache", audioFileInCache, ex);
-            return null;
-        } catch (IOException ex) {
-            logger.error("Could not write {} to cache", audioFileInCache, ex);
-            return null;
-        }
+    /**
+     * Synthesizes the required text, the audio is cached by the shared TTS cache.
+     *
+     * @param text  Text to synthesise
+     * @param voice Voice parameter
+     * @param codec Requested codec
+     * @return Audio input stream
+     */
+    InputStream synthesizeSpeech(String text, GoogleTTSVoice voice, String codec) {
+        return synthesizeSpeechByGoogle(text, voice, getFormatForCodec(codec));
     }
 
     /**
@@ -271,47 +228,6 @@ class GoogleCloudAPI {
         return new ByteArrayInputStream(audioContents.toByteArray());
     }
 
-    /**
-     * Gets a unique filename for a give text, by creating a MD5 hash of it. It
-     * will be preceded by the locale.
-     * <p>
-     * Sample: "en-US_00a2653ac5f77063bc4ea2fee87318d3"
-     */
-    private String getUniqueFilenameForText(String text, Locale locale) {
-        try {
-            byte[] bytesOfMessage = text.getBytes(UTF_8);
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] md5Hash = md.digest(bytesOfMessage);
-            BigInteger bigInt = new BigInteger(1, md5Hash);
-            StringBuilder hashText = new StringBuilder(bigInt.toString(16));
-            // Now we need to zero pad it if you actually want the full 32
-            // chars.
-            while (hashText.length() < 32) {
-                hashText.insert(0, "0");
-            }
-            return locale.getLanguage() + "_" + hashText;
-        } catch (UnsupportedEncodingException | NoSuchAlgorithmException ex) {
-            // should not happen
-            logger.error("Could not create MD5 hash for '{}'", text, ex);
-            return null;
-        }
-    }
-
-    private void copyStream(InputStream inputStream, OutputStream outputStream) throws IOException {
-        byte[] bytes = new byte[READ_BUFFER_SIZE];
-        int read = inputStream.read(bytes, 0, READ_BUFFER_SIZE);
-        while (read > 0) {
-            outputStream.write(bytes, 0, read);
-            read = inputStream.read(bytes, 0, READ_BUFFER_SIZE);
-        }
-    }
-
-    private void writeText(File file, String text) throws IOException {
-        try (OutputStream outputStream = new FileOutputStream(file)) {
-            outputStream.write(text.getBytes(UTF_8));
-        }
-    }
-
     boolean isInitialized() {
         return initialized;
     }
@@ -11,17 +11,17 @@ package org.openhab.voice.googletts.internal;
 import com.google.cloud.texttospeech.v1beta1.AudioEncoding;
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.core.ConfigurableService;
-import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
-import org.eclipse.smarthome.core.audio.FileAudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.voice.ttscache.TTSCache;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,9 +65,9 @@ public class GoogleTTSService implements TTSService {
     static final String SERVICE_PID = "org.openhab." + SERVICE_CATEGORY + "." + SERVICE_ID;
 
     /**
-     * Cache folder under $userdata
+     * Cache folder of earlier versions under $userdata
      */
-    private static final String CACHE_FOLDER_NAME = "cache";
+    private static final String OLD_CACHE_FOLDER_NAME = "cache";
 
     /**
      * Configuration parameters
@@ -102,6 +102,11 @@ public class GoogleTTSService implements TTSService {
      */
     private GoogleTTSConfig config = new GoogleTTSConfig();
 
+    /**
+     * Shared cache of the synthesized audio
+     */
+    private TTSCache ttsCache;
+
     /**
      * DS activate, with access to ConfigAdmin
      */
@@ -117,18 +122,26 @@ public class GoogleTTSService implements TTSService {
         }
         logger.info("Using home folder: {}", homeFolder.getAbsolutePath());
 
-        //create cache folder
-        File cacheFolder = new File(new File(userData, CACHE_FOLDER_NAME), SERVICE_PID);
-        if (!cacheFolder.exists()) {
-            //noinspection ResultOfMethodCallIgnored
-            cacheFolder.mkdirs();
+        //the audio is cached by the TTS cache now, the cache of earlier versions is left to the user
+        File oldCacheFolder = new File(new File(userData, OLD_CACHE_FOLDER_NAME), SERVICE_PID);
+        if (oldCacheFolder.exists()) {
+            logger.info("The cache folder {} of earlier versions is not used anymore, it can be deleted.",
+                    oldCacheFolder.getAbsolutePath());
         }
-        logger.info("Using cache folder {}", cacheFolder.getAbsolutePath());
 
-        apiImpl = new GoogleCloudAPI(cacheFolder);
+        apiImpl = new GoogleCloudAPI();
         updateConfig(config);
     }
 
+    @Reference
+    protected void setTTSCache(TTSCache ttsCache) {
+        this.ttsCache = ttsCache;
+    }
+
+    protected void unsetTTSCache(TTSCache ttsCache) {
+        this.ttsCache = null;
+    }
+
     /**
      * Initializing audio formats. Google supports 3 formats:
      * LINEAR16
@@ -288,34 +301,29 @@ public class GoogleTTSService implements TTSService {
         }
         // Validate arguments
         // trim text
-        text = text.trim();
-        if (text.isEmpty()) {
+        String trimmedText = text.trim();
+        if (trimmedText.isEmpty()) {
             throw new TTSException("The passed text is null or empty");
         }
         if (!this.allVoices.contains(voice)) {
             throw new TTSException("The passed voice is unsupported");
         }
-        boolean isAudioFormatSupported = false;
+        AudioFormat audioFormat = null;
         for (AudioFormat currentAudioFormat : this.audioFormats) {
             if (currentAudioFormat.isCompatible(requestedFormat)) {
-                isAudioFormatSupported = true;
+                audioFormat = currentAudioFormat;
                 break;
             }
         }
-        if (!isAudioFormatSupported) {
+        if (audioFormat == null) {
             throw new TTSException("The passed AudioFormat is unsupported");
         }
 
         // now create the input stream for given text, locale, format. There is
         // only a default voice
-        try {
-            File audioFile = apiImpl.synthesizeSpeech(text, (GoogleTTSVoice) voice, requestedFormat.getCodec());
-            if (audioFile == null) {
-                throw new TTSException("Could not read from Google Cloud TTS Service");
-            }
-            return new FileAudioStream(audioFile, requestedFormat);
-        } catch (AudioException ex) {
-            throw new TTSException("Could not create AudioStream", ex);
-        }
+        String codec = audioFormat.getCodec();
+        return ttsCache.get(this, trimmedText, voice, audioFormat,
+                () -> apiImpl.synthesizeSpeech(trimmedText, (GoogleTTSVoice) voice, codec), config.getPitch(),
+                config.getSpeakingRate(), config.getVolumeGainDb());
     }
 }
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.marytts.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sound.sampled.AudioInputStream;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.voice.Voice;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import marytts.MaryInterface;
+
+/**
+ * Tests cases for {@link MaryTTSPipeline}
+ *
+ * @author agent - Initial contribution
+ */
+public class MaryTTSPipelineTest {
+    private static final long SENTENCE_TIME_IN_MS = 300;
+    private static final String TEXT = "First sentence. Second sentence! Third sentence? Fourth sentence.";
+    private static final int WAV_HEADER_SIZE = 44;
+
+    private final AudioFormat audioFormat = new AudioFormat(AudioFormat.CONTAINER_WAVE, AudioFormat.CODEC_PCM_SIGNED,
+            false, 16, 256000, 16000L);
+    private final AtomicInteger startedSentences = new AtomicInteger();
+    private final CountDownLatch firstSentenceStarted = new CountDownLatch(1);
+
+    private Voice voice;
+    private MaryInterface maryInterface;
+    private MaryTTSPipeline subject;
+
+    @Before
+    public void setUp() throws Exception {
+        voice = mock(Voice.class);
+        when(voice.getLabel()).thenReturn("cmu-slt-hsmm");
+        when(voice.getLocale()).thenReturn(Locale.US);
+
+        // Synthesizing a sentence takes a fixed time
+        maryInterface = mock(MaryInterface.class);
+        when(maryInterface.generateAudio(anyString())).thenAnswer(invocation -> {
+            startedSentences.incrementAndGet();
+            firstSentenceStarted.countDown();
+            Thread.sleep(SENTENCE_TIME_IN_MS);
+            byte[] audio = new byte[100];
+            return new AudioInputStream(new ByteArrayInputStream(audio),
+                    new javax.sound.sampled.AudioFormat(16000, 16, 1, true, false), audio.length / 2);
+        });
+        subject = new MaryTTSPipeline(Collections.singletonList(maryInterface));
+    }
+
+    @After
+    public void tearDown() {
+        subject.shutdown();
+    }
+
+    @Test
+    public void splitSentences() {
+        assertThat(MaryTTSPipeline.splitSentences(TEXT, Locale.US), is(Arrays.asList("First sentence.",
+                "Second sentence!", "Third sentence?", "Fourth sentence.")));
+        String ssml = "<speak>First sentence. Second sentence.</speak>";
+        assertThat(MaryTTSPipeline.splitSentences(ssml, Locale.US), is(Collections.singletonList(ssml)));
+    }
+
+    @Test
+    public void firstAudioIsAvailableAfterFirstSentence() throws Exception {
+        long start = System.nanoTime();
+        AudioStream stream = subject.synthesize(TEXT, voice, audioFormat);
+        byte[] buffer = new byte[4096];
+
+        // The header is available at once
+        assertThat(stream.read(buffer), is(WAV_HEADER_SIZE));
+        assertThat(stream.read(buffer), is(100));
+        long firstAudioInMS = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        while (stream.read(buffer) != -1) {
+            // read the remaining sentences
+        }
+        long completeInMS = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        stream.close();
+
+        // Synthesizing the whole text at once would delay the first audio until all four sentences are done
+        assertTrue("First audio after " + firstAudioInMS + " ms", firstAudioInMS >= SENTENCE_TIME_IN_MS);
+        assertTrue("First audio after " + firstAudioInMS + " ms", firstAudioInMS < 2 * SENTENCE_TIME_IN_MS);
+        assertTrue("Complete after " + completeInMS + " ms", completeInMS >= 4 * SENTENCE_TIME_IN_MS);
+        verify(maryInterface, times(4)).generateAudio(anyString());
+    }
+
+    @Test
+    public void closeCancelsSentencesNotStarted() throws Exception {
+        AudioStream stream = subject.synthesize(TEXT, voice, audioFormat);
+        assertTrue(firstSentenceStarted.await(2, TimeUnit.SECONDS));
+        stream.close();
+
+        // Give the worker thread the time to pick up further sentences, if they were not cancelled
+        Thread.sleep(2 * SENTENCE_TIME_IN_MS);
+        assertThat(startedSentences.get(), is(1));
+    }
+}
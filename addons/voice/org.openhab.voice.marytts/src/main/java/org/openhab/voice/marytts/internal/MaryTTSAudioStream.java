@@ -82,6 +82,17 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
     }
 
     private InputStream getWavHeaderInputStream(int length) throws IOException {
+        return new ByteArrayInputStream(getWavHeader(audioFormat, length));
+    }
+
+    /**
+     * Creates a WAVE header
+     *
+     * @param audioFormat The AudioFormat of the audio
+     * @param length The length of the audio without the first 8 bytes of the header
+     * @return The header
+     */
+    static byte[] getWavHeader(AudioFormat audioFormat, long length) {
         // WAVE header
         // see http://www-mmsp.ece.mcgill.ca/Documents/AudioFormats/WAVE/WAVE.html
         byte[] header = new byte[44];
@@ -89,7 +100,7 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
         byte format = 0x10; // PCM
         byte bits = 16;
         byte channel = 1;
-        long srate = (this.audioFormat != null) ? this.audioFormat.getFrequency() : 48000l;
+        long srate = (audioFormat != null) ? audioFormat.getFrequency() : 48000l;
         long rawLength = length - 36;
         long bitrate = srate * channel * bits;
 
@@ -137,7 +148,7 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
         header[41] = (byte) ((rawLength >> 8) & 0xff);
         header[42] = (byte) ((rawLength >> 16) & 0xff);
         header[43] = (byte) ((rawLength >> 24) & 0xff);
-        return new ByteArrayInputStream(header);
+        return header;
     }
 
     @Override
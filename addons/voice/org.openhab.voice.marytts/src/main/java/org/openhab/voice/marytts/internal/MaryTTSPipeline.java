@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.marytts.internal;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.voice.Voice;
+
+import marytts.MaryInterface;
+
+/**
+ * Synthesizes a text sentence by sentence on a fixed number of worker threads, so that the audio of the first
+ * sentence can be played while the following ones are still synthesized. Every worker uses its own
+ * {@link MaryInterface}, as a MaryInterface can only synthesize one text at a time.
+ *
+ * @author agent - Initial contribution
+ */
+class MaryTTSPipeline {
+
+    private final ExecutorService executor;
+
+    /**
+     * The idle MaryInterfaces, one per worker thread
+     */
+    private final BlockingQueue<MaryInterface> maryInterfaces;
+
+    /**
+     * Constructs a pipeline with a worker thread for each of the passed MaryInterfaces.
+     *
+     * @param maryInterfaces The MaryInterfaces to synthesize the sentences with
+     */
+    MaryTTSPipeline(List<MaryInterface> maryInterfaces) {
+        this.maryInterfaces = new LinkedBlockingQueue<>(maryInterfaces);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maryInterfaces.size(), runnable -> {
+            // the threads must not keep the runtime from shutting down if the service is not deactivated
+            Thread thread = new Thread(runnable, "marytts-pipeline-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts to synthesize a text.
+     *
+     * @param text The text
+     * @param voice The voice to use
+     * @param audioFormat The format of the audio of the voice
+     * @return A stream of the audio, which blocks until the sentence being read has been synthesized
+     */
+    MaryTTSStreamingAudioStream synthesize(String text, Voice voice, AudioFormat audioFormat) {
+        List<Future<byte[]>> sentences = new ArrayList<>();
+        // the tasks are started in order, so the first sentence is always synthesized first
+        for (String sentence : splitSentences(text, voice.getLocale())) {
+            sentences.add(executor.submit(() -> {
+                MaryInterface marytts = maryInterfaces.take();
+                try {
+                    marytts.setLocale(voice.getLocale());
+                    marytts.setVoice(voice.getLabel());
+                    return IOUtils.toByteArray(marytts.generateAudio(sentence));
+                } finally {
+                    maryInterfaces.add(marytts);
+                }
+            }));
+        }
+        return new MaryTTSStreamingAudioStream(sentences, audioFormat);
+    }
+
+    /**
+     * Stops the worker threads once the texts being synthesized are done.
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Splits a plain text into sentences, MaryXML and SSML are not split.
+     *
+     * @param text The text
+     * @param locale The locale of the text
+     * @return The sentences
+     */
+    static List<String> splitSentences(String text, Locale locale) {
+        if (text.trim().startsWith("<")) {
+            return Collections.singletonList(text);
+        }
+        List<String> sentences = new ArrayList<>();
+        BreakIterator iterator = BreakIterator.getSentenceInstance(locale);
+        iterator.setText(text);
+        int start = iterator.first();
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            String sentence = text.substring(start, end).trim();
+            if (!sentence.isEmpty()) {
+                sentences.add(sentence);
+            }
+        }
+        return sentences;
+    }
+}
@@ -11,15 +11,24 @@ package org.openhab.voice.marytts.internal;
 import static javax.sound.sampled.AudioSystem.NOT_SPECIFIED;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.smarthome.config.core.ConfigurableService;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
+import org.openhab.voice.ttscache.TTSCache;
+import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,13 +44,25 @@ import marytts.modules.synthesis.Voice;
  * @author Kelly Davis - Initial contribution and API
  * @author Kai Kreuzer - Refactored to updated APIs and moved to openHAB
  */
-@Component
+@Component(configurationPid = "org.openhab.marytts", property = { Constants.SERVICE_PID + "=org.openhab.marytts",
+        ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=voice:marytts",
+        ConfigurableService.SERVICE_PROPERTY_LABEL + "=Mary Text-to-Speech",
+        ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=voice" })
 public class MaryTTSService implements TTSService {
 
+    private static final String CONFIG_SENTENCE_PIPELINING = "sentencePipelining";
+    private static final String CONFIG_PIPELINE_THREADS = "pipelineThreads";
+    private static final int DEFAULT_PIPELINE_THREADS = 2;
+
     private final Logger logger = LoggerFactory.getLogger(MaryTTSService.class);
 
     private MaryInterface marytts;
 
+    /**
+     * Synthesizes the sentences of a text in parallel, null if sentence pipelining is disabled
+     */
+    private volatile MaryTTSPipeline pipeline;
+
     /**
      * Set of supported voices
      */
@@ -52,16 +73,63 @@ public class MaryTTSService implements TTSService {
      */
     private Set<AudioFormat> audioFormats;
 
-    protected void activate() {
+    private TTSCache ttsCache;
+
+    protected void activate(Map<String, Object> config) {
         try {
             marytts = new LocalMaryInterface();
             voices = initVoices();
             audioFormats = initAudioFormats();
+            modified(config);
         } catch (MaryConfigurationException e) {
             logger.error("Failed to initialize MaryTTS: {}", e.getMessage(), e);
         }
     }
 
+    @Modified
+    protected void modified(Map<String, Object> config) {
+        boolean sentencePipelining = config != null && config.containsKey(CONFIG_SENTENCE_PIPELINING)
+                && Boolean.parseBoolean(config.get(CONFIG_SENTENCE_PIPELINING).toString());
+        int pipelineThreads = DEFAULT_PIPELINE_THREADS;
+        if (config != null && config.containsKey(CONFIG_PIPELINE_THREADS)) {
+            pipelineThreads = Math.max(1, new BigDecimal(config.get(CONFIG_PIPELINE_THREADS).toString()).intValue());
+        }
+
+        if (pipeline != null) {
+            pipeline.shutdown();
+            pipeline = null;
+        }
+        if (sentencePipelining) {
+            // every thread needs its own MaryInterface, the voices are shared
+            try {
+                List<MaryInterface> maryInterfaces = new ArrayList<>();
+                for (int i = 0; i < pipelineThreads; i++) {
+                    maryInterfaces.add(new LocalMaryInterface());
+                }
+                pipeline = new MaryTTSPipeline(maryInterfaces);
+                logger.debug("Sentence pipelining enabled with {} threads", pipelineThreads);
+            } catch (MaryConfigurationException e) {
+                logger.error("Failed to initialize MaryTTS sentence pipelining: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    protected void deactivate() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+            pipeline = null;
+        }
+    }
+
+    @Reference
+    protected void setTTSCache(TTSCache ttsCache) {
+        this.ttsCache = ttsCache;
+    }
+
+    protected void unsetTTSCache(TTSCache ttsCache) {
+        this.ttsCache = null;
+    }
+
     @Override
     public Set<org.eclipse.smarthome.core.voice.Voice> getAvailableVoices() {
         return voices;
@@ -110,18 +178,27 @@ public class MaryTTSService implements TTSService {
         Voice maryTTSVoice = Voice.getVoice(voice.getLabel());
         AudioFormat maryTTSVoiceAudioFormat = getAudioFormat(maryTTSVoice.dbAudioFormat());
 
-        // Synchronize on marytts
-        synchronized (marytts) {
-            // Set voice (Each voice supports only a single AudioFormat)
-            marytts.setLocale(voice.getLocale());
-            marytts.setVoice(voice.getLabel());
+        MaryTTSPipeline pipeline = this.pipeline;
+        if (pipeline != null) {
+            // the audio is passed on sentence by sentence, while it is cached
+            return ttsCache.getStream(this, text, voice, maryTTSVoiceAudioFormat,
+                    () -> pipeline.synthesize(text, voice, maryTTSVoiceAudioFormat));
+        }
+
+        return ttsCache.get(this, text, voice, maryTTSVoiceAudioFormat, () -> {
+            // Synchronize on marytts
+            synchronized (marytts) {
+                // Set voice (Each voice supports only a single AudioFormat)
+                marytts.setLocale(voice.getLocale());
+                marytts.setVoice(voice.getLabel());
 
-            try {
-                return new MaryTTSAudioStream(marytts.generateAudio(text), maryTTSVoiceAudioFormat);
-            } catch (SynthesisException | IOException e) {
-                throw new TTSException("Error generating an AudioStream", e);
+                try {
+                    return new MaryTTSAudioStream(marytts.generateAudio(text), maryTTSVoiceAudioFormat);
+                } catch (SynthesisException | IOException e) {
+                    throw new TTSException("Error generating an AudioStream", e);
+                }
             }
-        }
+        });
     }
 
     /**
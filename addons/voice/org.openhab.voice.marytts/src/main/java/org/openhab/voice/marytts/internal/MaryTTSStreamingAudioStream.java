@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.marytts.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+
+/**
+ * An {@link AudioStream} of the {@link MaryTTSPipeline}, which passes on the audio of every sentence as soon as it
+ * has been synthesized. As the length of the audio is unknown in advance, the WAV header contains the maximum sizes.
+ *
+ * @author agent - Initial contribution
+ */
+class MaryTTSStreamingAudioStream extends AudioStream {
+
+    /**
+     * Size in the WAV header for audio of unknown length
+     */
+    private static final long UNKNOWN_LENGTH = 0xFFFFFFFFL;
+
+    private final AudioFormat audioFormat;
+
+    /**
+     * The raw audio of the remaining sentences
+     */
+    private final Iterator<Future<byte[]>> sentences;
+
+    private final List<Future<byte[]>> allSentences;
+
+    private InputStream inputStream;
+
+    /**
+     * Constructs an instance with the passed properties
+     *
+     * @param sentences The raw audio of the sentences in order
+     * @param audioFormat The AudioFormat of this instance
+     */
+    MaryTTSStreamingAudioStream(List<Future<byte[]>> sentences, AudioFormat audioFormat) {
+        this.audioFormat = audioFormat;
+        this.allSentences = sentences;
+        this.sentences = sentences.iterator();
+        this.inputStream = new ByteArrayInputStream(MaryTTSAudioStream.getWavHeader(audioFormat, UNKNOWN_LENGTH));
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return audioFormat;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = inputStream.read();
+        while (b == -1 && nextSentence()) {
+            b = inputStream.read();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int read = inputStream.read(b, off, len);
+        while (read == -1 && nextSentence()) {
+            read = inputStream.read(b, off, len);
+        }
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return inputStream.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // sentences that are not being synthesized yet are dropped
+        for (Future<byte[]> sentence : allSentences) {
+            sentence.cancel(false);
+        }
+    }
+
+    /**
+     * Waits for the audio of the next sentence.
+     *
+     * @return false if there are no more sentences
+     */
+    private boolean nextSentence() throws IOException {
+        if (!sentences.hasNext()) {
+            return false;
+        }
+        try {
+            inputStream = new ByteArrayInputStream(sentences.next().get());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the next sentence");
+        } catch (ExecutionException e) {
+            throw new IOException("Error generating an AudioStream", e.getCause());
+        }
+    }
+}
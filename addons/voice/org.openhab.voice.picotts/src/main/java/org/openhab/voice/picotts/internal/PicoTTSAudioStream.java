@@ -108,6 +108,17 @@ class PicoTTSAudioStream extends FixedLengthAudioStream {
         return inputStream.read();
     }
 
+    @Override
+    public void close() throws IOException {
+        try {
+            inputStream.close();
+        } finally {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
     @Override
     public long length() {
         return length;
@@ -20,7 +20,9 @@ import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.voice.ttscache.TTSCache;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 
 /**
  * @author Florian Schmidt - Initial Contribution
@@ -35,6 +37,17 @@ public class PicoTTSService implements TTSService {
     private final Set<AudioFormat> audioFormats = Collections.singleton(
             new AudioFormat(AudioFormat.CONTAINER_WAVE, AudioFormat.CODEC_PCM_SIGNED, false, 16, null, 16000L));
 
+    private TTSCache ttsCache;
+
+    @Reference
+    protected void setTTSCache(TTSCache ttsCache) {
+        this.ttsCache = ttsCache;
+    }
+
+    protected void unsetTTSCache(TTSCache ttsCache) {
+        this.ttsCache = null;
+    }
+
     @Override
     public Set<Voice> getAvailableVoices() {
         return this.voices;
@@ -55,19 +68,16 @@ public class PicoTTSService implements TTSService {
             throw new TTSException("The passed voice is unsupported");
         }
 
-        boolean isAudioFormatSupported = this.audioFormats.stream().anyMatch(audioFormat -> {
-            return audioFormat.isCompatible(requestedFormat);
-        });
-
-        if (!isAudioFormatSupported) {
-            throw new TTSException("The passed AudioFormat is unsupported");
-        }
+        AudioFormat audioFormat = this.audioFormats.stream().filter(format -> format.isCompatible(requestedFormat))
+                .findFirst().orElseThrow(() -> new TTSException("The passed AudioFormat is unsupported"));
 
-        try {
-            return new PicoTTSAudioStream(text, voice, requestedFormat);
-        } catch (AudioException e) {
-            throw new TTSException(e);
-        }
+        return ttsCache.get(this, text, voice, audioFormat, () -> {
+            try {
+                return new PicoTTSAudioStream(text, voice, audioFormat);
+            } catch (AudioException e) {
+                throw new TTSException(e);
+            }
+        });
     }
 
     @Override
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.ttscache.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests cases for {@link AudioStore}
+ *
+ * @author agent - Initial contribution
+ */
+public class AudioStoreTest {
+    private static final int SIZE = 100;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File folder;
+
+    @Before
+    public void setUp() {
+        folder = temporaryFolder.getRoot();
+    }
+
+    private static byte[] data(int value) {
+        return data(value, SIZE);
+    }
+
+    private static byte[] data(int value, int size) {
+        byte[] data = new byte[size];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+
+    private List<String> fileNames() {
+        List<String> names = new ArrayList<>(Arrays.asList(folder.list()));
+        names.sort(null);
+        return names;
+    }
+
+    @Test
+    public void leastRecentlyUsedFileIsEvicted() {
+        AudioStore store = new AudioStore(folder, 3 * SIZE, 0);
+        store.put("a", "wav", data(1));
+        store.put("b", "wav", data(2));
+        store.put("c", "wav", data(3));
+        // a is now used more recently than b
+        assertThat(store.get("a"), is(data(1)));
+
+        store.put("d", "wav", data(4));
+
+        assertThat(store.get("b"), is(nullValue()));
+        assertThat(store.get("a"), is(data(1)));
+        assertThat(store.get("c"), is(data(3)));
+        assertThat(store.get("d"), is(data(4)));
+        assertThat(store.getDiskSize(), is(3L * SIZE));
+        assertThat(fileNames(), is(Arrays.asList("a.wav", "c.wav", "d.wav")));
+    }
+
+    @Test
+    public void loadRestoresOrderOfUseFromModificationTimes() throws Exception {
+        AudioStore store = new AudioStore(folder, 10 * SIZE, 0);
+        store.put("a", "wav", data(1));
+        store.put("b", "mp3", data(2));
+        store.put("c", "wav", data(3));
+        long now = System.currentTimeMillis();
+        new File(folder, "a.wav").setLastModified(now - 1000);
+        new File(folder, "b.mp3").setLastModified(now - 3000);
+        new File(folder, "c.wav").setLastModified(now - 2000);
+        // left over from an interrupted write
+        File tempFile = new File(folder, "d123.tmp");
+        Files.write(tempFile.toPath(), data(4));
+
+        // restart with a smaller limit
+        AudioStore restarted = new AudioStore(folder, 2 * SIZE + SIZE / 2, 0);
+        restarted.load();
+
+        assertFalse(tempFile.exists());
+        assertThat(restarted.getDiskSize(), is(2L * SIZE));
+        assertThat(fileNames(), is(Arrays.asList("a.wav", "c.wav")));
+
+        // c has been used before a
+        restarted.put("e", "wav", data(5));
+        assertThat(fileNames(), is(Arrays.asList("a.wav", "e.wav")));
+        assertThat(restarted.get("a"), is(data(1)));
+    }
+
+    @Test
+    public void shrinkingLimitsEvictsData() {
+        AudioStore store = new AudioStore(folder, 10 * SIZE, 10 * SIZE);
+        store.put("a", "wav", data(1));
+        store.put("b", "wav", data(2));
+        store.put("c", "wav", data(3));
+        assertThat(store.getMemorySize(), is(3L * SIZE));
+
+        store.setLimits(SIZE + SIZE / 2, 2 * SIZE);
+
+        assertThat(store.getDiskSize(), is((long) SIZE));
+        assertThat(store.getMemorySize(), is((long) SIZE));
+        assertThat(fileNames(), is(Arrays.asList("c.wav")));
+        assertThat(store.get("a"), is(nullValue()));
+        assertThat(store.get("c"), is(data(3)));
+    }
+
+    @Test
+    public void dataLargerThanDiskLimitIsOnlyKeptInMemory() {
+        AudioStore store = new AudioStore(folder, SIZE / 2, 10 * SIZE);
+        store.put("a", "wav", data(1));
+
+        assertThat(fileNames().isEmpty(), is(true));
+        assertThat(store.getDiskSize(), is(0L));
+        assertThat(store.getMemorySize(), is((long) SIZE));
+        assertThat(store.get("a"), is(data(1)));
+    }
+
+    @Test
+    public void singleEntryTakesAtMostAQuarterOfTheMemory() {
+        AudioStore store = new AudioStore(folder, 10 * SIZE, 4 * SIZE);
+        store.put("a", "wav", data(1, SIZE + 1));
+        assertThat(store.getMemorySize(), is(0L));
+        assertThat(store.getDiskSize(), is(SIZE + 1L));
+
+        store.put("b", "wav", data(2));
+        assertThat(store.getMemorySize(), is((long) SIZE));
+
+        // served from disk
+        assertThat(store.get("a"), is(data(1, SIZE + 1)));
+    }
+
+    @Test
+    public void concurrentWritesOfTheSameKeyDoNotMix() throws Exception {
+        int writers = 8;
+        int length = 1024 * 1024;
+        AudioStore store = new AudioStore(folder, writers * length, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < writers; i++) {
+                byte[] data = data(i, length);
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 10; j++) {
+                        store.put("a", "wav", data);
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertThat(fileNames(), is(Arrays.asList("a.wav")));
+        byte[] stored = Files.readAllBytes(new File(folder, "a.wav").toPath());
+        assertThat(stored.length, is(length));
+        assertThat(stored, is(data(stored[0], stored.length)));
+        assertThat(store.getDiskSize(), is((long) length));
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.ttscache.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.voice.TTSException;
+import org.eclipse.smarthome.core.voice.TTSService;
+import org.eclipse.smarthome.core.voice.Voice;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.voice.ttscache.AudioSynthesizer;
+
+/**
+ * Tests cases for {@link TTSCacheImpl}
+ *
+ * @author agent - Initial contribution
+ */
+public class TTSCacheImplTest {
+    private static final byte[] AUDIO = "audio".getBytes();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AudioFormat format = new AudioFormat(AudioFormat.CONTAINER_NONE, AudioFormat.CODEC_MP3, null, 16,
+            64000, 44100L);
+    private final AtomicInteger synthesized = new AtomicInteger();
+
+    private String previousUserData;
+    private TTSService service;
+    private Voice voice;
+    private TTSCacheImpl subject;
+
+    @Before
+    public void setUp() {
+        previousUserData = System.getProperty(ConfigConstants.USERDATA_DIR_PROG_ARGUMENT);
+        System.setProperty(ConfigConstants.USERDATA_DIR_PROG_ARGUMENT, temporaryFolder.getRoot().getAbsolutePath());
+
+        service = mock(TTSService.class);
+        when(service.getId()).thenReturn("test");
+        voice = mock(Voice.class);
+        when(voice.getUID()).thenReturn("test:voice");
+
+        subject = new TTSCacheImpl();
+        subject.activate(new HashMap<>());
+    }
+
+    @After
+    public void tearDown() {
+        if (previousUserData == null) {
+            System.clearProperty(ConfigConstants.USERDATA_DIR_PROG_ARGUMENT);
+        } else {
+            System.setProperty(ConfigConstants.USERDATA_DIR_PROG_ARGUMENT, previousUserData);
+        }
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private byte[] get(String text, AudioSynthesizer synthesizer) throws Exception {
+        return readAll(subject.get(service, text, voice, format, synthesizer));
+    }
+
+    @Test
+    public void concurrentRequestsOfTheSameTextAreSynthesizedOnce() throws Exception {
+        CountDownLatch synthesisStarted = new CountDownLatch(1);
+        CountDownLatch releaseSynthesis = new CountDownLatch(1);
+        AudioSynthesizer synthesizer = () -> {
+            synthesized.incrementAndGet();
+            synthesisStarted.countDown();
+            try {
+                releaseSynthesis.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ByteArrayInputStream(AUDIO);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> first = executor.submit(() -> get("Hello", synthesizer));
+            assertTrue(synthesisStarted.await(2, TimeUnit.SECONDS));
+            Future<byte[]> second = executor.submit(() -> get("Hello", synthesizer));
+            // Give the second request a chance to wait for the running synthesis
+            Thread.sleep(100);
+            releaseSynthesis.countDown();
+
+            assertThat(first.get(2, TimeUnit.SECONDS), is(AUDIO));
+            assertThat(second.get(2, TimeUnit.SECONDS), is(AUDIO));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(synthesized.get(), is(1));
+
+        // cached now
+        assertThat(get("Hello", synthesizer), is(AUDIO));
+        assertThat(synthesized.get(), is(1));
+    }
+
+    @Test
+    public void differentTextsAreSynthesizedSeparately() throws Exception {
+        AudioSynthesizer synthesizer = () -> {
+            synthesized.incrementAndGet();
+            return new ByteArrayInputStream(AUDIO);
+        };
+        get("Hello", synthesizer);
+        get("World", synthesizer);
+        get("Hello", synthesizer);
+
+        assertThat(synthesized.get(), is(2));
+    }
+
+    @Test
+    public void preCachedPhrasesOfStreamingServicesAreReadCompletely() throws Exception {
+        AudioSynthesizer synthesizer = () -> {
+            synthesized.incrementAndGet();
+            return new ByteArrayInputStream(AUDIO);
+        };
+        when(service.getAvailableVoices()).thenReturn(Collections.singleton(voice));
+        when(service.getSupportedFormats()).thenReturn(Collections.singleton(format));
+        when(service.synthesize("Hello", voice, format))
+                .thenAnswer(invocation -> subject.getStream(service, "Hello", voice, format, synthesizer));
+
+        Map<String, Object> config = new HashMap<>();
+        config.put("preCachedPhrases", "test:voice=Hello");
+        subject.modified(config);
+        subject.addTTSService(service);
+
+        // pre-caching runs in the background
+        byte[] cached = null;
+        for (int i = 0; i < 200 && cached == null; i++) {
+            try {
+                cached = get("Hello", () -> {
+                    throw new TTSException("not cached yet");
+                });
+            } catch (TTSException e) {
+                Thread.sleep(10);
+            }
+        }
+
+        assertThat(cached, is(AUDIO));
+        assertThat(synthesized.get(), is(1));
+    }
+}
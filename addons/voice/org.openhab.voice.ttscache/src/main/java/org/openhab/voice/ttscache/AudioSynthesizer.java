@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.ttscache;
+
+import java.io.InputStream;
+
+import org.eclipse.smarthome.core.voice.TTSException;
+
+/**
+ * Synthesizes a text, which is not in the {@link TTSCache} yet.
+ *
+ * @author agent - Initial contribution
+ */
+@FunctionalInterface
+public interface AudioSynthesizer {
+
+    /**
+     * Synthesizes the text.
+     *
+     * @return the complete audio data including a container header, the stream is closed by the caller
+     * @throws TTSException if the text could not be synthesized
+     */
+    InputStream synthesize() throws TTSException;
+}
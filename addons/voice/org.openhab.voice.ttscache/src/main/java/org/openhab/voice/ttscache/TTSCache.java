@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.ttscache;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.voice.TTSException;
+import org.eclipse.smarthome.core.voice.TTSService;
+import org.eclipse.smarthome.core.voice.Voice;
+
+/**
+ * A cache for synthesized speech, which is shared by the text-to-speech services. The audio is kept on disk
+ * within a size limit, recently used audio is additionally kept in memory.
+ *
+ * @author agent - Initial contribution
+ */
+public interface TTSCache {
+
+    /**
+     * Returns the audio for a text. If it is not cached yet, the synthesizer is called and its audio is cached.
+     *
+     * @param service the service synthesizing the text
+     * @param text the text
+     * @param voice the voice used for the text
+     * @param format the format of the audio the synthesizer produces
+     * @param synthesizer synthesizes the text if it is not cached
+     * @param options further settings of the service that change the audio, e.g. the speaking rate
+     * @return an audio stream with a fixed length
+     * @throws TTSException if the synthesizer failed
+     */
+    AudioStream get(TTSService service, String text, Voice voice, AudioFormat format, AudioSynthesizer synthesizer,
+            Object... options) throws TTSException;
+
+    /**
+     * Returns the audio for a text like {@link #get}, but does not wait for the synthesizer: if the text is not
+     * cached yet, the audio is passed on while the synthesizer produces it and cached once it has been read
+     * completely. WAV headers with unknown sizes are completed before the audio is cached.
+     *
+     * @param service the service synthesizing the text
+     * @param text the text
+     * @param voice the voice used for the text
+     * @param format the format of the audio the synthesizer produces
+     * @param synthesizer synthesizes the text if it is not cached, it should return a stream without blocking
+     * @param options further settings of the service that change the audio, e.g. the speaking rate
+     * @return an audio stream, which has a fixed length only if the audio was cached
+     * @throws TTSException if the synthesizer failed
+     */
+    AudioStream getStream(TTSService service, String text, Voice voice, AudioFormat format,
+            AudioSynthesizer synthesizer, Object... options) throws TTSException;
+}
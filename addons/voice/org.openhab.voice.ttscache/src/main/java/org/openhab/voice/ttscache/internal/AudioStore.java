@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.ttscache.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores audio data by key in a folder and keeps recently used data in memory. Both are limited in size,
+ * the least recently used data is removed first. The order of use is kept in the modification time of
+ * the files, so that it survives restarts.
+ *
+ * @author agent - Initial contribution
+ */
+class AudioStore {
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private final Logger logger = LoggerFactory.getLogger(AudioStore.class);
+
+    private final File folder;
+
+    private static class StoredFile {
+        final File file;
+        final long size;
+
+        StoredFile(File file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    // key to file, in order of use
+    private final LinkedHashMap<String, StoredFile> files = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskSize = 0;
+    private long diskLimit;
+
+    // key to data, in order of use
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memorySize = 0;
+    private long memoryLimit;
+
+    /**
+     * Constructor of AudioStore
+     *
+     * @param folder the folder to store the audio files in
+     * @param diskLimit the maximum size of all files in bytes
+     * @param memoryLimit the maximum size of the data kept in memory in bytes
+     */
+    AudioStore(File folder, long diskLimit, long memoryLimit) {
+        this.folder = folder;
+        this.diskLimit = diskLimit;
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * Reads the files that are already in the folder.
+     */
+    synchronized void load() {
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        File[] existingFiles = folder.listFiles();
+        if (existingFiles == null) {
+            logger.warn("Cannot read cache folder {}", folder.getAbsolutePath());
+            return;
+        }
+        Arrays.sort(existingFiles, Comparator.comparingLong(File::lastModified));
+        for (File file : existingFiles) {
+            String name = file.getName();
+            if (name.endsWith(TEMP_EXTENSION)) {
+                // left over from an interrupted write
+                file.delete();
+            } else if (file.isFile() && name.indexOf('.') > 0) {
+                String key = name.substring(0, name.indexOf('.'));
+                StoredFile stored = new StoredFile(file, file.length());
+                StoredFile previous = files.put(key, stored);
+                if (previous != null) {
+                    diskSize -= previous.size;
+                }
+                diskSize += stored.size;
+            }
+        }
+        logger.debug("Found {} cached audio files with {} bytes in {}", files.size(), diskSize,
+                folder.getAbsolutePath());
+        evict();
+    }
+
+    /**
+     * Changes the size limits, data is removed if it exceeds the new limits.
+     */
+    synchronized void setLimits(long diskLimit, long memoryLimit) {
+        this.diskLimit = diskLimit;
+        this.memoryLimit = memoryLimit;
+        evict();
+    }
+
+    /**
+     * Returns the data of a key.
+     *
+     * @return the data or null if it is not stored
+     */
+    byte[] get(String key) {
+        StoredFile stored;
+        byte[] memoryData;
+        synchronized (this) {
+            memoryData = memory.get(key);
+            stored = files.get(key);
+        }
+        if (memoryData != null) {
+            if (stored != null) {
+                // the order of use must survive restarts, also if the file is not read
+                stored.file.setLastModified(System.currentTimeMillis());
+            }
+            return memoryData;
+        }
+        if (stored == null) {
+            return null;
+        }
+        File file = stored.file;
+        try {
+            byte[] data = Files.readAllBytes(file.toPath());
+            file.setLastModified(System.currentTimeMillis());
+            synchronized (this) {
+                if (files.get(key) == stored) {
+                    addToMemory(key, data);
+                }
+            }
+            return data;
+        } catch (IOException e) {
+            // the file may have been removed in the meantime
+            logger.debug("Cannot read cached audio file {}: {}", file.getName(), e.getMessage());
+            synchronized (this) {
+                if (files.get(key) == stored) {
+                    remove(key);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Stores data under a key.
+     *
+     * @param key the key
+     * @param extension the extension of the file
+     * @param data the data
+     */
+    void put(String key, String extension, byte[] data) {
+        synchronized (this) {
+            if (data.length > diskLimit) {
+                addToMemory(key, data);
+                return;
+            }
+        }
+        File file = new File(folder, key + "." + extension);
+        File tempFile = null;
+        try {
+            // every writer has its own temporary file, the same audio may be written concurrently
+            tempFile = Files.createTempFile(folder.toPath(), key, TEMP_EXTENSION).toFile();
+            Files.write(tempFile.toPath(), data);
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Cannot write cached audio file {}: {}", file.getName(), e.getMessage());
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+            synchronized (this) {
+                addToMemory(key, data);
+            }
+            return;
+        }
+        synchronized (this) {
+            StoredFile previous = files.put(key, new StoredFile(file, data.length));
+            if (previous != null) {
+                diskSize -= previous.size;
+                if (!previous.file.equals(file)) {
+                    previous.file.delete();
+                }
+            }
+            diskSize += data.length;
+            addToMemory(key, data);
+            evict();
+        }
+    }
+
+    /**
+     * Returns the size of all files in bytes
+     */
+    synchronized long getDiskSize() {
+        return diskSize;
+    }
+
+    /**
+     * Returns the size of the data kept in memory in bytes
+     */
+    synchronized long getMemorySize() {
+        return memorySize;
+    }
+
+    private void addToMemory(String key, byte[] data) {
+        // a single entry must not take the memory of all hot phrases
+        if (data.length > memoryLimit / 4) {
+            return;
+        }
+        byte[] previous = memory.put(key, data);
+        if (previous != null) {
+            memorySize -= previous.length;
+        }
+        memorySize += data.length;
+        evict();
+    }
+
+    private void remove(String key) {
+        StoredFile stored = files.remove(key);
+        if (stored != null) {
+            diskSize -= stored.size;
+            stored.file.delete();
+        }
+        byte[] data = memory.remove(key);
+        if (data != null) {
+            memorySize -= data.length;
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, byte[]>> memoryEntries = memory.entrySet().iterator();
+        while (memorySize > memoryLimit && memoryEntries.hasNext()) {
+            memorySize -= memoryEntries.next().getValue().length;
+            memoryEntries.remove();
+        }
+        Iterator<Map.Entry<String, StoredFile>> fileEntries = files.entrySet().iterator();
+        while (diskSize > diskLimit && fileEntries.hasNext()) {
+            Map.Entry<String, StoredFile> entry = fileEntries.next();
+            StoredFile stored = entry.getValue();
+            diskSize -= stored.size;
+            logger.trace("Removing least recently used audio file {}", stored.file.getName());
+            stored.file.delete();
+            fileEntries.remove();
+            byte[] data = memory.remove(entry.getKey());
+            if (data != null) {
+                memorySize -= data.length;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.ttscache.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.FixedLengthAudioStream;
+
+/**
+ * An audio stream of cached audio data.
+ *
+ * @author agent - Initial contribution
+ */
+class CachedAudioStream extends FixedLengthAudioStream {
+    private final byte[] data;
+    private final AudioFormat format;
+    private final InputStream inputStream;
+
+    CachedAudioStream(byte[] data, AudioFormat format) {
+        this.data = data;
+        this.format = format;
+        this.inputStream = new ByteArrayInputStream(data);
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return inputStream.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return inputStream.read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        return inputStream.skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return inputStream.available();
+    }
+
+    @Override
+    public long length() {
+        return data.length;
+    }
+
+    @Override
+    public InputStream getClonedStream() {
+        return new CachedAudioStream(data, format);
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.ttscache.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+
+/**
+ * An audio stream passing on the audio of a synthesizer, which is collected and handed over to the cache once
+ * it has been read completely. Audio of a stream that is closed before is discarded.
+ *
+ * @author agent - Initial contribution
+ */
+class CachingAudioStream extends AudioStream {
+    private final InputStream inputStream;
+    private final AudioFormat format;
+    private final Consumer<byte[]> completionHandler;
+
+    private ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+    CachingAudioStream(InputStream inputStream, AudioFormat format, Consumer<byte[]> completionHandler) {
+        this.inputStream = inputStream;
+        this.format = format;
+        this.completionHandler = completionHandler;
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = inputStream.read();
+        if (b == -1) {
+            complete();
+        } else if (data != null) {
+            data.write(b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = inputStream.read(b, off, len);
+        if (read == -1) {
+            complete();
+        } else if (data != null) {
+            data.write(b, off, read);
+        }
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return inputStream.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        data = null;
+        inputStream.close();
+    }
+
+    private void complete() {
+        if (data != null) {
+            byte[] audio = data.toByteArray();
+            data = null;
+            completionHandler.accept(audio);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.ttscache.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.config.core.ConfigurableService;
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.voice.TTSException;
+import org.eclipse.smarthome.core.voice.TTSService;
+import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.voice.ttscache.AudioSynthesizer;
+import org.openhab.voice.ttscache.TTSCache;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link TTSCache} shared by the text-to-speech services. The audio is stored below
+ * userdata/cache/org.openhab.voice.ttscache. Configured phrases are synthesized in advance, as soon as
+ * the service of their voice is available.
+ *
+ * @author agent - Initial contribution
+ */
+@Component(service = TTSCache.class, immediate = true, configurationPid = TTSCacheImpl.SERVICE_PID, property = {
+        Constants.SERVICE_PID + "=" + TTSCacheImpl.SERVICE_PID,
+        ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=voice:ttscache",
+        ConfigurableService.SERVICE_PROPERTY_LABEL + "=Text-to-Speech Cache",
+        ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=voice" })
+public class TTSCacheImpl implements TTSCache {
+    static final String SERVICE_PID = "org.openhab.ttscache";
+
+    private static final String CACHE_FOLDER_NAME = "cache" + File.separator + "org.openhab.voice.ttscache";
+
+    private static final String CONFIG_DISK_CACHE_SIZE = "diskCacheSize";
+    private static final String CONFIG_MEMORY_CACHE_SIZE = "memoryCacheSize";
+    private static final String CONFIG_PRE_CACHED_PHRASES = "preCachedPhrases";
+
+    private static final long DEFAULT_DISK_CACHE_SIZE = 50; // MB
+    private static final long DEFAULT_MEMORY_CACHE_SIZE = 4096; // kB
+
+    private static final int WAV_HEADER_LENGTH = 44;
+
+    private static final String PHRASE_SEPARATOR = ";";
+    private static final String VOICE_SEPARATOR = "=";
+
+    private final Logger logger = LoggerFactory.getLogger(TTSCacheImpl.class);
+
+    private final ExecutorService executor = ThreadPoolManager.getPool("ttscache");
+
+    private final List<TTSService> services = new CopyOnWriteArrayList<>();
+
+    // keys being synthesized, the same text is only synthesized once at a time
+    private final Map<String, Object> pendingKeys = new ConcurrentHashMap<>();
+
+    private AudioStore store;
+
+    private volatile List<String> preCachedPhrases = new ArrayList<>();
+
+    @Activate
+    protected void activate(Map<String, Object> config) {
+        store = new AudioStore(new File(ConfigConstants.getUserDataFolder(), CACHE_FOLDER_NAME),
+                getDiskLimit(config), getMemoryLimit(config));
+        store.load();
+        modified(config);
+    }
+
+    @Modified
+    protected void modified(Map<String, Object> config) {
+        store.setLimits(getDiskLimit(config), getMemoryLimit(config));
+        preCachedPhrases = getPhrases(config != null ? config.get(CONFIG_PRE_CACHED_PHRASES) : null);
+        for (TTSService service : services) {
+            preCache(service);
+        }
+    }
+
+    @Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
+    protected void addTTSService(TTSService service) {
+        services.add(service);
+        if (store != null) {
+            preCache(service);
+        }
+    }
+
+    protected void removeTTSService(TTSService service) {
+        services.remove(service);
+    }
+
+    @Override
+    public AudioStream get(TTSService service, String text, Voice voice, AudioFormat format,
+            AudioSynthesizer synthesizer, Object... options) throws TTSException {
+        String key = getKey(service, text, voice, format, options);
+        byte[] data = store.get(key);
+        if (data != null) {
+            logger.debug("Audio for '{}' found in cache", text);
+            return new CachedAudioStream(data, format);
+        }
+
+        Object lock = pendingKeys.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                // it may have been synthesized while waiting
+                data = store.get(key);
+                if (data == null) {
+                    logger.debug("Caching audio for '{}'", text);
+                    data = read(synthesizer);
+                    store.put(key, getExtension(format), data);
+                }
+            }
+        } finally {
+            pendingKeys.remove(key, lock);
+        }
+        return new CachedAudioStream(data, format);
+    }
+
+    @Override
+    public AudioStream getStream(TTSService service, String text, Voice voice, AudioFormat format,
+            AudioSynthesizer synthesizer, Object... options) throws TTSException {
+        String key = getKey(service, text, voice, format, options);
+        byte[] data = store.get(key);
+        if (data != null) {
+            logger.debug("Audio for '{}' found in cache", text);
+            return new CachedAudioStream(data, format);
+        }
+        logger.debug("Caching audio for '{}' while it is streamed", text);
+        return new CachingAudioStream(synthesizer.synthesize(), format, audio -> {
+            if (AudioFormat.CONTAINER_WAVE.equals(format.getContainer())) {
+                completeWavHeader(audio);
+            }
+            store.put(key, getExtension(format), audio);
+        });
+    }
+
+    private byte[] read(AudioSynthesizer synthesizer) throws TTSException {
+        try (InputStream inputStream = synthesizer.synthesize()) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new TTSException("Error reading the synthesized audio", e);
+        }
+    }
+
+    /**
+     * Synthesizes the configured phrases of the voices of a service.
+     */
+    private void preCache(TTSService service) {
+        for (String phrase : preCachedPhrases) {
+            String[] parts = phrase.split(VOICE_SEPARATOR, 2);
+            if (parts.length != 2 || parts[1].trim().isEmpty()) {
+                logger.warn("Ignoring pre-cached phrase '{}', expected <voice id>{}<text>", phrase, VOICE_SEPARATOR);
+                continue;
+            }
+            String voiceUID = parts[0].trim();
+            String text = parts[1].trim();
+            for (Voice voice : service.getAvailableVoices()) {
+                if (voice.getUID().equals(voiceUID)) {
+                    executor.execute(() -> preCache(service, voice, text));
+                }
+            }
+        }
+    }
+
+    private void preCache(TTSService service, Voice voice, String text) {
+        AudioFormat format = getPreferredFormat(service.getSupportedFormats());
+        if (format == null) {
+            return;
+        }
+        // the service adds the audio to the cache, a streaming service only once it has been read completely
+        try (AudioStream audioStream = service.synthesize(text, voice, format)) {
+            byte[] buffer = new byte[4096];
+            while (audioStream.read(buffer) != -1) {
+                // drain the stream
+            }
+            logger.debug("Pre-cached '{}' for voice {}", text, voice.getUID());
+        } catch (TTSException | IOException e) {
+            logger.warn("Could not pre-cache '{}' for voice {}: {}", text, voice.getUID(), e.getMessage());
+        }
+    }
+
+    /**
+     * Sets the sizes in the header of WAV audio, which is streamed with unknown sizes.
+     */
+    private void completeWavHeader(byte[] audio) {
+        if (audio.length < WAV_HEADER_LENGTH || !"RIFF".equals(new String(audio, 0, 4, StandardCharsets.US_ASCII))
+                || !"data".equals(new String(audio, 36, 4, StandardCharsets.US_ASCII))) {
+            return;
+        }
+        writeLittleEndian(audio, 4, audio.length - 8);
+        writeLittleEndian(audio, 40, audio.length - WAV_HEADER_LENGTH);
+    }
+
+    private void writeLittleEndian(byte[] data, int offset, int value) {
+        for (int i = 0; i < 4; i++) {
+            data[offset + i] = (byte) ((value >> (8 * i)) & 0xff);
+        }
+    }
+
+    /**
+     * Prefers WAV, which most audio sinks accept, then MP3.
+     */
+    private AudioFormat getPreferredFormat(Collection<AudioFormat> formats) {
+        if (formats == null || formats.isEmpty()) {
+            return null;
+        }
+        for (String codec : Arrays.asList(AudioFormat.CODEC_PCM_SIGNED, AudioFormat.CODEC_MP3)) {
+            for (AudioFormat format : formats) {
+                if (codec.equals(format.getCodec())) {
+                    return format;
+                }
+            }
+        }
+        return formats.iterator().next();
+    }
+
+    private List<String> getPhrases(Object value) {
+        List<String> phrases = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object phrase : (Collection<?>) value) {
+                phrases.add(phrase.toString());
+            }
+        } else if (value != null) {
+            // a single entry from a cfg file
+            for (String phrase : value.toString().split(PHRASE_SEPARATOR)) {
+                if (!phrase.trim().isEmpty()) {
+                    phrases.add(phrase.trim());
+                }
+            }
+        }
+        return phrases;
+    }
+
+    private long getDiskLimit(Map<String, Object> config) {
+        return getSize(config, CONFIG_DISK_CACHE_SIZE, DEFAULT_DISK_CACHE_SIZE) * 1024 * 1024;
+    }
+
+    private long getMemoryLimit(Map<String, Object> config) {
+        return getSize(config, CONFIG_MEMORY_CACHE_SIZE, DEFAULT_MEMORY_CACHE_SIZE) * 1024;
+    }
+
+    private long getSize(Map<String, Object> config, String parameter, long defaultSize) {
+        Object value = config != null ? config.get(parameter) : null;
+        if (value != null) {
+            try {
+                return Math.max(0, new BigDecimal(value.toString()).longValue());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value '{}' of {}, using {}", value, parameter, defaultSize);
+            }
+        }
+        return defaultSize;
+    }
+
+    /**
+     * Creates a key of the service, the voice, the format, the options and a hash of the text.
+     */
+    private String getKey(TTSService service, String text, Voice voice, AudioFormat format, Object... options) {
+        StringBuilder parameters = new StringBuilder();
+        parameters.append(voice.getUID()).append('|').append(format.getContainer()).append('|')
+                .append(format.getCodec()).append('|').append(format.isBigEndian()).append('|')
+                .append(format.getBitDepth()).append('|').append(format.getBitRate()).append('|')
+                .append(format.getFrequency());
+        for (Object option : options) {
+            parameters.append('|').append(option);
+        }
+        parameters.append('|').append(text);
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(parameters.toString().getBytes(StandardCharsets.UTF_8));
+            return service.getId() + "_" + String.format("%064x", new BigInteger(1, hash));
+        } catch (NoSuchAlgorithmException e) {
+            // should not happen, every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String getExtension(AudioFormat format) {
+        String codec = format.getCodec();
+        if (AudioFormat.CODEC_MP3.equals(codec)) {
+            return "mp3";
+        } else if (AudioFormat.CODEC_VORBIS.equals(codec)) {
+            return "ogg";
+        } else if (AudioFormat.CODEC_AAC.equals(codec)) {
+            return "aac";
+        } else if (AudioFormat.CONTAINER_WAVE.equals(format.getContainer())) {
+            return "wav";
+        }
+        return "snd";
+    }
+}
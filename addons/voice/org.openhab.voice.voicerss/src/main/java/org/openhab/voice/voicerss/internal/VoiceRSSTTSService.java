@@ -9,6 +9,7 @@
 package org.openhab.voice.voicerss.internal;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashSet;
@@ -18,16 +19,17 @@ import java.util.Set;
 
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.core.ConfigurableService;
-import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.voice.ttscache.TTSCache;
 import org.openhab.voice.voicerss.internal.cloudapi.CachedVoiceRSSCloudImpl;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,20 +45,25 @@ import org.slf4j.LoggerFactory;
         ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=voice" })
 public class VoiceRSSTTSService implements TTSService {
 
-    /** Cache folder name is below userdata/voicerss/cache. */
-    private static final String CACHE_FOLDER_NAME = "voicerss" + File.separator + "cache";
-
     // API Key comes from ConfigAdmin
     private static final String CONFIG_API_KEY = "apiKey";
     private String apiKey;
 
+    /** Cache folder name is below userdata/voicerss/cache. */
+    private static final String CACHE_FOLDER_NAME = "voicerss" + File.separator + "cache";
+
     private final Logger logger = LoggerFactory.getLogger(VoiceRSSTTSService.class);
 
     /**
-     * We need the cached implementation to allow for FixedLengthAudioStream.
+     * The cached implementation provides the audio created with the CreateTTSCache tool or by earlier versions.
      */
     private CachedVoiceRSSCloudImpl voiceRssImpl;
 
+    /**
+     * The shared cache, which also allows for FixedLengthAudioStream.
+     */
+    private TTSCache ttsCache;
+
     /**
      * Set of supported voices
      */
@@ -90,6 +97,15 @@ public class VoiceRSSTTSService implements TTSService {
         }
     }
 
+    @Reference
+    protected void setTTSCache(TTSCache ttsCache) {
+        this.ttsCache = ttsCache;
+    }
+
+    protected void unsetTTSCache(TTSCache ttsCache) {
+        this.ttsCache = null;
+    }
+
     @Override
     public Set<Voice> getAvailableVoices() {
         return Collections.unmodifiableSet(voices);
@@ -119,31 +135,34 @@ public class VoiceRSSTTSService implements TTSService {
         if (!voices.contains(voice)) {
             throw new TTSException("The passed voice is unsupported");
         }
-        boolean isAudioFormatSupported = false;
+        AudioFormat audioFormat = null;
         for (AudioFormat currentAudioFormat : audioFormats) {
             if (currentAudioFormat.isCompatible(requestedFormat)) {
-                isAudioFormatSupported = true;
+                audioFormat = currentAudioFormat;
                 break;
             }
         }
-        if (!isAudioFormatSupported) {
+        if (audioFormat == null) {
             throw new TTSException("The passed AudioFormat is unsupported");
         }
 
         // now create the input stream for given text, locale, format. There is
         // only a default voice
-        try {
-            File cacheAudioFile = voiceRssImpl.getTextToSpeechAsFile(apiKey, trimmedText,
-                    voice.getLocale().toLanguageTag(), getApiAudioFormat(requestedFormat));
-            if (cacheAudioFile == null) {
-                throw new TTSException("Could not read from VoiceRSS service");
+        String key = apiKey;
+        String apiAudioFormat = getApiAudioFormat(audioFormat);
+        String locale = voice.getLocale().toLanguageTag();
+        return ttsCache.get(this, trimmedText, voice, audioFormat, () -> {
+            try {
+                // audio created in advance is taken over into the shared cache
+                File cachedAudioFile = voiceRssImpl.getCachedTextToSpeechFile(trimmedText, locale, apiAudioFormat);
+                if (cachedAudioFile != null) {
+                    return new FileInputStream(cachedAudioFile);
+                }
+                return voiceRssImpl.getTextToSpeech(key, trimmedText, locale, apiAudioFormat);
+            } catch (IOException ex) {
+                throw new TTSException("Could not read from VoiceRSS service: " + ex.getMessage(), ex);
             }
-            return new VoiceRSSAudioStream(cacheAudioFile, requestedFormat);
-        } catch (AudioException ex) {
-            throw new TTSException("Could not create AudioStream: " + ex.getMessage(), ex);
-        } catch (IOException ex) {
-            throw new TTSException("Could not read from VoiceRSS service: " + ex.getMessage(), ex);
-        }
+        });
     }
 
     /**
@@ -51,6 +51,18 @@ public class CachedVoiceRSSCloudImpl extends VoiceRSSCloudImpl {
         }
     }
 
+    /**
+     * Returns the audio file of a text if it is in the cache already, e.g. because it has been created with the
+     * CreateTTSCache tool. The text is not requested from the service.
+     *
+     * @return the audio file, or null if the text is not in the cache
+     */
+    public File getCachedTextToSpeechFile(String text, String locale, String audioFormat) {
+        File audioFileInCache = new File(cacheFolder,
+                getUniqueFilenameForText(text, locale) + "." + audioFormat.toLowerCase());
+        return audioFileInCache.exists() ? audioFileInCache : null;
+    }
+
     public File getTextToSpeechAsFile(String apiKey, String text, String locale, String audioFormat)
             throws IOException {
         String fileNameInCache = getUniqueFilenameForText(text, locale);